@@ -0,0 +1,102 @@
+package mapd.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mapd.exceptions.ElementNameNotExists;
+import mapd.exceptions.InvalidTokenNumber;
+import mapd.exceptions.InvalidWeightNumber;
+import mapd.exceptions.NoFireableTransition;
+import mapd.exceptions.RepeatedArc;
+import mapd.exceptions.RepeatedNameElement;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+import mapd.implementations.Transition;
+
+/**
+ * Compares the object model and the compiled arrays on a single aggregation transition taking a
+ * token from each of {@code fanIn} places and giving one to an output place.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FanInBenchmark {
+
+    // Enough tokens for every input place to stay active during a whole iteration.
+    private static final int TOKENS = 1000000000;
+
+    @Param({"16", "256", "1024"})
+    public int fanIn;
+
+    private PetriNetwork net;
+    private Transition transition;
+    private CompiledPetriNet compiled;
+    private int compiledTransition;
+    private int[] marking;
+
+    @Setup(Level.Trial)
+    public void setUp() throws RepeatedNameElement, ElementNameNotExists, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc {
+        net = new PetriNetwork();
+        net.addTransition("aggregate");
+        net.addPlace("out");
+        net.addArc("a_out", "aggregate", "out", "in");
+        for (int i = 0; i < fanIn; i++) {
+            net.addPlace("in" + i);
+            net.addArc("a" + i, "aggregate", "in" + i, "out");
+        }
+        transition = net.getTransition("aggregate");
+        compiled = net.compile();
+        compiledTransition = compiled.getTransitionIndex("aggregate");
+    }
+
+    @Setup(Level.Iteration)
+    public void refill() throws InvalidTokenNumber, ElementNameNotExists {
+        for (int i = 0; i < fanIn; i++) {
+            net.setPlaceTokens("in" + i, TOKENS);
+        }
+        net.setPlaceTokens("out", 0);
+        marking = compiled.getMarking();
+        for (int i = 0; i < fanIn; i++) {
+            marking[compiled.getPlaceIndex("in" + i)] = TOKENS;
+        }
+        marking[compiled.getPlaceIndex("out")] = 0;
+    }
+
+    @Benchmark
+    public boolean transitionFire() throws NoFireableTransition {
+        transition.fire();
+        return transition.isFireable();
+    }
+
+    @Benchmark
+    public boolean transitionUpdateIsFireable() {
+        transition.updateIsFireable();
+        return transition.isFireable();
+    }
+
+    @Benchmark
+    public int[] compiledApplyFiring() {
+        compiled.applyFiring(compiledTransition, marking);
+        return marking;
+    }
+
+    @Benchmark
+    public boolean compiledIsEnabled() {
+        return compiled.isEnabled(compiledTransition, marking);
+    }
+}
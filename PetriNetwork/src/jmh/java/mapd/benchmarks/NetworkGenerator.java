@@ -0,0 +1,112 @@
+package mapd.benchmarks;
+
+import java.util.Random;
+
+import mapd.exceptions.ElementNameNotExists;
+import mapd.exceptions.InvalidTokenNumber;
+import mapd.exceptions.InvalidWeightNumber;
+import mapd.exceptions.RepeatedArc;
+import mapd.exceptions.RepeatedNameElement;
+import mapd.implementations.PetriNetwork;
+
+public class NetworkGenerator {
+
+    /**
+     * Fills a network with one of the benchmark topologies.
+     * <p>
+     * The network is reset first. {@code size} is the approximate number of places plus
+     * transitions of the generated net.
+     * <ul>
+     *   <li>RING_MUTEX: a token ring where each node enters and leaves its critical section before passing the token on.</li>
+     *   <li>DINING_PHILOSOPHERS: philosophers sharing one fork with each neighbour.</li>
+     *   <li>RANDOM: places and transitions linked by one to three random OutArcs and InArcs per transition.</li>
+     * </ul>
+     *
+     * @param net      The network to fill.
+     * @param topology The name of the topology.
+     * @param size     The approximate number of elements.
+     * @throws IllegalArgumentException If the topology is unknown.
+     */
+    public static void generate(PetriNetwork net, String topology, int size)
+            throws RepeatedNameElement, ElementNameNotExists, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc {
+        net.reset();
+        switch (topology) {
+            case "RING_MUTEX":
+                ringMutex(net, Math.max(1, size / 4));
+                break;
+            case "DINING_PHILOSOPHERS":
+                diningPhilosophers(net, Math.max(2, size / 5));
+                break;
+            case "RANDOM":
+                random(net, Math.max(1, size / 2), new Random(42));
+                break;
+            default:
+                throw new IllegalArgumentException("No valid " + topology + " topology");
+        }
+    }
+
+    private static void ringMutex(PetriNetwork net, int nodes)
+            throws RepeatedNameElement, ElementNameNotExists, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc {
+        for (int i = 0; i < nodes; i++) {
+            net.addPlace("token" + i, i == 0 ? 1 : 0);
+            net.addPlace("critical" + i);
+            net.addTransition("enter" + i);
+            net.addTransition("leave" + i);
+        }
+        for (int i = 0; i < nodes; i++) {
+            net.addArc("enter_out" + i, "enter" + i, "token" + i, "out");
+            net.addArc("enter_in" + i, "enter" + i, "critical" + i, "in");
+            net.addArc("leave_out" + i, "leave" + i, "critical" + i, "out");
+            net.addArc("leave_in" + i, "leave" + i, "token" + ((i + 1) % nodes), "in");
+        }
+    }
+
+    private static void diningPhilosophers(PetriNetwork net, int philosophers)
+            throws RepeatedNameElement, ElementNameNotExists, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc {
+        for (int i = 0; i < philosophers; i++) {
+            net.addPlace("think" + i, 1);
+            net.addPlace("eat" + i);
+            net.addPlace("fork" + i, 1);
+            net.addTransition("take" + i);
+            net.addTransition("release" + i);
+        }
+        for (int i = 0; i < philosophers; i++) {
+            String right = "fork" + ((i + 1) % philosophers);
+            net.addArc("take_think" + i, "take" + i, "think" + i, "out");
+            net.addArc("take_left" + i, "take" + i, "fork" + i, "out");
+            net.addArc("take_right" + i, "take" + i, right, "out");
+            net.addArc("take_eat" + i, "take" + i, "eat" + i, "in");
+            net.addArc("release_eat" + i, "release" + i, "eat" + i, "out");
+            net.addArc("release_think" + i, "release" + i, "think" + i, "in");
+            net.addArc("release_left" + i, "release" + i, "fork" + i, "in");
+            net.addArc("release_right" + i, "release" + i, right, "in");
+        }
+    }
+
+    private static void random(PetriNetwork net, int count, Random random)
+            throws RepeatedNameElement, ElementNameNotExists, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc {
+        for (int i = 0; i < count; i++) {
+            net.addPlace("p" + i, random.nextInt(3));
+            net.addTransition("t" + i);
+        }
+        int arc = 0;
+        for (int i = 0; i < count; i++) {
+            int outArcs = 1 + random.nextInt(3);
+            int inArcs = 1 + random.nextInt(3);
+            for (int j = 0; j < outArcs; j++) {
+                try {
+                    net.addArc("a" + arc++, "t" + i, "p" + random.nextInt(count), "out", 1 + random.nextInt(2));
+                } catch (RepeatedArc e) {
+                    // The same place was drawn twice for this transition, the arc is skipped.
+                }
+            }
+            for (int j = 0; j < inArcs; j++) {
+                try {
+                    net.addArc("a" + arc++, "t" + i, "p" + random.nextInt(count), "in");
+                } catch (RepeatedArc e) {
+                    // The same place was drawn twice for this transition, the arc is skipped.
+                }
+            }
+        }
+    }
+}
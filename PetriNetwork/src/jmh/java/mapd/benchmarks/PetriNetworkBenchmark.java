@@ -0,0 +1,174 @@
+package mapd.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mapd.exceptions.ElementNameNotExists;
+import mapd.exceptions.InvalidTokenNumber;
+import mapd.exceptions.InvalidWeightNumber;
+import mapd.exceptions.NoFireableTransition;
+import mapd.exceptions.RepeatedArc;
+import mapd.exceptions.RepeatedNameElement;
+import mapd.implementations.PetriNetwork;
+import mapd.implementations.Transition;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PetriNetworkBenchmark {
+
+    private static final String BENCH_PLACE = "bench_place";
+    private static final String BENCH_ARC = "bench_arc";
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"RING_MUTEX", "DINING_PHILOSOPHERS", "RANDOM"})
+    public String topology;
+
+    private PetriNetwork net;
+    private PrintStream standardOut;
+    private Random random;
+    private String hubTransition;
+    private String[] placeTransitions;
+
+    @Setup(Level.Trial)
+    public void setUp() throws RepeatedNameElement, ElementNameNotExists, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc {
+        // showAllElements prints to the console, which would dominate the measurement.
+        standardOut = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+        net = PetriNetwork.getInstance();
+        NetworkGenerator.generate(net, topology, size);
+        net.addPlace(BENCH_PLACE);
+        random = new Random(7);
+        List<String> labels = net.fireableTransitions();
+        hubTransition = labels.isEmpty() ? net.getTransitions().keySet().iterator().next() : labels.get(0);
+        placeTransitions = net.getTransitions().keySet().stream().limit(8).toArray(String[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(standardOut);
+        net.reset();
+    }
+
+    @Benchmark
+    public String fire() throws ElementNameNotExists, NoFireableTransition {
+        Transition transition = net.pickRandomFireableTransition(random);
+        if (transition == null) {
+            return null;
+        }
+        net.fire(transition.getLabel());
+        return transition.getLabel();
+    }
+
+    @Benchmark
+    public List<String> fireableTransitions() {
+        return net.fireableTransitions();
+    }
+
+    @Benchmark
+    public PetriNetwork addArc(ArcToAdd state) throws InvalidWeightNumber, RepeatedNameElement, RepeatedArc, ElementNameNotExists {
+        net.addArc(BENCH_ARC, hubTransition, BENCH_PLACE, "out");
+        return net;
+    }
+
+    @Benchmark
+    public PetriNetwork rmArc(ArcToRemove state) throws ElementNameNotExists {
+        net.rmArc(BENCH_ARC);
+        return net;
+    }
+
+    @Benchmark
+    public PetriNetwork rmPlace(PlaceToRemove state) throws ElementNameNotExists {
+        net.rmPlace(BENCH_PLACE);
+        return net;
+    }
+
+    @Benchmark
+    public PetriNetwork showAllElements() {
+        net.showAllElements();
+        return net;
+    }
+
+    /**
+     * Removes the arc added by {@link PetriNetworkBenchmark#addArc} after each invocation, so
+     * the other benchmarks do not pay for an invocation-level tear down.
+     */
+    @State(Scope.Benchmark)
+    public static class ArcToAdd {
+
+        @TearDown(Level.Invocation)
+        public void removeArc(PetriNetworkBenchmark benchmark) throws ElementNameNotExists {
+            if (benchmark.net.getArcs().containsKey(BENCH_ARC)) {
+                benchmark.net.rmArc(BENCH_ARC);
+            }
+        }
+    }
+
+    /**
+     * Adds the arc removed by {@link PetriNetworkBenchmark#rmArc} before each invocation.
+     */
+    @State(Scope.Benchmark)
+    public static class ArcToRemove {
+
+        @Setup(Level.Invocation)
+        public void addArc(PetriNetworkBenchmark benchmark) throws InvalidWeightNumber, RepeatedNameElement, RepeatedArc, ElementNameNotExists {
+            benchmark.net.addArc(BENCH_ARC, benchmark.hubTransition, BENCH_PLACE, "out");
+        }
+    }
+
+    /**
+     * Adds the place removed by {@link PetriNetworkBenchmark#rmPlace}, linked to a few
+     * transitions, before each invocation.
+     */
+    @State(Scope.Benchmark)
+    public static class PlaceToRemove {
+
+        @Setup(Level.Invocation)
+        public void addPlace(PetriNetworkBenchmark benchmark) throws RepeatedNameElement, ElementNameNotExists, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc {
+            PetriNetwork net = benchmark.net;
+            if (!net.getPlaces().containsKey(BENCH_PLACE)) {
+                net.addPlace(BENCH_PLACE);
+            }
+            for (int i = 0; i < benchmark.placeTransitions.length; i++) {
+                net.addArc(BENCH_ARC + i, benchmark.placeTransitions[i], BENCH_PLACE, i % 2 == 0 ? "out" : "in");
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void restorePlace(PetriNetworkBenchmark benchmark) throws RepeatedNameElement, ElementNameNotExists, InvalidTokenNumber {
+            if (!benchmark.net.getPlaces().containsKey(BENCH_PLACE)) {
+                benchmark.net.addPlace(BENCH_PLACE);
+            }
+        }
+    }
+}
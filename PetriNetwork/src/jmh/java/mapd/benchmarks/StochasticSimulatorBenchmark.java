@@ -0,0 +1,73 @@
+package mapd.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mapd.exceptions.ElementNameNotExists;
+import mapd.exceptions.InvalidRateNumber;
+import mapd.exceptions.InvalidTokenNumber;
+import mapd.exceptions.InvalidWeightNumber;
+import mapd.exceptions.RepeatedArc;
+import mapd.exceptions.RepeatedNameElement;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+import mapd.simulation.StochasticSimulator;
+
+/**
+ * Measures the events per second of the next reaction simulator on {@code queues} independent
+ * single-server queues with a load of 0.5.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StochasticSimulatorBenchmark {
+
+    private static final int EVENTS = 100000;
+
+    @Param({"1", "100", "10000"})
+    public int queues;
+
+    private CompiledPetriNet compiled;
+    private StochasticSimulator simulator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws RepeatedNameElement, ElementNameNotExists, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, InvalidRateNumber {
+        PetriNetwork net = new PetriNetwork();
+        for (int i = 0; i < queues; i++) {
+            net.addPlace("queue" + i);
+            net.addTransition("arrive" + i);
+            net.addTransition("serve" + i);
+            net.addArc("a" + i, "arrive" + i, "queue" + i, "in");
+            net.addArc("s" + i, "serve" + i, "queue" + i, "out");
+            net.setTransitionRate("serve" + i, 2.0);
+        }
+        compiled = net.compile();
+    }
+
+    @Setup(Level.Iteration)
+    public void restart() {
+        simulator = new StochasticSimulator(compiled, 42);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long nextReaction() {
+        return simulator.run(EVENTS, Double.POSITIVE_INFINITY);
+    }
+}
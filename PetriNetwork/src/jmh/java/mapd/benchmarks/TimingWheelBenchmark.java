@@ -0,0 +1,61 @@
+package mapd.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mapd.simulation.TimingWheel;
+
+/**
+ * Measures the hold operation of the timing wheel, extracting the next event and scheduling it
+ * again after a random delay, with {@code pending} events in the wheel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TimingWheelBenchmark {
+
+    private static final int EVENTS = 100000;
+    private static final int MAX_DELAY = 1 << 20;
+
+    @Param({"1000", "1000000"})
+    public int pending;
+
+    private TimingWheel wheel;
+    private SplittableRandom random;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        wheel = new TimingWheel(pending);
+        random = new SplittableRandom(42);
+        for (int i = 0; i < pending; i++) {
+            wheel.schedule(i, random.nextInt(MAX_DELAY));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long hold() {
+        for (int i = 0; i < EVENTS; i++) {
+            int event = wheel.poll();
+            wheel.schedule(event, wheel.getCurrentTime() + random.nextInt(MAX_DELAY));
+        }
+        return wheel.getCurrentTime();
+    }
+}
@@ -0,0 +1,102 @@
+package mapd.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mapd.exceptions.ElementNameNotExists;
+import mapd.exceptions.InvalidTokenNumber;
+import mapd.exceptions.InvalidWeightNumber;
+import mapd.exceptions.RepeatedArc;
+import mapd.exceptions.RepeatedNameElement;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+import mapd.interfaces.ISchedulingPolicy;
+import mapd.simulation.LeastRecentlyFiredPolicy;
+import mapd.simulation.PriorityPolicy;
+import mapd.simulation.RoundRobinPolicy;
+import mapd.simulation.TokenGame;
+import mapd.simulation.UniformPolicy;
+import mapd.simulation.WeightedPolicy;
+
+/**
+ * Measures the steps per second of the token game with each scheduling policy, on a ring of
+ * {@code size} places where a token moves from each place to the next.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TokenGameBenchmark {
+
+    private static final int STEPS = 100000;
+
+    @Param({"100", "10000"})
+    public int size;
+
+    @Param({"uniform", "priority", "weighted", "roundrobin", "lru"})
+    public String policyName;
+
+    private CompiledPetriNet compiled;
+    private TokenGame game;
+    private ISchedulingPolicy policy;
+
+    @Setup(Level.Trial)
+    public void setUp() throws RepeatedNameElement, ElementNameNotExists, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc {
+        PetriNetwork net = new PetriNetwork();
+        for (int i = 0; i < size; i++) {
+            net.addPlace("p" + i, i % 2);
+            net.addTransition("t" + i);
+        }
+        for (int i = 0; i < size; i++) {
+            net.addArc("o" + i, "t" + i, "p" + i, "out");
+            net.addArc("i" + i, "t" + i, "p" + ((i + 1) % size), "in");
+        }
+        compiled = net.compile();
+    }
+
+    @Setup(Level.Iteration)
+    public void restart() {
+        game = new TokenGame(compiled);
+        switch (policyName) {
+            case "uniform":
+                policy = new UniformPolicy(42);
+                break;
+            case "priority":
+                int[] priorities = new int[size];
+                for (int t = 0; t < size; t++) {
+                    priorities[t] = t % 10;
+                }
+                policy = new PriorityPolicy(priorities);
+                break;
+            case "weighted":
+                policy = new WeightedPolicy(42);
+                break;
+            case "roundrobin":
+                policy = new RoundRobinPolicy();
+                break;
+            default:
+                policy = new LeastRecentlyFiredPolicy();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public long step() {
+        return game.run(STEPS, policy);
+    }
+}
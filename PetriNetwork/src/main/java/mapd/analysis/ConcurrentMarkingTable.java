@@ -0,0 +1,104 @@
+package mapd.analysis;
+
+public class ConcurrentMarkingTable {
+
+    private MarkingTable[] segments;
+    private int segmentMask;
+
+    /**
+     * Constructs an empty concurrent table for markings of the given number of places.
+     * <p>
+     * The table is striped: a marking is routed by its hash to one of {@code segments} independent
+     * {@link MarkingTable}s, each guarded by its own lock. With many more segments than threads,
+     * two threads rarely contend for the same lock, and every segment keeps the packed storage of
+     * the sequential table.
+     *
+     * @param places   The number of places of every marking stored in the table.
+     * @param segments The number of segments, rounded up to a power of two.
+     */
+    public ConcurrentMarkingTable(int places, int segments) {
+        int count = Integer.highestOneBit(Math.max(1, segments) - 1) << 1;
+        if (segments <= 1) {
+            count = 1;
+        }
+        this.segments = new MarkingTable[count];
+        for (int i = 0; i < count; i++) {
+            this.segments[i] = new MarkingTable(places, 64);
+        }
+        this.segmentMask = count - 1;
+    }
+
+    /**
+     * Adds a marking to the table if it is not already present.
+     * <p>
+     * When several threads add the same marking concurrently, exactly one of them sees it as new.
+     *
+     * @param marking The marking to add. It is copied, not retained.
+     * @return True if the marking was added, false if it was already present.
+     */
+    public boolean add(int[] marking) {
+        MarkingTable segment = this.segments[segmentOf(marking)];
+        synchronized (segment) {
+            return segment.add(marking) >= 0;
+        }
+    }
+
+    /**
+     * Checks if a marking is present in the table.
+     *
+     * @param marking The marking to look up.
+     * @return True if the marking is present, false otherwise.
+     */
+    public boolean contains(int[] marking) {
+        MarkingTable segment = this.segments[segmentOf(marking)];
+        synchronized (segment) {
+            return segment.find(marking) >= 0;
+        }
+    }
+
+    /**
+     * Returns the number of markings stored in the table.
+     *
+     * @return The number of stored markings.
+     */
+    public long size() {
+        long size = 0;
+        for (MarkingTable segment : this.segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns an estimate of the memory used by the table.
+     *
+     * @return The size of the internal arrays, in bytes.
+     */
+    public long getMemoryBytes() {
+        long bytes = 0;
+        for (MarkingTable segment : this.segments) {
+            synchronized (segment) {
+                bytes += segment.getMemoryBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Chooses the segment of a marking. The hash differs from the one used inside the segments,
+     * so the markings of a segment remain well spread in its own index.
+     *
+     * @param marking The marking to route.
+     * @return The index of the segment.
+     */
+    private int segmentOf(int[] marking) {
+        int h = 0x1B873593;
+        for (int tokens : marking) {
+            h = (h ^ tokens) * 0x5BD1E995;
+            h ^= h >>> 15;
+        }
+        return (h ^ (h >>> 16)) & this.segmentMask;
+    }
+}
@@ -0,0 +1,245 @@
+package mapd.analysis;
+
+import static mapd.analysis.CoverabilityGraph.OMEGA;
+
+import java.util.Arrays;
+
+import mapd.analysis.CoverabilityGraph.Precision;
+import mapd.analysis.ReachabilityGraph.Status;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+
+public class CoverabilityAnalyzer {
+
+    private CompiledPetriNet net;
+    private int maxNodes;
+
+    /**
+     * Constructs an analyzer for the current structure and marking of a network.
+     *
+     * @param network The network to analyse. It is compiled once and not modified.
+     */
+    public CoverabilityAnalyzer(PetriNetwork network) {
+        this(network.compile());
+    }
+
+    /**
+     * Constructs an analyzer starting from the current marking of a compiled net.
+     * <p>
+     * By default the number of nodes is only limited by memory.
+     *
+     * @param net The compiled net to analyse. Its marking is not modified.
+     */
+    public CoverabilityAnalyzer(CompiledPetriNet net) {
+        this.net = net;
+        this.maxNodes = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Limits the number of nodes of the Karp-Miller tree.
+     *
+     * @param maxNodes The maximum number of nodes, at least 1.
+     */
+    public void setMaxNodes(int maxNodes) {
+        if (maxNodes < 1) {
+            throw new IllegalArgumentException("The node limit must be at least 1");
+        }
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Builds the Karp-Miller tree of the net, in which the places that can grow without bound
+     * hold {@link CoverabilityGraph#OMEGA}.
+     * <p>
+     * Nodes are expanded breadth-first. When a successor covers one of its ancestors with more
+     * tokens somewhere, those places are accelerated to omega, since repeating the same firings
+     * would keep increasing them. A successor covered by a node already in the tree is pruned, so
+     * the nodes form a coverability set: every reachable marking is covered by a node, and the
+     * number of nodes stays small even when the reachable state space is large. Omegas are never
+     * decreased by a firing, and a finite count that would overflow becomes omega.
+     * <p>
+     * The firing rule is the one of {@link CompiledPetriNet#applyFiring(int, int[])}. Before the
+     * construction, the arcs are checked to tell how far the result can be trusted, see
+     * {@link Precision}.
+     *
+     * @return The coverability graph.
+     */
+    public CoverabilityGraph analyze() {
+        int places = net.getPlaceCount();
+        int transitionCount = net.getTransitionCount();
+        boolean[] sensitive = new boolean[places];
+        Precision precision = classify(sensitive);
+
+        int[] markings = new int[Math.max(1, places) * 16];
+        int[] parents = new int[16];
+        int[] transitions = new int[16];
+        int[] current = new int[places];
+        int[] next = new int[places];
+        Status status = Status.COMPLETE;
+
+        System.arraycopy(net.getMarking(), 0, markings, 0, places);
+        parents[0] = -1;
+        transitions[0] = -1;
+        int nodeCount = 1;
+
+        exploration:
+        for (int node = 0; node < nodeCount; node++) {
+            System.arraycopy(markings, node * places, current, 0, places);
+            for (int t = 0; t < transitionCount; t++) {
+                // An omega satisfies any OutArc or OutBouncerArc and never an OutZeroArc.
+                if (!net.isEnabled(t, current)) {
+                    continue;
+                }
+                System.arraycopy(current, 0, next, 0, places);
+                applyFiring(t, next);
+                accelerate(markings, parents, node, next);
+                if (isCovered(markings, nodeCount, next)) {
+                    continue;
+                }
+                if (nodeCount >= maxNodes) {
+                    status = Status.STATE_LIMIT;
+                    break exploration;
+                }
+                if ((nodeCount + 1) * places > markings.length) {
+                    markings = Arrays.copyOf(markings, markings.length * 2);
+                }
+                if (nodeCount == parents.length) {
+                    parents = Arrays.copyOf(parents, nodeCount * 2);
+                    transitions = Arrays.copyOf(transitions, nodeCount * 2);
+                }
+                System.arraycopy(next, 0, markings, nodeCount * places, places);
+                parents[nodeCount] = node;
+                transitions[nodeCount] = t;
+                nodeCount++;
+            }
+        }
+
+        int count = 0;
+        for (boolean place : sensitive) {
+            if (place) {
+                count++;
+            }
+        }
+        int[] sensitivePlaces = new int[count];
+        for (int p = 0, i = 0; p < places; p++) {
+            if (sensitive[p]) {
+                sensitivePlaces[i++] = p;
+            }
+        }
+        return new CoverabilityGraph(net, Arrays.copyOf(markings, nodeCount * places),
+                Arrays.copyOf(parents, nodeCount), Arrays.copyOf(transitions, nodeCount),
+                nodeCount, precision, sensitivePlaces, status);
+    }
+
+    /**
+     * Checks which arcs break the monotonicity the Karp-Miller construction relies on.
+     * <p>
+     * An {@link mapd.implementations.OutZeroArc} is disabled by more tokens, and a weighted
+     * {@link mapd.implementations.OutArc} of a transition with several OutArcs may be skipped by a
+     * firing with fewer tokens and applied with more, leaving fewer tokens than the smaller
+     * marking: both make the net non-monotone. An {@link mapd.implementations.OutBouncerArc}
+     * keeps the net monotone but breaks the acceleration, since a reset can undo the increase.
+     *
+     * @param sensitive Receives the places of the arcs found.
+     * @return The precision of the analysis for the net.
+     */
+    private Precision classify(boolean[] sensitive) {
+        int[] preStart = net.getPreStart();
+        int[] prePlaces = net.getPrePlaces();
+        int[] preWeights = net.getPreWeights();
+        int[] preKinds = net.getPreKinds();
+        Precision precision = Precision.EXACT;
+        for (int t = 0; t < net.getTransitionCount(); t++) {
+            boolean several = preStart[t + 1] - preStart[t] > 1;
+            for (int i = preStart[t]; i < preStart[t + 1]; i++) {
+                if (preKinds[i] == CompiledPetriNet.ARC_OUT_ZERO
+                        || (preKinds[i] == CompiledPetriNet.ARC_OUT && several && preWeights[i] > 1)) {
+                    sensitive[prePlaces[i]] = true;
+                    precision = Precision.UNDECIDABLE;
+                } else if (preKinds[i] == CompiledPetriNet.ARC_OUT_BOUNCER) {
+                    sensitive[prePlaces[i]] = true;
+                    if (precision == Precision.EXACT) {
+                        precision = Precision.OVER_APPROXIMATION;
+                    }
+                }
+            }
+        }
+        return precision;
+    }
+
+    /**
+     * Applies the effect of firing a transition to a marking that may contain omegas.
+     *
+     * @param transition The index of the transition.
+     * @param marking    The marking to update in place.
+     */
+    private void applyFiring(int transition, int[] marking) {
+        int[] preStart = net.getPreStart();
+        int[] prePlaces = net.getPrePlaces();
+        int[] preWeights = net.getPreWeights();
+        int[] preKinds = net.getPreKinds();
+        for (int i = preStart[transition]; i < preStart[transition + 1]; i++) {
+            int place = prePlaces[i];
+            if (preKinds[i] == CompiledPetriNet.ARC_OUT_BOUNCER) {
+                marking[place] = 0;
+            } else if (preKinds[i] == CompiledPetriNet.ARC_OUT && marking[place] != OMEGA
+                    && marking[place] >= preWeights[i]) {
+                marking[place] -= preWeights[i];
+            }
+        }
+        int[] postStart = net.getPostStart();
+        int[] postPlaces = net.getPostPlaces();
+        int[] postWeights = net.getPostWeights();
+        for (int i = postStart[transition]; i < postStart[transition + 1]; i++) {
+            int place = postPlaces[i];
+            if (marking[place] != OMEGA) {
+                marking[place] = marking[place] >= OMEGA - postWeights[i] ? OMEGA : marking[place] + postWeights[i];
+            }
+        }
+    }
+
+    /**
+     * Sets to omega the places where a marking has more tokens than an ancestor it covers.
+     *
+     * @param markings The markings of the nodes.
+     * @param parents  The parent of each node.
+     * @param parent   The node the marking is a successor of.
+     * @param marking  The successor, updated in place.
+     */
+    private static void accelerate(int[] markings, int[] parents, int parent, int[] marking) {
+        int places = marking.length;
+        for (int ancestor = parent; ancestor >= 0; ancestor = parents[ancestor]) {
+            int offset = ancestor * places;
+            boolean larger = false;
+            boolean covers = true;
+            for (int p = 0; p < places && covers; p++) {
+                covers = marking[p] >= markings[offset + p];
+                larger |= marking[p] > markings[offset + p];
+            }
+            if (covers && larger) {
+                for (int p = 0; p < places; p++) {
+                    if (marking[p] > markings[offset + p]) {
+                        marking[p] = OMEGA;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if a node of the tree already covers a marking.
+     *
+     * @param markings  The markings of the nodes.
+     * @param nodeCount The number of nodes.
+     * @param marking   The marking to check.
+     * @return True if a node has at least as many tokens in every place.
+     */
+    private static boolean isCovered(int[] markings, int nodeCount, int[] marking) {
+        for (int node = 0; node < nodeCount; node++) {
+            if (CoverabilityGraph.covers(markings, node * marking.length, marking)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
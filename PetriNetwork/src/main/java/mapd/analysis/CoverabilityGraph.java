@@ -0,0 +1,259 @@
+package mapd.analysis;
+
+import java.util.Arrays;
+
+import mapd.analysis.ReachabilityGraph.Status;
+import mapd.implementations.CompiledPetriNet;
+
+public class CoverabilityGraph {
+
+    /**
+     * The token count standing for an unbounded number of tokens.
+     */
+    public static final int OMEGA = Integer.MAX_VALUE;
+
+    /**
+     * How far the answers of the analysis can be trusted for the analysed net.
+     */
+    public enum Precision {
+        /**
+         * The net is monotone: the nodes cover exactly the markings coverable in the net.
+         */
+        EXACT,
+        /**
+         * The net has {@link mapd.implementations.OutBouncerArc}s (resets). It stays monotone, so
+         * every reachable marking is covered by a node, but the acceleration may add omegas that
+         * the net cannot reach: "bounded" and "not coverable" are proven, "unbounded" and
+         * "coverable" may be spurious. Boundedness is undecidable for nets with resets.
+         */
+        OVER_APPROXIMATION,
+        /**
+         * The net is not monotone, because of {@link mapd.implementations.OutZeroArc}s (zero tests)
+         * or of weighted arcs that a firing may skip when the transition has several OutArcs.
+         * Boundedness and coverability are undecidable for such nets and the answers are only
+         * indicative.
+         */
+        UNDECIDABLE
+    }
+
+    private CompiledPetriNet net;
+    private int[] markings;
+    private int[] parents;
+    private int[] transitions;
+    private int nodeCount;
+    private Precision precision;
+    private int[] sensitivePlaces;
+    private Status status;
+
+    /**
+     * Constructs the result of a coverability analysis.
+     *
+     * @param net             The analysed net.
+     * @param markings        The markings of the nodes, one row of places per node.
+     * @param parents         The parent of each node in the Karp-Miller tree, -1 for the root.
+     * @param transitions     The transition fired from the parent of each node, -1 for the root.
+     * @param nodeCount       The number of nodes.
+     * @param precision       How far the answers can be trusted.
+     * @param sensitivePlaces The places whose arcs lower the precision.
+     * @param status          {@link Status#COMPLETE}, or {@link Status#STATE_LIMIT} if the
+     *                        construction was cut short.
+     */
+    CoverabilityGraph(CompiledPetriNet net, int[] markings, int[] parents, int[] transitions,
+            int nodeCount, Precision precision, int[] sensitivePlaces, Status status) {
+        this.net = net;
+        this.markings = markings;
+        this.parents = parents;
+        this.transitions = transitions;
+        this.nodeCount = nodeCount;
+        this.precision = precision;
+        this.sensitivePlaces = sensitivePlaces;
+        this.status = status;
+    }
+
+    /**
+     * Returns the analysed net, which gives the labels of places and transitions.
+     *
+     * @return The compiled net.
+     */
+    public CompiledPetriNet getNet() {
+        return net;
+    }
+
+    /**
+     * Returns how far the answers of the analysis can be trusted.
+     *
+     * @return The precision of the analysis for this net.
+     */
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Returns the places tested for zero, reset, or skipped by a weighted arc, which make the
+     * analysis less than {@link Precision#EXACT}.
+     *
+     * @return The indexes of the sensitive places, in increasing order.
+     */
+    public int[] getSensitivePlaces() {
+        return sensitivePlaces.clone();
+    }
+
+    /**
+     * Returns the reason why the construction stopped.
+     *
+     * @return {@link Status#COMPLETE} or {@link Status#STATE_LIMIT}.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks if the construction was completed. Otherwise the nodes only cover part of the
+     * reachable markings, and negative answers are not proven.
+     *
+     * @return True if the construction was not cut short, false otherwise.
+     */
+    public boolean isComplete() {
+        return status == Status.COMPLETE;
+    }
+
+    /**
+     * Returns the number of nodes. Node 0 is the initial marking.
+     *
+     * @return The number of nodes.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the marking of a node.
+     *
+     * @param node The identifier of the node.
+     * @return The tokens of each place, {@link #OMEGA} for the unbounded ones.
+     */
+    public int[] getMarking(int node) {
+        int places = net.getPlaceCount();
+        return Arrays.copyOfRange(markings, node * places, (node + 1) * places);
+    }
+
+    /**
+     * Returns the parent of a node in the Karp-Miller tree.
+     *
+     * @param node The identifier of the node.
+     * @return The identifier of the parent node, or -1 for the root.
+     */
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    /**
+     * Returns the transition fired from the parent of a node to reach it.
+     *
+     * @param node The identifier of the node.
+     * @return The index of the transition, or -1 for the root.
+     */
+    public int getTransition(int node) {
+        return transitions[node];
+    }
+
+    /**
+     * Checks if every place is bounded.
+     *
+     * @return True if no node has an omega, false otherwise.
+     */
+    public boolean isBounded() {
+        for (int i = 0, end = nodeCount * net.getPlaceCount(); i < end; i++) {
+            if (markings[i] == OMEGA) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the largest number of tokens a place can hold.
+     *
+     * @param place The index of the place.
+     * @return The bound of the place, or {@link #OMEGA} if it is unbounded.
+     */
+    public int getBound(int place) {
+        int places = net.getPlaceCount();
+        int bound = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            bound = Math.max(bound, markings[node * places + place]);
+        }
+        return bound;
+    }
+
+    /**
+     * Returns the places that can hold an unbounded number of tokens.
+     *
+     * @return The indexes of the unbounded places, in increasing order.
+     */
+    public int[] getUnboundedPlaces() {
+        int places = net.getPlaceCount();
+        boolean[] unbounded = new boolean[places];
+        int count = 0;
+        for (int i = 0, end = nodeCount * places; i < end; i++) {
+            if (markings[i] == OMEGA && !unbounded[i % places]) {
+                unbounded[i % places] = true;
+                count++;
+            }
+        }
+        int[] result = new int[count];
+        for (int p = 0, i = 0; p < places; p++) {
+            if (unbounded[p]) {
+                result[i++] = p;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks if a marking can be covered, that is if a reachable marking has at least as many
+     * tokens in every place.
+     *
+     * @param marking The tokens of each place.
+     * @return The first node covering the marking, or -1 if there is none.
+     */
+    public int findCovering(int[] marking) {
+        if (marking.length != net.getPlaceCount()) {
+            throw new IllegalArgumentException("The marking must have one entry per place");
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            if (covers(markings, node * marking.length, marking)) {
+                return node;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if a marking can be covered, that is if a reachable marking has at least as many
+     * tokens in every place.
+     *
+     * @param marking The tokens of each place.
+     * @return True if a node covers the marking, false otherwise.
+     */
+    public boolean isCoverable(int[] marking) {
+        return findCovering(marking) >= 0;
+    }
+
+    /**
+     * Checks if a stored marking has at least as many tokens as another one in every place.
+     *
+     * @param markings The stored markings.
+     * @param offset   The position of the first place of the stored marking.
+     * @param marking  The marking to cover.
+     * @return True if the stored marking covers the other one.
+     */
+    static boolean covers(int[] markings, int offset, int[] marking) {
+        for (int p = 0; p < marking.length; p++) {
+            if (markings[offset + p] < marking[p]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
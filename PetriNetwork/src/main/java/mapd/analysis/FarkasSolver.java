@@ -0,0 +1,374 @@
+package mapd.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+class FarkasSolver {
+
+    /**
+     * A semi-positive combination of the unknowns, with the constraints it does not satisfy yet.
+     */
+    private static class Row {
+        int[] columns;
+        long[] values;
+        int[] support;
+        long[] weights;
+        boolean dead;
+    }
+
+    private int columnCount;
+    private int maxRows;
+    private List<List<Row>> columnRows;
+    private int[] positive;
+    private int[] negative;
+    private boolean[] eliminated;
+    private PriorityQueue<long[]> columnQueue;
+    private long sequence;
+    private List<List<Row>> firstRows;
+    private int liveRows;
+
+    /**
+     * Constructs a solver for {@code y >= 0, y A = 0}, where the row {@code i} of the sparse
+     * matrix {@code A} is given by {@code columns[i]} and {@code values[i]}, sorted by column.
+     *
+     * @param unknowns    The number of unknowns, that is of rows of the matrix.
+     * @param included    Whether each unknown may be non-zero in a solution.
+     * @param columns     The columns of the non-zero entries of each row.
+     * @param values      The values of the non-zero entries of each row.
+     * @param columnCount The number of columns.
+     * @param maxRows     The maximum number of intermediate rows.
+     */
+    FarkasSolver(int unknowns, boolean[] included, int[][] columns, long[][] values, int columnCount, int maxRows) {
+        this.columnCount = columnCount;
+        this.maxRows = maxRows;
+        this.columnRows = new ArrayList<List<Row>>(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            this.columnRows.add(new ArrayList<Row>());
+        }
+        this.positive = new int[columnCount];
+        this.negative = new int[columnCount];
+        this.eliminated = new boolean[columnCount];
+        this.columnQueue = new PriorityQueue<long[]>((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.firstRows = new ArrayList<List<Row>>(unknowns);
+        for (int i = 0; i < unknowns; i++) {
+            this.firstRows.add(new ArrayList<Row>(1));
+        }
+        for (int i = 0; i < unknowns; i++) {
+            if (included[i]) {
+                Row row = new Row();
+                row.columns = columns[i];
+                row.values = values[i];
+                row.support = new int[] {i};
+                row.weights = new long[] {1};
+                add(row);
+            }
+        }
+    }
+
+    /**
+     * Computes the minimal-support semi-positive solutions, with the Farkas algorithm.
+     * <p>
+     * Starting from the identity, each column is eliminated by replacing the rows with a non-zero
+     * entry in it by the positive combinations of one positive and one negative row. A combination
+     * is dropped when its support contains the support of another row, so the rows always are the
+     * extreme rays of the solutions of the columns eliminated so far, which keeps their number as
+     * small as possible. Rows are stored sparsely and divided by the GCD of their entries. The
+     * next column is the one creating the fewest combinations.
+     *
+     * @return The minimal-support solutions, each with weights without common divisor.
+     * @throws IllegalStateException If the number of intermediate rows exceeds the limit.
+     * @throws ArithmeticException If a weight overflows a {@code long}.
+     */
+    List<Invariant> solve() {
+        int column;
+        while ((column = nextColumn()) >= 0) {
+            eliminate(column);
+        }
+        List<Invariant> invariants = new ArrayList<Invariant>();
+        for (List<Row> rows : this.firstRows) {
+            for (Row row : rows) {
+                if (!row.dead) {
+                    invariants.add(new Invariant(row.support, row.weights));
+                }
+            }
+        }
+        return invariants;
+    }
+
+    /**
+     * Chooses the column to eliminate next, minimising the number of rows it adds.
+     * <p>
+     * The queue holds an entry for every change of the row counts of a column, and outdated
+     * entries are skipped. Among columns of equal cost, the one waiting for the longest goes
+     * first, which spreads the eliminations over the net instead of growing a single row, for
+     * instance along a ring.
+     *
+     * @return The index of the column, or -1 if every column is eliminated.
+     */
+    private int nextColumn() {
+        long[] entry;
+        while ((entry = this.columnQueue.poll()) != null) {
+            int column = (int) entry[2];
+            if (!this.eliminated[column] && entry[0] == cost(column)) {
+                if (this.positive[column] + this.negative[column] == 0) {
+                    this.eliminated[column] = true;
+                } else {
+                    return column;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the net number of rows added by eliminating a column.
+     *
+     * @param column The column.
+     * @return The number of combinations minus the number of rows removed.
+     */
+    private long cost(int column) {
+        return (long) this.positive[column] * this.negative[column] - this.positive[column] - this.negative[column];
+    }
+
+    /**
+     * Adds an entry with the current cost of a column to the queue.
+     *
+     * @param column The column whose row counts have changed.
+     */
+    private void enqueue(int column) {
+        if (!this.eliminated[column]) {
+            this.columnQueue.add(new long[] {cost(column), this.sequence++, column});
+        }
+    }
+
+    /**
+     * Replaces the rows with a non-zero entry in a column by their minimal combinations.
+     *
+     * @param column The column to eliminate.
+     */
+    private void eliminate(int column) {
+        List<Row> positives = new ArrayList<Row>();
+        List<Row> negatives = new ArrayList<Row>();
+        for (Row row : this.columnRows.get(column)) {
+            if (!row.dead) {
+                (valueAt(row, column) > 0 ? positives : negatives).add(row);
+                kill(row);
+            }
+        }
+        this.columnRows.get(column).clear();
+        this.eliminated[column] = true;
+
+        List<Row> added = new ArrayList<Row>();
+        for (Row p : positives) {
+            long pValue = valueAt(p, column);
+            for (Row n : negatives) {
+                Row row = combine(p, -valueAt(n, column), n, pValue);
+                if (containsLiveSupport(row.support)) {
+                    continue;
+                }
+                for (Row other : added) {
+                    if (!other.dead && isSubset(row.support, other.support)) {
+                        kill(other);
+                    }
+                }
+                add(row);
+                added.add(row);
+                if (this.liveRows > this.maxRows) {
+                    throw new IllegalStateException("Too many intermediate rows to compute the invariants");
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if a live row has a support included in the given one.
+     *
+     * @param support A support, in increasing order.
+     * @return True if a live row has all its indexes in the support.
+     */
+    private boolean containsLiveSupport(int[] support) {
+        for (int index : support) {
+            List<Row> rows = this.firstRows.get(index);
+            for (int i = rows.size() - 1; i >= 0; i--) {
+                Row row = rows.get(i);
+                if (row.dead) {
+                    rows.set(i, rows.get(rows.size() - 1));
+                    rows.remove(rows.size() - 1);
+                } else if (isSubset(row.support, support)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Registers a live row in the column and support indexes.
+     *
+     * @param row The row to add.
+     */
+    private void add(Row row) {
+        for (int i = 0; i < row.columns.length; i++) {
+            this.columnRows.get(row.columns[i]).add(row);
+            if (row.values[i] > 0) {
+                this.positive[row.columns[i]]++;
+            } else {
+                this.negative[row.columns[i]]++;
+            }
+            enqueue(row.columns[i]);
+        }
+        this.firstRows.get(row.support[0]).add(row);
+        this.liveRows++;
+    }
+
+    /**
+     * Marks a row as removed. It is dropped lazily from the indexes.
+     *
+     * @param row The row to remove.
+     */
+    private void kill(Row row) {
+        row.dead = true;
+        for (int i = 0; i < row.columns.length; i++) {
+            if (row.values[i] > 0) {
+                this.positive[row.columns[i]]--;
+            } else {
+                this.negative[row.columns[i]]--;
+            }
+            enqueue(row.columns[i]);
+        }
+        this.liveRows--;
+    }
+
+    /**
+     * Returns the entry of a row in a column.
+     *
+     * @param row    The row.
+     * @param column The column.
+     * @return The entry, 0 if it is not stored.
+     */
+    private static long valueAt(Row row, int column) {
+        int low = 0;
+        int high = row.columns.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (row.columns[middle] < column) {
+                low = middle + 1;
+            } else if (row.columns[middle] > column) {
+                high = middle - 1;
+            } else {
+                return row.values[middle];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Computes {@code aFactor * a + bFactor * b}, divided by the GCD of its entries.
+     *
+     * @param a       The first row.
+     * @param aFactor The positive factor of the first row.
+     * @param b       The second row.
+     * @param bFactor The positive factor of the second row.
+     * @return The combined row.
+     */
+    private static Row combine(Row a, long aFactor, Row b, long bFactor) {
+        Row row = new Row();
+        long[][] values = new long[1][];
+        row.columns = merge(a.columns, a.values, aFactor, b.columns, b.values, bFactor, values);
+        row.values = values[0];
+        row.support = merge(a.support, a.weights, aFactor, b.support, b.weights, bFactor, values);
+        row.weights = values[0];
+        long gcd = 0;
+        for (long value : row.values) {
+            gcd = gcd(gcd, Math.abs(value));
+        }
+        for (long weight : row.weights) {
+            gcd = gcd(gcd, weight);
+        }
+        if (gcd > 1) {
+            for (int i = 0; i < row.values.length; i++) {
+                row.values[i] /= gcd;
+            }
+            for (int i = 0; i < row.weights.length; i++) {
+                row.weights[i] /= gcd;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Merges two sparse vectors multiplied by factors, dropping the entries that cancel out.
+     *
+     * @param aIndexes The indexes of the first vector, in increasing order.
+     * @param aValues  The values of the first vector.
+     * @param aFactor  The factor of the first vector.
+     * @param bIndexes The indexes of the second vector, in increasing order.
+     * @param bValues  The values of the second vector.
+     * @param bFactor  The factor of the second vector.
+     * @param values   Receives the values of the result in its first element.
+     * @return The indexes of the result.
+     */
+    private static int[] merge(int[] aIndexes, long[] aValues, long aFactor,
+            int[] bIndexes, long[] bValues, long bFactor, long[][] values) {
+        int[] indexes = new int[aIndexes.length + bIndexes.length];
+        long[] result = new long[indexes.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < aIndexes.length || j < bIndexes.length) {
+            int index;
+            long value;
+            if (j == bIndexes.length || (i < aIndexes.length && aIndexes[i] < bIndexes[j])) {
+                index = aIndexes[i];
+                value = Math.multiplyExact(aValues[i++], aFactor);
+            } else if (i == aIndexes.length || bIndexes[j] < aIndexes[i]) {
+                index = bIndexes[j];
+                value = Math.multiplyExact(bValues[j++], bFactor);
+            } else {
+                index = aIndexes[i];
+                value = Math.addExact(Math.multiplyExact(aValues[i++], aFactor), Math.multiplyExact(bValues[j++], bFactor));
+            }
+            if (value != 0) {
+                indexes[count] = index;
+                result[count++] = value;
+            }
+        }
+        values[0] = Arrays.copyOf(result, count);
+        return Arrays.copyOf(indexes, count);
+    }
+
+    /**
+     * Checks if every index of a sorted array is in another sorted array.
+     *
+     * @param subset   The indexes to look for.
+     * @param superset The indexes to look in.
+     * @return True if the first array is included in the second.
+     */
+    private static boolean isSubset(int[] subset, int[] superset) {
+        if (subset.length > superset.length) {
+            return false;
+        }
+        int j = 0;
+        for (int index : subset) {
+            while (j < superset.length && superset[j] < index) {
+                j++;
+            }
+            if (j == superset.length || superset[j] != index) {
+                return false;
+            }
+            j++;
+        }
+        return true;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+}
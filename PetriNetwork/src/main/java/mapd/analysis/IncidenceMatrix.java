@@ -0,0 +1,225 @@
+package mapd.analysis;
+
+import java.util.Arrays;
+
+import mapd.implementations.CompiledPetriNet;
+
+public class IncidenceMatrix {
+
+    private int placeCount;
+    private int transitionCount;
+    private boolean[] regular;
+
+    private int[] transitionStart;
+    private int[] transitionPlaces;
+    private int[] transitionValues;
+
+    private int[] placeStart;
+    private int[] placeTransitions;
+    private int[] placeValues;
+
+    /**
+     * Computes the incidence matrix of a compiled net in sparse form.
+     * <p>
+     * The entry of place {@code p} and transition {@code t} is the weight of the InArc from
+     * {@code t} to {@code p} minus the weight of the OutArc from {@code p} to {@code t}, and only
+     * the non-zero entries are stored, in compressed columns (by transition) and compressed rows
+     * (by place). {@link mapd.implementations.OutZeroArc}s never move tokens and count as 0.
+     * <p>
+     * The change of the marking made by a firing is only given by the matrix for the
+     * {@link #isRegular(int) regular} transitions. The others have their column computed the same
+     * way, but firing them may skip some OutArcs or empty a place.
+     *
+     * @param net The compiled net.
+     */
+    public IncidenceMatrix(CompiledPetriNet net) {
+        this.placeCount = net.getPlaceCount();
+        this.transitionCount = net.getTransitionCount();
+        int[] preStart = net.getPreStart();
+        int[] prePlaces = net.getPrePlaces();
+        int[] preWeights = net.getPreWeights();
+        int[] preKinds = net.getPreKinds();
+        int[] postStart = net.getPostStart();
+        int[] postPlaces = net.getPostPlaces();
+        int[] postWeights = net.getPostWeights();
+
+        this.regular = new boolean[transitionCount];
+        this.transitionStart = new int[transitionCount + 1];
+        this.transitionPlaces = new int[prePlaces.length + postPlaces.length];
+        this.transitionValues = new int[prePlaces.length + postPlaces.length];
+        int[] values = new int[placeCount];
+        int[] touched = new int[2 * placeCount];
+        int count = 0;
+        for (int t = 0; t < transitionCount; t++) {
+            int touchedCount = 0;
+            int moving = 0;
+            int zeros = 0;
+            for (int i = preStart[t]; i < preStart[t + 1]; i++) {
+                if (preKinds[i] == CompiledPetriNet.ARC_OUT_ZERO) {
+                    zeros++;
+                    continue;
+                }
+                moving++;
+                if (preKinds[i] == CompiledPetriNet.ARC_OUT_BOUNCER) {
+                    moving++;
+                }
+                if (values[prePlaces[i]] == 0) {
+                    touched[touchedCount++] = prePlaces[i];
+                }
+                values[prePlaces[i]] -= preWeights[i];
+            }
+            for (int i = postStart[t]; i < postStart[t + 1]; i++) {
+                if (values[postPlaces[i]] == 0) {
+                    touched[touchedCount++] = postPlaces[i];
+                }
+                values[postPlaces[i]] += postWeights[i];
+            }
+            this.regular[t] = moving == 0 || (moving == 1 && zeros == 0);
+            Arrays.sort(touched, 0, touchedCount);
+            for (int i = 0; i < touchedCount; i++) {
+                int place = touched[i];
+                // A place may be touched twice when its value went back to zero in between.
+                if (values[place] != 0 && (i == 0 || touched[i - 1] != place)) {
+                    this.transitionPlaces[count] = place;
+                    this.transitionValues[count++] = values[place];
+                }
+                values[place] = 0;
+            }
+            this.transitionStart[t + 1] = count;
+        }
+        this.transitionPlaces = Arrays.copyOf(this.transitionPlaces, count);
+        this.transitionValues = Arrays.copyOf(this.transitionValues, count);
+
+        this.placeStart = new int[placeCount + 1];
+        for (int i = 0; i < count; i++) {
+            this.placeStart[this.transitionPlaces[i] + 1]++;
+        }
+        for (int p = 0; p < placeCount; p++) {
+            this.placeStart[p + 1] += this.placeStart[p];
+        }
+        this.placeTransitions = new int[count];
+        this.placeValues = new int[count];
+        int[] next = Arrays.copyOf(this.placeStart, placeCount);
+        for (int t = 0; t < transitionCount; t++) {
+            for (int i = this.transitionStart[t]; i < this.transitionStart[t + 1]; i++) {
+                int position = next[this.transitionPlaces[i]]++;
+                this.placeTransitions[position] = t;
+                this.placeValues[position] = this.transitionValues[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the number of places, that is of rows.
+     *
+     * @return The number of places.
+     */
+    public int getPlaceCount() {
+        return placeCount;
+    }
+
+    /**
+     * Returns the number of transitions, that is of columns.
+     *
+     * @return The number of transitions.
+     */
+    public int getTransitionCount() {
+        return transitionCount;
+    }
+
+    /**
+     * Returns the number of non-zero entries.
+     *
+     * @return The number of stored entries.
+     */
+    public int getEntryCount() {
+        return transitionPlaces.length;
+    }
+
+    /**
+     * Checks if firing a transition always changes the marking by its column.
+     * <p>
+     * That is the case when it has no OutArc but OutZeroArcs, or a single OutArc and no
+     * OutZeroArc. With several arcs, a firing only needs one of them to be active and skips the
+     * others, and an {@link mapd.implementations.OutBouncerArc} removes all the tokens of its place.
+     *
+     * @param transition The index of the transition.
+     * @return True if the transition is regular, false otherwise.
+     */
+    public boolean isRegular(int transition) {
+        return regular[transition];
+    }
+
+    /**
+     * Returns the entry of a place and a transition.
+     *
+     * @param place      The index of the place.
+     * @param transition The index of the transition.
+     * @return The change of the tokens of the place when the transition fires.
+     */
+    public int get(int place, int transition) {
+        for (int i = transitionStart[transition]; i < transitionStart[transition + 1]; i++) {
+            if (transitionPlaces[i] == place) {
+                return transitionValues[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the start offsets of the entries of each transition.
+     * <p>
+     * The returned array, like the other structure accessors, is shared with the matrix and must
+     * not be modified.
+     *
+     * @return The column offsets, with one extra trailing entry holding the total count.
+     */
+    public int[] getTransitionStart() {
+        return transitionStart;
+    }
+
+    /**
+     * Returns the place of each entry, grouped by transition in increasing place order.
+     *
+     * @return The row of each entry of the compressed columns.
+     */
+    public int[] getTransitionPlaces() {
+        return transitionPlaces;
+    }
+
+    /**
+     * Returns the value of each entry, grouped by transition.
+     *
+     * @return The value of each entry of the compressed columns.
+     */
+    public int[] getTransitionValues() {
+        return transitionValues;
+    }
+
+    /**
+     * Returns the start offsets of the entries of each place.
+     *
+     * @return The row offsets, with one extra trailing entry holding the total count.
+     */
+    public int[] getPlaceStart() {
+        return placeStart;
+    }
+
+    /**
+     * Returns the transition of each entry, grouped by place in increasing transition order.
+     *
+     * @return The column of each entry of the compressed rows.
+     */
+    public int[] getPlaceTransitions() {
+        return placeTransitions;
+    }
+
+    /**
+     * Returns the value of each entry, grouped by place.
+     *
+     * @return The value of each entry of the compressed rows.
+     */
+    public int[] getPlaceValues() {
+        return placeValues;
+    }
+}
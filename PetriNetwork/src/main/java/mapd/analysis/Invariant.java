@@ -0,0 +1,82 @@
+package mapd.analysis;
+
+import java.util.Arrays;
+
+public class Invariant {
+
+    private int[] support;
+    private long[] weights;
+
+    /**
+     * Constructs a semi-positive invariant from its non-zero weights.
+     *
+     * @param support The indexes of the places or transitions with a non-zero weight, in
+     *                increasing order.
+     * @param weights The weight of each index of the support, all positive and without common
+     *                divisor.
+     */
+    Invariant(int[] support, long[] weights) {
+        this.support = support;
+        this.weights = weights;
+    }
+
+    /**
+     * Returns the places or transitions of the invariant.
+     *
+     * @return The indexes with a non-zero weight, in increasing order.
+     */
+    public int[] getSupport() {
+        return support.clone();
+    }
+
+    /**
+     * Returns the weights of the support.
+     *
+     * @return The positive weight of each index of {@link #getSupport()}.
+     */
+    public long[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * Returns the weight of a place or transition.
+     *
+     * @param index The index of the place or transition.
+     * @return Its weight in the invariant, 0 if it is not in the support.
+     */
+    public long getWeight(int index) {
+        int position = Arrays.binarySearch(support, index);
+        return position >= 0 ? weights[position] : 0;
+    }
+
+    /**
+     * Computes the weighted sum of a vector over the support.
+     * <p>
+     * For a place invariant and a marking, this is the weighted token count that every firing of
+     * a regular transition preserves.
+     *
+     * @param values The value of each place or transition.
+     * @return The sum of the weights multiplied by the values.
+     */
+    public long weightedSum(int[] values) {
+        long sum = 0;
+        for (int i = 0; i < support.length; i++) {
+            sum += weights[i] * values[support[i]];
+        }
+        return sum;
+    }
+
+    /**
+     * Provides a string representation of the invariant, such as {@code 2*0 + 1*3}.
+     *
+     * @return The weighted indexes of the support.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < support.length; i++) {
+            text.append(i == 0 ? "" : " + ").append(weights[i]).append('*').append(support[i]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,160 @@
+package mapd.analysis;
+
+import java.util.Arrays;
+import java.util.List;
+
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+
+public class InvariantAnalyzer {
+
+    private CompiledPetriNet net;
+    private IncidenceMatrix matrix;
+    private int maxRows;
+
+    /**
+     * Constructs an analyzer for the current structure of a network.
+     *
+     * @param network The network to analyse. It is compiled once and not modified.
+     */
+    public InvariantAnalyzer(PetriNetwork network) {
+        this(network.compile());
+    }
+
+    /**
+     * Constructs an analyzer for a compiled net, and computes its incidence matrix.
+     * <p>
+     * By default the solver keeps up to a million intermediate rows.
+     *
+     * @param net The compiled net to analyse.
+     */
+    public InvariantAnalyzer(CompiledPetriNet net) {
+        this.net = net;
+        this.matrix = new IncidenceMatrix(net);
+        this.maxRows = 1000000;
+    }
+
+    /**
+     * Limits the number of intermediate rows kept by the solver.
+     *
+     * @param maxRows The maximum number of rows, at least 1.
+     */
+    public void setMaxRows(int maxRows) {
+        if (maxRows < 1) {
+            throw new IllegalArgumentException("The row limit must be at least 1");
+        }
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Returns the analysed net, which gives the labels of places and transitions.
+     *
+     * @return The compiled net.
+     */
+    public CompiledPetriNet getNet() {
+        return net;
+    }
+
+    /**
+     * Returns the sparse incidence matrix of the net.
+     *
+     * @return The incidence matrix.
+     */
+    public IncidenceMatrix getIncidenceMatrix() {
+        return matrix;
+    }
+
+    /**
+     * Computes the minimal-support semi-positive place invariants: weights {@code y >= 0} such
+     * that the weighted token count {@code y . M} is the same in every reachable marking.
+     * <p>
+     * A non-{@link IncidenceMatrix#isRegular(int) regular} transition may move different numbers
+     * of tokens from one firing to another, so its places cannot be in an invariant: they are
+     * excluded, and the other places must satisfy {@code y . C = 0} on the regular transitions.
+     *
+     * @return The place invariants, as weights of place indexes.
+     * @throws IllegalStateException If the solver exceeds the row limit.
+     */
+    public List<Invariant> computePlaceInvariants() {
+        int places = matrix.getPlaceCount();
+        boolean[] included = new boolean[places];
+        Arrays.fill(included, true);
+        int[] transitionStart = matrix.getTransitionStart();
+        int[] transitionPlaces = matrix.getTransitionPlaces();
+        int[] preStart = net.getPreStart();
+        int[] prePlaces = net.getPrePlaces();
+        int[] preKinds = net.getPreKinds();
+        int[] postStart = net.getPostStart();
+        int[] postPlaces = net.getPostPlaces();
+        for (int t = 0; t < matrix.getTransitionCount(); t++) {
+            if (matrix.isRegular(t)) {
+                continue;
+            }
+            for (int i = preStart[t]; i < preStart[t + 1]; i++) {
+                if (preKinds[i] != CompiledPetriNet.ARC_OUT_ZERO) {
+                    included[prePlaces[i]] = false;
+                }
+            }
+            for (int i = postStart[t]; i < postStart[t + 1]; i++) {
+                included[postPlaces[i]] = false;
+            }
+            for (int i = transitionStart[t]; i < transitionStart[t + 1]; i++) {
+                included[transitionPlaces[i]] = false;
+            }
+        }
+
+        int[] placeStart = matrix.getPlaceStart();
+        int[] placeTransitions = matrix.getPlaceTransitions();
+        int[] placeValues = matrix.getPlaceValues();
+        int[][] columns = new int[places][];
+        long[][] values = new long[places][];
+        for (int p = 0; p < places; p++) {
+            int count = 0;
+            for (int i = placeStart[p]; i < placeStart[p + 1]; i++) {
+                if (matrix.isRegular(placeTransitions[i])) {
+                    count++;
+                }
+            }
+            columns[p] = new int[count];
+            values[p] = new long[count];
+            for (int i = placeStart[p], j = 0; i < placeStart[p + 1]; i++) {
+                if (matrix.isRegular(placeTransitions[i])) {
+                    columns[p][j] = placeTransitions[i];
+                    values[p][j++] = placeValues[i];
+                }
+            }
+        }
+        return new FarkasSolver(places, included, columns, values, matrix.getTransitionCount(), maxRows).solve();
+    }
+
+    /**
+     * Computes the minimal-support semi-positive transition invariants: firing counts
+     * {@code x >= 0} such that {@code C . x = 0}, so that firing each transition that many times
+     * brings the net back to the same marking.
+     * <p>
+     * Only the {@link IncidenceMatrix#isRegular(int) regular} transitions are considered, since
+     * the effect of the others depends on the marking.
+     *
+     * @return The transition invariants, as firing counts of transition indexes.
+     * @throws IllegalStateException If the solver exceeds the row limit.
+     */
+    public List<Invariant> computeTransitionInvariants() {
+        int transitions = matrix.getTransitionCount();
+        boolean[] included = new boolean[transitions];
+        int[] transitionStart = matrix.getTransitionStart();
+        int[] transitionPlaces = matrix.getTransitionPlaces();
+        int[] transitionValues = matrix.getTransitionValues();
+        int[][] columns = new int[transitions][];
+        long[][] values = new long[transitions][];
+        for (int t = 0; t < transitions; t++) {
+            included[t] = matrix.isRegular(t);
+            int count = transitionStart[t + 1] - transitionStart[t];
+            columns[t] = Arrays.copyOfRange(transitionPlaces, transitionStart[t], transitionStart[t + 1]);
+            values[t] = new long[count];
+            for (int i = 0; i < count; i++) {
+                values[t][i] = transitionValues[transitionStart[t] + i];
+            }
+        }
+        return new FarkasSolver(transitions, included, columns, values, matrix.getPlaceCount(), maxRows).solve();
+    }
+}
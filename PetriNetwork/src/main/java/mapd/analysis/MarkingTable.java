@@ -0,0 +1,360 @@
+package mapd.analysis;
+
+import java.util.Arrays;
+
+public class MarkingTable {
+
+    private static final int MAX_SLOTS = 1 << 30;
+
+    private int places;
+    private int bits;
+    private int placesPerWord;
+    private int stride;
+    private long[] words;
+    private int size;
+
+    private int[] slots;
+    private int mask;
+
+    private long[] packed;
+
+    /**
+     * Constructs an empty table for markings of the given number of places.
+     *
+     * @param places The number of places of every marking stored in the table.
+     */
+    public MarkingTable(int places) {
+        this(places, 1024);
+    }
+
+    /**
+     * Constructs an empty table for markings of the given number of places.
+     * <p>
+     * Markings are packed into {@code long} words with a fixed number of bits per place. The table
+     * starts with 4 bits per place and doubles the width (up to 32 bits) the first time a marking
+     * does not fit, so 1-safe nets use a single word for up to 16 places. Visited markings are
+     * indexed by an open-addressing hash table of state identifiers with linear probing, so no
+     * object is allocated per stored marking.
+     *
+     * @param places           The number of places of every marking stored in the table.
+     * @param expectedMarkings The number of markings the table should hold before growing.
+     * @throws IllegalStateException If the expected markings do not fit in an array.
+     */
+    public MarkingTable(int places, int expectedMarkings) {
+        this.places = places;
+        setWidth(4);
+        int capacity = Integer.highestOneBit(Math.max(16, expectedMarkings * 4 / 3) - 1) << 1;
+        this.words = new long[wordCount(Math.max(1, expectedMarkings), this.stride)];
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Sets the number of bits used per place and the derived word layout.
+     *
+     * @param bits The number of bits per place: 4, 8, 16 or 32.
+     */
+    private void setWidth(int bits) {
+        this.bits = bits;
+        this.placesPerWord = 64 / bits;
+        this.stride = Math.max(1, (this.places + this.placesPerWord - 1) / this.placesPerWord);
+        this.packed = new long[this.stride];
+    }
+
+    /**
+     * Returns the number of markings stored in the table.
+     *
+     * @return The number of stored markings.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of places of the stored markings.
+     *
+     * @return The number of places.
+     */
+    public int getPlaceCount() {
+        return this.places;
+    }
+
+    /**
+     * Returns the number of bits currently used to store the tokens of one place.
+     *
+     * @return The number of bits per place.
+     */
+    public int getBitsPerPlace() {
+        return this.bits;
+    }
+
+    /**
+     * Returns an estimate of the memory used by the table.
+     *
+     * @return The size of the internal arrays, in bytes.
+     */
+    public long getMemoryBytes() {
+        return this.words.length * 8L + this.slots.length * 4L;
+    }
+
+    /**
+     * Adds a marking to the table if it is not already present.
+     *
+     * @param marking The marking to add. It is copied, not retained.
+     * @return The identifier of the marking if it was added, or {@code -(id + 1)} if the marking
+     *         was already stored with identifier {@code id}.
+     * @throws IllegalStateException If the table cannot grow any further.
+     */
+    public int add(int[] marking) {
+        widen(marking);
+        pack(marking, this.packed);
+        int slot = hash(this.packed, 0) & this.mask;
+        while (this.slots[slot] != 0) {
+            int id = this.slots[slot] - 1;
+            if (equalsPacked(id)) {
+                return -(id + 1);
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        int id = this.size;
+        long offset = (long) id * this.stride;
+        if (offset + this.stride > this.words.length) {
+            growWords(offset + this.stride);
+        }
+        System.arraycopy(this.packed, 0, this.words, (int) offset, this.stride);
+        this.slots[slot] = id + 1;
+        this.size++;
+        if (this.size > this.slots.length / 4 * 3) {
+            rehash(this.slots.length * 2);
+        }
+        return id;
+    }
+
+    /**
+     * Looks up the identifier of a marking.
+     *
+     * @param marking The marking to look up.
+     * @return The identifier of the marking, or -1 if it is not stored.
+     */
+    public int find(int[] marking) {
+        for (int tokens : marking) {
+            if (tokens > maxTokens()) {
+                return -1;
+            }
+        }
+        pack(marking, this.packed);
+        int slot = hash(this.packed, 0) & this.mask;
+        while (this.slots[slot] != 0) {
+            int id = this.slots[slot] - 1;
+            if (equalsPacked(id)) {
+                return id;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Copies a stored marking into the given array.
+     *
+     * @param id      The identifier of the marking.
+     * @param marking The array receiving the tokens of each place.
+     */
+    public void get(int id, int[] marking) {
+        unpack(this.words, offset(id, this.stride), this.bits, marking);
+    }
+
+    /**
+     * Returns a stored marking.
+     *
+     * @param id The identifier of the marking.
+     * @return A new array holding the tokens of each place.
+     */
+    public int[] get(int id) {
+        int[] marking = new int[this.places];
+        get(id, marking);
+        return marking;
+    }
+
+    /**
+     * Returns the largest token count representable with the current width.
+     *
+     * @return The maximum number of tokens per place.
+     */
+    private long maxTokens() {
+        return this.bits == 32 ? Integer.MAX_VALUE : (1L << this.bits) - 1;
+    }
+
+    /**
+     * Widens the packing, repacking every stored marking, until the given marking fits.
+     *
+     * @param marking The marking about to be stored.
+     */
+    private void widen(int[] marking) {
+        int max = 0;
+        for (int tokens : marking) {
+            max = Math.max(max, tokens);
+        }
+        if (max <= maxTokens()) {
+            return;
+        }
+        int oldBits = this.bits;
+        int oldStride = this.stride;
+        long[] oldWords = this.words;
+        int newBits = oldBits;
+        while (newBits < 32 && max > (1L << newBits) - 1) {
+            newBits *= 2;
+        }
+        int placesPerWord = 64 / newBits;
+        int newStride = Math.max(1, (this.places + placesPerWord - 1) / placesPerWord);
+        // Checked before the width changes, so a full table is left as it was.
+        long[] newWords = new long[wordCount(Math.max(1, this.size), newStride)];
+        setWidth(newBits);
+        this.words = newWords;
+        int[] buffer = new int[this.places];
+        for (int id = 0; id < this.size; id++) {
+            unpack(oldWords, offset(id, oldStride), oldBits, buffer);
+            pack(buffer, this.packed);
+            System.arraycopy(this.packed, 0, this.words, offset(id, this.stride), this.stride);
+        }
+        rehash(this.slots.length);
+    }
+
+    /**
+     * Rebuilds the hash index with the given capacity.
+     *
+     * @param capacity The new number of slots, a power of two.
+     */
+    private void rehash(int capacity) {
+        if (capacity > MAX_SLOTS) {
+            throw new IllegalStateException("Marking table is full");
+        }
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        for (int id = 0; id < this.size; id++) {
+            int slot = hash(this.words, offset(id, this.stride)) & this.mask;
+            while (this.slots[slot] != 0) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.slots[slot] = id + 1;
+        }
+    }
+
+    /**
+     * Returns the number of words needed by a number of markings, computed without overflow.
+     *
+     * @param markings The number of markings.
+     * @param stride   The number of words per marking.
+     * @return The number of words.
+     * @throws IllegalStateException If the words do not fit in an array.
+     */
+    private static int wordCount(int markings, int stride) {
+        long words = (long) markings * stride;
+        if (words > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Marking table is full");
+        }
+        return (int) words;
+    }
+
+    /**
+     * Returns the index of the first word of a marking, computed without overflow.
+     *
+     * @param id     The identifier of the marking.
+     * @param stride The number of words per marking.
+     * @return The offset of the marking.
+     * @throws IllegalStateException If the marking lies beyond the largest possible array.
+     */
+    private static int offset(int id, int stride) {
+        long offset = (long) id * stride;
+        if (offset + stride > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Marking table is full");
+        }
+        return (int) offset;
+    }
+
+    /**
+     * Grows the marking storage to at least the given number of words.
+     *
+     * @param required The minimum number of words.
+     */
+    private void growWords(long required) {
+        long capacity = Math.max(required, this.words.length * 2L);
+        if (capacity > Integer.MAX_VALUE - 8) {
+            if (required > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Marking table is full");
+            }
+            capacity = Integer.MAX_VALUE - 8;
+        }
+        this.words = Arrays.copyOf(this.words, (int) capacity);
+    }
+
+    /**
+     * Packs a marking into words with the current width.
+     *
+     * @param marking The marking to pack.
+     * @param target  The array receiving {@code stride} words.
+     */
+    private void pack(int[] marking, long[] target) {
+        long valueMask = this.bits == 32 ? 0xFFFFFFFFL : (1L << this.bits) - 1;
+        int p = 0;
+        for (int w = 0; w < this.stride; w++) {
+            long word = 0L;
+            for (int shift = 0; shift < 64 && p < this.places; shift += this.bits, p++) {
+                word |= (marking[p] & valueMask) << shift;
+            }
+            target[w] = word;
+        }
+    }
+
+    /**
+     * Unpacks a marking stored with the given width.
+     *
+     * @param source  The words holding the marking.
+     * @param offset  The index of the first word of the marking.
+     * @param bits    The number of bits per place.
+     * @param marking The array receiving the tokens of each place.
+     */
+    private void unpack(long[] source, int offset, int bits, int[] marking) {
+        long valueMask = bits == 32 ? 0xFFFFFFFFL : (1L << bits) - 1;
+        int p = 0;
+        for (int w = offset; p < this.places; w++) {
+            long word = source[w];
+            for (int shift = 0; shift < 64 && p < this.places; shift += bits, p++) {
+                marking[p] = (int) ((word >>> shift) & valueMask);
+            }
+        }
+    }
+
+    /**
+     * Compares the packed scratch marking with a stored marking.
+     *
+     * @param id The identifier of the stored marking.
+     * @return True if both markings are equal, false otherwise.
+     */
+    private boolean equalsPacked(int id) {
+        int offset = offset(id, this.stride);
+        for (int i = 0; i < this.stride; i++) {
+            if (this.words[offset + i] != this.packed[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hashes the packed marking starting at the given offset.
+     *
+     * @param source The words holding the marking.
+     * @param offset The index of the first word of the marking.
+     * @return The hash of the marking.
+     */
+    private int hash(long[] source, int offset) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < this.stride; i++) {
+            h = (h ^ source[offset + i]) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        h *= 0x94D049BB133111EBL;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,230 @@
+package mapd.analysis;
+
+import java.util.Arrays;
+
+class MddForest {
+
+    static final int EMPTY = 0;
+    static final int ONE = 1;
+
+    static final int OP_UNION = 0;
+    static final int OP_IMAGE = 1;
+
+    private int maxNodes;
+    private int[] levels;
+    private int[][] children;
+    private int size;
+
+    private int[] table;
+    private int mask;
+
+    private int[] cacheOps;
+    private int[] cacheA;
+    private int[] cacheB;
+    private int[] cacheResults;
+    private int cacheMask;
+
+    /**
+     * Constructs a forest of quasi-reduced multi-valued decision diagrams.
+     * <p>
+     * A node at level {@code k > 0} has one child at level {@code k - 1} per value of the variable
+     * of its level, and the terminals {@link #EMPTY} and {@link #ONE} stand for the empty set and
+     * the set holding the empty sequence. Every path goes through every level, so a node is only
+     * removed when all its children are {@link #EMPTY}, and the children arrays are trimmed of
+     * trailing {@link #EMPTY}s, which makes the domain of each variable grow as needed. Nodes are
+     * made unique by an open-addressing table, so two sets are equal exactly when their nodes are,
+     * and operation results are kept in a direct-mapped cache, which forgets older results on
+     * collision.
+     *
+     * @param maxNodes  The maximum number of nodes.
+     * @param cacheBits The base 2 logarithm of the number of cache entries.
+     */
+    MddForest(int maxNodes, int cacheBits) {
+        this.maxNodes = maxNodes;
+        this.levels = new int[1024];
+        this.children = new int[1024][];
+        this.levels[EMPTY] = 0;
+        this.levels[ONE] = 0;
+        this.children[EMPTY] = new int[0];
+        this.children[ONE] = new int[0];
+        this.size = 2;
+        this.table = new int[1024];
+        this.mask = this.table.length - 1;
+        int cacheSize = 1 << cacheBits;
+        this.cacheOps = new int[cacheSize];
+        this.cacheA = new int[cacheSize];
+        this.cacheB = new int[cacheSize];
+        this.cacheResults = new int[cacheSize];
+        Arrays.fill(this.cacheOps, -1);
+        this.cacheMask = cacheSize - 1;
+    }
+
+    /**
+     * Returns the number of nodes created, terminals included.
+     *
+     * @return The number of nodes.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the level of a node.
+     *
+     * @param node The node.
+     * @return The level of the node, 0 for the terminals.
+     */
+    int level(int node) {
+        return this.levels[node];
+    }
+
+    /**
+     * Returns the children of a node, indexed by value.
+     *
+     * @param node The node.
+     * @return The children, shared with the forest and not to be modified.
+     */
+    int[] children(int node) {
+        return this.children[node];
+    }
+
+    /**
+     * Returns the unique node with the given level and children.
+     *
+     * @param level    The level of the node, at least 1.
+     * @param children The children of the node, which is retained if a new node is created.
+     * @return The node, or {@link #EMPTY} if every child is {@link #EMPTY}.
+     * @throws IllegalStateException If the forest holds too many nodes.
+     */
+    int node(int level, int[] children) {
+        int length = children.length;
+        while (length > 0 && children[length - 1] == EMPTY) {
+            length--;
+        }
+        if (length == 0) {
+            return EMPTY;
+        }
+        if (length < children.length) {
+            children = Arrays.copyOf(children, length);
+        }
+        int hash = level;
+        for (int child : children) {
+            hash = hash * 31 + child;
+        }
+        hash ^= hash >>> 16;
+        int slot = hash & this.mask;
+        while (this.table[slot] != 0) {
+            int node = this.table[slot];
+            if (this.levels[node] == level && Arrays.equals(this.children[node], children)) {
+                return node;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        if (this.size >= this.maxNodes) {
+            throw new IllegalStateException("Too many decision diagram nodes");
+        }
+        if (this.size == this.levels.length) {
+            this.levels = Arrays.copyOf(this.levels, this.size * 2);
+            this.children = Arrays.copyOf(this.children, this.size * 2);
+        }
+        int node = this.size++;
+        this.levels[node] = level;
+        this.children[node] = children;
+        this.table[slot] = node;
+        if (this.size > this.table.length / 4 * 3) {
+            rehash();
+        }
+        return node;
+    }
+
+    /**
+     * Doubles the unique table.
+     */
+    private void rehash() {
+        this.table = new int[this.table.length * 2];
+        this.mask = this.table.length - 1;
+        for (int node = 2; node < this.size; node++) {
+            int hash = this.levels[node];
+            for (int child : this.children[node]) {
+                hash = hash * 31 + child;
+            }
+            hash ^= hash >>> 16;
+            int slot = hash & this.mask;
+            while (this.table[slot] != 0) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.table[slot] = node;
+        }
+    }
+
+    /**
+     * Looks up the result of an operation in the cache.
+     *
+     * @param op The operation.
+     * @param a  The first operand.
+     * @param b  The second operand.
+     * @return The cached result, or -1 if it is not cached.
+     */
+    int cached(int op, int a, int b) {
+        int slot = cacheSlot(op, a, b);
+        if (this.cacheOps[slot] == op && this.cacheA[slot] == a && this.cacheB[slot] == b) {
+            return this.cacheResults[slot];
+        }
+        return -1;
+    }
+
+    /**
+     * Stores the result of an operation in the cache.
+     *
+     * @param op     The operation.
+     * @param a      The first operand.
+     * @param b      The second operand.
+     * @param result The result of the operation.
+     * @return The result.
+     */
+    int cache(int op, int a, int b, int result) {
+        int slot = cacheSlot(op, a, b);
+        this.cacheOps[slot] = op;
+        this.cacheA[slot] = a;
+        this.cacheB[slot] = b;
+        this.cacheResults[slot] = result;
+        return result;
+    }
+
+    private int cacheSlot(int op, int a, int b) {
+        int hash = (a * 0x9E3779B1) ^ (b * 0x85EBCA77) ^ op;
+        return (hash ^ (hash >>> 15)) & this.cacheMask;
+    }
+
+    /**
+     * Computes the union of two sets of the same level.
+     *
+     * @param a The first set.
+     * @param b The second set.
+     * @return The node of the union.
+     */
+    int union(int a, int b) {
+        if (a == EMPTY || a == b) {
+            return b;
+        }
+        if (b == EMPTY) {
+            return a;
+        }
+        if (a > b) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        int result = cached(OP_UNION, a, b);
+        if (result >= 0) {
+            return result;
+        }
+        int[] aChildren = this.children[a];
+        int[] bChildren = this.children[b];
+        int[] union = new int[Math.max(aChildren.length, bChildren.length)];
+        for (int v = 0; v < union.length; v++) {
+            union[v] = union(v < aChildren.length ? aChildren[v] : EMPTY, v < bChildren.length ? bChildren[v] : EMPTY);
+        }
+        return cache(OP_UNION, a, b, node(this.levels[a], union));
+    }
+}
@@ -0,0 +1,234 @@
+package mapd.analysis;
+
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import mapd.analysis.ReachabilityGraph.Status;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+
+public class ParallelReachabilityExplorer {
+
+    private static final int BATCH_SIZE = 256;
+
+    private CompiledPetriNet net;
+    private int parallelism;
+    private long maxStates;
+    private long maxEdges;
+
+    /**
+     * Constructs an explorer using every available processor for the current structure and
+     * marking of a network.
+     *
+     * @param network The network to explore. It is compiled once and not modified.
+     */
+    public ParallelReachabilityExplorer(PetriNetwork network) {
+        this(network.compile(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs an explorer starting from the current marking of a compiled net.
+     * <p>
+     * By default the exploration is unbounded.
+     *
+     * @param net         The compiled net to explore. Its marking is not modified.
+     * @param parallelism The number of worker threads.
+     */
+    public ParallelReachabilityExplorer(CompiledPetriNet net, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be at least 1");
+        }
+        this.net = net;
+        this.parallelism = parallelism;
+        this.maxStates = Long.MAX_VALUE;
+        this.maxEdges = Long.MAX_VALUE;
+    }
+
+    /**
+     * Limits the number of distinct markings stored by the exploration.
+     * <p>
+     * Workers check the limit independently, so a few more states than the limit may be stored
+     * before all of them stop.
+     *
+     * @param maxStates The maximum number of states, at least 1.
+     */
+    public void setMaxStates(long maxStates) {
+        if (maxStates < 1) {
+            throw new IllegalArgumentException("The state limit must be at least 1");
+        }
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * Limits the number of edges computed by the exploration.
+     * <p>
+     * Workers check the limit independently, so a few more edges than the limit may be counted
+     * before all of them stop.
+     *
+     * @param maxEdges The maximum number of edges, at least 0.
+     */
+    public void setMaxEdges(long maxEdges) {
+        if (maxEdges < 0) {
+            throw new IllegalArgumentException("The edge limit must be at least 0");
+        }
+        this.maxEdges = maxEdges;
+    }
+
+    /**
+     * Explores the whole reachable state space, within the configured limits.
+     *
+     * @return The state, edge and deadlock counts.
+     */
+    public ReachabilitySummary explore() {
+        return explore(null);
+    }
+
+    /**
+     * Explores the reachable state space in parallel until a marking satisfies the target.
+     * <p>
+     * Newly discovered markings are grouped in batches that are forked as tasks of a work-stealing
+     * {@link ForkJoinPool}, and the visited markings are shared through a striped
+     * {@link ConcurrentMarkingTable}. Every marking is expanded by exactly one worker, the one whose
+     * insertion succeeded, so a complete exploration counts the same states, edges and deadlocks
+     * as {@link ReachabilityExplorer}, whatever the interleaving of the workers.
+     *
+     * @param target The predicate identifying target markings, or null to explore everything.
+     *               It is called concurrently and must not retain the marking.
+     * @return The state, edge and deadlock counts, with a target marking if one was found.
+     */
+    public ReachabilitySummary explore(Predicate<int[]> target) {
+        Exploration exploration = new Exploration(target);
+        int[] initial = net.getMarking();
+        exploration.table.add(initial);
+        exploration.states.increment();
+        if (target != null && target.test(initial)) {
+            exploration.stop(Status.TARGET_FOUND, initial);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new ExpandTask(null, exploration, initial, 1));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        Status status = exploration.status.get();
+        return new ReachabilitySummary(exploration.table.size(), exploration.edges.sum(),
+                exploration.deadlocks.sum(), status == null ? Status.COMPLETE : status,
+                exploration.targetMarking);
+    }
+
+    /**
+     * The state shared by the workers of one exploration.
+     */
+    private final class Exploration {
+
+        private ConcurrentMarkingTable table;
+        private LongAdder states;
+        private LongAdder edges;
+        private LongAdder deadlocks;
+        private AtomicReference<Status> status;
+        private Predicate<int[]> target;
+        private volatile int[] targetMarking;
+
+        private Exploration(Predicate<int[]> target) {
+            this.table = new ConcurrentMarkingTable(net.getPlaceCount(), parallelism * 64);
+            this.states = new LongAdder();
+            this.edges = new LongAdder();
+            this.deadlocks = new LongAdder();
+            this.status = new AtomicReference<Status>();
+            this.target = target;
+        }
+
+        private boolean isStopped() {
+            return this.status.get() != null;
+        }
+
+        private void stop(Status reason, int[] marking) {
+            if (this.status.compareAndSet(null, reason) && marking != null) {
+                this.targetMarking = marking.clone();
+            }
+        }
+    }
+
+    /**
+     * Expands a batch of markings, forking the markings it discovers as new batches.
+     * <p>
+     * Tasks never join each other: each one completes its parent's pending count instead, which
+     * keeps the stack flat however deep the state space is.
+     */
+    private final class ExpandTask extends CountedCompleter<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private Exploration exploration;
+        private int[] markings;
+        private int count;
+
+        private ExpandTask(CountedCompleter<?> parent, Exploration exploration, int[] markings, int count) {
+            super(parent);
+            this.exploration = exploration;
+            this.markings = markings;
+            this.count = count;
+        }
+
+        @Override
+        public void compute() {
+            int placeCount = net.getPlaceCount();
+            int transitionCount = net.getTransitionCount();
+            int[] current = new int[placeCount];
+            int[] next = new int[placeCount];
+            int[] batch = new int[BATCH_SIZE * placeCount];
+            int batchCount = 0;
+            boolean checkStates = maxStates != Long.MAX_VALUE;
+            boolean checkEdges = maxEdges != Long.MAX_VALUE;
+
+            while (count > 0 && !exploration.isStopped()) {
+                for (int i = 0; i < count && !exploration.isStopped(); i++) {
+                    System.arraycopy(markings, i * placeCount, current, 0, placeCount);
+                    int edges = 0;
+                    for (int t = 0; t < transitionCount; t++) {
+                        if (!net.isEnabled(t, current)) {
+                            continue;
+                        }
+                        edges++;
+                        System.arraycopy(current, 0, next, 0, placeCount);
+                        net.applyFiring(t, next);
+                        if (!exploration.table.add(next)) {
+                            continue;
+                        }
+                        exploration.states.increment();
+                        if (exploration.target != null && exploration.target.test(next)) {
+                            exploration.stop(Status.TARGET_FOUND, next);
+                        }
+                        if (checkStates && exploration.states.sum() >= maxStates) {
+                            exploration.stop(Status.STATE_LIMIT, null);
+                        }
+                        System.arraycopy(next, 0, batch, batchCount * placeCount, placeCount);
+                        if (++batchCount == BATCH_SIZE) {
+                            addToPendingCount(1);
+                            new ExpandTask(this, exploration, batch, batchCount).fork();
+                            batch = new int[BATCH_SIZE * placeCount];
+                            batchCount = 0;
+                        }
+                    }
+                    exploration.edges.add(edges);
+                    if (edges == 0) {
+                        exploration.deadlocks.increment();
+                    }
+                    if (checkEdges && exploration.edges.sum() >= maxEdges) {
+                        exploration.stop(Status.EDGE_LIMIT, null);
+                    }
+                }
+                // The remaining discoveries are expanded by this task rather than forked.
+                markings = batch;
+                count = batchCount;
+                batch = new int[BATCH_SIZE * placeCount];
+                batchCount = 0;
+            }
+            tryComplete();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package mapd.analysis;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import mapd.analysis.ReachabilityGraph.Status;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+
+public class ReachabilityExplorer {
+
+    private CompiledPetriNet net;
+    private long maxStates;
+    private long maxEdges;
+    private boolean recordEdges;
+    private boolean partialOrderReduction;
+
+    /**
+     * Constructs an explorer for the current structure and marking of a network.
+     *
+     * @param network The network to explore. It is compiled once and not modified.
+     */
+    public ReachabilityExplorer(PetriNetwork network) {
+        this(network.compile());
+    }
+
+    /**
+     * Constructs an explorer starting from the current marking of a compiled net.
+     * <p>
+     * By default the exploration is unbounded and records every edge.
+     *
+     * @param net The compiled net to explore. Its marking is not modified.
+     */
+    public ReachabilityExplorer(CompiledPetriNet net) {
+        this.net = net;
+        this.maxStates = Integer.MAX_VALUE;
+        this.maxEdges = Long.MAX_VALUE;
+        this.recordEdges = true;
+    }
+
+    /**
+     * Limits the number of distinct markings stored by the exploration.
+     *
+     * @param maxStates The maximum number of states, at least 1.
+     */
+    public void setMaxStates(long maxStates) {
+        if (maxStates < 1) {
+            throw new IllegalArgumentException("The state limit must be at least 1");
+        }
+        this.maxStates = Math.min(maxStates, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Limits the number of edges computed by the exploration.
+     *
+     * @param maxEdges The maximum number of edges, at least 0.
+     */
+    public void setMaxEdges(long maxEdges) {
+        if (maxEdges < 0) {
+            throw new IllegalArgumentException("The edge limit must be at least 0");
+        }
+        this.maxEdges = maxEdges;
+    }
+
+    /**
+     * Chooses whether the edges are kept in the resulting graph.
+     * <p>
+     * Without edges the exploration only stores the markings, which is enough to count states and
+     * edges and to find deadlocks or target markings.
+     *
+     * @param recordEdges True to record the edges, false to only count them.
+     */
+    public void setRecordEdges(boolean recordEdges) {
+        this.recordEdges = recordEdges;
+    }
+
+    /**
+     * Chooses whether the exploration only fires a stubborn set of transitions from each marking.
+     * <p>
+     * Interleavings of independent transitions then collapse into one, which removes most of the
+     * intermediate markings of loosely coupled components. The reduced graph still contains every
+     * reachable deadlock, but not every reachable marking: a target predicate is only guaranteed
+     * to be found when it holds in a deadlock, and the edges are a subset of the full graph.
+     *
+     * @param partialOrderReduction True to reduce the exploration, false to explore everything.
+     */
+    public void setPartialOrderReduction(boolean partialOrderReduction) {
+        this.partialOrderReduction = partialOrderReduction;
+    }
+
+    /**
+     * Explores the whole reachable state space, within the configured limits.
+     *
+     * @return The reachability graph.
+     */
+    public ReachabilityGraph explore() {
+        return explore(null);
+    }
+
+    /**
+     * Explores the reachable state space breadth-first until a marking satisfies the target.
+     * <p>
+     * States are numbered in discovery order, so the markings stored in the {@link MarkingTable}
+     * double as the breadth-first queue, and the edges of each state are appended contiguously.
+     *
+     * @param target The predicate identifying target markings, or null to explore everything.
+     *               The marking passed to the predicate must not be retained.
+     * @return The reachability graph, with the first target state found if any.
+     */
+    public ReachabilityGraph explore(Predicate<int[]> target) {
+        int placeCount = net.getPlaceCount();
+        int transitionCount = net.getTransitionCount();
+        MarkingTable states = new MarkingTable(placeCount);
+        int[] current = net.getMarking();
+        int[] next = new int[placeCount];
+        StubbornSets stubbornSets = partialOrderReduction ? new StubbornSets(net) : null;
+
+        int[] edgeStart = recordEdges ? new int[1024] : null;
+        int[] edgeTransitions = recordEdges ? new int[1024] : null;
+        int[] edgeTargets = recordEdges ? new int[1024] : null;
+        int[] deadlocks = new int[16];
+        int deadlockCount = 0;
+        long edgeCount = 0;
+        Status status = Status.COMPLETE;
+        int targetState = -1;
+
+        states.add(current);
+        if (target != null && target.test(current)) {
+            status = Status.TARGET_FOUND;
+            targetState = 0;
+        }
+
+        int state = 0;
+        exploration:
+        for (; status == Status.COMPLETE && state < states.size(); state++) {
+            states.get(state, current);
+            if (recordEdges) {
+                if (state + 1 >= edgeStart.length) {
+                    edgeStart = Arrays.copyOf(edgeStart, edgeStart.length * 2);
+                }
+                edgeStart[state] = (int) edgeCount;
+            }
+            int selected = stubbornSets != null ? stubbornSets.select(current) : transitionCount;
+            boolean deadlock = true;
+            for (int i = 0; i < selected; i++) {
+                int t = stubbornSets != null ? stubbornSets.getSelected(i) : i;
+                if (stubbornSets == null && !net.isEnabled(t, current)) {
+                    continue;
+                }
+                deadlock = false;
+                if (edgeCount >= maxEdges) {
+                    status = Status.EDGE_LIMIT;
+                    break exploration;
+                }
+                System.arraycopy(current, 0, next, 0, placeCount);
+                net.applyFiring(t, next);
+                if (states.size() >= maxStates && states.find(next) < 0) {
+                    status = Status.STATE_LIMIT;
+                    break exploration;
+                }
+                int id = states.add(next);
+                boolean added = id >= 0;
+                if (!added) {
+                    id = -id - 1;
+                }
+                if (recordEdges) {
+                    if (edgeCount >= edgeTargets.length) {
+                        if (edgeCount >= Integer.MAX_VALUE - 8) {
+                            throw new IllegalStateException("Too many edges to record, disable edge recording");
+                        }
+                        int capacity = (int) Math.min(Integer.MAX_VALUE - 8L, edgeTargets.length * 2L);
+                        edgeTransitions = Arrays.copyOf(edgeTransitions, capacity);
+                        edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+                    }
+                    edgeTransitions[(int) edgeCount] = t;
+                    edgeTargets[(int) edgeCount] = id;
+                }
+                edgeCount++;
+                if (added && target != null && target.test(next)) {
+                    status = Status.TARGET_FOUND;
+                    targetState = id;
+                }
+            }
+            if (deadlock) {
+                if (deadlockCount == deadlocks.length) {
+                    deadlocks = Arrays.copyOf(deadlocks, deadlockCount * 2);
+                }
+                deadlocks[deadlockCount++] = state;
+            }
+        }
+
+        // A limit interrupts the expansion of the current state, which keeps the edges found so far.
+        int expanded = status == Status.STATE_LIMIT || status == Status.EDGE_LIMIT ? state + 1 : state;
+        if (recordEdges) {
+            edgeStart[expanded] = (int) edgeCount;
+            edgeStart = Arrays.copyOf(edgeStart, expanded + 1);
+            edgeTransitions = Arrays.copyOf(edgeTransitions, (int) edgeCount);
+            edgeTargets = Arrays.copyOf(edgeTargets, (int) edgeCount);
+        }
+        return new ReachabilityGraph(net, states, expanded, edgeStart, edgeTransitions, edgeTargets,
+                edgeCount, Arrays.copyOf(deadlocks, deadlockCount), status, targetState);
+    }
+}
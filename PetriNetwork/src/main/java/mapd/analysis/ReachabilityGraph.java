@@ -0,0 +1,186 @@
+package mapd.analysis;
+
+import mapd.implementations.CompiledPetriNet;
+
+public class ReachabilityGraph {
+
+    /**
+     * The reason why an exploration stopped.
+     */
+    public enum Status {
+        COMPLETE,
+        STATE_LIMIT,
+        EDGE_LIMIT,
+        TARGET_FOUND
+    }
+
+    private CompiledPetriNet net;
+    private MarkingTable states;
+    private int expandedStates;
+    private int[] edgeStart;
+    private int[] edgeTransitions;
+    private int[] edgeTargets;
+    private long edgeCount;
+    private int[] deadlocks;
+    private Status status;
+    private int targetState;
+
+    /**
+     * Constructs the result of an exploration.
+     *
+     * @param net             The explored net.
+     * @param states          The visited markings, identified by their discovery order.
+     * @param expandedStates  The number of states whose successors were computed.
+     * @param edgeStart       The start of the edges of each expanded state, followed by the total count,
+     *                        or null if the edges were not recorded.
+     * @param edgeTransitions The transition labelling each recorded edge.
+     * @param edgeTargets     The target state of each recorded edge.
+     * @param edgeCount       The number of edges found, recorded or not.
+     * @param deadlocks       The expanded states without any enabled transition.
+     * @param status          The reason why the exploration stopped.
+     * @param targetState     The state satisfying the target predicate, or -1.
+     */
+    ReachabilityGraph(CompiledPetriNet net, MarkingTable states, int expandedStates,
+            int[] edgeStart, int[] edgeTransitions, int[] edgeTargets, long edgeCount,
+            int[] deadlocks, Status status, int targetState) {
+        this.net = net;
+        this.states = states;
+        this.expandedStates = expandedStates;
+        this.edgeStart = edgeStart;
+        this.edgeTransitions = edgeTransitions;
+        this.edgeTargets = edgeTargets;
+        this.edgeCount = edgeCount;
+        this.deadlocks = deadlocks;
+        this.status = status;
+        this.targetState = targetState;
+    }
+
+    /**
+     * Returns the explored net, which gives the labels of places and transitions.
+     *
+     * @return The compiled net.
+     */
+    public CompiledPetriNet getNet() {
+        return net;
+    }
+
+    /**
+     * Returns the reason why the exploration stopped.
+     *
+     * @return The exploration status.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks if the whole reachable state space was explored.
+     *
+     * @return True if the exploration was not cut short, false otherwise.
+     */
+    public boolean isComplete() {
+        return status == Status.COMPLETE;
+    }
+
+    /**
+     * Returns the number of distinct markings found. State 0 is the initial marking.
+     *
+     * @return The number of states.
+     */
+    public int getStateCount() {
+        return states.size();
+    }
+
+    /**
+     * Returns the number of states whose successors were computed.
+     * <p>
+     * States are expanded in identifier order. When a limit stopped the exploration, the last
+     * expanded state only has the edges found before the limit was hit.
+     *
+     * @return The number of expanded states.
+     */
+    public int getExpandedStateCount() {
+        return expandedStates;
+    }
+
+    /**
+     * Returns the number of edges found, including those not recorded.
+     *
+     * @return The number of edges.
+     */
+    public long getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Checks if the edges were recorded during the exploration.
+     *
+     * @return True if successors can be queried, false otherwise.
+     */
+    public boolean hasEdges() {
+        return edgeStart != null;
+    }
+
+    /**
+     * Returns the marking of a state.
+     *
+     * @param state The identifier of the state.
+     * @return The tokens of each place, indexed like the places of {@link #getNet()}.
+     */
+    public int[] getMarking(int state) {
+        return states.get(state);
+    }
+
+    /**
+     * Returns the number of recorded successors of a state.
+     *
+     * @param state The identifier of the state.
+     * @return The number of outgoing edges, or 0 if the state was not expanded.
+     */
+    public int getSuccessorCount(int state) {
+        if (edgeStart == null || state >= expandedStates) {
+            return 0;
+        }
+        return edgeStart[state + 1] - edgeStart[state];
+    }
+
+    /**
+     * Returns the transition labelling an outgoing edge of a state.
+     *
+     * @param state The identifier of the state.
+     * @param index The index of the edge, between 0 and {@link #getSuccessorCount(int)}.
+     * @return The index of the transition fired along the edge.
+     */
+    public int getSuccessorTransition(int state, int index) {
+        return edgeTransitions[edgeStart[state] + index];
+    }
+
+    /**
+     * Returns the target of an outgoing edge of a state.
+     *
+     * @param state The identifier of the state.
+     * @param index The index of the edge, between 0 and {@link #getSuccessorCount(int)}.
+     * @return The identifier of the state reached along the edge.
+     */
+    public int getSuccessorState(int state, int index) {
+        return edgeTargets[edgeStart[state] + index];
+    }
+
+    /**
+     * Returns the expanded states in which no transition is enabled.
+     *
+     * @return The identifiers of the deadlock states.
+     */
+    public int[] getDeadlocks() {
+        return deadlocks.clone();
+    }
+
+    /**
+     * Returns the first state found that satisfies the target predicate.
+     *
+     * @return The identifier of the target state, or -1 if none was found.
+     */
+    public int getTargetState() {
+        return targetState;
+    }
+}
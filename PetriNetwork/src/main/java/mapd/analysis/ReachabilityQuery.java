@@ -0,0 +1,88 @@
+package mapd.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import mapd.exceptions.ElementNameNotExists;
+import mapd.implementations.CompiledPetriNet;
+
+public class ReachabilityQuery {
+
+    private List<String> labels;
+    private List<int[]> ranges;
+
+    /**
+     * Constructs a query satisfied by every marking. Conditions on the tokens of places are then
+     * added, and a marking satisfies the query when it satisfies all of them.
+     */
+    public ReachabilityQuery() {
+        this.labels = new ArrayList<String>();
+        this.ranges = new ArrayList<int[]>();
+    }
+
+    /**
+     * Requires a place to hold at least a number of tokens.
+     *
+     * @param label  The label of the place.
+     * @param tokens The minimum number of tokens.
+     * @return This query.
+     */
+    public ReachabilityQuery atLeast(String label, int tokens) {
+        return between(label, tokens, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Requires a place to hold at most a number of tokens.
+     *
+     * @param label  The label of the place.
+     * @param tokens The maximum number of tokens.
+     * @return This query.
+     */
+    public ReachabilityQuery atMost(String label, int tokens) {
+        return between(label, 0, tokens);
+    }
+
+    /**
+     * Requires a place to hold exactly a number of tokens.
+     *
+     * @param label  The label of the place.
+     * @param tokens The number of tokens.
+     * @return This query.
+     */
+    public ReachabilityQuery equalTo(String label, int tokens) {
+        return between(label, tokens, tokens);
+    }
+
+    /**
+     * Requires the tokens of a place to be in a range.
+     *
+     * @param label The label of the place.
+     * @param min   The minimum number of tokens.
+     * @param max   The maximum number of tokens.
+     * @return This query.
+     */
+    public ReachabilityQuery between(String label, int min, int max) {
+        this.labels.add(label);
+        this.ranges.add(new int[] {min, max});
+        return this;
+    }
+
+    /**
+     * Computes the range of tokens allowed in each place of a net.
+     *
+     * @param net The net whose places are referred to.
+     * @return The minimum and maximum tokens of each place, indexed by place.
+     * @throws ElementNameNotExists If a place of the query does not exist in the net.
+     */
+    int[][] resolve(CompiledPetriNet net) throws ElementNameNotExists {
+        int[][] bounds = new int[2][net.getPlaceCount()];
+        Arrays.fill(bounds[1], Integer.MAX_VALUE);
+        for (int i = 0; i < this.labels.size(); i++) {
+            int place = net.getPlaceIndex(this.labels.get(i));
+            bounds[0][place] = Math.max(bounds[0][place], this.ranges.get(i)[0]);
+            bounds[1][place] = Math.min(bounds[1][place], this.ranges.get(i)[1]);
+        }
+        return bounds;
+    }
+}
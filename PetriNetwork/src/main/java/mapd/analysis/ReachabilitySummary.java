@@ -0,0 +1,83 @@
+package mapd.analysis;
+
+import mapd.analysis.ReachabilityGraph.Status;
+
+public class ReachabilitySummary {
+
+    private long stateCount;
+    private long edgeCount;
+    private long deadlockCount;
+    private Status status;
+    private int[] targetMarking;
+
+    /**
+     * Constructs the counters of an exploration that did not keep the graph.
+     *
+     * @param stateCount    The number of distinct markings found.
+     * @param edgeCount     The number of edges found.
+     * @param deadlockCount The number of expanded markings without any enabled transition.
+     * @param status        The reason why the exploration stopped.
+     * @param targetMarking The marking satisfying the target predicate, or null.
+     */
+    ReachabilitySummary(long stateCount, long edgeCount, long deadlockCount, Status status, int[] targetMarking) {
+        this.stateCount = stateCount;
+        this.edgeCount = edgeCount;
+        this.deadlockCount = deadlockCount;
+        this.status = status;
+        this.targetMarking = targetMarking;
+    }
+
+    /**
+     * Returns the number of distinct markings found.
+     *
+     * @return The number of states.
+     */
+    public long getStateCount() {
+        return stateCount;
+    }
+
+    /**
+     * Returns the number of edges found.
+     *
+     * @return The number of edges.
+     */
+    public long getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the number of expanded markings in which no transition is enabled.
+     *
+     * @return The number of deadlocks.
+     */
+    public long getDeadlockCount() {
+        return deadlockCount;
+    }
+
+    /**
+     * Returns the reason why the exploration stopped.
+     *
+     * @return The exploration status.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks if the whole reachable state space was explored.
+     *
+     * @return True if the exploration was not cut short, false otherwise.
+     */
+    public boolean isComplete() {
+        return status == Status.COMPLETE;
+    }
+
+    /**
+     * Returns a marking satisfying the target predicate.
+     *
+     * @return A copy of the target marking, or null if none was found.
+     */
+    public int[] getTargetMarking() {
+        return targetMarking == null ? null : targetMarking.clone();
+    }
+}
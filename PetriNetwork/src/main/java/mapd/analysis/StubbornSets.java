@@ -0,0 +1,297 @@
+package mapd.analysis;
+
+import java.util.Arrays;
+
+import mapd.implementations.CompiledPetriNet;
+
+class StubbornSets {
+
+    private static final int TESTS_ZERO = 1;
+    private static final int REMOVES = 2;
+    private static final int ADDS = 4;
+
+    private CompiledPetriNet net;
+    private int[] dependentStart;
+    private int[] dependents;
+    private int[] enablerStart;
+    private int[] enablers;
+
+    private int[] enabledStamp;
+    private boolean[] enabled;
+    private int markingStamp;
+    private int[] memberStamp;
+    private int closureStamp;
+    private int[] stack;
+    private int[] selection;
+    private int selectionSize;
+
+    /**
+     * Computes the structural relations between the transitions of a compiled net.
+     * <p>
+     * Two transitions are dependent when they share a place and at least one of them changes it,
+     * unless both only add tokens to it, which commutes and enables nothing. A transition is an
+     * enabler of another when it can make one of its pre arcs active: by adding tokens to the
+     * place of an {@link mapd.implementations.OutArc} or {@link mapd.implementations.OutBouncerArc},
+     * or by removing tokens from the place of an {@link mapd.implementations.OutZeroArc}.
+     *
+     * @param net The compiled net.
+     */
+    StubbornSets(CompiledPetriNet net) {
+        this.net = net;
+        int places = net.getPlaceCount();
+        int transitions = net.getTransitionCount();
+        int[] preStart = net.getPreStart();
+        int[] prePlaces = net.getPrePlaces();
+        int[] preKinds = net.getPreKinds();
+        int[] postStart = net.getPostStart();
+        int[] postPlaces = net.getPostPlaces();
+
+        // The accesses of each transition, grouped by place.
+        int[] accessStart = new int[places + 1];
+        for (int place : prePlaces) {
+            accessStart[place + 1]++;
+        }
+        for (int place : postPlaces) {
+            accessStart[place + 1]++;
+        }
+        for (int p = 0; p < places; p++) {
+            accessStart[p + 1] += accessStart[p];
+        }
+        int[] accessTransitions = new int[accessStart[places]];
+        int[] accessKinds = new int[accessStart[places]];
+        int[] next = Arrays.copyOf(accessStart, places);
+        for (int t = 0; t < transitions; t++) {
+            for (int i = preStart[t]; i < preStart[t + 1]; i++) {
+                int position = next[prePlaces[i]]++;
+                accessTransitions[position] = t;
+                accessKinds[position] = preKinds[i] == CompiledPetriNet.ARC_OUT_ZERO ? TESTS_ZERO : REMOVES;
+            }
+            for (int i = postStart[t]; i < postStart[t + 1]; i++) {
+                int position = next[postPlaces[i]]++;
+                accessTransitions[position] = t;
+                accessKinds[position] = ADDS;
+            }
+        }
+        // A transition may access a place through several arcs, merged into one access mask.
+        int[] masks = new int[transitions];
+        int[] placeTransitions = new int[transitions];
+        int[][] placeMasks = new int[places][];
+        int[][] placeUsers = new int[places][];
+        for (int p = 0; p < places; p++) {
+            int count = 0;
+            for (int i = accessStart[p]; i < accessStart[p + 1]; i++) {
+                int t = accessTransitions[i];
+                if (masks[t] == 0) {
+                    placeTransitions[count++] = t;
+                }
+                masks[t] |= accessKinds[i];
+            }
+            placeUsers[p] = Arrays.copyOf(placeTransitions, count);
+            placeMasks[p] = new int[count];
+            for (int i = 0; i < count; i++) {
+                placeMasks[p][i] = masks[placeTransitions[i]];
+                masks[placeTransitions[i]] = 0;
+            }
+        }
+
+        int[] marks = new int[transitions];
+        Arrays.fill(marks, -1);
+        IntList list = new IntList();
+        this.dependentStart = new int[transitions + 1];
+        for (int t = 0; t < transitions; t++) {
+            marks[t] = t;
+            for (int side = 0; side < 2; side++) {
+                int start = side == 0 ? preStart[t] : postStart[t];
+                int end = side == 0 ? preStart[t + 1] : postStart[t + 1];
+                int[] arcPlaces = side == 0 ? prePlaces : postPlaces;
+                for (int i = start; i < end; i++) {
+                    int p = arcPlaces[i];
+                    int mask = maskOf(placeUsers[p], placeMasks[p], t);
+                    for (int j = 0; j < placeUsers[p].length; j++) {
+                        int u = placeUsers[p][j];
+                        if (marks[u] != t && conflicts(mask, placeMasks[p][j])) {
+                            marks[u] = t;
+                            list.add(u);
+                        }
+                    }
+                }
+            }
+            this.dependentStart[t + 1] = list.size;
+        }
+        this.dependents = list.toArray();
+
+        Arrays.fill(marks, -1);
+        list = new IntList();
+        this.enablerStart = new int[transitions + 1];
+        for (int t = 0; t < transitions; t++) {
+            for (int i = preStart[t]; i < preStart[t + 1]; i++) {
+                int p = prePlaces[i];
+                int needed = preKinds[i] == CompiledPetriNet.ARC_OUT_ZERO ? REMOVES : ADDS;
+                for (int j = 0; j < placeUsers[p].length; j++) {
+                    int u = placeUsers[p][j];
+                    if (marks[u] != t && (placeMasks[p][j] & needed) != 0) {
+                        marks[u] = t;
+                        list.add(u);
+                    }
+                }
+            }
+            this.enablerStart[t + 1] = list.size;
+        }
+        this.enablers = list.toArray();
+
+        this.enabledStamp = new int[transitions];
+        this.enabled = new boolean[transitions];
+        this.memberStamp = new int[transitions];
+        this.stack = new int[transitions];
+        this.selection = new int[transitions];
+    }
+
+    /**
+     * Checks if two accesses to the same place may not commute or may change an enabling.
+     *
+     * @param a The access mask of the first transition.
+     * @param b The access mask of the second transition.
+     * @return True if the accesses are dependent.
+     */
+    private static boolean conflicts(int a, int b) {
+        return !(a == TESTS_ZERO && b == TESTS_ZERO) && !(a == ADDS && b == ADDS);
+    }
+
+    private static int maskOf(int[] users, int[] masks, int transition) {
+        for (int i = 0; i < users.length; i++) {
+            if (users[i] == transition) {
+                return masks[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Chooses the enabled transitions to fire from a marking, as a stubborn set with as few
+     * enabled transitions as possible.
+     * <p>
+     * A stubborn set is closed under two rules: an enabled member brings in every transition
+     * dependent on it, so that no firing outside the set can disable it or fail to commute with it,
+     * and a disabled member brings in all its enablers, so that no firing outside the set can
+     * enable it. Since a transition is enabled as soon as one of its pre arcs is active, every pre
+     * arc of a disabled member needs its enablers, not just one. Firing only the enabled members
+     * of such a set, and all transitions when none is enabled, keeps every reachable deadlock.
+     * The closure is computed from each enabled transition in turn, and the smallest one is kept.
+     *
+     * @param marking The marking to expand.
+     * @return The number of selected transitions, available from {@link #getSelected(int)} in
+     *         increasing order, or 0 if no transition is enabled.
+     */
+    int select(int[] marking) {
+        this.markingStamp++;
+        int transitions = net.getTransitionCount();
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int seed = 0; seed < transitions && bestCount > 1; seed++) {
+            if (isEnabled(seed, marking)) {
+                int count = closure(seed, marking, bestCount);
+                if (count < bestCount) {
+                    best = seed;
+                    bestCount = count;
+                }
+            }
+        }
+        this.selectionSize = 0;
+        if (best < 0) {
+            return 0;
+        }
+        closure(best, marking, Integer.MAX_VALUE);
+        for (int t = 0; t < transitions; t++) {
+            if (this.memberStamp[t] == this.closureStamp && isEnabled(t, marking)) {
+                this.selection[this.selectionSize++] = t;
+            }
+        }
+        return this.selectionSize;
+    }
+
+    /**
+     * Returns a transition chosen by the last call to {@link #select(int[])}.
+     *
+     * @param index The index of the transition in the selection.
+     * @return The index of the transition in the net.
+     */
+    int getSelected(int index) {
+        return this.selection[index];
+    }
+
+    /**
+     * Computes the stubborn set generated by a transition.
+     *
+     * @param seed    An enabled transition.
+     * @param marking The current marking.
+     * @param limit   The number of enabled members from which the set is not worth completing.
+     * @return The number of enabled members, or at least {@code limit} if it was abandoned.
+     */
+    private int closure(int seed, int[] marking, int limit) {
+        int member = ++this.closureStamp;
+        int top = 0;
+        int count = 0;
+        this.memberStamp[seed] = member;
+        this.stack[top++] = seed;
+        while (top > 0) {
+            int t = this.stack[--top];
+            int[] related;
+            int start;
+            int end;
+            if (isEnabled(t, marking)) {
+                if (++count >= limit) {
+                    return count;
+                }
+                related = this.dependents;
+                start = this.dependentStart[t];
+                end = this.dependentStart[t + 1];
+            } else {
+                related = this.enablers;
+                start = this.enablerStart[t];
+                end = this.enablerStart[t + 1];
+            }
+            for (int i = start; i < end; i++) {
+                int u = related[i];
+                if (this.memberStamp[u] != member) {
+                    this.memberStamp[u] = member;
+                    this.stack[top++] = u;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks if a transition is enabled, computing it once per marking.
+     *
+     * @param transition The index of the transition.
+     * @param marking    The current marking.
+     * @return True if the transition is enabled.
+     */
+    private boolean isEnabled(int transition, int[] marking) {
+        if (this.enabledStamp[transition] != this.markingStamp) {
+            this.enabledStamp[transition] = this.markingStamp;
+            this.enabled[transition] = net.isEnabled(transition, marking);
+        }
+        return this.enabled[transition];
+    }
+
+    /**
+     * A growable array of ints.
+     */
+    private static class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
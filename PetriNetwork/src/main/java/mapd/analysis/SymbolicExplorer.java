@@ -0,0 +1,360 @@
+package mapd.analysis;
+
+import static mapd.analysis.MddForest.EMPTY;
+import static mapd.analysis.MddForest.ONE;
+
+import java.util.Arrays;
+
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+
+public class SymbolicExplorer {
+
+    private static final int NO_PRE_ARC = -1;
+
+    private CompiledPetriNet net;
+    private int maxTokens;
+    private int maxNodes;
+    private int cacheBits;
+
+    private MddForest forest;
+    private int[] placeAtLevel;
+    private int[] levelOfPlace;
+    private int[][] touchedLevels;
+    private int[][] preKinds;
+    private int[][] preWeights;
+    private int[][] postWeights;
+    private boolean[] alwaysEnabled;
+
+    /**
+     * Constructs a symbolic explorer for the current structure and marking of a network.
+     *
+     * @param network The network to explore. It is compiled once and not modified.
+     */
+    public SymbolicExplorer(PetriNetwork network) {
+        this(network.compile());
+    }
+
+    /**
+     * Constructs a symbolic explorer starting from the current marking of a compiled net.
+     * <p>
+     * By default a place may hold up to 65535 tokens, the diagrams up to 10 million nodes and
+     * the operation cache has 2^20 entries.
+     *
+     * @param net The compiled net to explore. Its marking is not modified.
+     */
+    public SymbolicExplorer(CompiledPetriNet net) {
+        this.net = net;
+        this.maxTokens = 65535;
+        this.maxNodes = 10000000;
+        this.cacheBits = 20;
+    }
+
+    /**
+     * Limits the number of tokens of a place. The exploration fails if a place exceeds it,
+     * which happens when the net is unbounded.
+     *
+     * @param maxTokens The maximum number of tokens, at least 1.
+     */
+    public void setMaxTokens(int maxTokens) {
+        if (maxTokens < 1) {
+            throw new IllegalArgumentException("The token limit must be at least 1");
+        }
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * Limits the number of decision diagram nodes, which bounds the memory used.
+     *
+     * @param maxNodes The maximum number of nodes, at least 2.
+     */
+    public void setMaxNodes(int maxNodes) {
+        if (maxNodes < 2) {
+            throw new IllegalArgumentException("The node limit must be at least 2");
+        }
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Sets the size of the operation cache.
+     *
+     * @param cacheBits The base 2 logarithm of the number of entries, between 4 and 28.
+     */
+    public void setCacheBits(int cacheBits) {
+        if (cacheBits < 4 || cacheBits > 28) {
+            throw new IllegalArgumentException("The cache size must be between 2^4 and 2^28 entries");
+        }
+        this.cacheBits = cacheBits;
+    }
+
+    /**
+     * Computes the set of reachable markings as a multi-valued decision diagram.
+     * <p>
+     * Each place is the variable of a level, and a marking is a path from the root to
+     * {@link MddForest#ONE}. The levels follow a depth-first walk of the places through the
+     * transitions, so that places connected by a transition get close levels. The image of a transition only rebuilds the
+     * levels between the highest and the lowest place it touches, and shares the nodes below.
+     * Transitions are applied in chaining order, from the lowest to the highest top level, each
+     * one to the set already extended by the previous ones, until a whole round adds nothing.
+     * Independent parts of the net then stay independent in the diagram, whose size grows with
+     * the number of places rather than with the number of markings.
+     *
+     * @return The reachable state space.
+     * @throws IllegalStateException If a place exceeds the token limit or the diagrams exceed the
+     *                               node limit.
+     */
+    public SymbolicStateSpace explore() {
+        this.forest = new MddForest(this.maxNodes, this.cacheBits);
+        orderPlaces();
+        prepareTransitions();
+
+        int[] marking = net.getMarking();
+        int root = ONE;
+        for (int level = 1; level <= marking.length; level++) {
+            int tokens = marking[this.placeAtLevel[level - 1]];
+            int[] children = new int[tokens + 1];
+            children[tokens] = root;
+            root = this.forest.node(level, children);
+        }
+
+        Integer[] order = new Integer[net.getTransitionCount()];
+        for (int t = 0; t < order.length; t++) {
+            order[t] = t;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(topLevel(a), topLevel(b)));
+
+        int iterations = 0;
+        int previous;
+        do {
+            previous = root;
+            for (int t : order) {
+                if (this.touchedLevels[t].length > 0) {
+                    root = this.forest.union(root, image(root, t, 0, this.alwaysEnabled[t]));
+                }
+            }
+            iterations++;
+        } while (root != previous);
+
+        SymbolicStateSpace space = new SymbolicStateSpace(net, this.forest, root, this.placeAtLevel, iterations);
+        this.forest = null;
+        return space;
+    }
+
+    /**
+     * Chooses the level of each place, from a depth-first walk over the transitions connecting
+     * the places. The compiled net orders its places arbitrarily, and a diagram is only small
+     * when the places that depend on each other are close.
+     */
+    private void orderPlaces() {
+        int places = net.getPlaceCount();
+        int transitions = net.getTransitionCount();
+        int[] preStart = net.getPreStart();
+        int[] prePlaces = net.getPrePlaces();
+        int[] postStart = net.getPostStart();
+        int[] postPlaces = net.getPostPlaces();
+
+        int[] adjacencyStart = new int[places + 1];
+        for (int place : prePlaces) {
+            adjacencyStart[place + 1]++;
+        }
+        for (int place : postPlaces) {
+            adjacencyStart[place + 1]++;
+        }
+        for (int p = 0; p < places; p++) {
+            adjacencyStart[p + 1] += adjacencyStart[p];
+        }
+        int[] adjacentTransitions = new int[adjacencyStart[places]];
+        int[] next = Arrays.copyOf(adjacencyStart, places);
+        for (int t = 0; t < transitions; t++) {
+            for (int i = preStart[t]; i < preStart[t + 1]; i++) {
+                adjacentTransitions[next[prePlaces[i]]++] = t;
+            }
+            for (int i = postStart[t]; i < postStart[t + 1]; i++) {
+                adjacentTransitions[next[postPlaces[i]]++] = t;
+            }
+        }
+
+        this.placeAtLevel = new int[places];
+        this.levelOfPlace = new int[places];
+        boolean[] visitedTransitions = new boolean[transitions];
+        int[] stack = new int[places];
+        int count = 0;
+        for (int start = 0; start < places; start++) {
+            if (this.levelOfPlace[start] != 0) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = start;
+            this.levelOfPlace[start] = ++count;
+            this.placeAtLevel[count - 1] = start;
+            while (top > 0) {
+                int place = stack[--top];
+                for (int i = adjacencyStart[place]; i < adjacencyStart[place + 1]; i++) {
+                    int t = adjacentTransitions[i];
+                    if (visitedTransitions[t]) {
+                        continue;
+                    }
+                    visitedTransitions[t] = true;
+                    for (int j = preStart[t]; j < preStart[t + 1] + postStart[t + 1] - postStart[t]; j++) {
+                        int other = j < preStart[t + 1] ? prePlaces[j] : postPlaces[postStart[t] + j - preStart[t + 1]];
+                        if (this.levelOfPlace[other] == 0) {
+                            this.levelOfPlace[other] = ++count;
+                            this.placeAtLevel[count - 1] = other;
+                            stack[top++] = other;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gathers, for each transition, the places it touches from the highest level to the lowest,
+     * with the kind and weight of its pre arc and the weight of its post arc on each of them.
+     */
+    private void prepareTransitions() {
+        int transitions = net.getTransitionCount();
+        int[] preStart = net.getPreStart();
+        int[] prePlaces = net.getPrePlaces();
+        int[] netPreWeights = net.getPreWeights();
+        int[] netPreKinds = net.getPreKinds();
+        int[] postStart = net.getPostStart();
+        int[] postPlaces = net.getPostPlaces();
+        int[] netPostWeights = net.getPostWeights();
+        this.touchedLevels = new int[transitions][];
+        this.preKinds = new int[transitions][];
+        this.preWeights = new int[transitions][];
+        this.postWeights = new int[transitions][];
+        this.alwaysEnabled = new boolean[transitions];
+        for (int t = 0; t < transitions; t++) {
+            int[] sorted = new int[preStart[t + 1] - preStart[t] + postStart[t + 1] - postStart[t]];
+            int count = 0;
+            for (int i = preStart[t]; i < preStart[t + 1]; i++) {
+                sorted[count++] = this.levelOfPlace[prePlaces[i]];
+            }
+            for (int i = postStart[t]; i < postStart[t + 1]; i++) {
+                sorted[count++] = this.levelOfPlace[postPlaces[i]];
+            }
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (distinct == 0 || sorted[distinct - 1] != sorted[i]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            int[] levels = new int[distinct];
+            int[] kinds = new int[distinct];
+            int[] pre = new int[distinct];
+            int[] post = new int[distinct];
+            Arrays.fill(kinds, NO_PRE_ARC);
+            for (int i = 0; i < distinct; i++) {
+                levels[i] = sorted[distinct - 1 - i];
+            }
+            for (int i = preStart[t]; i < preStart[t + 1]; i++) {
+                int position = distinct - 1 - Arrays.binarySearch(sorted, 0, distinct, this.levelOfPlace[prePlaces[i]]);
+                kinds[position] = netPreKinds[i];
+                pre[position] = netPreWeights[i];
+            }
+            for (int i = postStart[t]; i < postStart[t + 1]; i++) {
+                int position = distinct - 1 - Arrays.binarySearch(sorted, 0, distinct, this.levelOfPlace[postPlaces[i]]);
+                post[position] += netPostWeights[i];
+            }
+            this.touchedLevels[t] = levels;
+            this.preKinds[t] = kinds;
+            this.preWeights[t] = pre;
+            this.postWeights[t] = post;
+            this.alwaysEnabled[t] = preStart[t] == preStart[t + 1];
+        }
+    }
+
+    /**
+     * Returns the highest level touched by a transition.
+     *
+     * @param transition The index of the transition.
+     * @return The level, or 0 if the transition has no arc.
+     */
+    private int topLevel(int transition) {
+        return this.touchedLevels[transition].length == 0 ? 0 : this.touchedLevels[transition][0];
+    }
+
+    /**
+     * Computes the markings reached by firing a transition once from a set of markings.
+     * <p>
+     * The firing rule is the one of {@link CompiledPetriNet#applyFiring(int, int[])}: each touched
+     * place changes according to its own tokens only, and the transition is enabled when one of
+     * its pre arcs is active, which is carried down the levels as a flag.
+     *
+     * @param node       The set of markings, at a level not below the next touched level.
+     * @param transition The index of the transition.
+     * @param position   The index of the next touched level.
+     * @param enabled    Whether a pre arc is active in the levels already visited.
+     * @return The set of successors, at the same level as the node.
+     */
+    private int image(int node, int transition, int position, boolean enabled) {
+        int[] levels = this.touchedLevels[transition];
+        if (position == levels.length) {
+            return enabled ? node : EMPTY;
+        }
+        if (node == EMPTY) {
+            return EMPTY;
+        }
+        int key = transition << 1 | (enabled ? 1 : 0);
+        int result = this.forest.cached(MddForest.OP_IMAGE, node, key);
+        if (result >= 0) {
+            return result;
+        }
+        int level = this.forest.level(node);
+        int[] children = this.forest.children(node);
+        int[] image;
+        if (level > levels[position]) {
+            image = new int[children.length];
+            for (int v = 0; v < children.length; v++) {
+                image[v] = image(children[v], transition, position, enabled);
+            }
+        } else {
+            image = new int[0];
+            int kind = this.preKinds[transition][position];
+            int weight = this.preWeights[transition][position];
+            int post = this.postWeights[transition][position];
+            for (int v = 0; v < children.length; v++) {
+                if (children[v] == EMPTY) {
+                    continue;
+                }
+                boolean active;
+                int tokens;
+                switch (kind) {
+                    case CompiledPetriNet.ARC_OUT:
+                        active = v >= weight;
+                        tokens = active ? v - weight : v;
+                        break;
+                    case CompiledPetriNet.ARC_OUT_BOUNCER:
+                        active = v >= 1;
+                        tokens = 0;
+                        break;
+                    case CompiledPetriNet.ARC_OUT_ZERO:
+                        active = v == 0;
+                        tokens = v;
+                        break;
+                    default:
+                        active = false;
+                        tokens = v;
+                        break;
+                }
+                int successors = image(children[v], transition, position + 1, enabled || active);
+                if (successors == EMPTY) {
+                    continue;
+                }
+                tokens += post;
+                if (tokens > this.maxTokens || tokens < 0) {
+                    throw new IllegalStateException("Place " + net.getPlaceLabel(this.placeAtLevel[level - 1])
+                            + " exceeds the token limit, the net may be unbounded");
+                }
+                if (tokens >= image.length) {
+                    image = Arrays.copyOf(image, tokens + 1);
+                }
+                image[tokens] = this.forest.union(image[tokens], successors);
+            }
+        }
+        return this.forest.cache(MddForest.OP_IMAGE, node, key, this.forest.node(level, image));
+    }
+}
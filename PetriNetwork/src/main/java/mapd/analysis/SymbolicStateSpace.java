@@ -0,0 +1,197 @@
+package mapd.analysis;
+
+import static mapd.analysis.MddForest.EMPTY;
+import static mapd.analysis.MddForest.ONE;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+import mapd.exceptions.ElementNameNotExists;
+import mapd.implementations.CompiledPetriNet;
+
+public class SymbolicStateSpace {
+
+    private CompiledPetriNet net;
+    private MddForest forest;
+    private int root;
+    private int[] placeAtLevel;
+    private int iterations;
+
+    /**
+     * Constructs the result of a symbolic exploration.
+     *
+     * @param net          The explored net.
+     * @param forest       The forest holding the diagram.
+     * @param root         The root of the diagram of the reachable markings.
+     * @param placeAtLevel The place of each level, level {@code k} at index {@code k - 1}.
+     * @param iterations   The number of rounds over the transitions until the fixpoint.
+     */
+    SymbolicStateSpace(CompiledPetriNet net, MddForest forest, int root, int[] placeAtLevel, int iterations) {
+        this.net = net;
+        this.forest = forest;
+        this.root = root;
+        this.placeAtLevel = placeAtLevel;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Returns the explored net, which gives the labels and indexes of places.
+     *
+     * @return The compiled net.
+     */
+    public CompiledPetriNet getNet() {
+        return net;
+    }
+
+    /**
+     * Returns the number of rounds over the transitions needed to reach the fixpoint, the last
+     * one adding no marking.
+     *
+     * @return The number of rounds.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns the number of nodes created during the exploration, intermediate results included.
+     *
+     * @return The number of nodes of the forest.
+     */
+    public int getNodeCount() {
+        return forest.size();
+    }
+
+    /**
+     * Returns the number of nodes of the diagram of the reachable markings.
+     *
+     * @return The number of nodes reachable from the root, terminals excluded.
+     */
+    public int getDiagramSize() {
+        boolean[] visited = new boolean[forest.size()];
+        return visit(root, visited, new int[net.getPlaceCount() + 1]);
+    }
+
+    /**
+     * Returns the number of reachable markings.
+     *
+     * @return The number of markings, which may exceed any primitive type.
+     */
+    public BigInteger getStateCount() {
+        return count(root, null, new HashMap<Integer, BigInteger>());
+    }
+
+    /**
+     * Checks if a marking is reachable.
+     *
+     * @param marking The tokens of each place, indexed like the compiled net.
+     * @return True if the marking is reachable, false otherwise.
+     */
+    public boolean contains(int[] marking) {
+        if (marking.length != net.getPlaceCount()) {
+            throw new IllegalArgumentException("The marking must have one entry per place");
+        }
+        int node = root;
+        for (int level = marking.length; level > 0 && node != EMPTY; level--) {
+            int tokens = marking[placeAtLevel[level - 1]];
+            int[] children = forest.children(node);
+            node = tokens >= 0 && tokens < children.length ? children[tokens] : EMPTY;
+        }
+        return node == ONE;
+    }
+
+    /**
+     * Returns the largest number of tokens a place holds in a reachable marking.
+     *
+     * @param place The index of the place.
+     * @return The bound of the place.
+     */
+    public int getBound(int place) {
+        int[] bounds = new int[net.getPlaceCount() + 1];
+        visit(root, new boolean[forest.size()], bounds);
+        for (int level = 1; level < bounds.length; level++) {
+            if (placeAtLevel[level - 1] == place) {
+                return bounds[level];
+            }
+        }
+        throw new IllegalArgumentException("The place does not exist");
+    }
+
+    /**
+     * Counts the reachable markings satisfying a query, without enumerating them.
+     *
+     * @param query The conditions on the tokens of places.
+     * @return The number of reachable markings satisfying the query.
+     * @throws ElementNameNotExists If a place of the query does not exist in the net.
+     */
+    public BigInteger count(ReachabilityQuery query) throws ElementNameNotExists {
+        return count(root, query.resolve(net), new HashMap<Integer, BigInteger>());
+    }
+
+    /**
+     * Checks if a reachable marking satisfies a query.
+     *
+     * @param query The conditions on the tokens of places.
+     * @return True if at least one reachable marking satisfies the query, false otherwise.
+     * @throws ElementNameNotExists If a place of the query does not exist in the net.
+     */
+    public boolean exists(ReachabilityQuery query) throws ElementNameNotExists {
+        return count(query).signum() > 0;
+    }
+
+    /**
+     * Counts the paths from a node to {@link MddForest#ONE} going through allowed values.
+     *
+     * @param node   The node.
+     * @param bounds The minimum and maximum tokens of each place, or null to allow everything.
+     * @param counts The counts of the nodes already visited.
+     * @return The number of markings of the node satisfying the bounds.
+     */
+    private BigInteger count(int node, int[][] bounds, Map<Integer, BigInteger> counts) {
+        if (node == EMPTY) {
+            return BigInteger.ZERO;
+        }
+        if (node == ONE) {
+            return BigInteger.ONE;
+        }
+        BigInteger count = counts.get(node);
+        if (count != null) {
+            return count;
+        }
+        int place = placeAtLevel[forest.level(node) - 1];
+        int[] children = forest.children(node);
+        int min = bounds == null ? 0 : Math.max(0, bounds[0][place]);
+        int max = bounds == null ? children.length - 1 : Math.min(children.length - 1, bounds[1][place]);
+        count = BigInteger.ZERO;
+        for (int v = min; v <= max; v++) {
+            count = count.add(count(children[v], bounds, counts));
+        }
+        counts.put(node, count);
+        return count;
+    }
+
+    /**
+     * Visits the nodes below a node once, recording the largest value of each level.
+     *
+     * @param node    The node.
+     * @param visited Whether each node was already visited.
+     * @param bounds  Receives the largest value of each level.
+     * @return The number of nodes newly visited, terminals excluded.
+     */
+    private int visit(int node, boolean[] visited, int[] bounds) {
+        if (node == EMPTY || node == ONE || visited[node]) {
+            return 0;
+        }
+        visited[node] = true;
+        int[] children = forest.children(node);
+        int level = forest.level(node);
+        // Trailing empty children are trimmed, so the last value always leads to a marking.
+        bounds[level] = Math.max(bounds[level], children.length - 1);
+        int count = 1;
+        for (int child : children) {
+            count += visit(child, visited, bounds);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,11 @@
+package mapd.exceptions;
+
+public class InvalidDelayNumber extends Exception {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidDelayNumber(String errorMessage) {
+		super(errorMessage);
+	}
+	
+}
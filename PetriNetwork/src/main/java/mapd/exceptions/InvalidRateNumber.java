@@ -0,0 +1,11 @@
+package mapd.exceptions;
+
+public class InvalidRateNumber extends Exception {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidRateNumber(String errorMessage) {
+		super(errorMessage);
+	}
+	
+}
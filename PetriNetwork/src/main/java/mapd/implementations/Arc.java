@@ -9,6 +9,7 @@ public abstract class Arc {
     private Place place;
     private Integer weight;
     private String label;
+    private Transition transition;
 
     /**
      * Constructs an Arc with a default weight of 1.
@@ -50,6 +51,15 @@ public abstract class Arc {
         return place;
     }
 
+    /**
+     * Returns the Transition this Arc is connected to.
+     *
+     * @return The Transition object, or null if the Arc has been removed from its Transition.
+     */
+    public Transition getTransition() {
+        return transition;
+    }
+
     /**
      * Returns the weight of this Arc.
      *
@@ -112,6 +122,26 @@ public abstract class Arc {
      */
     public abstract void addToTransition(Transition transition) throws RepeatedArc;
 
+    /**
+     * Records the Transition this Arc has been added to and registers the Arc in its Place.
+     *
+     * @param transition The Transition owning the Arc.
+     */
+    void attach(Transition transition) {
+        this.transition = transition;
+        this.place.addArc(this);
+    }
+
+    /**
+     * Removes this Arc from its Place and forgets its Transition.
+     * <p>
+     * The Transition's arc lists are left to the caller.
+     */
+    void detachFromPlace() {
+        this.place.rmArc(this);
+        this.transition = null;
+    }
+
     /**
      * Validates the weight of the Arc.
      *
@@ -0,0 +1,137 @@
+package mapd.implementations;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import mapd.interfaces.IFiringListener;
+
+public class AsyncFiringLogger implements IFiringListener, AutoCloseable {
+
+    private static final int DEFAULT_CAPACITY = 65536;
+    private static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private BlockingQueue<String[]> events;
+    private Writer out;
+    private int batchSize;
+    private Thread worker;
+    private volatile boolean closed;
+    private volatile boolean failed;
+
+    /**
+     * Constructs a logger writing the firings to the standard output.
+     */
+    public AsyncFiringLogger() {
+        this(new OutputStreamWriter(System.out), DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a logger writing the firings to the given writer.
+     * <p>
+     * The firing thread only takes a snapshot of the changed places and enqueues it. A daemon
+     * thread formats the queued firings and writes them in batches of up to {@code batchSize}
+     * lines, flushing the writer after each batch. When the queue is full, the firing thread
+     * waits for the writer to catch up, so no firing is lost. Firings after {@link #close()}
+     * or after the writer has failed are ignored.
+     *
+     * @param out       The writer receiving one line per firing.
+     * @param capacity  The maximum number of firings waiting to be written.
+     * @param batchSize The maximum number of lines written at once.
+     * @throws IllegalArgumentException If the capacity or the batch size is less than 1.
+     */
+    public AsyncFiringLogger(Writer out, int capacity, int batchSize) {
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Invalid capacity or batch size < 1");
+        }
+        this.events = new LinkedBlockingQueue<String[]>(capacity);
+        this.out = out;
+        this.batchSize = batchSize;
+        this.worker = new Thread(this::writeEvents, "firing-logger");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Enqueues a line with the label of the fired transition and the new tokens of the
+     * changed places, in the form {@code t1: p1=0, p2=1}.
+     *
+     * @param transition    The fired transition.
+     * @param changedPlaces The places whose tokens have changed.
+     */
+    @Override
+    public void markingChanged(Transition transition, List<Place> changedPlaces) {
+        if (this.closed || this.failed) {
+            return;
+        }
+        String[] event = new String[1 + 2 * changedPlaces.size()];
+        event[0] = transition.getLabel();
+        for (int i = 0; i < changedPlaces.size(); i++) {
+            Place place = changedPlaces.get(i);
+            event[1 + 2 * i] = place.getLabel();
+            event[2 + 2 * i] = String.valueOf(place.getTokens());
+        }
+        try {
+            this.events.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the firings still in the queue and stops the writing thread.
+     * <p>
+     * The writer itself is flushed but not closed. If the calling thread is interrupted while
+     * waiting, the remaining firings are still written in the background and the interrupt
+     * status of the thread is restored.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        try {
+            this.worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Body of the writing thread: waits for firings and writes them in batches until the
+     * logger is closed and the queue is empty.
+     */
+    private void writeEvents() {
+        List<String[]> batch = new ArrayList<String[]>(this.batchSize);
+        StringBuilder text = new StringBuilder();
+        try {
+            while (!this.closed || !this.events.isEmpty()) {
+                String[] first = this.events.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                this.events.drainTo(batch, this.batchSize - 1);
+                for (String[] event : batch) {
+                    text.append(event[0]).append(':');
+                    for (int i = 1; i < event.length; i += 2) {
+                        text.append(i == 1 ? " " : ", ").append(event[i]).append('=').append(event[i + 1]);
+                    }
+                    text.append(System.lineSeparator());
+                }
+                this.out.write(text.toString());
+                this.out.flush();
+                batch.clear();
+                text.setLength(0);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            this.failed = true;
+            this.events.clear();
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,696 @@
+package mapd.implementations;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import mapd.exceptions.ElementNameNotExists;
+import mapd.exceptions.NoFireableTransition;
+
+public class CompiledPetriNet {
+
+    public static final int ARC_OUT = 0;
+    public static final int ARC_OUT_ZERO = 1;
+    public static final int ARC_OUT_BOUNCER = 2;
+    public static final int ARC_IN = 3;
+
+    private String[] placeLabels;
+    private String[] transitionLabels;
+    private HashMap<String, Integer> placeIndexes;
+    private HashMap<String, Integer> transitionIndexes;
+
+    private int[] marking;
+
+    private int[] preStart;
+    private int[] prePlaces;
+    private int[] preWeights;
+    private int[] preKinds;
+
+    private int[] postStart;
+    private int[] postPlaces;
+    private int[] postWeights;
+
+    private double[] rates;
+    private long[] minDelays;
+    private long[] maxDelays;
+
+    private boolean[] plainPre;
+
+    private int[] dependentStart;
+    private int[] dependentTransitions;
+
+    private int[] enabledTransitions;
+    private int[] enabledPositions;
+    private int enabledCount;
+
+    private int[] visitStamps;
+    private int visitEpoch;
+
+    /**
+     * Constructs a compiled Petri net from its primitive array representation.
+     * <p>
+     * Places and transitions are identified by their index. The arcs of each transition are stored
+     * in compressed sparse rows: the OutArcs of transition {@code t} (pre arcs, from a place to the
+     * transition) are found between {@code preStart[t]} and {@code preStart[t + 1]} in
+     * {@code prePlaces}, {@code preWeights} and {@code preKinds}, and its InArcs (post arcs, from the
+     * transition to a place) between {@code postStart[t]} and {@code postStart[t + 1]} in
+     * {@code postPlaces} and {@code postWeights}. The arrays are used as given, without copies.
+     *
+     * @param placeLabels      The labels of the places, indexed by place.
+     * @param marking          The initial number of tokens of each place.
+     * @param transitionLabels The labels of the transitions, indexed by transition.
+     * @param preStart         The start of the pre arcs of each transition, followed by the total count.
+     * @param prePlaces        The place of each pre arc.
+     * @param preWeights       The weight of each pre arc.
+     * @param preKinds         The kind of each pre arc ({@link #ARC_OUT}, {@link #ARC_OUT_ZERO} or {@link #ARC_OUT_BOUNCER}).
+     * @param postStart        The start of the post arcs of each transition, followed by the total count.
+     * @param postPlaces       The place of each post arc.
+     * @param postWeights      The weight of each post arc.
+     * @throws IllegalArgumentException If the arrays do not describe a consistent net.
+     */
+    public CompiledPetriNet(String[] placeLabels, int[] marking, String[] transitionLabels,
+            int[] preStart, int[] prePlaces, int[] preWeights, int[] preKinds,
+            int[] postStart, int[] postPlaces, int[] postWeights) {
+        this(placeLabels, marking, transitionLabels, preStart, prePlaces, preWeights, preKinds,
+                postStart, postPlaces, postWeights, null);
+    }
+
+    /**
+     * Constructs a compiled Petri net from its primitive array representation, with the firing
+     * rate of each transition.
+     *
+     * @param placeLabels      The labels of the places, indexed by place.
+     * @param marking          The initial number of tokens of each place.
+     * @param transitionLabels The labels of the transitions, indexed by transition.
+     * @param preStart         The start of the pre arcs of each transition, followed by the total count.
+     * @param prePlaces        The place of each pre arc.
+     * @param preWeights       The weight of each pre arc.
+     * @param preKinds         The kind of each pre arc ({@link #ARC_OUT}, {@link #ARC_OUT_ZERO} or {@link #ARC_OUT_BOUNCER}).
+     * @param postStart        The start of the post arcs of each transition, followed by the total count.
+     * @param postPlaces       The place of each post arc.
+     * @param postWeights      The weight of each post arc.
+     * @param rates            The rate of each transition, or null for a rate of 1 everywhere.
+     * @throws IllegalArgumentException If the arrays do not describe a consistent net.
+     */
+    public CompiledPetriNet(String[] placeLabels, int[] marking, String[] transitionLabels,
+            int[] preStart, int[] prePlaces, int[] preWeights, int[] preKinds,
+            int[] postStart, int[] postPlaces, int[] postWeights, double[] rates) {
+        if (rates == null) {
+            rates = new double[transitionLabels.length];
+            Arrays.fill(rates, 1.0);
+        }
+        if (marking.length != placeLabels.length
+                || rates.length != transitionLabels.length
+                || preStart.length != transitionLabels.length + 1
+                || postStart.length != transitionLabels.length + 1
+                || prePlaces.length != preStart[transitionLabels.length]
+                || preWeights.length != prePlaces.length
+                || preKinds.length != prePlaces.length
+                || postPlaces.length != postStart[transitionLabels.length]
+                || postWeights.length != postPlaces.length) {
+            throw new IllegalArgumentException("Inconsistent compiled net arrays");
+        }
+        this.placeLabels = placeLabels;
+        this.transitionLabels = transitionLabels;
+        this.marking = marking;
+        this.preStart = preStart;
+        this.prePlaces = prePlaces;
+        this.preWeights = preWeights;
+        this.preKinds = preKinds;
+        this.postStart = postStart;
+        this.postPlaces = postPlaces;
+        this.postWeights = postWeights;
+        this.rates = rates;
+        this.minDelays = new long[transitionLabels.length];
+        this.maxDelays = new long[transitionLabels.length];
+
+        buildDependents();
+
+        this.plainPre = new boolean[transitionLabels.length];
+        for (int t = 0; t < transitionLabels.length; t++) {
+            boolean plain = true;
+            for (int i = preStart[t]; i < preStart[t + 1] && plain; i++) {
+                plain = preKinds[i] == ARC_OUT;
+            }
+            this.plainPre[t] = plain;
+        }
+
+        this.enabledTransitions = new int[transitionLabels.length];
+        this.enabledPositions = new int[transitionLabels.length];
+        this.visitStamps = new int[transitionLabels.length];
+        refreshEnabledTransitions();
+    }
+
+    /**
+     * Builds the compressed index from each place to the transitions having a pre arc on it.
+     * <p>
+     * Those are the only transitions whose enabling can change when the place's tokens change.
+     */
+    private void buildDependents() {
+        this.dependentStart = new int[this.placeLabels.length + 1];
+        for (int i = 0; i < this.prePlaces.length; i++) {
+            this.dependentStart[this.prePlaces[i] + 1]++;
+        }
+        for (int p = 0; p < this.placeLabels.length; p++) {
+            this.dependentStart[p + 1] += this.dependentStart[p];
+        }
+        this.dependentTransitions = new int[this.prePlaces.length];
+        int[] next = Arrays.copyOf(this.dependentStart, this.placeLabels.length);
+        for (int t = 0; t < this.transitionLabels.length; t++) {
+            for (int i = this.preStart[t]; i < this.preStart[t + 1]; i++) {
+                this.dependentTransitions[next[this.prePlaces[i]]++] = t;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of places.
+     *
+     * @return The number of places of the net.
+     */
+    public int getPlaceCount() {
+        return this.placeLabels.length;
+    }
+
+    /**
+     * Returns the number of transitions.
+     *
+     * @return The number of transitions of the net.
+     */
+    public int getTransitionCount() {
+        return this.transitionLabels.length;
+    }
+
+    /**
+     * Returns the label of a place.
+     *
+     * @param place The index of the place.
+     * @return The label of the place.
+     */
+    public String getPlaceLabel(int place) {
+        return this.placeLabels[place];
+    }
+
+    /**
+     * Returns the label of a transition.
+     *
+     * @param transition The index of the transition.
+     * @return The label of the transition.
+     */
+    public String getTransitionLabel(int transition) {
+        return this.transitionLabels[transition];
+    }
+
+    /**
+     * Returns the index of the place with the given label.
+     * <p>
+     * The map from labels to indexes is only built on the first call.
+     *
+     * @param label The label of the place.
+     * @return The index of the place.
+     * @throws ElementNameNotExists If no place has this label.
+     */
+    public int getPlaceIndex(String label) throws ElementNameNotExists {
+        if (this.placeIndexes == null) {
+            this.placeIndexes = indexes(this.placeLabels);
+        }
+        Integer index = this.placeIndexes.get(label);
+        if (index == null) {
+            throw new ElementNameNotExists("A place with this name does not exist");
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the transition with the given label.
+     * <p>
+     * As for places, the map is only built on the first call.
+     *
+     * @param label The label of the transition.
+     * @return The index of the transition.
+     * @throws ElementNameNotExists If no transition has this label.
+     */
+    public int getTransitionIndex(String label) throws ElementNameNotExists {
+        if (this.transitionIndexes == null) {
+            this.transitionIndexes = indexes(this.transitionLabels);
+        }
+        Integer index = this.transitionIndexes.get(label);
+        if (index == null) {
+            throw new ElementNameNotExists("A transition with this name does not exist");
+        }
+        return index;
+    }
+
+    private static HashMap<String, Integer> indexes(String[] labels) {
+        HashMap<String, Integer> indexes = new HashMap<String, Integer>();
+        for (int i = 0; i < labels.length; i++) {
+            indexes.put(labels[i], i);
+        }
+        return indexes;
+    }
+
+    /**
+     * Returns the start offsets of the pre arcs of each transition.
+     * <p>
+     * The returned array, like the other structure accessors, is shared with the net and must not be modified.
+     *
+     * @return The pre arc offsets, with one extra trailing entry holding the total count.
+     */
+    public int[] getPreStart() {
+        return this.preStart;
+    }
+
+    /**
+     * Returns the place of each pre arc.
+     *
+     * @return The pre arc places.
+     */
+    public int[] getPrePlaces() {
+        return this.prePlaces;
+    }
+
+    /**
+     * Returns the weight of each pre arc.
+     *
+     * @return The pre arc weights.
+     */
+    public int[] getPreWeights() {
+        return this.preWeights;
+    }
+
+    /**
+     * Returns the kind of each pre arc.
+     *
+     * @return The pre arc kinds.
+     */
+    public int[] getPreKinds() {
+        return this.preKinds;
+    }
+
+    /**
+     * Returns the start offsets of the post arcs of each transition.
+     *
+     * @return The post arc offsets, with one extra trailing entry holding the total count.
+     */
+    public int[] getPostStart() {
+        return this.postStart;
+    }
+
+    /**
+     * Returns the place of each post arc.
+     *
+     * @return The post arc places.
+     */
+    public int[] getPostPlaces() {
+        return this.postPlaces;
+    }
+
+    /**
+     * Returns the weight of each post arc.
+     *
+     * @return The post arc weights.
+     */
+    public int[] getPostWeights() {
+        return this.postWeights;
+    }
+
+    /**
+     * Returns the firing rate of each transition, used by stochastic simulation.
+     *
+     * @return The rates, indexed by transition.
+     */
+    public double[] getRates() {
+        return this.rates;
+    }
+
+    /**
+     * Returns the minimum firing delay of each transition, used by timed simulation.
+     *
+     * @return The minimum delays in ticks, indexed by transition, 0 unless set.
+     */
+    public long[] getMinDelays() {
+        return this.minDelays;
+    }
+
+    /**
+     * Returns the maximum firing delay of each transition, used by timed simulation.
+     *
+     * @return The maximum delays in ticks, indexed by transition, 0 unless set.
+     */
+    public long[] getMaxDelays() {
+        return this.maxDelays;
+    }
+
+    /**
+     * Sets the interval of the firing delay of each transition. The arrays are used as given.
+     *
+     * @param minDelays The minimum delay of each transition, in ticks.
+     * @param maxDelays The maximum delay of each transition, in ticks.
+     * @throws IllegalArgumentException If an array does not have one entry per transition, or a
+     *                                  minimum is negative or greater than its maximum.
+     */
+    public void setDelays(long[] minDelays, long[] maxDelays) {
+        if (minDelays.length != this.transitionLabels.length || maxDelays.length != this.transitionLabels.length) {
+            throw new IllegalArgumentException("Inconsistent compiled net arrays");
+        }
+        for (int t = 0; t < minDelays.length; t++) {
+            if (minDelays[t] < 0 || minDelays[t] > maxDelays[t]) {
+                throw new IllegalArgumentException("Invalid delay interval of transition " + this.transitionLabels[t]);
+            }
+        }
+        this.minDelays = minDelays;
+        this.maxDelays = maxDelays;
+    }
+
+    /**
+     * Returns the start offsets of the dependent transitions of each place.
+     *
+     * @return The dependent transition offsets, with one extra trailing entry holding the total count.
+     */
+    public int[] getDependentStart() {
+        return this.dependentStart;
+    }
+
+    /**
+     * Returns the transitions having a pre arc on each place, grouped by place.
+     *
+     * @return The dependent transitions.
+     */
+    public int[] getDependentTransitions() {
+        return this.dependentTransitions;
+    }
+
+    /**
+     * Returns the current number of tokens of a place.
+     *
+     * @param place The index of the place.
+     * @return The number of tokens of the place.
+     */
+    public int getTokens(int place) {
+        return this.marking[place];
+    }
+
+    /**
+     * Returns a copy of the current marking.
+     *
+     * @return The number of tokens of each place.
+     */
+    public int[] getMarking() {
+        return this.marking.clone();
+    }
+
+    /**
+     * Replaces the current marking and recomputes the enabled transitions.
+     *
+     * @param marking The number of tokens of each place.
+     * @throws IllegalArgumentException If the marking does not have one non-negative entry per place.
+     */
+    public void setMarking(int[] marking) {
+        if (marking.length != this.marking.length) {
+            throw new IllegalArgumentException("The marking must have one entry per place");
+        }
+        for (int tokens : marking) {
+            if (tokens < 0) {
+                throw new IllegalArgumentException("Invalid token < 0");
+            }
+        }
+        System.arraycopy(marking, 0, this.marking, 0, marking.length);
+        refreshEnabledTransitions();
+    }
+
+    /**
+     * Checks if a transition is enabled in the given marking.
+     * <p>
+     * This follows the semantics of {@link Transition#updateIsFireable()}: a transition is enabled if
+     * at least one of its pre arcs is active, or if it has no pre arcs but at least one post arc.
+     * An {@link OutArc} is active when the place holds at least its weight, an {@link OutZeroArc}
+     * when the place is empty and an {@link OutBouncerArc} when the place holds at least one token.
+     *
+     * @param transition The index of the transition.
+     * @param marking    The marking to evaluate.
+     * @return True if the transition is enabled in the marking, false otherwise.
+     */
+    public boolean isEnabled(int transition, int[] marking) {
+        int start = this.preStart[transition];
+        int end = this.preStart[transition + 1];
+        if (start == end) {
+            return this.postStart[transition] != this.postStart[transition + 1];
+        }
+        if (this.plainPre[transition]) {
+            return anyCovered(marking, start, end);
+        }
+        for (int i = start; i < end; i++) {
+            if (isActive(this.preKinds[i], marking[this.prePlaces[i]], this.preWeights[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if one of a range of {@link OutArc}s is active, without looking at the arc kinds.
+     * <p>
+     * The loop has a single comparison and no call, so the cost of a transition with hundreds of
+     * OutArcs is one indexed load and one comparison per arc.
+     *
+     * @param marking The marking to evaluate.
+     * @param start   The first pre arc.
+     * @param end     The end of the pre arcs.
+     * @return True if a place holds at least the weight of its arc.
+     */
+    private boolean anyCovered(int[] marking, int start, int end) {
+        int[] places = this.prePlaces;
+        int[] weights = this.preWeights;
+        for (int i = start; i < end; i++) {
+            if (marking[places[i]] >= weights[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a pre arc is active.
+     *
+     * @param kind   The kind of the arc.
+     * @param tokens The number of tokens of the arc's place.
+     * @param weight The weight of the arc.
+     * @return True if the arc is active, false otherwise.
+     */
+    private static boolean isActive(int kind, int tokens, int weight) {
+        switch (kind) {
+            case ARC_OUT_ZERO:
+                return tokens == 0;
+            case ARC_OUT_BOUNCER:
+                return tokens >= 1;
+            default:
+                return tokens >= weight;
+        }
+    }
+
+    /**
+     * Applies the effect of firing a transition to the given marking, without checking that it is enabled.
+     * <p>
+     * Every active {@link OutArc} removes its weight from its place, every active {@link OutBouncerArc}
+     * empties its place, {@link OutZeroArc}s leave their place unchanged and every {@link InArc} adds its
+     * weight to its place, exactly as {@link Transition#fire()} does.
+     *
+     * @param transition The index of the transition.
+     * @param marking    The marking to update in place.
+     */
+    public void applyFiring(int transition, int[] marking) {
+        applyPre(transition, marking);
+        applyPost(transition, marking);
+    }
+
+    /**
+     * Applies the effect of firing several transitions together to the given marking, without
+     * checking that they are enabled.
+     * <p>
+     * The pre arcs of every transition are applied first, then the post arcs of every transition,
+     * so, as in the step semantics of Petri nets, every pre arc sees the marking before the step
+     * and the tokens produced by the step cannot be consumed in the same step. No two of the
+     * transitions may have a pre arc on a place where one of them removes tokens.
+     *
+     * @param transitions The indexes of the transitions.
+     * @param count       The number of transitions to fire, from the start of the array.
+     * @param marking     The marking to update in place.
+     */
+    public void applyStep(int[] transitions, int count, int[] marking) {
+        for (int k = 0; k < count; k++) {
+            applyPre(transitions[k], marking);
+        }
+        for (int k = 0; k < count; k++) {
+            applyPost(transitions[k], marking);
+        }
+    }
+
+    private void applyPre(int transition, int[] marking) {
+        if (this.plainPre[transition]) {
+            // Branch-free form of the OutArc case below, for transitions with OutArcs only.
+            int[] places = this.prePlaces;
+            int[] weights = this.preWeights;
+            for (int i = this.preStart[transition], end = this.preStart[transition + 1]; i < end; i++) {
+                int tokens = marking[places[i]];
+                int left = tokens - weights[i];
+                marking[places[i]] = left >= 0 ? left : tokens;
+            }
+        } else {
+            applyPreArcs(transition, marking);
+        }
+    }
+
+    private void applyPost(int transition, int[] marking) {
+        int[] places = this.postPlaces;
+        int[] weights = this.postWeights;
+        for (int i = this.postStart[transition], end = this.postStart[transition + 1]; i < end; i++) {
+            marking[places[i]] += weights[i];
+        }
+    }
+
+    /**
+     * Applies the effect of the pre arcs of a transition whose arcs may be of any kind.
+     *
+     * @param transition The index of the transition.
+     * @param marking    The marking to update in place.
+     */
+    private void applyPreArcs(int transition, int[] marking) {
+        for (int i = this.preStart[transition], end = this.preStart[transition + 1]; i < end; i++) {
+            int place = this.prePlaces[i];
+            int tokens = marking[place];
+            switch (this.preKinds[i]) {
+                case ARC_OUT:
+                    if (tokens >= this.preWeights[i]) {
+                        marking[place] = tokens - this.preWeights[i];
+                    }
+                    break;
+                case ARC_OUT_BOUNCER:
+                    marking[place] = 0;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Checks if a transition is enabled in the current marking.
+     *
+     * @param transition The index of the transition.
+     * @return True if the transition is enabled, false otherwise.
+     */
+    public boolean isEnabled(int transition) {
+        return this.enabledPositions[transition] >= 0;
+    }
+
+    /**
+     * Returns the number of enabled transitions in the current marking.
+     *
+     * @return The number of enabled transitions.
+     */
+    public int getEnabledCount() {
+        return this.enabledCount;
+    }
+
+    /**
+     * Returns the enabled transition stored at the given position of the enabled set.
+     *
+     * @param position A position between 0 (inclusive) and {@link #getEnabledCount()} (exclusive).
+     * @return The index of the enabled transition.
+     */
+    public int getEnabledTransition(int position) {
+        return this.enabledTransitions[position];
+    }
+
+    /**
+     * Returns a copy of the transitions enabled in the current marking.
+     *
+     * @return The indexes of the enabled transitions.
+     */
+    public int[] fireableTransitions() {
+        return Arrays.copyOf(this.enabledTransitions, this.enabledCount);
+    }
+
+    /**
+     * Fires a transition in the current marking.
+     * <p>
+     * Only the transitions having a pre arc on a place touched by the firing are re-evaluated, so the
+     * cost of a firing is proportional to the local degree of the fired transition.
+     *
+     * @param transition The index of the transition to be fired.
+     * @throws NoFireableTransition If the transition is not enabled.
+     */
+    public void fire(int transition) throws NoFireableTransition {
+        if (this.enabledPositions[transition] < 0) {
+            throw new NoFireableTransition("Transition is not fireable");
+        }
+        applyFiring(transition, this.marking);
+        int epoch = nextVisitEpoch();
+        for (int i = this.preStart[transition], end = this.preStart[transition + 1]; i < end; i++) {
+            if (this.preKinds[i] != ARC_OUT_ZERO) {
+                refreshDependents(this.prePlaces[i], epoch);
+            }
+        }
+        for (int i = this.postStart[transition], end = this.postStart[transition + 1]; i < end; i++) {
+            refreshDependents(this.postPlaces[i], epoch);
+        }
+    }
+
+    /**
+     * Re-evaluates the transitions having a pre arc on the given place.
+     *
+     * @param place The place whose tokens may have changed.
+     * @param epoch The current visit epoch, used to evaluate each transition once per firing.
+     */
+    private void refreshDependents(int place, int epoch) {
+        for (int i = this.dependentStart[place], end = this.dependentStart[place + 1]; i < end; i++) {
+            int transition = this.dependentTransitions[i];
+            if (this.visitStamps[transition] != epoch) {
+                this.visitStamps[transition] = epoch;
+                setEnabled(transition, isEnabled(transition, this.marking));
+            }
+        }
+    }
+
+    /**
+     * Starts a new visit epoch, clearing the stamps when the counter wraps around.
+     *
+     * @return The new epoch.
+     */
+    private int nextVisitEpoch() {
+        if (++this.visitEpoch == 0) {
+            Arrays.fill(this.visitStamps, 0);
+            this.visitEpoch = 1;
+        }
+        return this.visitEpoch;
+    }
+
+    /**
+     * Recomputes the enabled status of every transition.
+     */
+    private void refreshEnabledTransitions() {
+        Arrays.fill(this.enabledPositions, -1);
+        this.enabledCount = 0;
+        for (int t = 0; t < this.transitionLabels.length; t++) {
+            setEnabled(t, isEnabled(t, this.marking));
+        }
+    }
+
+    /**
+     * Updates the membership of a transition in the dense enabled set.
+     *
+     * @param transition The index of the transition.
+     * @param enabled    Whether the transition is enabled.
+     */
+    private void setEnabled(int transition, boolean enabled) {
+        int position = this.enabledPositions[transition];
+        if (enabled && position < 0) {
+            this.enabledPositions[transition] = this.enabledCount;
+            this.enabledTransitions[this.enabledCount++] = transition;
+        } else if (!enabled && position >= 0) {
+            int last = this.enabledTransitions[--this.enabledCount];
+            this.enabledTransitions[position] = last;
+            this.enabledPositions[last] = position;
+            this.enabledPositions[transition] = -1;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package mapd.implementations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class EnabledTransitions {
+
+    private List<Transition> transitions;
+    private List<Transition> view;
+
+    /**
+     * Constructs an empty set of enabled transitions.
+     * <p>
+     * The transitions are kept in a dense list and every member remembers its own position,
+     * so adding, removing, counting and picking a transition are constant time operations.
+     */
+    public EnabledTransitions() {
+        this.transitions = new ArrayList<Transition>();
+        this.view = Collections.unmodifiableList(this.transitions);
+    }
+
+    /**
+     * Synchronizes the membership of a transition with its current fireable status.
+     *
+     * @param transition The transition whose fireable status may have changed.
+     */
+    public void update(Transition transition) {
+        if (transition.isFireable()) {
+            add(transition);
+        } else {
+            remove(transition);
+        }
+    }
+
+    /**
+     * Adds a transition to the set if it is not already a member.
+     *
+     * @param transition The transition to be added.
+     */
+    public void add(Transition transition) {
+        if (transition.enabledPosition < 0) {
+            transition.enabledPosition = this.transitions.size();
+            this.transitions.add(transition);
+        }
+    }
+
+    /**
+     * Removes a transition from the set if it is a member.
+     * <p>
+     * The last member of the dense list is moved into the freed position, so the
+     * removal does not shift the remaining transitions.
+     *
+     * @param transition The transition to be removed.
+     */
+    public void remove(Transition transition) {
+        int position = transition.enabledPosition;
+        if (position >= 0) {
+            Transition last = this.transitions.remove(this.transitions.size() - 1);
+            if (last != transition) {
+                this.transitions.set(position, last);
+                last.enabledPosition = position;
+            }
+            transition.enabledPosition = -1;
+        }
+    }
+
+    /**
+     * Checks if a transition is a member of the set.
+     *
+     * @param transition The transition to check.
+     * @return True if the transition is currently enabled, false otherwise.
+     */
+    public boolean contains(Transition transition) {
+        return transition.enabledPosition >= 0;
+    }
+
+    /**
+     * Returns the number of enabled transitions.
+     *
+     * @return The size of the set.
+     */
+    public int size() {
+        return this.transitions.size();
+    }
+
+    /**
+     * Returns the enabled transition stored at the given position.
+     *
+     * @param position A position between 0 (inclusive) and {@link #size()} (exclusive).
+     * @return The transition stored at the position.
+     */
+    public Transition get(int position) {
+        return this.transitions.get(position);
+    }
+
+    /**
+     * Picks one of the enabled transitions uniformly at random.
+     *
+     * @param random The source of randomness.
+     * @return A random enabled transition, or null if no transition is enabled.
+     */
+    public Transition pickRandom(Random random) {
+        if (this.transitions.isEmpty()) {
+            return null;
+        }
+        return this.transitions.get(random.nextInt(this.transitions.size()));
+    }
+
+    /**
+     * Returns a read-only live view of the enabled transitions.
+     * <p>
+     * The view is not copied: it reflects later firings, and its order changes as
+     * transitions are added and removed.
+     *
+     * @return An unmodifiable view of the enabled transitions.
+     */
+    public List<Transition> view() {
+        return this.view;
+    }
+
+    /**
+     * Removes every transition from the set.
+     */
+    public void clear() {
+        for (Transition transition : this.transitions) {
+            transition.enabledPosition = -1;
+        }
+        this.transitions.clear();
+    }
+}
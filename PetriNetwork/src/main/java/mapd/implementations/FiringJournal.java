@@ -0,0 +1,415 @@
+package mapd.implementations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import mapd.exceptions.ElementNameNotExists;
+import mapd.exceptions.InvalidTokenNumber;
+import mapd.interfaces.IFiringListener;
+
+public class FiringJournal implements IFiringListener, AutoCloseable {
+
+    static final int MAGIC = 0x504E4A4C;
+    static final int VERSION = 1;
+
+    private static final int FIRE = 0;
+    private static final int DEFINE = 1;
+    private static final int CHECKPOINT = 2;
+
+    private static final int DEFAULT_BATCH_SIZE = 4096;
+    private static final long DEFAULT_CHECKPOINT_INTERVAL = 1000000;
+
+    private PetriNetwork net;
+    private FileChannel channel;
+    private OutputStream out;
+    private Map<Transition, Integer> indices;
+    private int batchSize;
+    private boolean sync;
+    private long checkpointInterval;
+    private long firings;
+    private int pending;
+
+    /**
+     * Constructs a journal with the default settings: batches of 4096 firings, no fsync and a
+     * checkpoint every million firings.
+     *
+     * @param net     The network whose firings are recorded.
+     * @param path    The journal file, created if it does not exist.
+     * @param firings The number of firings already in the journal, as returned by
+     *                {@link #recover(PetriNetwork, Path)}, or 0 for a new journal.
+     * @throws IOException If the journal cannot be opened.
+     */
+    public FiringJournal(PetriNetwork net, Path path, long firings) throws IOException {
+        this(net, path, firings, DEFAULT_BATCH_SIZE, false, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Constructs a journal appending every firing of the network to a file, and registers it as
+     * a firing listener of the network.
+     * <p>
+     * Each firing is written before the tokens move, as the index of the transition in one to
+     * five bytes, and the label of a transition is only written the first time it fires after a
+     * checkpoint. A checkpoint holds the whole marking and is written when the journal is opened
+     * and then every {@code checkpointInterval} firings. Records are buffered and handed to the
+     * operating system every {@code batchSize} firings and at every checkpoint, and forced to
+     * the disk at the same moments when {@code sync} is true, so a crash loses at most the last
+     * batch.
+     * <p>
+     * Only the firings of {@link PetriNetwork#fire(String)} are recorded: other changes of the
+     * marking, such as {@link PetriNetwork#setPlaceTokens(String, Integer)}, must be followed by
+     * {@link #checkpoint()}, and {@link PetriNetwork#fireConcurrently(String)} throws an
+     * {@link IllegalStateException} until the journal is closed. An existing journal must be recovered before being reopened.
+     *
+     * @param net                The network whose firings are recorded.
+     * @param path               The journal file, created if it does not exist.
+     * @param firings            The number of firings already in the journal, or 0 for a new one.
+     * @param batchSize          The number of firings buffered before writing.
+     * @param sync               Whether the written records are forced to the disk.
+     * @param checkpointInterval The number of firings between two checkpoints, or 0 for none
+     *                           but the first one.
+     * @throws IOException If the journal cannot be opened or is not a firing journal.
+     * @throws IllegalArgumentException If the batch size is less than 1 or the interval is negative.
+     */
+    public FiringJournal(PetriNetwork net, Path path, long firings, int batchSize, boolean sync,
+            long checkpointInterval) throws IOException {
+        if (batchSize < 1 || checkpointInterval < 0) {
+            throw new IllegalArgumentException("Invalid batch size < 1 or checkpoint interval < 0");
+        }
+        this.net = net;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (this.channel.size() > 0) {
+                readHeader(new Input(Channels.newInputStream(this.channel)));
+            }
+            this.channel.position(this.channel.size());
+            this.out = new BufferedOutputStream(Channels.newOutputStream(this.channel), 65536);
+            if (this.channel.size() == 0) {
+                writeInt(MAGIC);
+                writeVarInt(VERSION);
+            }
+        } catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+        this.indices = new IdentityHashMap<Transition, Integer>();
+        this.batchSize = batchSize;
+        this.sync = sync;
+        this.checkpointInterval = checkpointInterval;
+        this.firings = firings;
+        checkpoint();
+        net.addFiringListener(this);
+    }
+
+    /**
+     * Returns the number of firings recorded in the journal, including those of previous runs.
+     *
+     * @return The number of firings.
+     */
+    public synchronized long getFirings() {
+        return firings;
+    }
+
+    /**
+     * Records a firing before the tokens move.
+     *
+     * @param transition The transition about to be fired.
+     * @throws UncheckedIOException If the journal cannot be written, in which case the transition
+     *                              is not fired.
+     */
+    @Override
+    public synchronized void beforeFire(Transition transition) {
+        try {
+            Integer index = this.indices.get(transition);
+            if (index == null) {
+                index = this.indices.size();
+                this.indices.put(transition, index);
+                writeVarInt(index << 2 | DEFINE);
+                writeString(transition.getLabel());
+            }
+            writeVarInt(index << 2 | FIRE);
+            this.firings++;
+            if (++this.pending >= this.batchSize) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a checkpoint when the number of firings reaches a multiple of the interval.
+     *
+     * @param transition The fired transition.
+     * @throws UncheckedIOException If the checkpoint cannot be written.
+     */
+    @Override
+    public synchronized void afterFire(Transition transition) {
+        if (this.checkpointInterval > 0 && this.firings % this.checkpointInterval == 0) {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Writes the current marking of the network, so that a recovery does not need to replay
+     * the firings before it.
+     *
+     * @throws IOException If the checkpoint cannot be written.
+     */
+    public synchronized void checkpoint() throws IOException {
+        MarkingSnapshot snapshot = this.net.snapshotMarking();
+        writeVarInt(CHECKPOINT);
+        writeVarLong(this.firings);
+        writeVarInt(snapshot.size());
+        for (int i = 0; i < snapshot.size(); i++) {
+            writeString(snapshot.getPlace(i).getLabel());
+            writeVarInt(snapshot.getTokens(i));
+        }
+        this.indices.clear();
+        flush();
+    }
+
+    /**
+     * Unregisters the journal from the network, writes the buffered firings and closes the file.
+     *
+     * @throws IOException If the journal cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.net.rmFiringListener(this);
+        try {
+            flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Restores the marking of a network from a journal: the last checkpoint is loaded and the
+     * firings after it are replayed.
+     * <p>
+     * The network must have the same places and transitions as the one that was journaled, for
+     * instance by being built again from the same PNML file or binary image. The firings are
+     * replayed without notifying the listeners and without updating the fireable transitions,
+     * which are recomputed once at the end. An incomplete record at the end of the file, left by
+     * a crash while writing, is removed so the journal can be reopened.
+     *
+     * @param net  The network whose marking is restored.
+     * @param path The journal file.
+     * @return The number of firings in the journal, or 0 if the file does not exist or is empty.
+     * @throws IOException If the file cannot be read or is not a valid firing journal.
+     * @throws ElementNameNotExists If the journal refers to a place or transition missing from the network.
+     */
+    public static long recover(PetriNetwork net, Path path) throws IOException, ElementNameNotExists {
+        if (!path.toFile().exists()) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() == 0) {
+                return 0;
+            }
+            Input in = new Input(new BufferedInputStream(Channels.newInputStream(channel), 65536));
+            readHeader(in);
+            long checkpointPosition = -1;
+            long checkpointFirings = 0;
+            long tailFirings = 0;
+            long end = in.position;
+            while (true) {
+                try {
+                    int record = in.readVarInt();
+                    if ((record & 3) == FIRE) {
+                        tailFirings++;
+                    } else if ((record & 3) == DEFINE) {
+                        in.readString();
+                    } else if (record == CHECKPOINT) {
+                        long firings = in.readVarLong();
+                        int size = in.readVarInt();
+                        for (int i = 0; i < size; i++) {
+                            in.readString();
+                            in.readVarInt();
+                        }
+                        checkpointPosition = end;
+                        checkpointFirings = firings;
+                        tailFirings = 0;
+                    } else {
+                        throw new IOException("Corrupted firing journal at position " + end);
+                    }
+                    end = in.position;
+                } catch (EOFException e) {
+                    break;
+                }
+            }
+            if (end < channel.size()) {
+                channel.truncate(end);
+            }
+            if (checkpointPosition < 0) {
+                return 0;
+            }
+            channel.position(checkpointPosition);
+            replay(net, new Input(new BufferedInputStream(Channels.newInputStream(channel), 65536)), end - checkpointPosition);
+            return checkpointFirings + tailFirings;
+        }
+    }
+
+    /**
+     * Loads the checkpoint at the current position and replays the firings after it.
+     *
+     * @param net    The network whose marking is restored.
+     * @param in     The journal, positioned on a checkpoint.
+     * @param length The number of bytes to read.
+     * @throws IOException If the journal cannot be read or holds a negative token count.
+     * @throws ElementNameNotExists If a place or transition is missing from the network.
+     */
+    private static void replay(PetriNetwork net, Input in, long length) throws IOException, ElementNameNotExists {
+        List<Transition> transitions = new ArrayList<Transition>();
+        try {
+            in.readVarInt();
+            in.readVarLong();
+            int size = in.readVarInt();
+            for (int i = 0; i < size; i++) {
+                net.getPlace(in.readString()).setTokens(in.readVarInt());
+            }
+            while (in.position < length) {
+                int record = in.readVarInt();
+                if ((record & 3) == DEFINE) {
+                    transitions.add(net.getTransition(in.readString()));
+                } else {
+                    transitions.get(record >>> 2).replay();
+                }
+            }
+        } catch (InvalidTokenNumber | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupted firing journal", e);
+        } finally {
+            net.refreshAllTransitions();
+        }
+    }
+
+    /**
+     * Checks the magic number and the version at the beginning of a journal.
+     *
+     * @param in The journal, positioned at its beginning.
+     * @throws IOException If the file is not a firing journal of a supported version.
+     */
+    private static void readHeader(Input in) throws IOException {
+        int magic = 0;
+        try {
+            for (int i = 0; i < 4; i++) {
+                magic = magic << 8 | in.read();
+            }
+            if (magic == MAGIC && in.readVarInt() == VERSION) {
+                return;
+            }
+        } catch (EOFException e) {
+            // Falls through to the error below
+        }
+        throw new IOException("Not a firing journal or unsupported version");
+    }
+
+    /**
+     * Hands the buffered records to the operating system, and forces them to the disk if the
+     * journal is synchronous.
+     *
+     * @throws IOException If the records cannot be written.
+     */
+    private void flush() throws IOException {
+        this.out.flush();
+        if (this.sync) {
+            this.channel.force(false);
+        }
+        this.pending = 0;
+    }
+
+    private void writeInt(int value) throws IOException {
+        this.out.write(value >>> 24);
+        this.out.write(value >>> 16);
+        this.out.write(value >>> 8);
+        this.out.write(value);
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            this.out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.out.write((int) value);
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        this.out.write(bytes);
+    }
+
+    /**
+     * Reads the records of a journal and keeps track of the position, throwing an
+     * {@link EOFException} on an incomplete record.
+     */
+    private static class Input {
+
+        private InputStream in;
+        private long position;
+
+        Input(InputStream in) {
+            this.in = in;
+        }
+
+        int read() throws IOException {
+            int value = this.in.read();
+            if (value < 0) {
+                throw new EOFException();
+            }
+            this.position++;
+            return value;
+        }
+
+        int readVarInt() throws IOException {
+            long value = readVarLong();
+            if (value > 0xFFFFFFFFL) {
+                throw new IOException("Corrupted firing journal at position " + this.position);
+            }
+            return (int) value;
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = read();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupted firing journal at position " + this.position);
+        }
+
+        String readString() throws IOException {
+            byte[] bytes = new byte[readVarInt()];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) read();
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
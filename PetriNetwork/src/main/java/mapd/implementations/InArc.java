@@ -38,6 +38,21 @@ public class InArc extends Arc {
         addToTransition(transition);
     }
 
+    /**
+     * Constructs an InArc that is not connected to any Transition yet.
+     * <p>
+     * Used by {@link NetBuilder}, which connects the arcs and computes their status in bulk.
+     *
+     * @param label  The unique label of the InArc.
+     * @param place  The Place associated with this InArc.
+     * @param weight The weight of the InArc.
+     * @throws InvalidWeightNumber If the weight is invalid (less than 1).
+     * @throws RepeatedArc         Never thrown, declared by the Arc constructor.
+     */
+    InArc(String label, Place place, int weight) throws InvalidWeightNumber, RepeatedArc {
+        super(label, place, weight);
+    }
+
     /**
      * Modifies the tokens in the associated Place by adding tokens based on the weight of this InArc.
      *
@@ -60,6 +75,7 @@ public class InArc extends Arc {
     @Override
     public void addToTransition(Transition transition) throws RepeatedArc {
         transition.addInArc(this);
+        attach(transition);
     }
 
     /**
@@ -1,5 +1,7 @@
 package mapd.implementations;
 
+import mapd.interfaces.IFiringListener;
+
 public class Main {
 	
 	public static void main (String[] args) throws Exception {
@@ -35,6 +37,12 @@ public class Main {
 			net.addArc("a5_in", "t4", "p5", "in");
 			net.addArc("a6_in", "t4", "p3", "in");
 			
+			net.addFiringListener(new IFiringListener() {
+				@Override
+				public void afterFire(Transition transition) {
+					net.showPlaces();
+				}
+			});
 			net.showAllElements();
 			
 			net.fireableTransitions();
@@ -0,0 +1,34 @@
+package mapd.implementations;
+
+public class MarkingCheckpoint {
+
+    final int logStart;
+    int stamp;
+    boolean active;
+
+    /**
+     * Constructs a checkpoint of the marking of a network.
+     * <p>
+     * A checkpoint does not copy the marking: from its creation on, the network records the
+     * previous tokens of every place the first time it changes, and rolling back only restores
+     * those places.
+     *
+     * @param logStart The position in the undo log where the checkpoint starts.
+     * @param stamp    The stamp identifying the places already recorded for the checkpoint.
+     */
+    MarkingCheckpoint(int logStart, int stamp) {
+        this.logStart = logStart;
+        this.stamp = stamp;
+        this.active = true;
+    }
+
+    /**
+     * Checks whether the checkpoint can still be rolled back to.
+     *
+     * @return False once the checkpoint, or one created before it, has been released, or once
+     *         the marking has been rolled back to a checkpoint created before it.
+     */
+    public boolean isActive() {
+        return active;
+    }
+}
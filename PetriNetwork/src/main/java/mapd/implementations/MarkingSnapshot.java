@@ -0,0 +1,40 @@
+package mapd.implementations;
+
+public class MarkingSnapshot {
+
+    final Place[] places;
+    final int[] tokens;
+
+    /**
+     * Constructs a snapshot of the tokens of the given places.
+     * <p>
+     * The places are kept by reference next to a primitive array of their tokens, so a
+     * snapshot can be restored without any HashMap lookup.
+     *
+     * @param places The places of the network, in any order.
+     */
+    MarkingSnapshot(Place[] places) {
+        this.places = places;
+        this.tokens = new int[places.length];
+        for (int i = 0; i < places.length; i++) {
+            this.tokens[i] = places[i].getTokens();
+        }
+    }
+
+    /**
+     * Returns the number of places in the snapshot.
+     *
+     * @return The number of places.
+     */
+    public int size() {
+        return places.length;
+    }
+
+    public Place getPlace(int index) {
+        return places[index];
+    }
+
+    public int getTokens(int index) {
+        return tokens[index];
+    }
+}
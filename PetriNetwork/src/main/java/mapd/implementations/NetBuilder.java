@@ -0,0 +1,244 @@
+package mapd.implementations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import mapd.exceptions.ElementNameNotExists;
+import mapd.exceptions.InvalidTokenNumber;
+import mapd.exceptions.InvalidWeightNumber;
+import mapd.exceptions.RepeatedArc;
+import mapd.exceptions.RepeatedNameElement;
+
+public class NetBuilder {
+
+    private List<String> placeLabels;
+    private int[] placeTokens;
+    private List<String> transitionLabels;
+    private List<String> arcLabels;
+    private List<String> arcTransitions;
+    private List<String> arcPlaces;
+    private List<String> arcTypes;
+    private int[] arcWeights;
+
+    /**
+     * Constructs an empty builder.
+     * <p>
+     * Places, transitions and arcs are only recorded when they are added, one by one or in
+     * bulk. Nothing is validated until {@link #build()}, which checks every name and arc at once
+     * with hash sets, connects the arcs without the per-arc duplicate scans of
+     * {@link Transition#addOutArc(OutArc)} and computes the fireable transitions a single time.
+     */
+    public NetBuilder() {
+        this.placeLabels = new ArrayList<String>();
+        this.placeTokens = new int[16];
+        this.transitionLabels = new ArrayList<String>();
+        this.arcLabels = new ArrayList<String>();
+        this.arcTransitions = new ArrayList<String>();
+        this.arcPlaces = new ArrayList<String>();
+        this.arcTypes = new ArrayList<String>();
+        this.arcWeights = new int[16];
+    }
+
+    public NetBuilder addPlace(String label) {
+        return addPlace(label, 0);
+    }
+
+    public NetBuilder addPlace(String label, int tokens) {
+        this.placeTokens = ensureCapacity(this.placeTokens, this.placeLabels.size() + 1);
+        this.placeTokens[this.placeLabels.size()] = tokens;
+        this.placeLabels.add(label);
+        return this;
+    }
+
+    /**
+     * Adds several places at once.
+     *
+     * @param labels The unique labels of the places.
+     * @param tokens The initial tokens of each place, or null for no tokens.
+     * @return This builder.
+     * @throws IllegalArgumentException If the arrays have different lengths.
+     */
+    public NetBuilder addPlaces(String[] labels, int[] tokens) {
+        if (tokens != null && tokens.length != labels.length) {
+            throw new IllegalArgumentException("Places and tokens have different lengths");
+        }
+        int start = this.placeLabels.size();
+        this.placeTokens = ensureCapacity(this.placeTokens, start + labels.length);
+        if (tokens != null) {
+            System.arraycopy(tokens, 0, this.placeTokens, start, tokens.length);
+        }
+        this.placeLabels.addAll(Arrays.asList(labels));
+        return this;
+    }
+
+    public NetBuilder addTransition(String label) {
+        this.transitionLabels.add(label);
+        return this;
+    }
+
+    public NetBuilder addTransitions(String[] labels) {
+        this.transitionLabels.addAll(Arrays.asList(labels));
+        return this;
+    }
+
+    public NetBuilder addArc(String label, String transition, String place, String type) {
+        return addArc(label, transition, place, type, 1);
+    }
+
+    public NetBuilder addArc(String label, String transition, String place, String type, int weight) {
+        this.arcWeights = ensureCapacity(this.arcWeights, this.arcLabels.size() + 1);
+        this.arcWeights[this.arcLabels.size()] = weight;
+        this.arcLabels.add(label);
+        this.arcTransitions.add(transition);
+        this.arcPlaces.add(place);
+        this.arcTypes.add(type);
+        return this;
+    }
+
+    /**
+     * Adds several arcs at once.
+     *
+     * @param labels      The unique labels of the arcs.
+     * @param transitions The labels of the transitions of each arc.
+     * @param places      The labels of the places of each arc.
+     * @param types       The types of each arc ("in", "out", "outzero" or "outbouncer").
+     * @param weights     The weights of each arc, or null for a weight of 1.
+     * @return This builder.
+     * @throws IllegalArgumentException If the arrays have different lengths.
+     */
+    public NetBuilder addArcs(String[] labels, String[] transitions, String[] places, String[] types, int[] weights) {
+        if (transitions.length != labels.length || places.length != labels.length || types.length != labels.length
+                || (weights != null && weights.length != labels.length)) {
+            throw new IllegalArgumentException("Arc arrays have different lengths");
+        }
+        int start = this.arcLabels.size();
+        this.arcWeights = ensureCapacity(this.arcWeights, start + labels.length);
+        if (weights != null) {
+            System.arraycopy(weights, 0, this.arcWeights, start, weights.length);
+        } else {
+            Arrays.fill(this.arcWeights, start, start + labels.length, 1);
+        }
+        this.arcLabels.addAll(Arrays.asList(labels));
+        this.arcTransitions.addAll(Arrays.asList(transitions));
+        this.arcPlaces.addAll(Arrays.asList(places));
+        this.arcTypes.addAll(Arrays.asList(types));
+        return this;
+    }
+
+    /**
+     * Validates the recorded elements and creates a new network with them.
+     * <p>
+     * The same exceptions as the single-element methods of {@link PetriNetwork} are thrown, for the
+     * first invalid element found. The builder is left unchanged, so it can be built again.
+     *
+     * @return A new network holding the recorded places, transitions and arcs.
+     * @throws RepeatedNameElement  If two places, two transitions or two arcs share a label.
+     * @throws ElementNameNotExists If an arc refers to an unknown place or transition.
+     * @throws InvalidTokenNumber   If a place has a negative number of tokens.
+     * @throws InvalidWeightNumber  If an arc has a weight less than 1.
+     * @throws RepeatedArc          If a transition has two arcs in the same direction on the same place.
+     * @throws IllegalArgumentException If an arc has an unknown type.
+     */
+    public PetriNetwork build() throws RepeatedNameElement, ElementNameNotExists, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc {
+        PetriNetwork net = new PetriNetwork();
+        HashMap<String, Place> places = net.getPlaces();
+        HashMap<String, Transition> transitions = net.getTransitions();
+        HashMap<String, Arc> arcs = net.getArcs();
+
+        for (int i = 0; i < this.placeLabels.size(); i++) {
+            String label = this.placeLabels.get(i);
+            Place place = new Place(label, this.placeTokens[i]);
+            place.id = net.nextPlaceId();
+            if (places.put(label, place) != null) {
+                throw new RepeatedNameElement("A Place already exists with this name");
+            }
+        }
+        for (String label : this.transitionLabels) {
+            if (transitions.put(label, new Transition(label)) != null) {
+                throw new RepeatedNameElement("A transition already exists with this name");
+            }
+        }
+
+        for (int i = 0; i < this.arcLabels.size(); i++) {
+            Place place = places.get(this.arcPlaces.get(i));
+            if (place == null) {
+                throw new ElementNameNotExists("A place with this name does not exist");
+            }
+            Transition transition = transitions.get(this.arcTransitions.get(i));
+            if (transition == null) {
+                throw new ElementNameNotExists("A transition with this name does not exist");
+            }
+            String label = this.arcLabels.get(i);
+            Arc arc = createArc(label, this.arcTypes.get(i), place, this.arcWeights[i]);
+            if (arcs.put(label, arc) != null) {
+                throw new RepeatedNameElement("An arc already exists with this name");
+            }
+            if (arc instanceof OutArc) {
+                transition.getOutArcs().add((OutArc) arc);
+            } else {
+                transition.getInArcs().add((InArc) arc);
+            }
+            arc.attach(transition);
+        }
+
+        int[] placeIds = new int[16];
+        for (Transition transition : transitions.values()) {
+            placeIds = checkConnections(transition.getOutArcs(), placeIds);
+            placeIds = checkConnections(transition.getInArcs(), placeIds);
+        }
+
+        net.refreshAllTransitions();
+        return net;
+    }
+
+    /**
+     * Checks that the arcs of a transition in one direction are all on different places, by
+     * sorting the ids of their places.
+     *
+     * @param arcs     The arcs of a transition in one direction.
+     * @param placeIds A scratch array, replaced by a larger one if needed.
+     * @return The scratch array to be used in the next call.
+     * @throws RepeatedArc If two arcs are on the same place.
+     */
+    private static int[] checkConnections(List<? extends Arc> arcs, int[] placeIds) throws RepeatedArc {
+        int size = arcs.size();
+        if (size < 2) {
+            return placeIds;
+        }
+        placeIds = ensureCapacity(placeIds, size);
+        for (int i = 0; i < size; i++) {
+            placeIds[i] = arcs.get(i).getPlace().id;
+        }
+        Arrays.sort(placeIds, 0, size);
+        for (int i = 1; i < size; i++) {
+            if (placeIds[i] == placeIds[i - 1]) {
+                throw new RepeatedArc("An Arc in the same direction already exists");
+            }
+        }
+        return placeIds;
+    }
+
+    private static Arc createArc(String label, String type, Place place, int weight) throws InvalidWeightNumber, RepeatedArc {
+        switch (type.toLowerCase()) {
+            case "in":
+                return new InArc(label, place, weight);
+            case "out":
+                return new OutArc(label, place, weight);
+            case "outzero":
+                return new OutZeroArc(label, place, weight);
+            case "outbouncer":
+                return new OutBouncerArc(label, place, weight);
+            default:
+                throw new IllegalArgumentException("No valid " + type + " arc type");
+        }
+    }
+
+    private static int[] ensureCapacity(int[] array, int size) {
+        if (size <= array.length) {
+            return array;
+        }
+        return Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+}
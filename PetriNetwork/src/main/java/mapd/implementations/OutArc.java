@@ -45,6 +45,21 @@ public class OutArc extends Arc {
         addToTransition(transition);
     }
 
+    /**
+     * Constructs an OutArc that is not connected to any Transition yet.
+     * <p>
+     * Used by {@link NetBuilder}, which connects the arcs and computes their status in bulk.
+     *
+     * @param label  The unique label of the OutArc.
+     * @param place  The Place associated with this OutArc.
+     * @param weight The weight of the OutArc.
+     * @throws InvalidWeightNumber If the weight is invalid (less than 1).
+     * @throws RepeatedArc         Never thrown, declared by the Arc constructor.
+     */
+    OutArc(String label, Place place, int weight) throws InvalidWeightNumber, RepeatedArc {
+        super(label, place, weight);
+    }
+
     /**
      * Checks if this OutArc is currently active.
      * <p>
@@ -95,6 +110,7 @@ public class OutArc extends Arc {
     @Override
     public void addToTransition(Transition transition) throws RepeatedArc {
         transition.addOutArc(this);
+        attach(transition);
     }
 
     /**
@@ -37,6 +37,21 @@ public class OutBouncerArc extends OutArc {
         super(label, place, transition, weight);
     }
 
+    /**
+     * Constructs an OutBouncerArc that is not connected to any Transition yet.
+     * <p>
+     * Used by {@link NetBuilder}, which connects the arcs and computes their status in bulk.
+     *
+     * @param label  The unique label of the OutBouncerArc.
+     * @param place  The Place associated with this OutBouncerArc.
+     * @param weight The weight of the OutBouncerArc.
+     * @throws InvalidWeightNumber If the weight is invalid (less than 1).
+     * @throws RepeatedArc         Never thrown, declared by the Arc constructor.
+     */
+    OutBouncerArc(String label, Place place, int weight) throws InvalidWeightNumber, RepeatedArc {
+        super(label, place, weight);
+    }
+
     /**
      * Updates the active status of this OutBouncerArc.
      * <p>
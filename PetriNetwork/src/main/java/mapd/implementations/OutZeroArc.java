@@ -39,6 +39,21 @@ public class OutZeroArc extends OutArc {
         super(label, place, transition, weight);
     }
 
+    /**
+     * Constructs an OutZeroArc that is not connected to any Transition yet.
+     * <p>
+     * Used by {@link NetBuilder}, which connects the arcs and computes their status in bulk.
+     *
+     * @param label  The unique label of the OutZeroArc.
+     * @param place  The Place associated with this OutZeroArc.
+     * @param weight The weight of the OutZeroArc.
+     * @throws InvalidWeightNumber If the weight is invalid (less than 1).
+     * @throws RepeatedArc         Never thrown, declared by the Arc constructor.
+     */
+    OutZeroArc(String label, Place place, int weight) throws InvalidWeightNumber, RepeatedArc {
+        super(label, place, weight);
+    }
+
     /**
      * Updates the active status of this OutZeroArc.
      * <p>
@@ -1,13 +1,29 @@
 package mapd.implementations;
 
+import mapd.interfaces.IFiringListener;
 import mapd.interfaces.IPetriNetwork;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 import mapd.exceptions.ElementNameNotExists;
+import mapd.exceptions.InvalidDelayNumber;
+import mapd.exceptions.InvalidRateNumber;
 import mapd.exceptions.InvalidTokenNumber;
 import mapd.exceptions.InvalidWeightNumber;
 import mapd.exceptions.NoFireableTransition;
@@ -16,15 +32,30 @@ import mapd.exceptions.RepeatedNameElement;
 
 public class PetriNetwork implements IPetriNetwork {
 	
-	private static PetriNetwork instance;
+	private static final int LOCK_STRIPES = 1024;
 
 	private HashMap<String, Place> places; 
 	private HashMap<String, Transition> transitions;
 	private HashMap<String, Arc> arcs;
+	private EnabledTransitions enabledTransitions;
+	private ReentrantLock[] placeLocks;
+	private ConcurrentLinkedQueue<Place> pendingPlaces;
+	private CopyOnWriteArrayList<IFiringListener> firingListeners;
+	private List<MarkingCheckpoint> checkpoints;
+	private Place[] undoPlaces;
+	private int[] undoTokens;
+	private int undoSize;
+	private int undoStamp;
+	private int nextPlaceId;
+	private List<Place> changedPlaces;
+	private ThreadLocal<List<Place>> concurrentChangedPlaces;
+	private AtomicLong changeEpoch;
 	
 	/**
 	 * Default constructor for the PetriNetwork class.
 	 * <p>
+	 * Every network created with this constructor is independent of the others and of
+	 * {@link #getInstance()}, so each thread can own its own network without any shared state.
 	 * Initializes the internal structures required to model a Petri net, 
 	 * which includes collections for places, transitions, arcs, and records.
 	 * <ul>
@@ -32,41 +63,79 @@ public class PetriNetwork implements IPetriNetwork {
 	 *   <li>transitions: A HashMap to store Transition objects, indexed by their unique String identifiers.</li>
 	 *   <li>arcs: A HashMap to store Arc objects, indexed by their unique String identifiers.</li>
 	 *   <li>records: An ArrayList to store lists of strings, which might represent logs or history of the network's state changes.</li>
+	 *   <li>enabledTransitions: The set of currently fireable Transitions, kept up to date whenever a Transition's fireable status may change.</li>
+	 *   <li>placeLocks: Striped locks guarding the tokens of the Places during concurrent firings.</li>
+	 *   <li>pendingPlaces: The Places changed by concurrent firings whose dependent Transitions have not been re-evaluated yet.</li>
+	 *   <li>firingListeners: The listeners notified of every firing, none by default.</li>
+	 *   <li>changedPlaces: The list of changed places passed to the listeners, reused by every firing, with a list per thread for concurrent firings.</li>
+	 *   <li>checkpoints: The active marking checkpoints, whose changes are recorded in the undo log (undoPlaces and undoTokens).</li>
 	 * </ul>
 	 */
-	private PetriNetwork() {
+	public PetriNetwork() {
 		this.places = new HashMap<String, Place>();
 		this.transitions = new HashMap<String, Transition>();
 		this.arcs = new HashMap<String, Arc>();
+		this.enabledTransitions = new EnabledTransitions();
+		this.placeLocks = new ReentrantLock[LOCK_STRIPES];
+		for (int i = 0; i < LOCK_STRIPES; i++) {
+			this.placeLocks[i] = new ReentrantLock();
+		}
+		this.pendingPlaces = new ConcurrentLinkedQueue<Place>();
+		this.firingListeners = new CopyOnWriteArrayList<IFiringListener>();
+		this.changedPlaces = new ArrayList<Place>();
+		this.concurrentChangedPlaces = ThreadLocal.withInitial(ArrayList::new);
+		this.changeEpoch = new AtomicLong();
+		this.checkpoints = new ArrayList<MarkingCheckpoint>();
+		this.undoPlaces = new Place[16];
+		this.undoTokens = new int[16];
 	}
 	
 	/**
      * Retrieves the singleton instance of the PetriNetwork.
      * <p>
-     * If the instance does not exist, it creates a new instance.
-     * Ensures only one instance of PetriNetwork is present in the application.
+     * The instance is created lazily the first time this method is called, without any lock
+     * on later calls. Use {@link #PetriNetwork()} or a {@link PetriNetworkRegistry} when
+     * several independent networks are needed.
      *
      * @return The singleton instance of PetriNetwork.
      */
-	public static synchronized PetriNetwork getInstance() {
-        if (instance == null) {
-            instance = new PetriNetwork();
-        }
-        return instance;
+	public static PetriNetwork getInstance() {
+        return InstanceHolder.INSTANCE;
     }
 	
+	private static class InstanceHolder {
+		private static final PetriNetwork INSTANCE = new PetriNetwork();
+	}
+	
 	/**
      * Resets the Petri network by clearing all places, transitions, and arcs.
      * <p>
      * This method is useful for setting up a clean state, especially for testing purposes.
+     * The firing listeners are unregistered as well, so that a listener left by a previous user
+     * of the shared instance is not notified of the firings of the new network.
      */
 	
 	public void reset() {
         this.places.clear();
         this.transitions.clear();
         this.arcs.clear();
+        this.firingListeners.clear();
+        this.enabledTransitions.clear();
+        this.pendingPlaces.clear();
+        releaseCheckpoints(0);
+        this.nextPlaceId = 0;
     }
 
+	/**
+     * Returns a new place id, unique within this network, so that the ids and the lock stripes
+     * derived from them do not depend on the other networks of the JVM.
+     *
+     * @return The id for a place about to be added.
+     */
+	int nextPlaceId() {
+		return this.nextPlaceId++;
+	}
+
 	/**
      * Returns the collection of Place objects in the network.
      *
@@ -133,6 +202,7 @@ public class PetriNetwork implements IPetriNetwork {
 	public void addPlace(String label) throws RepeatedNameElement, ElementNameNotExists, InvalidTokenNumber {
 		if (!this.places.containsKey(label)) {
 			Place place = new Place(label);
+			place.id = nextPlaceId();
 			this.places.put(label, place);
 		} else {
 			throw new RepeatedNameElement("A Place already exists with this name");
@@ -143,6 +213,7 @@ public class PetriNetwork implements IPetriNetwork {
 	public void addPlace(String label, Integer tokens) throws InvalidTokenNumber, RepeatedNameElement {
 		if (!this.places.containsKey(label)) {
 			Place place = new Place(label, tokens);
+			place.id = nextPlaceId();
 			this.places.put(label, place);
 		} else {
 			throw new RepeatedNameElement("A Place already exists with this name");
@@ -167,12 +238,20 @@ public class PetriNetwork implements IPetriNetwork {
 	public void rmPlace(String label) throws ElementNameNotExists {
 		Place place = this.getPlace(label);
 		if (place != null) {
-			List<String> arcLabels = this.arcs.entrySet()
-					.stream()
-					.filter(entry -> entry.getValue().getPlace().getLabel().equals(label))
-					.map(Map.Entry::getKey)
-					.collect(Collectors.toList());
-			arcLabels.forEach((arcLabel) -> {this.arcs.remove(arcLabel);});
+			for (OutArc arc : new ArrayList<OutArc>(place.getOutArcs())) {
+				Transition transition = arc.getTransition();
+				transition.rmOutArc(arc);
+				this.enabledTransitions.update(transition);
+				arc.detachFromPlace();
+				this.arcs.remove(arc.getLabel());
+			}
+			for (InArc arc : new ArrayList<InArc>(place.getInArcs())) {
+				Transition transition = arc.getTransition();
+				transition.rmInArc(arc);
+				this.enabledTransitions.update(transition);
+				arc.detachFromPlace();
+				this.arcs.remove(arc.getLabel());
+			}
 			this.places.remove(label);
 		}
 	}
@@ -193,7 +272,10 @@ public class PetriNetwork implements IPetriNetwork {
 	public void setPlaceTokens(String label, Integer tokens) throws InvalidTokenNumber, ElementNameNotExists {
 		Place place = this.getPlace(label);
 		if (place != null) {
+			int tokensBefore = place.getTokens();
 			place.setTokens(tokens);
+			recordTokens(place, tokensBefore);
+			updateDependentTransitions(place);
 		}
 	}
 	
@@ -218,15 +300,54 @@ public class PetriNetwork implements IPetriNetwork {
 	}
 	
 	/**
-     * Updates the fireable status of each transition in the network.
+	 * Sets the firing rate of a specified Transition in the Petri network.
+	 * <p>
+	 * The rate is the parameter of the exponential delay of the transition in stochastic
+	 * simulation, and is carried over by {@link #compile()}. It does not affect {@link #fire(String)}.
+	 * 
+	 * @param label The unique identifier of the Transition whose rate is to be updated.
+	 * @param rate  The new rate of the Transition. Must be positive and finite.
+	 * @throws InvalidRateNumber    If the provided rate is not positive or not finite.
+	 * @throws ElementNameNotExists If the Transition does not exist.
+	 */
+	@Override
+	public void setTransitionRate(String label, double rate) throws InvalidRateNumber, ElementNameNotExists {
+		this.getTransition(label).setRate(rate);
+	}
+	
+	/**
+	 * Sets the interval of the firing delay of a specified Transition in the Petri network.
+	 * <p>
+	 * The delay is used by timed simulation and is carried over by {@link #compile()}. It does not
+	 * affect {@link #fire(String)}.
+	 * 
+	 * @param label    The unique identifier of the Transition whose delay is to be updated.
+	 * @param minDelay The minimum delay, in ticks. Must be 0 or greater.
+	 * @param maxDelay The maximum delay, in ticks. Must not be less than the minimum.
+	 * @throws InvalidDelayNumber   If the minimum is negative or greater than the maximum.
+	 * @throws ElementNameNotExists If the Transition does not exist.
+	 */
+	@Override
+	public void setTransitionDelay(String label, long minDelay, long maxDelay) throws InvalidDelayNumber, ElementNameNotExists {
+		this.getTransition(label).setDelay(minDelay, maxDelay);
+	}
+	
+	/**
+     * Updates the fireable status of the transitions that depend on the given place.
      * <p>
-     * This method checks and updates each transition to determine whether it is currently fireable
-     * based on the state of the associated places and arcs.
+     * Only the transitions holding an OutArc on the place can change their fireable status
+     * when the place's tokens change. They are found through the place's own OutArcs, so the 
+     * rest of the network is left untouched.
+     *
+     * @param place The place whose tokens have changed.
      */
-	private void updateTransitions() {
-		transitions.forEach((key, transition) -> {
+	private void updateDependentTransitions(Place place) {
+		List<OutArc> outArcs = place.outArcList();
+		for (int i = 0; i < outArcs.size(); i++) {
+			Transition transition = outArcs.get(i).getTransition();
 			transition.updateIsFireable();
-		});
+			this.enabledTransitions.update(transition);
+		}
 	}
 
 	/**
@@ -242,16 +363,19 @@ public class PetriNetwork implements IPetriNetwork {
 	public void rmTransition(String label) throws ElementNameNotExists {
 		Transition transition = this.getTransition(label);
 		if (transition != null) {
-			List<String> inArcLabels = transition.getInArcs()
-					.stream()
-					.map(InArc::getLabel)
-					.collect(Collectors.toList());
-			inArcLabels.forEach((arcLabel) -> {this.arcs.remove(arcLabel);});
-			List<String> outArcLabels = transition.getOutArcs()
-					.stream()
-					.map(OutArc::getLabel)
-					.collect(Collectors.toList());
-			outArcLabels.forEach((arcLabel) -> {this.arcs.remove(arcLabel);});
+			for (OutArc arc : transition.getOutArcs()) {
+				arc.detachFromPlace();
+				this.arcs.remove(arc.getLabel());
+			}
+			for (InArc arc : transition.getInArcs()) {
+				arc.detachFromPlace();
+				this.arcs.remove(arc.getLabel());
+			}
+			transition.getOutArcs().clear();
+			transition.getInArcs().clear();
+			transition.lockStripes = null;
+			transition.updateIsFireable();
+			this.enabledTransitions.remove(transition);
 			this.transitions.remove(label);
 		}
 	}
@@ -282,6 +406,7 @@ public class PetriNetwork implements IPetriNetwork {
 			Transition transition = this.getTransition(transitionLabel);
 			Arc arc = createArc(label, type, place, transition, weight);
 			this.arcs.put(label, arc);
+			this.enabledTransitions.update(transition);
 		} else {
 			throw new RepeatedNameElement("An arc already exists with this name");
 		}
@@ -296,6 +421,7 @@ public class PetriNetwork implements IPetriNetwork {
 			
 			Arc arc = createArc(label, type, place, transition, null);
 			this.arcs.put(label, arc);
+			this.enabledTransitions.update(transition);
 		} else {
 			throw new RepeatedNameElement("An arc already exists with this name");
 		}
@@ -317,6 +443,9 @@ public class PetriNetwork implements IPetriNetwork {
 		Arc arc = this.getArc(label);
 		if (arc != null) {
 			arc.setWeight(weight);
+			Transition transition = arc.getTransition();
+			transition.updateIsFireable();
+			this.enabledTransitions.update(transition);
 		}
 	}
 	
@@ -333,27 +462,16 @@ public class PetriNetwork implements IPetriNetwork {
 	public void rmArc(String label) throws ElementNameNotExists {
 		Arc arc = this.getArc(label);
 		
-		// Delete from transition
+		// Delete from transition and place
 		if (arc != null) {
+			Transition transitionAttached = arc.getTransition();
 			if (arc instanceof InArc) {
-				// remove the arc from transition InArc list
-				Transition transitionAttached = transitions.entrySet()
-						.stream()
-						.filter(entry -> entry.getValue().getInArcs().contains(arc))
-						.map(Map.Entry::getValue)
-						.findFirst()
-						.orElse(null);
 				transitionAttached.rmInArc((InArc)arc);
 			}else {
-				// remove the arc from transition OutArc list
-				Transition transitionAttached = transitions.entrySet()
-						.stream()
-						.filter(entry -> entry.getValue().getOutArcs().contains(arc))
-						.map(Map.Entry::getValue)
-						.findFirst()
-						.orElse(null);
 				transitionAttached.rmOutArc((OutArc)arc);
 			}
+			this.enabledTransitions.update(transitionAttached);
+			arc.detachFromPlace();
 			
 			// Delete from PetriNetwork
 			this.arcs.remove(label);
@@ -363,37 +481,470 @@ public class PetriNetwork implements IPetriNetwork {
 	/**
 	 * Retrieves a list of fireable transitions in the Petri network.
 	 * <p>
-	 * This method checks all transitions in the network and filters those that are fireable.
-	 * The keys (labels) of the fireable transitions are collected into a list, which is then returned.
-	 * Additionally, the list of fireable transitions is printed to the console for debugging purposes.
+	 * The labels are copied from the set of enabled transitions, which is maintained incrementally,
+	 * so the cost of this method is proportional to the number of fireable transitions rather than 
+	 * to the size of the network.
 	 * 
 	 * @return A list of labels of transitions that are currently fireable.
 	 */
 	@Override
 	public List<String> fireableTransitions() {
-		List<String> fireableTransitions = transitions.entrySet().stream()
-	            .filter(entry -> entry.getValue().isFireable())
-	            .map(Map.Entry::getKey)
-	            .collect(Collectors.toList());
+		refreshPendingPlaces();
+		List<String> fireableTransitions = new ArrayList<String>(this.enabledTransitions.size());
+		for (Transition transition : this.enabledTransitions.view()) {
+			fireableTransitions.add(transition.getLabel());
+		}
 		return fireableTransitions;
 	}
 
+	/**
+	 * Returns a read-only live view of the fireable transitions.
+	 * <p>
+	 * Unlike {@link #fireableTransitions()}, nothing is copied: the view reflects later firings
+	 * and structural changes, so it must not be iterated while firing transitions.
+	 * 
+	 * @return An unmodifiable view of the currently fireable transitions.
+	 */
+	public List<Transition> getFireableTransitions() {
+		refreshPendingPlaces();
+		return this.enabledTransitions.view();
+	}
+
+	/**
+	 * Returns the number of fireable transitions in constant time.
+	 * 
+	 * @return The number of currently fireable transitions.
+	 */
+	public int countFireableTransitions() {
+		refreshPendingPlaces();
+		return this.enabledTransitions.size();
+	}
+
+	/**
+	 * Picks one of the fireable transitions uniformly at random in constant time.
+	 * 
+	 * @param random The source of randomness.
+	 * @return A random fireable transition, or null if no transition is fireable.
+	 */
+	public Transition pickRandomFireableTransition(Random random) {
+		refreshPendingPlaces();
+		return this.enabledTransitions.pickRandom(random);
+	}
+
 	/**
 	 * Fires the transition identified by the specified label in the Petri network.
 	 * <p>
 	 * This method executes the firing action for the specified transition, which may update the state 
-	 * of the network. The method prints the state of the places before and after firing the transition 
-	 * for debugging purposes.
+	 * of the network. Only the transitions depending on a place whose tokens actually changed are
+	 * re-evaluated afterwards, so the cost of a firing is proportional to the local degree of the
+	 * fired transition instead of the size of the network. Nothing is printed: the registered 
+	 * {@link IFiringListener}s are notified of the firing and of the places whose tokens changed.
 	 * 
 	 * @param label The unique identifier of the transition to be fired.
 	 * @throws ElementNameNotExists 
 	 * @throws NoFireableTransition 
 	 */
 	@Override
-	public void fire(String label) throws ElementNameNotExists, NoFireableTransition {		
-		getTransition(label).fire();
-		updateTransitions();
-		showPlaces();
+	public void fire(String label) throws ElementNameNotExists, NoFireableTransition {
+		Transition transition = getTransition(label);
+		refreshPendingPlaces();
+		if (!transition.isFireable()) {
+			throw new NoFireableTransition("Transition is not fireable");
+		}
+		List<Place> changedPlaces = notifyBeforeFire(transition, this.changedPlaces);
+		long epoch = changedPlaces == null ? 0 : this.changeEpoch.incrementAndGet();
+		List<OutArc> outArcs = transition.getOutArcs();
+		List<InArc> inArcs = transition.getInArcs();
+		int[] tokensBefore = new int[outArcs.size() + inArcs.size()];
+		for (int i = 0; i < outArcs.size(); i++) {
+			tokensBefore[i] = outArcs.get(i).getPlace().getTokens();
+		}
+		for (int i = 0; i < inArcs.size(); i++) {
+			tokensBefore[outArcs.size() + i] = inArcs.get(i).getPlace().getTokens();
+		}
+		
+		transition.fire();
+		this.enabledTransitions.update(transition);
+		
+		for (int i = 0; i < outArcs.size(); i++) {
+			Place place = outArcs.get(i).getPlace();
+			if (place.getTokens() != tokensBefore[i]) {
+				recordTokens(place, tokensBefore[i]);
+				updateDependentTransitions(place);
+				addChangedPlace(changedPlaces, place, epoch);
+			}
+		}
+		for (int i = 0; i < inArcs.size(); i++) {
+			Place place = inArcs.get(i).getPlace();
+			if (place.getTokens() != tokensBefore[outArcs.size() + i]) {
+				recordTokens(place, tokensBefore[outArcs.size() + i]);
+				updateDependentTransitions(place);
+				addChangedPlace(changedPlaces, place, epoch);
+			}
+		}
+		notifyAfterFire(transition, changedPlaces);
+	}
+	
+	/**
+	 * Fires the transition identified by the specified label, allowing other threads to fire
+	 * transitions of this network at the same time.
+	 * <p>
+	 * The places of the transition are guarded by striped locks, which are always taken in 
+	 * increasing stripe order, so transitions that share no place fire in parallel and no global 
+	 * lock is needed. While holding the locks, the fireable status of the transition is checked 
+	 * and its tokens are consumed and produced atomically.
+	 * <p>
+	 * The set of fireable transitions is not touched by this method: the changed places are queued 
+	 * and their dependent transitions are re-evaluated by the next sequential operation, such as 
+	 * {@link #fire(String)} or {@link #fireableTransitions()}. Those operations, as well as any 
+	 * structural change of the network, must not run while concurrent firings are in progress.
+	 * The {@link IFiringListener}s are notified while the locks are held, so they must be 
+	 * thread-safe and quick.
+	 * 
+	 * @param label The unique identifier of the transition to be fired.
+	 * @throws ElementNameNotExists If the transition does not exist.
+	 * @throws NoFireableTransition If the transition is not fireable under the current marking.
+	 * @throws IllegalStateException If a marking checkpoint is active or a {@link FiringJournal} is 
+	 *                               attached, since concurrent firings cannot be recorded.
+	 */
+	public void fireConcurrently(String label) throws ElementNameNotExists, NoFireableTransition {
+		if (!this.checkpoints.isEmpty()) {
+			throw new IllegalStateException("Concurrent firings cannot be recorded by a marking checkpoint");
+		}
+		if (hasJournal()) {
+			throw new IllegalStateException("Concurrent firings cannot be recorded by a firing journal");
+		}
+		Transition transition = getTransition(label);
+		int[] stripes = lockStripes(transition);
+		for (int i = 0; i < stripes.length; i++) {
+			this.placeLocks[stripes[i]].lock();
+		}
+		try {
+			List<OutArc> outArcs = transition.getOutArcs();
+			List<InArc> inArcs = transition.getInArcs();
+			int[] tokensBefore = new int[outArcs.size() + inArcs.size()];
+			for (int i = 0; i < outArcs.size(); i++) {
+				tokensBefore[i] = outArcs.get(i).getPlace().getTokens();
+			}
+			for (int i = 0; i < inArcs.size(); i++) {
+				tokensBefore[outArcs.size() + i] = inArcs.get(i).getPlace().getTokens();
+			}
+			
+			transition.updateIsFireable();
+			if (!transition.isFireable()) {
+				throw new NoFireableTransition("Transition is not fireable");
+			}
+			List<Place> changedPlaces = notifyBeforeFire(transition, this.concurrentChangedPlaces.get());
+			long epoch = changedPlaces == null ? 0 : this.changeEpoch.incrementAndGet();
+			transition.fire();
+			
+			for (int i = 0; i < outArcs.size(); i++) {
+				Place place = outArcs.get(i).getPlace();
+				if (place.getTokens() != tokensBefore[i]) {
+					addPendingPlace(place);
+					addChangedPlace(changedPlaces, place, epoch);
+				}
+			}
+			for (int i = 0; i < inArcs.size(); i++) {
+				Place place = inArcs.get(i).getPlace();
+				if (place.getTokens() != tokensBefore[outArcs.size() + i]) {
+					addPendingPlace(place);
+					addChangedPlace(changedPlaces, place, epoch);
+				}
+			}
+			notifyAfterFire(transition, changedPlaces);
+		} finally {
+			for (int i = stripes.length - 1; i >= 0; i--) {
+				this.placeLocks[stripes[i]].unlock();
+			}
+		}
+	}
+
+	/**
+     * Recomputes the fireable status of every transition and rebuilds the set of fireable 
+     * transitions.
+     * <p>
+     * Used after the network has been filled in bulk, for instance by {@link NetBuilder}.
+     */
+	void refreshAllTransitions() {
+		refreshPendingPlaces();
+		this.enabledTransitions.clear();
+		for (Transition transition : this.transitions.values()) {
+			transition.updateIsFireable();
+			this.enabledTransitions.update(transition);
+		}
+	}
+
+	/**
+     * Captures the tokens of every place of the network.
+     * <p>
+     * The snapshot keeps the places next to a primitive array of their tokens, and can be restored
+     * any number of times with {@link #restoreMarking(MarkingSnapshot)}, as long as no place is 
+     * added or removed in between.
+     * 
+     * @return A snapshot of the current marking.
+     */
+	public MarkingSnapshot snapshotMarking() {
+		return new MarkingSnapshot(this.places.values().toArray(new Place[this.places.size()]));
+	}
+
+	/**
+     * Restores the marking captured by {@link #snapshotMarking()}.
+     * <p>
+     * The tokens of the places are compared with the snapshot in O(|P|) without HashMap lookups, 
+     * and only the transitions depending on a place that actually changes are re-evaluated, which 
+     * also restores the fireable status of the transitions and the active status of their arcs.
+     * 
+     * @param snapshot A snapshot of this network.
+     */
+	public void restoreMarking(MarkingSnapshot snapshot) {
+		refreshPendingPlaces();
+		for (int i = 0; i < snapshot.places.length; i++) {
+			Place place = snapshot.places[i];
+			int tokensBefore = place.getTokens();
+			if (tokensBefore != snapshot.tokens[i]) {
+				place.restoreTokens(snapshot.tokens[i]);
+				recordTokens(place, tokensBefore);
+				updateDependentTransitions(place);
+			}
+		}
+	}
+
+	/**
+     * Starts recording the changes of the marking, so it can be rolled back later.
+     * <p>
+     * Unlike {@link #snapshotMarking()}, nothing is copied when the checkpoint is created: the 
+     * previous tokens of a place are recorded the first time it changes afterwards, so creating a 
+     * checkpoint and rolling back to it cost in proportion to the places modified in between. 
+     * Checkpoints can be nested. Until they are released, {@link #fireConcurrently(String)} is 
+     * not allowed.
+     * 
+     * @return A new active checkpoint.
+     */
+	public MarkingCheckpoint checkpointMarking() {
+		MarkingCheckpoint checkpoint = new MarkingCheckpoint(this.undoSize, ++this.undoStamp);
+		this.checkpoints.add(checkpoint);
+		return checkpoint;
+	}
+
+	/**
+     * Restores the marking of the network as it was when the checkpoint was created.
+     * <p>
+     * The checkpoint stays active, so the marking can be rolled back to it again, while the 
+     * checkpoints created after it are released.
+     * 
+     * @param checkpoint An active checkpoint of this network.
+     * @throws IllegalArgumentException If the checkpoint is not active in this network.
+     */
+	public void rollbackMarking(MarkingCheckpoint checkpoint) {
+		int index = this.checkpoints.indexOf(checkpoint);
+		if (index < 0) {
+			throw new IllegalArgumentException("Marking checkpoint is not active");
+		}
+		refreshPendingPlaces();
+		for (int i = this.undoSize - 1; i >= checkpoint.logStart; i--) {
+			Place place = this.undoPlaces[i];
+			place.restoreTokens(this.undoTokens[i]);
+			this.undoPlaces[i] = null;
+			updateDependentTransitions(place);
+		}
+		this.undoSize = checkpoint.logStart;
+		releaseCheckpoints(index + 1);
+		checkpoint.stamp = ++this.undoStamp;
+	}
+
+	/**
+     * Stops recording the changes of the marking for a checkpoint and the checkpoints created 
+     * after it. The marking is left as it is.
+     * 
+     * @param checkpoint A checkpoint of this network.
+     */
+	public void releaseCheckpoint(MarkingCheckpoint checkpoint) {
+		int index = this.checkpoints.indexOf(checkpoint);
+		if (index >= 0) {
+			releaseCheckpoints(index);
+		}
+	}
+
+	/**
+     * Releases the checkpoints from the given position on, and clears the undo log when no 
+     * checkpoint remains.
+     * 
+     * @param from The position of the first checkpoint to be released.
+     */
+	private void releaseCheckpoints(int from) {
+		while (this.checkpoints.size() > from) {
+			this.checkpoints.remove(this.checkpoints.size() - 1).active = false;
+		}
+		if (this.checkpoints.isEmpty()) {
+			Arrays.fill(this.undoPlaces, 0, this.undoSize, null);
+			this.undoSize = 0;
+		}
+	}
+
+	/**
+     * Records the previous tokens of a place in the undo log, unless no checkpoint is active or 
+     * the place has already been recorded for the latest checkpoint.
+     * 
+     * @param place        The place whose tokens have changed.
+     * @param tokensBefore The tokens of the place before the change.
+     */
+	private void recordTokens(Place place, int tokensBefore) {
+		if (this.checkpoints.isEmpty()) {
+			return;
+		}
+		int stamp = this.checkpoints.get(this.checkpoints.size() - 1).stamp;
+		if (place.undoStamp == stamp) {
+			return;
+		}
+		place.undoStamp = stamp;
+		if (this.undoSize == this.undoPlaces.length) {
+			this.undoPlaces = Arrays.copyOf(this.undoPlaces, this.undoSize * 2);
+			this.undoTokens = Arrays.copyOf(this.undoTokens, this.undoSize * 2);
+		}
+		this.undoPlaces[this.undoSize] = place;
+		this.undoTokens[this.undoSize] = tokensBefore;
+		this.undoSize++;
+	}
+
+	/**
+     * Registers a listener to be notified of every firing of this network.
+     *
+     * @param listener The listener to be added.
+     */
+	public void addFiringListener(IFiringListener listener) {
+		this.firingListeners.add(listener);
+	}
+
+	/**
+     * Unregisters a listener previously added with {@link #addFiringListener(IFiringListener)}.
+     *
+     * @param listener The listener to be removed.
+     */
+	public void rmFiringListener(IFiringListener listener) {
+		this.firingListeners.remove(listener);
+	}
+
+	/**
+     * Checks if a {@link FiringJournal} is registered as a listener. Its checkpoints read the whole
+     * marking without the place locks, so they cannot be consistent with concurrent firings.
+     *
+     * @return True if a journal records the firings of this network.
+     */
+	private boolean hasJournal() {
+		for (IFiringListener listener : this.firingListeners) {
+			if (listener instanceof FiringJournal) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+     * Notifies the listeners that a transition is about to be fired.
+     * <p>
+     * The list collecting the changed places is reused from one firing to the next: the network
+     * keeps one for {@link #fire(String)} and one per thread for {@link #fireConcurrently(String)}.
+     * A list that is not empty belongs to an enclosing firing started by a listener, in which
+     * case a new one is used.
+     *
+     * @param transition The transition about to be fired.
+     * @param reusable   The list to reuse if it is free.
+     * @return An empty list to collect the changed places, or null if there are no listeners.
+     */
+	private List<Place> notifyBeforeFire(Transition transition, List<Place> reusable) {
+		if (this.firingListeners.isEmpty()) {
+			return null;
+		}
+		for (IFiringListener listener : this.firingListeners) {
+			listener.beforeFire(transition);
+		}
+		return reusable.isEmpty() ? reusable : new ArrayList<Place>();
+	}
+
+	/**
+     * Adds a place to the list of changed places, unless there are no listeners or it is
+     * already in the list.
+     * <p>
+     * A place fired on by both an OutArc and an InArc of the transition is found twice, so every
+     * firing takes a new epoch and stamps the places it adds, which is checked in constant time
+     * instead of searching the list.
+     *
+     * @param changedPlaces The list returned by {@link #notifyBeforeFire(Transition, List)}.
+     * @param place         The place whose tokens have changed.
+     * @param epoch         The epoch of the firing.
+     */
+	private void addChangedPlace(List<Place> changedPlaces, Place place, long epoch) {
+		if (changedPlaces != null && place.changeStamp != epoch) {
+			place.changeStamp = epoch;
+			changedPlaces.add(place);
+		}
+	}
+
+	/**
+     * Notifies the listeners that a transition has been fired.
+     *
+     * @param transition    The fired transition.
+     * @param changedPlaces The list returned by {@link #notifyBeforeFire(Transition, List)}, cleared
+     *                      once the listeners have been notified.
+     */
+	private void notifyAfterFire(Transition transition, List<Place> changedPlaces) {
+		if (changedPlaces == null) {
+			return;
+		}
+		try {
+			for (IFiringListener listener : this.firingListeners) {
+				if (!changedPlaces.isEmpty()) {
+					listener.markingChanged(transition, changedPlaces);
+				}
+				listener.afterFire(transition);
+			}
+		} finally {
+			changedPlaces.clear();
+		}
+	}
+
+	/**
+     * Returns the sorted and distinct lock stripes of the places of a transition.
+     * <p>
+     * The stripes are cached in the transition until one of its arcs is added or removed.
+     *
+     * @param transition The transition to be fired.
+     * @return The lock stripes, in the order in which they must be taken.
+     */
+	private int[] lockStripes(Transition transition) {
+		int[] stripes = transition.lockStripes;
+		if (stripes == null) {
+			stripes = Stream.concat(transition.getOutArcs().stream(), transition.getInArcs().stream())
+					.mapToInt(arc -> arc.getPlace().id & (LOCK_STRIPES - 1))
+					.distinct()
+					.sorted()
+					.toArray();
+			transition.lockStripes = stripes;
+		}
+		return stripes;
+	}
+
+	/**
+     * Queues a place changed by a concurrent firing, unless it is already queued.
+     *
+     * @param place The place whose tokens have changed.
+     */
+	private void addPendingPlace(Place place) {
+		if (place.pendingRefresh.compareAndSet(false, true)) {
+			this.pendingPlaces.add(place);
+		}
+	}
+
+	/**
+     * Re-evaluates the transitions depending on the places changed by concurrent firings.
+     */
+	private void refreshPendingPlaces() {
+		Place place;
+		while ((place = this.pendingPlaces.poll()) != null) {
+			place.pendingRefresh.set(false);
+			updateDependentTransitions(place);
+		}
 	}
 	
 	/**
@@ -438,55 +989,75 @@ public class PetriNetwork implements IPetriNetwork {
 	 * This method prints the lists of places, transitions, and arcs in the network. 
 	 * It provides a comprehensive overview of the network's structure, making it easier 
 	 * for users to understand the current configuration and relationships between elements.
+	 * The report is streamed to the standard output by {@link #writeAllElements(Writer)}.
 	 */
 	@Override
 	public void showAllElements() {
-	    StringBuilder result = new StringBuilder();
-
-	    result.append("Petri Network\n")
-	          .append(this.places.size()).append(" places\n")
-	          .append(this.transitions.size()).append(" transitions\n")
-	          .append(this.arcs.size()).append(" arcs\n");
-
-	    result.append("List of places:\n");
-	    int placeCount = 1;
-	    for (Place place : this.places.values()) {
-	        long entranceArcCount = this.arcs.values().stream()
-	                .filter(arc -> arc instanceof InArc && arc.getPlace().equals(place))
-	                .count();
-	        long exitArcCount = this.arcs.values().stream()
-	                .filter(arc -> arc instanceof OutArc && !(arc instanceof OutBouncerArc) && !(arc instanceof OutZeroArc) && arc.getPlace().equals(place))
-	                .count();
-	        long bouncerExitArcCount = this.arcs.values().stream()
-	                .filter(arc -> arc instanceof OutBouncerArc && arc.getPlace().equals(place))
-	                .count();
-	        long zeroExitArcCount = this.arcs.values().stream()
-	                .filter(arc -> arc instanceof OutZeroArc && arc.getPlace().equals(place))
-	                .count();
-
-	        result.append(placeCount).append(": ").append(place.toString())
-	              .append(", ").append(exitArcCount).append(" simple out arcs, ")
-	              .append(entranceArcCount).append(" in arcs, ")
-	              .append(bouncerExitArcCount).append(" bouncer out arcs, ")
-	              .append(zeroExitArcCount).append(" zero out arcs\n");
-	        placeCount++;
-	    }
-
-	    result.append("List of transitions:\n");
-	    int transitionCount = 1;
-	    for (Transition transition : this.transitions.values()) {
-	        result.append(transitionCount).append(": ").append(transition.toString()).append("\n");
-	        transitionCount++;
-	    }
-
-	    result.append("List of arcs:\n");
-	    int arcCount = 1;
-	    for (Arc arc : this.arcs.values()) {
-	        result.append(arcCount).append(": ").append(arc.toString()).append("\n");
-	        arcCount++;
-	    }
-
-	    System.out.println(result.toString());
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+		try {
+			writeAllElements(out);
+			out.flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		System.out.println();
+	}
+	
+	/**
+	 * Writes the report of {@link #showAllElements()} to the given stream, encoded in UTF-8.
+	 * <p>
+	 * The stream is flushed but not closed.
+	 * 
+	 * @param out The stream receiving the report.
+	 * @throws IOException If the stream cannot be written.
+	 */
+	public void writeAllElements(OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		writeAllElements(writer);
+		writer.flush();
+	}
+	
+	/**
+	 * Writes the lists of places, transitions, and arcs in the network to the given writer.
+	 * <p>
+	 * The report is written one line at a time, so its memory use does not depend on the size 
+	 * of the network. The arc counts of every place are read from the place itself, which makes 
+	 * the whole report linear in the number of elements. The writer is neither flushed nor closed,
+	 * and should be buffered.
+	 * 
+	 * @param out The writer receiving the report.
+	 * @throws IOException If the writer fails.
+	 */
+	public void writeAllElements(Writer out) throws IOException {
+		out.write("Petri Network\n");
+		out.write(this.places.size() + " places\n");
+		out.write(this.transitions.size() + " transitions\n");
+		out.write(this.arcs.size() + " arcs\n");
+
+		out.write("List of places:\n");
+		int placeCount = 1;
+		for (Place place : this.places.values()) {
+			out.write(placeCount + ": " + place.toString()
+					+ ", " + place.getSimpleOutArcCount() + " simple out arcs, "
+					+ place.getInArcCount() + " in arcs, "
+					+ place.getBouncerOutArcCount() + " bouncer out arcs, "
+					+ place.getZeroOutArcCount() + " zero out arcs\n");
+			placeCount++;
+		}
+
+		out.write("List of transitions:\n");
+		int transitionCount = 1;
+		for (Transition transition : this.transitions.values()) {
+			out.write(transitionCount + ": " + transition.toString() + "\n");
+			transitionCount++;
+		}
+
+		out.write("List of arcs:\n");
+		int arcCount = 1;
+		for (Arc arc : this.arcs.values()) {
+			out.write(arcCount + ": " + arc.toString() + "\n");
+			arcCount++;
+		}
 	}
 	
 	/**
@@ -564,6 +1135,89 @@ public class PetriNetwork implements IPetriNetwork {
 		}
 	}
 	
+	/**
+	 * Freezes the current structure and marking of the network into a {@link CompiledPetriNet}.
+	 * <p>
+	 * Places and transitions are numbered in the iteration order of their maps, and the arcs are 
+	 * stored as primitive arrays in compressed sparse rows, so the compiled net can be fired without 
+	 * boxing, virtual calls or HashMap lookups. Later changes to this network are not reflected in 
+	 * the compiled net, and firings of the compiled net do not modify this network.
+	 * 
+	 * @return A compiled copy of the network.
+	 */
+	public CompiledPetriNet compile() {
+		String[] placeLabels = new String[this.places.size()];
+		int[] marking = new int[this.places.size()];
+		IdentityHashMap<Place, Integer> placeIndexes = new IdentityHashMap<Place, Integer>();
+		for (Place place : this.places.values()) {
+			int index = placeIndexes.size();
+			placeLabels[index] = place.getLabel();
+			marking[index] = place.getTokens();
+			placeIndexes.put(place, index);
+		}
+		
+		int transitionCount = this.transitions.size();
+		String[] transitionLabels = new String[transitionCount];
+		double[] rates = new double[transitionCount];
+		long[] minDelays = new long[transitionCount];
+		long[] maxDelays = new long[transitionCount];
+		int[] preStart = new int[transitionCount + 1];
+		int[] postStart = new int[transitionCount + 1];
+		int index = 0;
+		for (Transition transition : this.transitions.values()) {
+			transitionLabels[index] = transition.getLabel();
+			rates[index] = transition.getRate();
+			minDelays[index] = transition.getMinDelay();
+			maxDelays[index] = transition.getMaxDelay();
+			preStart[index + 1] = preStart[index] + transition.getOutArcs().size();
+			postStart[index + 1] = postStart[index] + transition.getInArcs().size();
+			index++;
+		}
+		
+		int[] prePlaces = new int[preStart[transitionCount]];
+		int[] preWeights = new int[prePlaces.length];
+		int[] preKinds = new int[prePlaces.length];
+		int[] postPlaces = new int[postStart[transitionCount]];
+		int[] postWeights = new int[postPlaces.length];
+		int pre = 0;
+		int post = 0;
+		for (Transition transition : this.transitions.values()) {
+			for (OutArc arc : transition.getOutArcs()) {
+				prePlaces[pre] = placeIndexes.get(arc.getPlace());
+				preWeights[pre] = arc.getWeight();
+				preKinds[pre] = arcKind(arc);
+				pre++;
+			}
+			for (InArc arc : transition.getInArcs()) {
+				postPlaces[post] = placeIndexes.get(arc.getPlace());
+				postWeights[post] = arc.getWeight();
+				post++;
+			}
+		}
+		CompiledPetriNet compiled = new CompiledPetriNet(placeLabels, marking, transitionLabels,
+				preStart, prePlaces, preWeights, preKinds, postStart, postPlaces, postWeights, rates);
+		compiled.setDelays(minDelays, maxDelays);
+		return compiled;
+	}
+	
+	/**
+	 * Returns the {@link CompiledPetriNet} code of the given arc's type.
+	 * 
+	 * @param arc The arc to classify.
+	 * @return The arc kind code.
+	 */
+	static int arcKind(Arc arc) {
+		if (arc instanceof OutZeroArc) {
+			return CompiledPetriNet.ARC_OUT_ZERO;
+		} else if (arc instanceof OutBouncerArc) {
+			return CompiledPetriNet.ARC_OUT_BOUNCER;
+		} else if (arc instanceof OutArc) {
+			return CompiledPetriNet.ARC_OUT;
+		} else {
+			return CompiledPetriNet.ARC_IN;
+		}
+	}
+	
 	/**
 	 * Creates a new Arc object of the specified type, associated with a given Place and weight.
 	 * <p>
@@ -0,0 +1,95 @@
+package mapd.implementations;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import mapd.exceptions.ElementNameNotExists;
+import mapd.exceptions.RepeatedNameElement;
+
+public class PetriNetworkRegistry {
+
+    private ConcurrentHashMap<String, PetriNetwork> networks;
+
+    /**
+     * Constructs an empty registry of named Petri networks.
+     * <p>
+     * Every registered network is an independent {@link PetriNetwork} instance. The registry
+     * itself is safe to use from several threads, but each network is meant to be owned and
+     * modified by a single worker at a time.
+     */
+    public PetriNetworkRegistry() {
+        this.networks = new ConcurrentHashMap<String, PetriNetwork>();
+    }
+
+    /**
+     * Creates and registers a new empty network under the given name.
+     *
+     * @param name The unique name of the network.
+     * @return The new network.
+     * @throws RepeatedNameElement If a network with the same name is already registered.
+     */
+    public PetriNetwork create(String name) throws RepeatedNameElement {
+        PetriNetwork network = new PetriNetwork();
+        if (this.networks.putIfAbsent(name, network) != null) {
+            throw new RepeatedNameElement("A network already exists with this name");
+        }
+        return network;
+    }
+
+    /**
+     * Returns the network registered under the given name, creating and registering it
+     * if there is none.
+     *
+     * @param name The name of the network.
+     * @return The registered network.
+     */
+    public PetriNetwork getOrCreate(String name) {
+        return this.networks.computeIfAbsent(name, key -> new PetriNetwork());
+    }
+
+    /**
+     * Returns the network registered under the given name.
+     *
+     * @param name The name of the network.
+     * @return The registered network.
+     * @throws ElementNameNotExists If no network is registered under the name.
+     */
+    public PetriNetwork get(String name) throws ElementNameNotExists {
+        PetriNetwork network = this.networks.get(name);
+        if (network == null) {
+            throw new ElementNameNotExists("A network with this name does not exist");
+        }
+        return network;
+    }
+
+    /**
+     * Removes the network registered under the given name.
+     *
+     * @param name The name of the network.
+     * @return The removed network.
+     * @throws ElementNameNotExists If no network is registered under the name.
+     */
+    public PetriNetwork remove(String name) throws ElementNameNotExists {
+        PetriNetwork network = this.networks.remove(name);
+        if (network == null) {
+            throw new ElementNameNotExists("A network with this name does not exist");
+        }
+        return network;
+    }
+
+    public boolean contains(String name) {
+        return this.networks.containsKey(name);
+    }
+
+    public Set<String> getNames() {
+        return this.networks.keySet();
+    }
+
+    public int size() {
+        return this.networks.size();
+    }
+
+    public void clear() {
+        this.networks.clear();
+    }
+}
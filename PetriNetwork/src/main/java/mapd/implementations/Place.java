@@ -2,10 +2,23 @@ package mapd.implementations;
 
 import mapd.exceptions.*;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class Place {
 	
     private Integer tokens;
     private String label;
+    private List<OutArc> outArcs;
+    private List<InArc> inArcs;
+    private int bouncerOutArcCount;
+    private int zeroOutArcCount;
+    int id;
+    int undoStamp;
+    long changeStamp;
+    final AtomicBoolean pendingRefresh;
 
     /**
      * Constructs a Place with a default token count of 0.
@@ -19,12 +32,18 @@ public class Place {
 
     /**
      * Constructs a Place with a specified token count.
+     * <p>
+     * The network the Place is added to gives it an id, unique within that network, which
+     * orders the locks taken by {@link PetriNetwork#fireConcurrently(String)}.
      *
      * @param label  The unique label of the Place.
      * @param tokens The initial number of tokens in the Place. Must be 0 or greater.
      * @throws InvalidTokenNumber If the initial token count is invalid (less than 0).
      */
     public Place(String label, Integer tokens) throws InvalidTokenNumber {
+        this.pendingRefresh = new AtomicBoolean();
+        this.outArcs = new ArrayList<OutArc>();
+        this.inArcs = new ArrayList<InArc>();
         if (isValidTokens(tokens)) {
             this.tokens = tokens;
         } else {
@@ -76,6 +95,118 @@ public class Place {
         }
     }
 
+    /**
+     * Returns the arcs that take tokens from this Place, that is, the OutArcs of the
+     * Transitions depending on it.
+     *
+     * @return A read-only list of OutArc objects.
+     */
+    public List<OutArc> getOutArcs() {
+        return Collections.unmodifiableList(outArcs);
+    }
+
+    /**
+     * Returns the OutArcs of this Place without a read-only wrapper, so the firing path of the
+     * network does not allocate one per changed place. The list must not be modified.
+     *
+     * @return The list of OutArc objects.
+     */
+    List<OutArc> outArcList() {
+        return outArcs;
+    }
+
+    /**
+     * Returns the arcs that give tokens to this Place.
+     *
+     * @return A read-only list of InArc objects.
+     */
+    public List<InArc> getInArcs() {
+        return Collections.unmodifiableList(inArcs);
+    }
+
+    /**
+     * Returns the number of simple OutArcs taking tokens from this Place, excluding the
+     * bouncer and zero OutArcs.
+     *
+     * @return The number of simple OutArcs.
+     */
+    public int getSimpleOutArcCount() {
+        return this.outArcs.size() - this.bouncerOutArcCount - this.zeroOutArcCount;
+    }
+
+    /**
+     * Returns the number of OutBouncerArcs taking tokens from this Place.
+     *
+     * @return The number of OutBouncerArcs.
+     */
+    public int getBouncerOutArcCount() {
+        return this.bouncerOutArcCount;
+    }
+
+    /**
+     * Returns the number of OutZeroArcs depending on this Place.
+     *
+     * @return The number of OutZeroArcs.
+     */
+    public int getZeroOutArcCount() {
+        return this.zeroOutArcCount;
+    }
+
+    /**
+     * Returns the number of InArcs giving tokens to this Place.
+     *
+     * @return The number of InArcs.
+     */
+    public int getInArcCount() {
+        return this.inArcs.size();
+    }
+
+    /**
+     * Registers an arc connected to this Place.
+     *
+     * @param arc The arc to be registered.
+     */
+    void addArc(Arc arc) {
+        if (arc instanceof OutArc) {
+            this.outArcs.add((OutArc) arc);
+            if (arc instanceof OutBouncerArc) {
+                this.bouncerOutArcCount++;
+            } else if (arc instanceof OutZeroArc) {
+                this.zeroOutArcCount++;
+            }
+        } else {
+            this.inArcs.add((InArc) arc);
+        }
+    }
+
+    /**
+     * Unregisters an arc connected to this Place.
+     *
+     * @param arc The arc to be unregistered.
+     */
+    void rmArc(Arc arc) {
+        if (arc instanceof OutArc) {
+            if (this.outArcs.remove(arc)) {
+                if (arc instanceof OutBouncerArc) {
+                    this.bouncerOutArcCount--;
+                } else if (arc instanceof OutZeroArc) {
+                    this.zeroOutArcCount--;
+                }
+            }
+        } else {
+            this.inArcs.remove(arc);
+        }
+    }
+
+    /**
+     * Sets the token count without validation, for tokens known to be valid.
+     *
+     * @param tokens The new token count, 0 or greater.
+     */
+    void restoreTokens(int tokens) {
+        this.tokens = tokens;
+    }
+
     /**
      * Provides a string representation of the Place, including its token count.
      *
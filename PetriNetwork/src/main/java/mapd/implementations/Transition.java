@@ -11,12 +11,17 @@ public class Transition {
     private List<OutArc> outArcs;
     private String label;
     private Boolean isFireable;
+    private double rate;
+    private long minDelay;
+    private long maxDelay;
+    int enabledPosition;
+    volatile int[] lockStripes;
 
     /**
      * Constructor for the Transition class.
      * <p>
      * Initializes the transition with an empty list of input and output arcs,
-     * a unique label, and sets the fireable status to false.
+     * a unique label, a firing rate of 1, no firing delay, and sets the fireable status to false.
      *
      * @param label The unique label identifier for the transition.
      */
@@ -25,6 +30,8 @@ public class Transition {
         this.outArcs = new ArrayList<OutArc>();
         this.label = label;
         this.isFireable = false;
+        this.rate = 1.0;
+        this.enabledPosition = -1;
     }
 
     /**
@@ -45,6 +52,80 @@ public class Transition {
         return label;
     }
 
+    /**
+     * Returns the firing rate of the transition.
+     * <p>
+     * The rate is only used by stochastic simulation, where an enabled transition fires after an
+     * exponentially distributed delay whose mean is the inverse of its rate.
+     *
+     * @return The rate of the transition, in firings per unit of time.
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * Sets the firing rate of the transition.
+     *
+     * @param rate The new rate. Must be positive and finite.
+     * @throws InvalidRateNumber If the rate is not positive or not finite.
+     */
+    public void setRate(double rate) throws InvalidRateNumber {
+        if (rate > 0 && rate < Double.POSITIVE_INFINITY) {
+            this.rate = rate;
+        } else {
+            throw new InvalidRateNumber("Invalid rate <= 0 or not finite");
+        }
+    }
+
+    /**
+     * Returns the shortest firing delay of the transition.
+     * <p>
+     * The delay is only used by timed simulation, where a transition fires after a delay chosen
+     * in {@code [minDelay, maxDelay]} from the time it becomes enabled, unless it is disabled
+     * before.
+     *
+     * @return The minimum delay, in ticks.
+     */
+    public long getMinDelay() {
+        return minDelay;
+    }
+
+    /**
+     * Returns the longest firing delay of the transition.
+     *
+     * @return The maximum delay, in ticks.
+     */
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Sets a deterministic firing delay for the transition.
+     *
+     * @param delay The delay, in ticks. Must be 0 or greater.
+     * @throws InvalidDelayNumber If the delay is negative.
+     */
+    public void setDelay(long delay) throws InvalidDelayNumber {
+        setDelay(delay, delay);
+    }
+
+    /**
+     * Sets the interval of the firing delay of the transition.
+     *
+     * @param minDelay The minimum delay, in ticks. Must be 0 or greater.
+     * @param maxDelay The maximum delay, in ticks. Must not be less than the minimum.
+     * @throws InvalidDelayNumber If the minimum is negative or greater than the maximum.
+     */
+    public void setDelay(long minDelay, long maxDelay) throws InvalidDelayNumber {
+        if (minDelay >= 0 && minDelay <= maxDelay) {
+            this.minDelay = minDelay;
+            this.maxDelay = maxDelay;
+        } else {
+            throw new InvalidDelayNumber("Invalid delay < 0 or minimum > maximum");
+        }
+    }
+
     /**
      * Returns the list of input arcs associated with the transition.
      *
@@ -74,6 +155,7 @@ public class Transition {
     public void addInArc(InArc inArc) throws RepeatedArc {
         if (!existedArc(this.inArcs, inArc)) {
             this.inArcs.add(inArc);
+            this.lockStripes = null;
             updateIsFireable();
         } else {
             throw new RepeatedArc("An Arc in the same direction already exists");
@@ -91,6 +173,7 @@ public class Transition {
     public void addOutArc(OutArc outArc) throws RepeatedArc {
         if (!existedArc(this.outArcs, outArc)) {
             this.outArcs.add(outArc);
+            this.lockStripes = null;
             updateIsFireable();
         } else {
             throw new RepeatedArc("An Arc in the same direction already exists");
@@ -98,12 +181,14 @@ public class Transition {
     }
 
     /**
-     * Removes an input arc from the transition.
+     * Removes an input arc from the transition and updates its fireable status.
      *
      * @param inArc The input arc to be removed.
      */
     public void rmInArc(InArc inArc) {
         this.inArcs.remove(inArc);
+        this.lockStripes = null;
+        updateIsFireable();
     }
 
     /**
@@ -113,6 +198,7 @@ public class Transition {
      */
     public void rmOutArc(OutArc outArc) {
         this.outArcs.remove(outArc);
+        this.lockStripes = null;
         updateIsFireable();
     }
 
@@ -162,6 +248,25 @@ public class Transition {
         }
     }
 
+    /**
+     * Moves the tokens of a firing already known to be valid, without checking or updating
+     * the fireable status of the transition.
+     * <p>
+     * Only the output arcs of this transition are re-evaluated, so a sequence of firings can
+     * be replayed with a single update of the fireable transitions at the end.
+     *
+     * @throws InvalidTokenNumber If a resulting token count is invalid.
+     */
+    void replay() throws InvalidTokenNumber {
+        for (OutArc arc : outArcs) {
+            arc.updateIsActive();
+            arc.modifyTokens();
+        }
+        for (InArc arc : inArcs) {
+            arc.modifyTokens();
+        }
+    }
+
     /**
      * Provides a string representation of the transition, including its input and output arcs.
      *
@@ -0,0 +1,37 @@
+package mapd.interfaces;
+
+import java.util.List;
+
+import mapd.implementations.Place;
+import mapd.implementations.Transition;
+
+public interface IFiringListener {
+
+	/**
+	 * Called before a transition is fired.
+	 *
+	 * @param transition The transition about to be fired.
+	 */
+	public default void beforeFire(Transition transition) {
+	}
+
+	/**
+	 * Called after a transition has been fired.
+	 *
+	 * @param transition The fired transition.
+	 */
+	public default void afterFire(Transition transition) {
+	}
+
+	/**
+	 * Called after a firing that changed the tokens of at least one place, before
+	 * {@link #afterFire(Transition)}. The list is reused by the next firing, so it must be copied
+	 * to be kept after the call.
+	 *
+	 * @param transition    The fired transition.
+	 * @param changedPlaces The places whose tokens have changed.
+	 */
+	public default void markingChanged(Transition transition, List<Place> changedPlaces) {
+	}
+
+}
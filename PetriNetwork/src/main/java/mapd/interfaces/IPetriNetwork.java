@@ -15,6 +15,8 @@ public interface IPetriNetwork {
 	
 	public void addTransition(String label) throws RepeatedNameElement;
 	public void rmTransition(String label) throws ElementNameNotExists;
+	public void setTransitionRate(String label, double rate) throws InvalidRateNumber, ElementNameNotExists;
+	public void setTransitionDelay(String label, long minDelay, long maxDelay) throws InvalidDelayNumber, ElementNameNotExists;
 	public void showTransitions();
 	public void renameTransition(String oldName, String newName) throws RepeatedNameElement, ElementNameNotExists;
 
@@ -0,0 +1,45 @@
+package mapd.interfaces;
+
+import mapd.implementations.CompiledPetriNet;
+
+public interface ISchedulingPolicy {
+
+	/**
+	 * Called when the policy is attached to a run, before the enabled transitions are announced.
+	 * The policy forgets any transition it was told about before.
+	 *
+	 * @param net The compiled net whose transition indexes are used by the other methods.
+	 */
+	public void reset(CompiledPetriNet net);
+
+	/**
+	 * Called when a transition becomes enabled.
+	 *
+	 * @param transition The index of the transition, which was not enabled.
+	 */
+	public void enable(int transition);
+
+	/**
+	 * Called when a transition stops being enabled.
+	 *
+	 * @param transition The index of the transition, which was enabled.
+	 */
+	public void disable(int transition);
+
+	/**
+	 * Chooses the next transition to fire among the enabled ones.
+	 *
+	 * @return The index of an enabled transition, or -1 if none is enabled.
+	 */
+	public int select();
+
+	/**
+	 * Called when the selected transition has fired, before the enabling changes it caused are
+	 * announced.
+	 *
+	 * @param transition The index of the fired transition, still enabled for the policy.
+	 */
+	public default void fired(int transition) {
+	}
+
+}
@@ -0,0 +1,475 @@
+package mapd.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import mapd.exceptions.ElementNameNotExists;
+import mapd.exceptions.InvalidTokenNumber;
+import mapd.exceptions.InvalidWeightNumber;
+import mapd.exceptions.RepeatedArc;
+import mapd.exceptions.RepeatedNameElement;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.InArc;
+import mapd.implementations.NetBuilder;
+import mapd.implementations.OutArc;
+import mapd.implementations.PetriNetwork;
+import mapd.implementations.Transition;
+
+public class NetImage {
+
+    public static final int MAGIC = 0x4D494E50;
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 32;
+
+    private ByteBuffer buffer;
+    private int placeCount;
+    private int transitionCount;
+    private int preCount;
+    private int postCount;
+
+    private IntBuffer stringOffsets;
+    private IntBuffer marking;
+    private IntBuffer preStart;
+    private IntBuffer prePlaces;
+    private IntBuffer preWeights;
+    private IntBuffer preKinds;
+    private IntBuffer postStart;
+    private IntBuffer postPlaces;
+    private IntBuffer postWeights;
+    private int stringsPosition;
+
+    private HashMap<String, Integer> placeIndexes;
+    private HashMap<String, Integer> transitionIndexes;
+
+    /**
+     * Constructs an image over a buffer holding a whole image file.
+     *
+     * @param buffer The bytes of the image.
+     * @throws IOException If the buffer does not hold an image of a supported version.
+     */
+    private NetImage(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a Petri net image");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported Petri net image version " + buffer.getInt(4));
+        }
+        this.placeCount = buffer.getInt(8);
+        this.transitionCount = buffer.getInt(12);
+        this.preCount = buffer.getInt(16);
+        this.postCount = buffer.getInt(20);
+        int stringBytes = buffer.getInt(24);
+
+        long[] position = {HEADER_BYTES};
+        this.stringOffsets = section(position, (long) this.placeCount + this.transitionCount + this.preCount + this.postCount + 1);
+        this.marking = section(position, this.placeCount);
+        this.preStart = section(position, (long) this.transitionCount + 1);
+        this.prePlaces = section(position, this.preCount);
+        this.preWeights = section(position, this.preCount);
+        this.preKinds = section(position, this.preCount);
+        this.postStart = section(position, (long) this.transitionCount + 1);
+        this.postPlaces = section(position, this.postCount);
+        this.postWeights = section(position, this.postCount);
+        if (position[0] + stringBytes != buffer.capacity()) {
+            throw new IOException("Truncated Petri net image");
+        }
+        this.stringsPosition = (int) position[0];
+    }
+
+    /**
+     * Maps an image file into memory.
+     * <p>
+     * Only the header is read: the sections are used in place through read-only views of the
+     * mapping, so loading takes the same time whatever the size of the net, and processes mapping
+     * the same file share its pages through the page cache. The image can be queried and fired
+     * directly, as a read-only {@link CompiledPetriNet}, without copying it. The file is assumed to have been
+     * written by {@link #write(PetriNetwork, Path)}; the indexes it holds are not verified.
+     *
+     * @param path The image file.
+     * @return The mapped image.
+     * @throws IOException If the file cannot be mapped or is not a valid image.
+     */
+    public static NetImage load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Petri net image larger than 2 GB");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new NetImage(buffer);
+        }
+    }
+
+    /**
+     * Writes the structure and the current marking of a network as an image file.
+     * <p>
+     * The image holds, in little-endian order: a header with the magic number, the format version
+     * and the element counts; the offsets of the labels of the places, transitions, pre arcs and
+     * post arcs; the marking; the pre and post arcs of the transitions in compressed sparse rows,
+     * as in {@link CompiledPetriNet}; and finally the labels encoded in UTF-8. The indexes are those
+     * of {@link PetriNetwork#compile()}.
+     *
+     * @param net  The network to be written.
+     * @param path The image file, created or replaced.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(PetriNetwork net, Path path) throws IOException {
+        CompiledPetriNet compiled = net.compile();
+        List<String> labels = new ArrayList<String>();
+        for (int p = 0; p < compiled.getPlaceCount(); p++) {
+            labels.add(compiled.getPlaceLabel(p));
+        }
+        for (int t = 0; t < compiled.getTransitionCount(); t++) {
+            labels.add(compiled.getTransitionLabel(t));
+        }
+        // compile() numbers the arcs in the iteration order of the transitions.
+        for (Transition transition : net.getTransitions().values()) {
+            for (OutArc arc : transition.getOutArcs()) {
+                labels.add(arc.getLabel());
+            }
+        }
+        for (Transition transition : net.getTransitions().values()) {
+            for (InArc arc : transition.getInArcs()) {
+                labels.add(arc.getLabel());
+            }
+        }
+
+        long stringBytes = 0;
+        for (String label : labels) {
+            stringBytes += label.getBytes(StandardCharsets.UTF_8).length;
+        }
+        int transitionCount = compiled.getTransitionCount();
+        int preCount = compiled.getPrePlaces().length;
+        int postCount = compiled.getPostPlaces().length;
+        long size = HEADER_BYTES + 4L * ((labels.size() + 1) + compiled.getPlaceCount()
+                + (transitionCount + 1) + 3L * preCount + (transitionCount + 1) + 2L * postCount) + stringBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Petri net image larger than 2 GB");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION)
+                    .putInt(compiled.getPlaceCount()).putInt(transitionCount)
+                    .putInt(preCount).putInt(postCount)
+                    .putInt((int) stringBytes).putInt(0);
+            int offset = 0;
+            buffer.putInt(offset);
+            for (String label : labels) {
+                offset += label.getBytes(StandardCharsets.UTF_8).length;
+                buffer.putInt(offset);
+            }
+            IntBuffer ints = buffer.asIntBuffer();
+            ints.put(compiled.getMarking());
+            ints.put(compiled.getPreStart()).put(compiled.getPrePlaces()).put(compiled.getPreWeights()).put(compiled.getPreKinds());
+            ints.put(compiled.getPostStart()).put(compiled.getPostPlaces()).put(compiled.getPostWeights());
+            buffer.position(buffer.position() + 4 * ints.position());
+            for (String label : labels) {
+                buffer.put(label.getBytes(StandardCharsets.UTF_8));
+            }
+            buffer.force();
+        }
+    }
+
+    public int getPlaceCount() {
+        return placeCount;
+    }
+
+    public int getTransitionCount() {
+        return transitionCount;
+    }
+
+    public int getPreArcCount() {
+        return preCount;
+    }
+
+    public int getPostArcCount() {
+        return postCount;
+    }
+
+    public String getPlaceLabel(int place) {
+        return label(place);
+    }
+
+    public String getTransitionLabel(int transition) {
+        return label(this.placeCount + transition);
+    }
+
+    /**
+     * Returns the index of the place with the given label.
+     * <p>
+     * The labels are only decoded into a map on the first call, so an image that is only fired by
+     * index never decodes them.
+     *
+     * @param label The label of the place.
+     * @return The index of the place.
+     * @throws ElementNameNotExists If no place has this label.
+     */
+    public int getPlaceIndex(String label) throws ElementNameNotExists {
+        if (this.placeIndexes == null) {
+            this.placeIndexes = labelIndexes(0, this.placeCount);
+        }
+        Integer index = this.placeIndexes.get(label);
+        if (index == null) {
+            throw new ElementNameNotExists("A place with this name does not exist");
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the transition with the given label.
+     * <p>
+     * As for places, the labels are only decoded on the first call.
+     *
+     * @param label The label of the transition.
+     * @return The index of the transition.
+     * @throws ElementNameNotExists If no transition has this label.
+     */
+    public int getTransitionIndex(String label) throws ElementNameNotExists {
+        if (this.transitionIndexes == null) {
+            this.transitionIndexes = labelIndexes(this.placeCount, this.transitionCount);
+        }
+        Integer index = this.transitionIndexes.get(label);
+        if (index == null) {
+            throw new ElementNameNotExists("A transition with this name does not exist");
+        }
+        return index;
+    }
+
+    /**
+     * Returns the label of a pre arc, numbered as in {@link #getPrePlaces()}.
+     *
+     * @param arc The index of the pre arc.
+     * @return The label of the arc.
+     */
+    public String getPreArcLabel(int arc) {
+        return label(this.placeCount + this.transitionCount + arc);
+    }
+
+    /**
+     * Returns the label of a post arc, numbered as in {@link #getPostPlaces()}.
+     *
+     * @param arc The index of the post arc.
+     * @return The label of the arc.
+     */
+    public String getPostArcLabel(int arc) {
+        return label(this.placeCount + this.transitionCount + this.preCount + arc);
+    }
+
+    public IntBuffer getMarking() {
+        return marking.duplicate();
+    }
+
+    public IntBuffer getPreStart() {
+        return preStart.duplicate();
+    }
+
+    public IntBuffer getPrePlaces() {
+        return prePlaces.duplicate();
+    }
+
+    public IntBuffer getPreWeights() {
+        return preWeights.duplicate();
+    }
+
+    public IntBuffer getPreKinds() {
+        return preKinds.duplicate();
+    }
+
+    public IntBuffer getPostStart() {
+        return postStart.duplicate();
+    }
+
+    public IntBuffer getPostPlaces() {
+        return postPlaces.duplicate();
+    }
+
+    public IntBuffer getPostWeights() {
+        return postWeights.duplicate();
+    }
+
+    /**
+     * Checks if a transition is enabled in the given marking, reading the arcs from the mapping.
+     * <p>
+     * This follows the semantics of {@link CompiledPetriNet#isEnabled(int, int[])}.
+     *
+     * @param transition The index of the transition.
+     * @param marking    The marking to evaluate, such as a copy of {@link #getMarking()}.
+     * @return True if the transition is enabled in the marking, false otherwise.
+     */
+    public boolean isEnabled(int transition, int[] marking) {
+        int start = this.preStart.get(transition);
+        int end = this.preStart.get(transition + 1);
+        if (start == end) {
+            return this.postStart.get(transition) != this.postStart.get(transition + 1);
+        }
+        for (int i = start; i < end; i++) {
+            int tokens = marking[this.prePlaces.get(i)];
+            switch (this.preKinds.get(i)) {
+                case CompiledPetriNet.ARC_OUT_ZERO:
+                    if (tokens == 0) {
+                        return true;
+                    }
+                    break;
+                case CompiledPetriNet.ARC_OUT_BOUNCER:
+                    if (tokens >= 1) {
+                        return true;
+                    }
+                    break;
+                default:
+                    if (tokens >= this.preWeights.get(i)) {
+                        return true;
+                    }
+                    break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies the effect of firing a transition to the given marking, reading the arcs from the
+     * mapping, without checking that it is enabled.
+     * <p>
+     * This follows the semantics of {@link CompiledPetriNet#applyFiring(int, int[])}.
+     *
+     * @param transition The index of the transition.
+     * @param marking    The marking to update in place.
+     */
+    public void applyFiring(int transition, int[] marking) {
+        for (int i = this.preStart.get(transition), end = this.preStart.get(transition + 1); i < end; i++) {
+            int place = this.prePlaces.get(i);
+            int tokens = marking[place];
+            switch (this.preKinds.get(i)) {
+                case CompiledPetriNet.ARC_OUT:
+                    if (tokens >= this.preWeights.get(i)) {
+                        marking[place] = tokens - this.preWeights.get(i);
+                    }
+                    break;
+                case CompiledPetriNet.ARC_OUT_BOUNCER:
+                    marking[place] = 0;
+                    break;
+                default:
+                    break;
+            }
+        }
+        for (int i = this.postStart.get(transition), end = this.postStart.get(transition + 1); i < end; i++) {
+            marking[this.postPlaces.get(i)] += this.postWeights.get(i);
+        }
+    }
+
+    /**
+     * Copies the image into a new {@link CompiledPetriNet}.
+     * <p>
+     * The sections are copied in bulk into the arrays of the compiled net, and only the labels of
+     * the places and transitions are decoded. The copy takes time and memory proportional to the
+     * size of the net and is not shared with other processes, so {@link #isEnabled(int, int[])}
+     * and {@link #applyFiring(int, int[])} should be used instead where the image is only fired.
+     *
+     * @return A compiled net with the structure and marking of the image.
+     */
+    public CompiledPetriNet toCompiledPetriNet() {
+        String[] placeLabels = new String[this.placeCount];
+        for (int p = 0; p < this.placeCount; p++) {
+            placeLabels[p] = getPlaceLabel(p);
+        }
+        String[] transitionLabels = new String[this.transitionCount];
+        for (int t = 0; t < this.transitionCount; t++) {
+            transitionLabels[t] = getTransitionLabel(t);
+        }
+        return new CompiledPetriNet(placeLabels, toArray(this.marking), transitionLabels,
+                toArray(this.preStart), toArray(this.prePlaces), toArray(this.preWeights), toArray(this.preKinds),
+                toArray(this.postStart), toArray(this.postPlaces), toArray(this.postWeights));
+    }
+
+    /**
+     * Builds a new {@link PetriNetwork} with the places, transitions and arcs of the image.
+     *
+     * @return A new network.
+     * @throws IOException If the image holds an unknown arc kind or inconsistent elements.
+     */
+    public PetriNetwork toPetriNetwork() throws IOException {
+        NetBuilder builder = new NetBuilder();
+        for (int p = 0; p < this.placeCount; p++) {
+            builder.addPlace(getPlaceLabel(p), this.marking.get(p));
+        }
+        for (int t = 0; t < this.transitionCount; t++) {
+            String transition = getTransitionLabel(t);
+            builder.addTransition(transition);
+            for (int i = this.preStart.get(t); i < this.preStart.get(t + 1); i++) {
+                builder.addArc(getPreArcLabel(i), transition, getPlaceLabel(this.prePlaces.get(i)),
+                        arcType(this.preKinds.get(i)), this.preWeights.get(i));
+            }
+            for (int i = this.postStart.get(t); i < this.postStart.get(t + 1); i++) {
+                builder.addArc(getPostArcLabel(i), transition, getPlaceLabel(this.postPlaces.get(i)),
+                        "in", this.postWeights.get(i));
+            }
+        }
+        try {
+            return builder.build();
+        } catch (RepeatedNameElement | ElementNameNotExists | InvalidTokenNumber | InvalidWeightNumber | RepeatedArc e) {
+            throw new IOException("Inconsistent Petri net image: " + e.getMessage(), e);
+        }
+    }
+
+    private static String arcType(int kind) throws IOException {
+        switch (kind) {
+            case CompiledPetriNet.ARC_OUT:
+                return "out";
+            case CompiledPetriNet.ARC_OUT_ZERO:
+                return "outzero";
+            case CompiledPetriNet.ARC_OUT_BOUNCER:
+                return "outbouncer";
+            default:
+                throw new IOException("Unknown arc kind " + kind + " in Petri net image");
+        }
+    }
+
+    private HashMap<String, Integer> labelIndexes(int first, int count) {
+        HashMap<String, Integer> indexes = new HashMap<String, Integer>();
+        for (int i = 0; i < count; i++) {
+            indexes.put(label(first + i), i);
+        }
+        return indexes;
+    }
+
+    private String label(int index) {
+        int start = this.stringOffsets.get(index);
+        int end = this.stringOffsets.get(index + 1);
+        byte[] bytes = new byte[end - start];
+        ByteBuffer strings = this.buffer.duplicate();
+        strings.position(this.stringsPosition + start);
+        strings.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private IntBuffer section(long[] position, long length) throws IOException {
+        long end = position[0] + 4 * length;
+        if (length < 0 || end > this.buffer.capacity()) {
+            throw new IOException("Truncated Petri net image");
+        }
+        ByteBuffer bytes = this.buffer.duplicate();
+        bytes.position((int) position[0]);
+        bytes.limit((int) end);
+        position[0] = end;
+        return bytes.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().asReadOnlyBuffer();
+    }
+
+    private static int[] toArray(IntBuffer section) {
+        int[] array = new int[section.capacity()];
+        section.duplicate().get(array);
+        return array;
+    }
+}
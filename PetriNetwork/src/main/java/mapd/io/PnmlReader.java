@@ -0,0 +1,232 @@
+package mapd.io;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import mapd.exceptions.ElementNameNotExists;
+import mapd.exceptions.InvalidTokenNumber;
+import mapd.exceptions.InvalidWeightNumber;
+import mapd.exceptions.RepeatedArc;
+import mapd.exceptions.RepeatedNameElement;
+import mapd.implementations.NetBuilder;
+import mapd.implementations.PetriNetwork;
+
+public class PnmlReader {
+
+    private XMLInputFactory factory;
+
+    /**
+     * Constructs a reader of Place/Transition nets in PNML.
+     * <p>
+     * The document is streamed with StAX, so no tree of the document is built. Each element is
+     * handed to a {@link NetBuilder} as soon as it is read, and only the ids of the places and
+     * transitions are kept to check the arcs. An arc that refers to a node declared after it is
+     * buffered until the end of the net. The ids become the labels of the places, transitions and arcs. The
+     * elements of the first {@code net} are read, flattening its pages, and DTDs are not processed.
+     * <p>
+     * Arcs from a place to a transition become "out" arcs, or "outzero" and "outbouncer" arcs when
+     * their {@code type} is {@code inhibitor} or {@code reset}. Arcs from a transition to a place
+     * become "in" arcs.
+     */
+    public PnmlReader() {
+        this.factory = XMLInputFactory.newInstance();
+        this.factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Reads a network from a PNML document.
+     * <p>
+     * The stream is not closed.
+     *
+     * @param in The stream holding the document.
+     * @return A new network with the places, transitions and arcs of the document.
+     * @throws XMLStreamException   If the document is malformed, or has an arc that does not link a
+     *                              place and a transition or of an unsupported type.
+     * @throws ElementNameNotExists If an arc refers to an unknown node.
+     * @throws RepeatedNameElement  If two places, two transitions or two arcs share an id.
+     * @throws InvalidTokenNumber   If a place has a negative initial marking.
+     * @throws InvalidWeightNumber  If an arc has an inscription less than 1.
+     * @throws RepeatedArc          If a transition has two arcs in the same direction on a place.
+     */
+    public PetriNetwork read(InputStream in) throws XMLStreamException, ElementNameNotExists, RepeatedNameElement,
+            InvalidTokenNumber, InvalidWeightNumber, RepeatedArc {
+        XMLStreamReader reader = this.factory.createXMLStreamReader(in);
+        try {
+            return read(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private PetriNetwork read(XMLStreamReader reader) throws XMLStreamException, ElementNameNotExists, RepeatedNameElement,
+            InvalidTokenNumber, InvalidWeightNumber, RepeatedArc {
+        NetBuilder builder = new NetBuilder();
+        HashSet<String> places = new HashSet<String>();
+        HashSet<String> transitions = new HashSet<String>();
+        HashMap<String, String> references = new HashMap<String, String>();
+        String[] arcIds = new String[16];
+        String[] arcSources = new String[16];
+        String[] arcTargets = new String[16];
+        String[] arcTypes = new String[16];
+        int[] arcWeights = new int[16];
+        int pending = 0;
+
+        String element = null;
+        String id = null;
+        String source = null;
+        String target = null;
+        String type = null;
+        int value = 0;
+        String label = null;
+        boolean inNet = false;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if (name.equals("net")) {
+                    inNet = true;
+                } else if (!inNet) {
+                    continue;
+                } else if (name.equals("place") || name.equals("transition")) {
+                    element = name;
+                    id = requireAttribute(reader, "id");
+                    value = 0;
+                } else if (name.equals("arc")) {
+                    element = name;
+                    id = requireAttribute(reader, "id");
+                    source = requireAttribute(reader, "source");
+                    target = requireAttribute(reader, "target");
+                    type = "normal";
+                    value = 1;
+                } else if (name.equals("referencePlace") || name.equals("referenceTransition")) {
+                    references.put(requireAttribute(reader, "id"), requireAttribute(reader, "ref"));
+                } else if (element != null && (name.equals("initialMarking") || name.equals("inscription")
+                        || name.equals("arctype"))) {
+                    label = name;
+                } else if (element != null && name.equals("type") && reader.getAttributeValue(null, "value") != null) {
+                    type = reader.getAttributeValue(null, "value");
+                } else if (label != null && (name.equals("text") || name.equals("value"))) {
+                    String text = reader.getElementText().trim();
+                    if (label.equals("arctype")) {
+                        type = text;
+                    } else {
+                        value = parseNumber(reader, text);
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && inNet) {
+                String name = reader.getLocalName();
+                if (name.equals("net")) {
+                    break;
+                } else if (name.equals(label)) {
+                    label = null;
+                } else if (name.equals(element)) {
+                    if (name.equals("place")) {
+                        builder.addPlace(id, value);
+                        places.add(id);
+                    } else if (name.equals("transition")) {
+                        builder.addTransition(id);
+                        transitions.add(id);
+                    } else if (!addArc(builder, places, transitions, references, id, source, target, type, value, false)) {
+                        if (pending == arcIds.length) {
+                            int capacity = pending * 2;
+                            arcIds = Arrays.copyOf(arcIds, capacity);
+                            arcSources = Arrays.copyOf(arcSources, capacity);
+                            arcTargets = Arrays.copyOf(arcTargets, capacity);
+                            arcTypes = Arrays.copyOf(arcTypes, capacity);
+                            arcWeights = Arrays.copyOf(arcWeights, capacity);
+                        }
+                        arcIds[pending] = id;
+                        arcSources[pending] = source;
+                        arcTargets[pending] = target;
+                        arcTypes[pending] = type;
+                        arcWeights[pending] = value;
+                        pending++;
+                    }
+                    element = null;
+                }
+            }
+        }
+
+        for (int i = 0; i < pending; i++) {
+            addArc(builder, places, transitions, references, arcIds[i], arcSources[i], arcTargets[i], arcTypes[i],
+                    arcWeights[i], true);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Adds an arc to the builder if both of its nodes are known.
+     *
+     * @param last Whether no more nodes will be read, so an unknown node is an error.
+     * @return Whether the arc was added, false if a node is not known yet.
+     */
+    private static boolean addArc(NetBuilder builder, HashSet<String> places, HashSet<String> transitions,
+            HashMap<String, String> references, String id, String source, String target, String type, int weight,
+            boolean last) throws XMLStreamException, ElementNameNotExists {
+        String arcSource = resolve(references, source);
+        String arcTarget = resolve(references, target);
+        String arcType = type.trim().toLowerCase();
+        if (places.contains(arcSource) && transitions.contains(arcTarget)) {
+            builder.addArc(id, arcTarget, arcSource, outArcType(id, arcType), weight);
+        } else if (transitions.contains(arcSource) && places.contains(arcTarget)) {
+            if (!arcType.equals("normal")) {
+                throw new XMLStreamException("Arc " + id + " from a transition must be a normal arc");
+            }
+            builder.addArc(id, arcSource, arcTarget, "in", weight);
+        } else if ((places.contains(arcSource) || transitions.contains(arcSource))
+                && (places.contains(arcTarget) || transitions.contains(arcTarget))) {
+            throw new XMLStreamException("Arc " + id + " must link a place and a transition");
+        } else if (last) {
+            throw new ElementNameNotExists("A place or transition with this name does not exist");
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static String outArcType(String id, String type) throws XMLStreamException {
+        switch (type) {
+            case "normal":
+                return "out";
+            case "inhibitor":
+                return "outzero";
+            case "reset":
+                return "outbouncer";
+            default:
+                throw new XMLStreamException("Arc " + id + " has an unsupported " + type + " type");
+        }
+    }
+
+    private static String resolve(HashMap<String, String> references, String id) {
+        String resolved = id;
+        for (int i = 0; i <= references.size() && references.containsKey(resolved); i++) {
+            resolved = references.get(resolved);
+        }
+        return resolved;
+    }
+
+    private static String requireAttribute(XMLStreamReader reader, String name) throws XMLStreamException {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null) {
+            throw new XMLStreamException("Missing " + name + " attribute in " + reader.getLocalName(), reader.getLocation());
+        }
+        return value;
+    }
+
+    private static int parseNumber(XMLStreamReader reader, String text) throws XMLStreamException {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new XMLStreamException("Invalid number " + text, reader.getLocation());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package mapd.io;
+
+import java.io.OutputStream;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import mapd.implementations.Arc;
+import mapd.implementations.InArc;
+import mapd.implementations.OutBouncerArc;
+import mapd.implementations.OutZeroArc;
+import mapd.implementations.PetriNetwork;
+import mapd.implementations.Place;
+import mapd.implementations.Transition;
+
+public class PnmlWriter {
+
+    public static final String PNML_NAMESPACE = "http://www.pnml.org/version-2009/grammar/pnml";
+    public static final String PTNET_TYPE = "http://www.pnml.org/version-2009/grammar/ptnet";
+
+    private XMLOutputFactory factory;
+
+    /**
+     * Constructs a writer of Place/Transition nets in PNML.
+     * <p>
+     * The document is streamed with StAX, one element at a time, so its size does not depend on
+     * the available memory. The labels of the places, transitions and arcs are written as their
+     * ids and names, so they should be unique across the three kinds of elements. OutZeroArcs are
+     * written as {@code inhibitor} arcs and OutBouncerArcs as {@code reset} arcs, which
+     * {@link PnmlReader} maps back to the same types.
+     */
+    public PnmlWriter() {
+        this.factory = XMLOutputFactory.newInstance();
+    }
+
+    /**
+     * Writes a network as a PNML document encoded in UTF-8.
+     * <p>
+     * The stream is flushed but not closed.
+     *
+     * @param net   The network to be written.
+     * @param netId The id of the {@code net} element.
+     * @param out   The stream receiving the document.
+     * @throws XMLStreamException If the document cannot be written.
+     */
+    public void write(PetriNetwork net, String netId, OutputStream out) throws XMLStreamException {
+        XMLStreamWriter writer = this.factory.createXMLStreamWriter(out, "UTF-8");
+        writer.writeStartDocument("UTF-8", "1.0");
+        writer.writeStartElement("pnml");
+        writer.writeDefaultNamespace(PNML_NAMESPACE);
+        writer.writeStartElement("net");
+        writer.writeAttribute("id", netId);
+        writer.writeAttribute("type", PTNET_TYPE);
+        writer.writeStartElement("page");
+        writer.writeAttribute("id", netId + "_page");
+
+        for (Place place : net.getPlaces().values()) {
+            writer.writeStartElement("place");
+            writer.writeAttribute("id", place.getLabel());
+            writeText(writer, "name", place.getLabel());
+            if (place.getTokens() != 0) {
+                writeText(writer, "initialMarking", String.valueOf(place.getTokens()));
+            }
+            writer.writeEndElement();
+        }
+        for (Transition transition : net.getTransitions().values()) {
+            writer.writeStartElement("transition");
+            writer.writeAttribute("id", transition.getLabel());
+            writeText(writer, "name", transition.getLabel());
+            writer.writeEndElement();
+        }
+        for (Arc arc : net.getArcs().values()) {
+            writer.writeStartElement("arc");
+            writer.writeAttribute("id", arc.getLabel());
+            if (arc instanceof InArc) {
+                writer.writeAttribute("source", arc.getTransition().getLabel());
+                writer.writeAttribute("target", arc.getPlace().getLabel());
+            } else {
+                writer.writeAttribute("source", arc.getPlace().getLabel());
+                writer.writeAttribute("target", arc.getTransition().getLabel());
+            }
+            if (arc.getWeight() != 1) {
+                writeText(writer, "inscription", String.valueOf(arc.getWeight()));
+            }
+            if (arc instanceof OutZeroArc) {
+                writer.writeEmptyElement("type");
+                writer.writeAttribute("value", "inhibitor");
+            } else if (arc instanceof OutBouncerArc) {
+                writer.writeEmptyElement("type");
+                writer.writeAttribute("value", "reset");
+            }
+            writer.writeEndElement();
+        }
+
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.flush();
+        writer.close();
+    }
+
+    private static void writeText(XMLStreamWriter writer, String element, String text) throws XMLStreamException {
+        writer.writeStartElement(element);
+        writer.writeStartElement("text");
+        writer.writeCharacters(text);
+        writer.writeEndElement();
+        writer.writeEndElement();
+    }
+}
@@ -0,0 +1,137 @@
+package mapd.simulation;
+
+import java.util.Arrays;
+
+class IndexedHeap {
+
+    private int[] heap;
+    private long[] keys;
+    private int[] positions;
+    private int size;
+
+    /**
+     * Constructs an empty binary min-heap of indexes with a long key each.
+     * <p>
+     * Every index remembers its position in the heap, so a member can be removed or have its key
+     * changed in logarithmic time. Equal keys are ordered by index.
+     *
+     * @param capacity The number of indexes, from 0 to {@code capacity - 1}.
+     */
+    IndexedHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.keys = new long[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(this.positions, -1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int index) {
+        return positions[index] >= 0;
+    }
+
+    /**
+     * Returns the index with the smallest key.
+     *
+     * @return The index, or -1 if the heap is empty.
+     */
+    int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Inserts an index, or changes its key if it is already a member.
+     *
+     * @param index The index.
+     * @param key   Its key.
+     */
+    void put(int index, long key) {
+        int position = positions[index];
+        if (position < 0) {
+            keys[index] = key;
+            heap[size] = index;
+            positions[index] = size;
+            siftUp(size++);
+        } else {
+            long previous = keys[index];
+            keys[index] = key;
+            if (key < previous) {
+                siftUp(position);
+            } else {
+                siftDown(position);
+            }
+        }
+    }
+
+    /**
+     * Removes an index if it is a member.
+     *
+     * @param index The index.
+     */
+    void remove(int index) {
+        int position = positions[index];
+        if (position < 0) {
+            return;
+        }
+        positions[index] = -1;
+        int last = heap[--size];
+        if (position == size) {
+            return;
+        }
+        heap[position] = last;
+        positions[last] = position;
+        siftDown(position);
+        siftUp(positions[last]);
+    }
+
+    private boolean less(int first, int second) {
+        long a = keys[first];
+        long b = keys[second];
+        return a < b || a == b && first < second;
+    }
+
+    private void siftUp(int position) {
+        int index = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!less(index, heap[parent])) {
+                break;
+            }
+            heap[position] = heap[parent];
+            positions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = index;
+        positions[index] = position;
+    }
+
+    private void siftDown(int position) {
+        int index = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], index)) {
+                break;
+            }
+            heap[position] = heap[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = index;
+        positions[index] = position;
+    }
+}
@@ -0,0 +1,57 @@
+package mapd.simulation;
+
+import mapd.implementations.CompiledPetriNet;
+import mapd.interfaces.ISchedulingPolicy;
+
+public class LeastRecentlyFiredPolicy implements ISchedulingPolicy {
+
+    private long[] lastFirings;
+    private IndexedHeap heap;
+    private long clock;
+
+    /**
+     * Constructs a policy choosing the enabled transition that has waited the longest since it
+     * last fired, so that no enabled transition is starved.
+     * <p>
+     * The enabled transitions are kept in an indexed binary heap keyed by their last firing, so
+     * enabling, disabling and firing take logarithmic time and selecting takes constant time.
+     * Transitions that never fired come first, by index. The firing history is kept across runs,
+     * and cleared when the policy is attached to a net of another size.
+     */
+    public LeastRecentlyFiredPolicy() {
+        this.lastFirings = new long[0];
+    }
+
+    @Override
+    public void reset(CompiledPetriNet net) {
+        int transitions = net.getTransitionCount();
+        if (lastFirings.length != transitions) {
+            lastFirings = new long[transitions];
+            heap = new IndexedHeap(transitions);
+            clock = 0;
+        } else {
+            heap.clear();
+        }
+    }
+
+    @Override
+    public void enable(int transition) {
+        heap.put(transition, lastFirings[transition]);
+    }
+
+    @Override
+    public void disable(int transition) {
+        heap.remove(transition);
+    }
+
+    @Override
+    public int select() {
+        return heap.peek();
+    }
+
+    @Override
+    public void fired(int transition) {
+        lastFirings[transition] = ++clock;
+        heap.put(transition, clock);
+    }
+}
@@ -0,0 +1,56 @@
+package mapd.simulation;
+
+import mapd.implementations.CompiledPetriNet;
+import mapd.interfaces.ISchedulingPolicy;
+
+public class PriorityPolicy implements ISchedulingPolicy {
+
+    private int[] priorities;
+    private IndexedHeap heap;
+
+    /**
+     * Constructs a policy always choosing the enabled transition with the highest static priority.
+     * <p>
+     * The enabled transitions are kept in an indexed binary heap, so enabling and disabling take
+     * logarithmic time and selecting takes constant time. Among transitions with the same
+     * priority, the one with the lowest index is chosen.
+     *
+     * @param priorities The priority of each transition, indexed as in the compiled net.
+     */
+    public PriorityPolicy(int[] priorities) {
+        this.priorities = priorities.clone();
+    }
+
+    /**
+     * Forgets the enabled transitions, after checking that the priorities match the net.
+     *
+     * @param net The compiled net.
+     * @throws IllegalArgumentException If there is not one priority per transition of the net.
+     */
+    @Override
+    public void reset(CompiledPetriNet net) {
+        if (priorities.length != net.getTransitionCount()) {
+            throw new IllegalArgumentException("There must be one priority per transition");
+        }
+        if (heap == null) {
+            heap = new IndexedHeap(priorities.length);
+        } else {
+            heap.clear();
+        }
+    }
+
+    @Override
+    public void enable(int transition) {
+        heap.put(transition, -(long) priorities[transition]);
+    }
+
+    @Override
+    public void disable(int transition) {
+        heap.remove(transition);
+    }
+
+    @Override
+    public int select() {
+        return heap.peek();
+    }
+}
@@ -0,0 +1,99 @@
+package mapd.simulation;
+
+import mapd.implementations.CompiledPetriNet;
+import mapd.interfaces.ISchedulingPolicy;
+
+public class RoundRobinPolicy implements ISchedulingPolicy {
+
+    private long[][] levels;
+    private int cursor;
+
+    /**
+     * Constructs a policy cycling through the transitions in index order, choosing the first
+     * enabled transition after the last one fired.
+     * <p>
+     * The enabled transitions are kept in a hierarchical bitmap where each bit of a level tells
+     * whether a word of the level below is non-zero, so enabling, disabling and finding the next
+     * enabled transition take a number of steps logarithmic in base 64 of the number of
+     * transitions.
+     */
+    public RoundRobinPolicy() {
+        this.levels = new long[][] {new long[1]};
+    }
+
+    @Override
+    public void reset(CompiledPetriNet net) {
+        int words = (net.getTransitionCount() + Long.SIZE - 1) / Long.SIZE;
+        int count = 1;
+        for (int size = words; size > 1; size = (size + Long.SIZE - 1) / Long.SIZE) {
+            count++;
+        }
+        levels = new long[count][];
+        for (int level = 0, size = Math.max(words, 1); level < count; level++, size = (size + Long.SIZE - 1) / Long.SIZE) {
+            levels[level] = new long[size];
+        }
+        cursor = 0;
+    }
+
+    @Override
+    public void enable(int transition) {
+        int index = transition;
+        for (long[] words : levels) {
+            int word = index >>> 6;
+            boolean wasEmpty = words[word] == 0;
+            words[word] |= 1L << index;
+            if (!wasEmpty) {
+                return;
+            }
+            index = word;
+        }
+    }
+
+    @Override
+    public void disable(int transition) {
+        int index = transition;
+        for (long[] words : levels) {
+            int word = index >>> 6;
+            words[word] &= ~(1L << index);
+            if (words[word] != 0) {
+                return;
+            }
+            index = word;
+        }
+    }
+
+    @Override
+    public int select() {
+        int transition = nextEnabled(0, cursor);
+        return transition >= 0 ? transition : nextEnabled(0, 0);
+    }
+
+    @Override
+    public void fired(int transition) {
+        cursor = transition + 1;
+    }
+
+    /**
+     * Finds the first set bit of a level at or after a position.
+     *
+     * @param level The level of the bitmap, 0 for the transitions.
+     * @param from  The first position to consider.
+     * @return The position of the set bit, or -1 if there is none.
+     */
+    private int nextEnabled(int level, int from) {
+        long[] words = levels[level];
+        int word = from >>> 6;
+        if (word >= words.length) {
+            return -1;
+        }
+        long bits = words[word] & (-1L << from);
+        if (bits != 0) {
+            return (word << 6) | Long.numberOfTrailingZeros(bits);
+        }
+        if (level + 1 == levels.length) {
+            return -1;
+        }
+        int next = nextEnabled(level + 1, word + 1);
+        return next < 0 ? -1 : (next << 6) | Long.numberOfTrailingZeros(words[next]);
+    }
+}
@@ -0,0 +1,373 @@
+package mapd.simulation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+
+public class StochasticSimulator {
+
+    private CompiledPetriNet net;
+    private SplittableRandom random;
+    private double[] rates;
+    private int[] marking;
+
+    private int[] heap;
+    private double[] heapTimes;
+    private int[] heapPositions;
+    private double[] fireTimes;
+    private double[] remainingTimes;
+    private boolean[] enabled;
+    private int[] visitStamps;
+    private int visitEpoch;
+
+    private double time;
+    private long eventCount;
+    private double statisticsStart;
+    private long[] firingCounts;
+    private double[] tokenAreas;
+    private double[] lastChanges;
+
+    /**
+     * Constructs a simulator for the current structure, marking and rates of a network.
+     *
+     * @param network The network to simulate. It is compiled once and not modified.
+     * @param seed    The seed of the random number generator.
+     */
+    public StochasticSimulator(PetriNetwork network, long seed) {
+        this(network.compile(), seed);
+    }
+
+    /**
+     * Constructs a simulator starting at time 0 from the current marking of a compiled net.
+     * <p>
+     * Each enabled transition fires after an exponentially distributed delay with the rate of
+     * {@link CompiledPetriNet#getRates()}, and the firing rule is the one of
+     * {@link CompiledPetriNet#applyFiring(int, int[])}. The simulator works on its own copy of
+     * the marking.
+     *
+     * @param net  The compiled net to simulate. Its marking is not modified.
+     * @param seed The seed of the random number generator.
+     */
+    public StochasticSimulator(CompiledPetriNet net, long seed) {
+        this.net = net;
+        this.random = new SplittableRandom(seed);
+        this.rates = net.getRates();
+        this.marking = net.getMarking();
+        int transitions = net.getTransitionCount();
+        int places = net.getPlaceCount();
+        this.heap = new int[transitions];
+        this.heapTimes = new double[transitions];
+        this.heapPositions = new int[transitions];
+        this.fireTimes = new double[transitions];
+        this.remainingTimes = new double[transitions];
+        this.enabled = new boolean[transitions];
+        this.visitStamps = new int[transitions];
+        this.firingCounts = new long[transitions];
+        this.tokenAreas = new double[places];
+        this.lastChanges = new double[places];
+        Arrays.fill(this.remainingTimes, Double.NaN);
+        for (int t = 0; t < transitions; t++) {
+            this.enabled[t] = net.isEnabled(t, this.marking);
+            this.fireTimes[t] = this.enabled[t] ? delay(t) : Double.POSITIVE_INFINITY;
+            this.heap[t] = t;
+            this.heapTimes[t] = this.fireTimes[t];
+            this.heapPositions[t] = t;
+        }
+        for (int i = transitions / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Returns the simulated net, which gives the labels and indexes of places and transitions.
+     *
+     * @return The compiled net.
+     */
+    public CompiledPetriNet getNet() {
+        return net;
+    }
+
+    /**
+     * Returns the current simulated time.
+     *
+     * @return The time of the last firing, or the end time of the last run if it was reached.
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the number of firings since the simulation started.
+     *
+     * @return The number of events.
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns the current marking.
+     *
+     * @return A copy of the tokens of each place.
+     */
+    public int[] getMarking() {
+        return Arrays.copyOf(marking, marking.length);
+    }
+
+    /**
+     * Checks if no transition is enabled, in which case the simulation cannot progress.
+     *
+     * @return True if no transition can fire anymore.
+     */
+    public boolean isDead() {
+        return heap.length == 0 || heapTimes[0] == Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Fires transitions in time order until a number of events or a time is reached.
+     * <p>
+     * This is the next reaction method of Gibson and Bruck: the absolute firing time of every
+     * transition is kept in an indexed binary heap, and the earliest one fires. Afterwards only
+     * the transitions with a pre arc on a place touched by the firing are re-evaluated. A newly
+     * enabled transition draws an exponential delay, unless it was disabled before its firing,
+     * in which case it resumes the delay it had left, and a transition that stays enabled keeps
+     * its firing time, so each event draws a single random number in the common case.
+     *
+     * @param maxEvents The maximum number of firings.
+     * @param endTime   The time at which the run stops if it comes first.
+     * @return The number of firings performed.
+     */
+    public long run(long maxEvents, double endTime) {
+        if (maxEvents < 0) {
+            throw new IllegalArgumentException("The number of events must be at least 0");
+        }
+        long fired = 0;
+        while (fired < maxEvents) {
+            double next = heap.length > 0 ? heapTimes[0] : Double.POSITIVE_INFINITY;
+            if (next > endTime || next == Double.POSITIVE_INFINITY) {
+                if (endTime > time && endTime < Double.POSITIVE_INFINITY) {
+                    time = endTime;
+                }
+                break;
+            }
+            fire(heap[0], next);
+            fired++;
+        }
+        return fired;
+    }
+
+    /**
+     * Fires a transition at its scheduled time and updates the affected firing times.
+     *
+     * @param transition The transition at the top of the heap.
+     * @param fireTime   Its firing time.
+     */
+    private void fire(int transition, double fireTime) {
+        int[] preStart = net.getPreStart();
+        int[] prePlaces = net.getPrePlaces();
+        int[] preKinds = net.getPreKinds();
+        int[] postStart = net.getPostStart();
+        int[] postPlaces = net.getPostPlaces();
+        time = fireTime;
+        int preBegin = preStart[transition];
+        int preEnd = preStart[transition + 1];
+        int postBegin = postStart[transition];
+        int postEnd = postStart[transition + 1];
+        for (int i = preBegin; i < preEnd; i++) {
+            if (preKinds[i] != CompiledPetriNet.ARC_OUT_ZERO) {
+                accumulate(prePlaces[i]);
+            }
+        }
+        for (int i = postBegin; i < postEnd; i++) {
+            accumulate(postPlaces[i]);
+        }
+        net.applyFiring(transition, marking);
+        firingCounts[transition]++;
+        eventCount++;
+
+        int epoch = nextVisitEpoch();
+        visitStamps[transition] = epoch;
+        enabled[transition] = net.isEnabled(transition, marking);
+        fireTimes[transition] = enabled[transition] ? time + delay(transition) : Double.POSITIVE_INFINITY;
+        siftDown(heapPositions[transition]);
+        for (int i = preBegin; i < preEnd; i++) {
+            if (preKinds[i] != CompiledPetriNet.ARC_OUT_ZERO) {
+                refreshDependents(prePlaces[i], epoch);
+            }
+        }
+        for (int i = postBegin; i < postEnd; i++) {
+            refreshDependents(postPlaces[i], epoch);
+        }
+    }
+
+    /**
+     * Re-evaluates the transitions having a pre arc on a place whose tokens may have changed.
+     *
+     * @param place The place.
+     * @param epoch The current visit epoch, used to evaluate each transition once per firing.
+     */
+    private void refreshDependents(int place, int epoch) {
+        int[] dependentStart = net.getDependentStart();
+        int[] dependentTransitions = net.getDependentTransitions();
+        for (int i = dependentStart[place], end = dependentStart[place + 1]; i < end; i++) {
+            int transition = dependentTransitions[i];
+            if (visitStamps[transition] == epoch) {
+                continue;
+            }
+            visitStamps[transition] = epoch;
+            boolean now = net.isEnabled(transition, marking);
+            if (now == enabled[transition]) {
+                continue;
+            }
+            enabled[transition] = now;
+            if (now) {
+                double remaining = remainingTimes[transition];
+                fireTimes[transition] = time + (remaining == remaining ? remaining : delay(transition));
+                remainingTimes[transition] = Double.NaN;
+                siftUp(heapPositions[transition]);
+            } else {
+                remainingTimes[transition] = fireTimes[transition] - time;
+                fireTimes[transition] = Double.POSITIVE_INFINITY;
+                siftDown(heapPositions[transition]);
+            }
+        }
+    }
+
+    /**
+     * Draws an exponentially distributed delay for a transition.
+     *
+     * @param transition The transition.
+     * @return The delay, with the rate of the transition.
+     */
+    private double delay(int transition) {
+        return -Math.log(1.0 - random.nextDouble()) / rates[transition];
+    }
+
+    /**
+     * Adds the tokens of a place times the time since its last change to its occupancy.
+     *
+     * @param place The place about to change.
+     */
+    private void accumulate(int place) {
+        tokenAreas[place] += marking[place] * (time - lastChanges[place]);
+        lastChanges[place] = time;
+    }
+
+    private int nextVisitEpoch() {
+        if (++visitEpoch == 0) {
+            Arrays.fill(visitStamps, 0);
+            visitEpoch = 1;
+        }
+        return visitEpoch;
+    }
+
+    /**
+     * Moves a transition whose firing time decreased towards the top of the heap.
+     * <p>
+     * The heap keeps a copy of the firing times by position, so that the comparisons do not
+     * have to go through the transition indexes.
+     *
+     * @param position The position of the transition in the heap.
+     */
+    private void siftUp(int position) {
+        int transition = heap[position];
+        double key = fireTimes[transition];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heapTimes[parent] <= key) {
+                break;
+            }
+            move(parent, position);
+            position = parent;
+        }
+        place(transition, key, position);
+    }
+
+    /**
+     * Moves a transition whose firing time increased towards the bottom of the heap.
+     *
+     * @param position The position of the transition in the heap.
+     */
+    private void siftDown(int position) {
+        int size = heap.length;
+        int transition = heap[position];
+        double key = fireTimes[transition];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heapTimes[child + 1] < heapTimes[child]) {
+                child++;
+            }
+            if (heapTimes[child] >= key) {
+                break;
+            }
+            move(child, position);
+            position = child;
+        }
+        place(transition, key, position);
+    }
+
+    private void move(int from, int to) {
+        int transition = heap[from];
+        heap[to] = transition;
+        heapTimes[to] = heapTimes[from];
+        heapPositions[transition] = to;
+    }
+
+    private void place(int transition, double key, int position) {
+        heap[position] = transition;
+        heapTimes[position] = key;
+        heapPositions[transition] = position;
+    }
+
+    /**
+     * Restarts the statistics at the current time, for instance to discard a warm-up period.
+     */
+    public void resetStatistics() {
+        statisticsStart = time;
+        Arrays.fill(firingCounts, 0);
+        Arrays.fill(tokenAreas, 0);
+        Arrays.fill(lastChanges, time);
+    }
+
+    /**
+     * Returns the number of firings of a transition since the statistics started.
+     *
+     * @param transition The index of the transition.
+     * @return The number of firings.
+     */
+    public long getFiringCount(int transition) {
+        return firingCounts[transition];
+    }
+
+    /**
+     * Returns the time-averaged number of tokens of a place since the statistics started.
+     *
+     * @param place The index of the place.
+     * @return The mean occupancy, or the current tokens if no time has elapsed.
+     */
+    public double getMeanTokens(int place) {
+        double elapsed = time - statisticsStart;
+        if (elapsed <= 0) {
+            return marking[place];
+        }
+        return (tokenAreas[place] + marking[place] * (time - lastChanges[place])) / elapsed;
+    }
+
+    /**
+     * Returns the time-averaged number of tokens of every place since the statistics started.
+     *
+     * @return The mean occupancy of each place, indexed by place.
+     */
+    public double[] getMeanTokens() {
+        double[] means = new double[marking.length];
+        for (int p = 0; p < means.length; p++) {
+            means[p] = getMeanTokens(p);
+        }
+        return means;
+    }
+}
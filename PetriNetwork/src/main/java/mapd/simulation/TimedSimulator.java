@@ -0,0 +1,259 @@
+package mapd.simulation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+
+public class TimedSimulator {
+
+    private CompiledPetriNet net;
+    private SplittableRandom random;
+    private long[] minDelays;
+    private long[] maxDelays;
+    private int[] marking;
+
+    private TimingWheel pending;
+    private boolean[] enabled;
+    private long[] enabledSince;
+    private int[] visitStamps;
+    private int visitEpoch;
+
+    private long time;
+    private long eventCount;
+    private long[] firingCounts;
+
+    /**
+     * Constructs a simulator for the current structure, marking and delays of a network.
+     *
+     * @param network The network to simulate. It is compiled once and not modified.
+     * @param seed    The seed of the random number generator, used for delay intervals.
+     */
+    public TimedSimulator(PetriNetwork network, long seed) {
+        this(network.compile(), seed);
+    }
+
+    /**
+     * Constructs a simulator starting at time 0 from the current marking of a compiled net.
+     * <p>
+     * A transition that becomes enabled is scheduled to fire after a delay drawn uniformly in its
+     * interval of {@link CompiledPetriNet#getMinDelays()} and {@link CompiledPetriNet#getMaxDelays()},
+     * and its pending firing is cancelled if it is disabled in the meantime. The firing rule is
+     * the one of {@link CompiledPetriNet#applyFiring(int, int[])}. The simulator works on its own
+     * copy of the marking.
+     *
+     * @param net  The compiled net to simulate. Its marking is not modified.
+     * @param seed The seed of the random number generator, used for delay intervals.
+     */
+    public TimedSimulator(CompiledPetriNet net, long seed) {
+        this.net = net;
+        this.random = new SplittableRandom(seed);
+        this.minDelays = net.getMinDelays();
+        this.maxDelays = net.getMaxDelays();
+        this.marking = net.getMarking();
+        int transitions = net.getTransitionCount();
+        this.pending = new TimingWheel(transitions);
+        this.enabled = new boolean[transitions];
+        this.enabledSince = new long[transitions];
+        this.visitStamps = new int[transitions];
+        this.firingCounts = new long[transitions];
+        for (int t = 0; t < transitions; t++) {
+            if (net.isEnabled(t, this.marking)) {
+                enable(t);
+            }
+        }
+    }
+
+    /**
+     * Returns the simulated net, which gives the labels and indexes of places and transitions.
+     *
+     * @return The compiled net.
+     */
+    public CompiledPetriNet getNet() {
+        return net;
+    }
+
+    /**
+     * Returns the current simulated time.
+     *
+     * @return The time of the last firing, or the end time of the last run if it was reached.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the number of firings since the simulation started.
+     *
+     * @return The number of events.
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns the number of firings of a transition since the simulation started.
+     *
+     * @param transition The index of the transition.
+     * @return The number of firings.
+     */
+    public long getFiringCount(int transition) {
+        return firingCounts[transition];
+    }
+
+    /**
+     * Returns the current marking.
+     *
+     * @return A copy of the tokens of each place.
+     */
+    public int[] getMarking() {
+        return Arrays.copyOf(marking, marking.length);
+    }
+
+    /**
+     * Returns the number of pending firings, that is of enabled transitions.
+     *
+     * @return The number of scheduled events.
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Returns the time at which a transition is scheduled to fire.
+     *
+     * @param transition The index of the transition.
+     * @return The firing time, or -1 if the transition is not enabled.
+     */
+    public long getScheduledTime(int transition) {
+        return enabled[transition] ? pending.getTime(transition) : -1;
+    }
+
+    /**
+     * Returns how long a transition has been continuously enabled, which is the age of the tokens
+     * it is waiting on.
+     *
+     * @param transition The index of the transition.
+     * @return The time since the transition was last enabled or fired, or -1 if it is not enabled.
+     */
+    public long getEnablingAge(int transition) {
+        return enabled[transition] ? time - enabledSince[transition] : -1;
+    }
+
+    /**
+     * Fires the pending transitions in time order until a number of events or a time is reached.
+     * <p>
+     * The pending firings are kept in a {@link TimingWheel}, so scheduling, cancelling and
+     * extracting one take constant amortized time. After a firing, only the transitions with a pre
+     * arc on a touched place are re-evaluated: a newly enabled one is scheduled, and a disabled
+     * one, such as the transition of an {@link mapd.implementations.OutZeroArc} whose place
+     * gained tokens, has its pending firing cancelled. The fired transition starts a new
+     * enabling if it is still enabled. Transitions due at the same time fire one after the other.
+     *
+     * @param maxEvents The maximum number of firings.
+     * @param endTime   The time at which the run stops if it comes first, or
+     *                  {@link Long#MAX_VALUE} to run until no transition is enabled.
+     * @return The number of firings performed.
+     */
+    public long run(long maxEvents, long endTime) {
+        if (maxEvents < 0) {
+            throw new IllegalArgumentException("The number of events must be at least 0");
+        }
+        long fired = 0;
+        while (fired < maxEvents) {
+            int transition = pending.peek();
+            if (transition < 0 || pending.getTime(transition) > endTime) {
+                if (endTime > time && endTime < Long.MAX_VALUE) {
+                    time = endTime;
+                }
+                break;
+            }
+            pending.poll();
+            fire(transition);
+            fired++;
+        }
+        return fired;
+    }
+
+    /**
+     * Fires a transition at the current time of the pending firings.
+     *
+     * @param transition The transition extracted from the timing wheel.
+     */
+    private void fire(int transition) {
+        int[] preStart = net.getPreStart();
+        int[] prePlaces = net.getPrePlaces();
+        int[] preKinds = net.getPreKinds();
+        int[] postStart = net.getPostStart();
+        int[] postPlaces = net.getPostPlaces();
+        time = pending.getCurrentTime();
+        net.applyFiring(transition, marking);
+        firingCounts[transition]++;
+        eventCount++;
+
+        int epoch = nextVisitEpoch();
+        visitStamps[transition] = epoch;
+        enabled[transition] = false;
+        if (net.isEnabled(transition, marking)) {
+            enable(transition);
+        }
+        for (int i = preStart[transition], end = preStart[transition + 1]; i < end; i++) {
+            if (preKinds[i] != CompiledPetriNet.ARC_OUT_ZERO) {
+                refreshDependents(prePlaces[i], epoch);
+            }
+        }
+        for (int i = postStart[transition], end = postStart[transition + 1]; i < end; i++) {
+            refreshDependents(postPlaces[i], epoch);
+        }
+    }
+
+    /**
+     * Re-evaluates the transitions having a pre arc on a place whose tokens may have changed.
+     *
+     * @param place The place.
+     * @param epoch The current visit epoch, used to evaluate each transition once per firing.
+     */
+    private void refreshDependents(int place, int epoch) {
+        int[] dependentStart = net.getDependentStart();
+        int[] dependentTransitions = net.getDependentTransitions();
+        for (int i = dependentStart[place], end = dependentStart[place + 1]; i < end; i++) {
+            int transition = dependentTransitions[i];
+            if (visitStamps[transition] == epoch) {
+                continue;
+            }
+            visitStamps[transition] = epoch;
+            boolean now = net.isEnabled(transition, marking);
+            if (now && !enabled[transition]) {
+                enable(transition);
+            } else if (!now && enabled[transition]) {
+                enabled[transition] = false;
+                pending.cancel(transition);
+            }
+        }
+    }
+
+    /**
+     * Schedules the firing of a transition that has just become enabled.
+     *
+     * @param transition The index of the transition.
+     */
+    private void enable(int transition) {
+        long delay = minDelays[transition];
+        long spread = maxDelays[transition] - delay;
+        if (spread > 0) {
+            delay += spread == Long.MAX_VALUE ? random.nextLong() & Long.MAX_VALUE : random.nextLong(spread + 1);
+        }
+        enabled[transition] = true;
+        enabledSince[transition] = time;
+        pending.schedule(transition, delay > Long.MAX_VALUE - time ? Long.MAX_VALUE : time + delay);
+    }
+
+    private int nextVisitEpoch() {
+        if (++visitEpoch == 0) {
+            Arrays.fill(visitStamps, 0);
+            visitEpoch = 1;
+        }
+        return visitEpoch;
+    }
+}
@@ -0,0 +1,240 @@
+package mapd.simulation;
+
+import java.util.Arrays;
+
+public class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+    private static final int NONE = -1;
+
+    private long currentTime;
+    private int size;
+
+    private long[] times;
+    private int[] slots;
+    private int[] next;
+    private int[] previous;
+
+    private int[] heads;
+    private int[] tails;
+    private long[] occupied;
+
+    /**
+     * Constructs an empty hierarchical timing wheel for events identified by an index.
+     * <p>
+     * The wheel has 11 levels of 64 slots. An event is stored at the level of the highest group
+     * of 6 bits in which its time differs from the current time, in the slot given by that group
+     * of its time, so level 0 holds the events of the current window of 64 ticks, one time per
+     * slot, and each level above covers 64 times more. A bitmap per level finds the next
+     * non-empty slot, and when the current time enters the slot of a higher level, its events are
+     * redistributed to the levels below. Each event moves down at most once per level, so
+     * scheduling, cancelling and extracting an event take constant amortized time, whatever the
+     * number of events and the distance of their times.
+     *
+     * @param capacity The number of event indexes, from 0 to {@code capacity - 1}.
+     */
+    public TimingWheel(int capacity) {
+        this.times = new long[capacity];
+        this.slots = new int[capacity];
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        Arrays.fill(this.slots, NONE);
+        this.heads = new int[LEVELS * SLOTS];
+        this.tails = new int[LEVELS * SLOTS];
+        Arrays.fill(this.heads, NONE);
+        Arrays.fill(this.tails, NONE);
+        this.occupied = new long[LEVELS];
+    }
+
+    /**
+     * Returns the current time, which no scheduled event precedes.
+     *
+     * @return The time of the last extracted event, or of the next event once it was peeked.
+     */
+    public long getCurrentTime() {
+        return currentTime;
+    }
+
+    /**
+     * Returns the number of scheduled events.
+     *
+     * @return The number of events.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if an event is scheduled.
+     *
+     * @param event The index of the event.
+     * @return True if the event is scheduled, false otherwise.
+     */
+    public boolean isScheduled(int event) {
+        return slots[event] != NONE;
+    }
+
+    /**
+     * Returns the time of a scheduled event.
+     *
+     * @param event The index of the event.
+     * @return The time of the event.
+     * @throws IllegalStateException If the event is not scheduled.
+     */
+    public long getTime(int event) {
+        if (slots[event] == NONE) {
+            throw new IllegalStateException("The event is not scheduled");
+        }
+        return times[event];
+    }
+
+    /**
+     * Schedules an event, replacing its previous time if it was already scheduled.
+     *
+     * @param event The index of the event.
+     * @param time  The time of the event, not before the current time.
+     * @throws IllegalArgumentException If the time is before the current time.
+     */
+    public void schedule(int event, long time) {
+        if (time < currentTime) {
+            throw new IllegalArgumentException("An event cannot be scheduled in the past");
+        }
+        cancel(event);
+        times[event] = time;
+        insert(event);
+        size++;
+    }
+
+    /**
+     * Removes a scheduled event, in constant time.
+     *
+     * @param event The index of the event.
+     * @return True if the event was scheduled, false otherwise.
+     */
+    public boolean cancel(int event) {
+        if (slots[event] == NONE) {
+            return false;
+        }
+        unlink(event);
+        size--;
+        return true;
+    }
+
+    /**
+     * Finds the next event without removing it, and advances the current time to its time.
+     *
+     * @return The index of the event with the earliest time, or -1 if no event is scheduled.
+     */
+    public int peek() {
+        if (size == 0) {
+            return NONE;
+        }
+        while (true) {
+            int index = (int) (currentTime & SLOT_MASK);
+            long bits = occupied[0] & (-1L << index);
+            if (bits != 0) {
+                int slot = Long.numberOfTrailingZeros(bits);
+                currentTime += slot - index;
+                return heads[slot];
+            }
+            cascade();
+        }
+    }
+
+    /**
+     * Removes the next event, and advances the current time to its time.
+     * <p>
+     * Events with the same time are extracted in the order they reached the lowest level, which is
+     * their scheduling order unless some of them were scheduled from further away.
+     *
+     * @return The index of the event with the earliest time, or -1 if no event is scheduled.
+     */
+    public int poll() {
+        int event = peek();
+        if (event != NONE) {
+            unlink(event);
+            size--;
+        }
+        return event;
+    }
+
+    /**
+     * Moves the current time to the start of the next non-empty slot above level 0, and spreads
+     * the events of that slot over the levels below.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            int index = (int) ((currentTime >>> shift) & SLOT_MASK);
+            long bits = index == SLOT_MASK ? 0 : occupied[level] & (-1L << (index + 1));
+            if (bits != 0) {
+                int slot = Long.numberOfTrailingZeros(bits);
+                long window = shift + SLOT_BITS >= Long.SIZE ? 0 : (currentTime >>> (shift + SLOT_BITS)) << (shift + SLOT_BITS);
+                currentTime = window | ((long) slot << shift);
+                int position = level * SLOTS + slot;
+                int event = heads[position];
+                heads[position] = NONE;
+                tails[position] = NONE;
+                occupied[level] &= ~(1L << slot);
+                while (event != NONE) {
+                    int following = next[event];
+                    insert(event);
+                    event = following;
+                }
+                return;
+            }
+        }
+        throw new IllegalStateException("Inconsistent timing wheel");
+    }
+
+    /**
+     * Appends an event to the slot of its time relative to the current time.
+     *
+     * @param event The index of the event, with its time set.
+     */
+    private void insert(int event) {
+        long time = times[event];
+        long difference = time ^ currentTime;
+        int level = difference == 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(difference)) / SLOT_BITS;
+        int slot = (int) ((time >>> (SLOT_BITS * level)) & SLOT_MASK);
+        int position = level * SLOTS + slot;
+        slots[event] = position;
+        next[event] = NONE;
+        previous[event] = tails[position];
+        if (tails[position] == NONE) {
+            heads[position] = event;
+            occupied[level] |= 1L << slot;
+        } else {
+            next[tails[position]] = event;
+        }
+        tails[position] = event;
+    }
+
+    /**
+     * Removes an event from its slot.
+     *
+     * @param event The index of a scheduled event.
+     */
+    private void unlink(int event) {
+        int position = slots[event];
+        int before = previous[event];
+        int after = next[event];
+        if (before == NONE) {
+            heads[position] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            tails[position] = before;
+        } else {
+            previous[after] = before;
+        }
+        if (heads[position] == NONE) {
+            occupied[position / SLOTS] &= ~(1L << (position % SLOTS));
+        }
+        slots[event] = NONE;
+    }
+}
@@ -0,0 +1,376 @@
+package mapd.simulation;
+
+import java.util.Arrays;
+
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+import mapd.interfaces.ISchedulingPolicy;
+
+public class TokenGame {
+
+    private CompiledPetriNet net;
+    private int[] marking;
+    private boolean[] enabled;
+    private int[] enabledList;
+    private int[] enabledPositions;
+    private int enabledCount;
+    private int[] visitStamps;
+    private int visitEpoch;
+    private ISchedulingPolicy policy;
+
+    private boolean[] isolated;
+    private int[] step;
+    private int[] readStamps;
+    private int[] takenStamps;
+    private int stepEpoch;
+    private int stepOffset;
+
+    private long stepCount;
+    private long[] firingCounts;
+
+    /**
+     * Constructs a token game for the current structure and marking of a network.
+     *
+     * @param network The network to play. It is compiled once and not modified.
+     */
+    public TokenGame(PetriNetwork network) {
+        this(network.compile());
+    }
+
+    /**
+     * Constructs a token game starting from the current marking of a compiled net.
+     * <p>
+     * The firing rule is the one of {@link CompiledPetriNet#applyFiring(int, int[])}, and the
+     * game works on its own copy of the marking.
+     *
+     * @param net The compiled net to play. Its marking is not modified.
+     */
+    public TokenGame(CompiledPetriNet net) {
+        this.net = net;
+        this.marking = net.getMarking();
+        int transitions = net.getTransitionCount();
+        this.enabled = new boolean[transitions];
+        this.enabledList = new int[transitions];
+        this.enabledPositions = new int[transitions];
+        this.visitStamps = new int[transitions];
+        this.firingCounts = new long[transitions];
+        for (int t = 0; t < transitions; t++) {
+            if (net.isEnabled(t, this.marking)) {
+                this.enabled[t] = true;
+                this.enabledPositions[t] = this.enabledCount;
+                this.enabledList[this.enabledCount++] = t;
+            }
+        }
+    }
+
+    /**
+     * Returns the played net, which gives the labels and indexes of places and transitions.
+     *
+     * @return The compiled net.
+     */
+    public CompiledPetriNet getNet() {
+        return net;
+    }
+
+    /**
+     * Returns the number of steps since the game started, where a maximal step counts once
+     * whatever the number of transitions it fired.
+     *
+     * @return The number of steps.
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    /**
+     * Returns the number of firings of a transition since the game started.
+     *
+     * @param transition The index of the transition.
+     * @return The number of firings.
+     */
+    public long getFiringCount(int transition) {
+        return firingCounts[transition];
+    }
+
+    /**
+     * Returns the current marking.
+     *
+     * @return A copy of the tokens of each place.
+     */
+    public int[] getMarking() {
+        return Arrays.copyOf(marking, marking.length);
+    }
+
+    /**
+     * Returns the number of transitions enabled in the current marking.
+     *
+     * @return The number of enabled transitions.
+     */
+    public int countEnabled() {
+        return enabledCount;
+    }
+
+    /**
+     * Checks if a transition is enabled in the current marking.
+     *
+     * @param transition The index of the transition.
+     * @return True if the transition can fire.
+     */
+    public boolean isEnabled(int transition) {
+        return enabled[transition];
+    }
+
+    /**
+     * Fires transitions chosen by a policy until a number of steps is reached or no transition
+     * is enabled.
+     * <p>
+     * The policy is told which transitions are enabled when it is attached, that is when it
+     * differs from the policy of the previous run, and then only of the changes: after a firing,
+     * only the transitions with a pre arc on a touched place are re-evaluated. Transitions are
+     * identified by their index, and a step allocates nothing, so the cost of a step is the
+     * firing itself plus the selection structure of the policy.
+     *
+     * @param steps  The maximum number of firings.
+     * @param policy The policy choosing each transition to fire.
+     * @return The number of firings performed.
+     */
+    public long run(long steps, ISchedulingPolicy policy) {
+        if (steps < 0) {
+            throw new IllegalArgumentException("The number of steps must be at least 0");
+        }
+        if (policy != this.policy) {
+            attach(policy);
+        }
+        long fired = 0;
+        while (fired < steps) {
+            int transition = policy.select();
+            if (transition < 0) {
+                break;
+            }
+            policy.fired(transition);
+            fire(transition);
+            fired++;
+        }
+        return fired;
+    }
+
+    /**
+     * Fires maximal steps until a number of steps is reached or no transition is enabled.
+     * <p>
+     * A maximal step is a set of enabled transitions without conflict, to which no other enabled
+     * transition can be added: two transitions are in conflict when they have pre arcs on a
+     * common place where one of them removes tokens. The step is fired with
+     * {@link CompiledPetriNet#applyStep(int[], int, int[])}, so every transition sees the marking
+     * before the step, and the enabling is then refreshed once for the whole step. The enabled
+     * transitions are scanned from a position that moves at every step, so that conflicting
+     * transitions take turns.
+     * <p>
+     * Conflicts are found through the input places themselves, each marked as read or emptied by
+     * the transitions already in the step, rather than through pairwise conflict sets, whose size
+     * grows with the square of the number of transitions sharing a place. The transitions whose
+     * input places have no other reader are found when the first step is fired and join every
+     * step without any check.
+     *
+     * @param steps The maximum number of steps.
+     * @return The number of steps performed.
+     */
+    public long runMaximalSteps(long steps) {
+        if (steps < 0) {
+            throw new IllegalArgumentException("The number of steps must be at least 0");
+        }
+        if (step == null) {
+            prepareSteps();
+        }
+        long done = 0;
+        while (done < steps) {
+            int count = selectStep();
+            if (count == 0) {
+                break;
+            }
+            net.applyStep(step, count, marking);
+            stepCount++;
+            for (int k = 0; k < count; k++) {
+                firingCounts[step[k]]++;
+                if (policy != null) {
+                    policy.fired(step[k]);
+                }
+            }
+            int epoch = nextVisitEpoch();
+            for (int k = 0; k < count; k++) {
+                touched(step[k], epoch);
+            }
+            done++;
+        }
+        return done;
+    }
+
+    private void attach(ISchedulingPolicy policy) {
+        this.policy = policy;
+        policy.reset(net);
+        for (int i = 0; i < enabledCount; i++) {
+            policy.enable(enabledList[i]);
+        }
+    }
+
+    /**
+     * Finds the transitions that can never be in conflict, because no other transition has a
+     * pre arc on any of their input places.
+     */
+    private void prepareSteps() {
+        int transitions = net.getTransitionCount();
+        int[] preStart = net.getPreStart();
+        int[] prePlaces = net.getPrePlaces();
+        int[] dependentStart = net.getDependentStart();
+        isolated = new boolean[transitions];
+        for (int t = 0; t < transitions; t++) {
+            isolated[t] = true;
+            for (int i = preStart[t], end = preStart[t + 1]; i < end; i++) {
+                int place = prePlaces[i];
+                if (dependentStart[place + 1] - dependentStart[place] > 1) {
+                    isolated[t] = false;
+                    break;
+                }
+            }
+        }
+        step = new int[transitions];
+        readStamps = new int[net.getPlaceCount()];
+        takenStamps = new int[net.getPlaceCount()];
+    }
+
+    /**
+     * Chooses a maximal set of enabled transitions without conflict.
+     *
+     * @return The number of transitions stored at the start of the step array.
+     */
+    private int selectStep() {
+        if (enabledCount == 0) {
+            return 0;
+        }
+        int[] preStart = net.getPreStart();
+        int[] prePlaces = net.getPrePlaces();
+        int[] preKinds = net.getPreKinds();
+        if (++stepEpoch == 0) {
+            Arrays.fill(readStamps, 0);
+            Arrays.fill(takenStamps, 0);
+            stepEpoch = 1;
+        }
+        int epoch = stepEpoch;
+        int total = enabledCount;
+        int offset = stepOffset < total ? stepOffset : stepOffset % total;
+        // Kept below the number of enabled transitions, so it never wraps to a negative value.
+        stepOffset = offset + 1 < total ? offset + 1 : 0;
+        int count = 0;
+        for (int k = 0; k < total; k++) {
+            int position = offset + k;
+            int transition = enabledList[position < total ? position : position - total];
+            if (!isolated[transition]) {
+                int begin = preStart[transition];
+                int end = preStart[transition + 1];
+                boolean free = true;
+                for (int i = begin; i < end && free; i++) {
+                    int place = prePlaces[i];
+                    free = preKinds[i] == CompiledPetriNet.ARC_OUT_ZERO ? takenStamps[place] != epoch : readStamps[place] != epoch;
+                }
+                if (!free) {
+                    continue;
+                }
+                for (int i = begin; i < end; i++) {
+                    int place = prePlaces[i];
+                    readStamps[place] = epoch;
+                    if (preKinds[i] != CompiledPetriNet.ARC_OUT_ZERO) {
+                        takenStamps[place] = epoch;
+                    }
+                }
+            }
+            step[count++] = transition;
+        }
+        return count;
+    }
+
+    /**
+     * Fires a transition and announces the enabling changes to the policy.
+     *
+     * @param transition The enabled transition chosen by the policy.
+     */
+    private void fire(int transition) {
+        net.applyFiring(transition, marking);
+        firingCounts[transition]++;
+        stepCount++;
+        touched(transition, nextVisitEpoch());
+    }
+
+    /**
+     * Re-evaluates a fired transition and the transitions reading the places it touched.
+     *
+     * @param transition The fired transition.
+     * @param epoch      The current visit epoch, shared by all the transitions of a step.
+     */
+    private void touched(int transition, int epoch) {
+        int[] preStart = net.getPreStart();
+        int[] prePlaces = net.getPrePlaces();
+        int[] preKinds = net.getPreKinds();
+        int[] postStart = net.getPostStart();
+        int[] postPlaces = net.getPostPlaces();
+        if (visitStamps[transition] != epoch) {
+            refresh(transition, epoch);
+        }
+        for (int i = preStart[transition], end = preStart[transition + 1]; i < end; i++) {
+            if (preKinds[i] != CompiledPetriNet.ARC_OUT_ZERO) {
+                refreshDependents(prePlaces[i], epoch);
+            }
+        }
+        for (int i = postStart[transition], end = postStart[transition + 1]; i < end; i++) {
+            refreshDependents(postPlaces[i], epoch);
+        }
+    }
+
+    /**
+     * Re-evaluates the transitions having a pre arc on a place whose tokens may have changed.
+     *
+     * @param place The place.
+     * @param epoch The current visit epoch, used to evaluate each transition once per firing.
+     */
+    private void refreshDependents(int place, int epoch) {
+        int[] dependentStart = net.getDependentStart();
+        int[] dependentTransitions = net.getDependentTransitions();
+        for (int i = dependentStart[place], end = dependentStart[place + 1]; i < end; i++) {
+            int transition = dependentTransitions[i];
+            if (visitStamps[transition] != epoch) {
+                refresh(transition, epoch);
+            }
+        }
+    }
+
+    private void refresh(int transition, int epoch) {
+        visitStamps[transition] = epoch;
+        boolean now = net.isEnabled(transition, marking);
+        if (now == enabled[transition]) {
+            return;
+        }
+        enabled[transition] = now;
+        if (now) {
+            enabledPositions[transition] = enabledCount;
+            enabledList[enabledCount++] = transition;
+        } else {
+            int position = enabledPositions[transition];
+            int last = enabledList[--enabledCount];
+            enabledList[position] = last;
+            enabledPositions[last] = position;
+        }
+        if (policy != null) {
+            if (now) {
+                policy.enable(transition);
+            } else {
+                policy.disable(transition);
+            }
+        }
+    }
+
+    private int nextVisitEpoch() {
+        if (++visitEpoch == 0) {
+            Arrays.fill(visitStamps, 0);
+            visitEpoch = 1;
+        }
+        return visitEpoch;
+    }
+}
@@ -0,0 +1,60 @@
+package mapd.simulation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import mapd.implementations.CompiledPetriNet;
+import mapd.interfaces.ISchedulingPolicy;
+
+public class UniformPolicy implements ISchedulingPolicy {
+
+    private SplittableRandom random;
+    private int[] members;
+    private int[] positions;
+    private int size;
+
+    /**
+     * Constructs a policy choosing uniformly among the enabled transitions.
+     * <p>
+     * The enabled transitions are kept in a dense array and every transition remembers its
+     * position, so enabling, disabling and selecting are constant time operations.
+     *
+     * @param seed The seed of the random number generator.
+     */
+    public UniformPolicy(long seed) {
+        this.random = new SplittableRandom(seed);
+        this.members = new int[0];
+        this.positions = new int[0];
+    }
+
+    @Override
+    public void reset(CompiledPetriNet net) {
+        int transitions = net.getTransitionCount();
+        if (positions.length != transitions) {
+            members = new int[transitions];
+            positions = new int[transitions];
+        }
+        Arrays.fill(positions, -1);
+        size = 0;
+    }
+
+    @Override
+    public void enable(int transition) {
+        positions[transition] = size;
+        members[size++] = transition;
+    }
+
+    @Override
+    public void disable(int transition) {
+        int position = positions[transition];
+        int last = members[--size];
+        members[position] = last;
+        positions[last] = position;
+        positions[transition] = -1;
+    }
+
+    @Override
+    public int select() {
+        return size == 0 ? -1 : members[random.nextInt(size)];
+    }
+}
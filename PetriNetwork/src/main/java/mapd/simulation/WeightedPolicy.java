@@ -0,0 +1,161 @@
+package mapd.simulation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import mapd.implementations.CompiledPetriNet;
+import mapd.interfaces.ISchedulingPolicy;
+
+public class WeightedPolicy implements ISchedulingPolicy {
+
+    private SplittableRandom random;
+    private double[] fixedWeights;
+    private double[] weights;
+    private double[] tree;
+    private boolean[] enabled;
+    private int enabledCount;
+    private int updates;
+
+    /**
+     * Constructs a policy choosing an enabled transition with a probability proportional to its
+     * rate, as returned by {@link CompiledPetriNet#getRates()}.
+     *
+     * @param seed The seed of the random number generator.
+     */
+    public WeightedPolicy(long seed) {
+        this.random = new SplittableRandom(seed);
+        this.weights = new double[0];
+        this.tree = new double[1];
+        this.enabled = new boolean[0];
+    }
+
+    /**
+     * Constructs a policy choosing an enabled transition with a probability proportional to its
+     * weight.
+     * <p>
+     * The weights of the enabled transitions are summed in a Fenwick tree, where a disabled
+     * transition counts as 0, so enabling, disabling and selecting take logarithmic time.
+     *
+     * @param weights The weight of each transition, indexed as in the compiled net.
+     * @param seed    The seed of the random number generator.
+     * @throws IllegalArgumentException If a weight is not positive and finite.
+     */
+    public WeightedPolicy(double[] weights, long seed) {
+        this(seed);
+        for (double weight : weights) {
+            if (!(weight > 0 && weight < Double.POSITIVE_INFINITY)) {
+                throw new IllegalArgumentException("Invalid weight <= 0 or not finite");
+            }
+        }
+        this.fixedWeights = weights.clone();
+    }
+
+    /**
+     * Forgets the enabled transitions, after checking that the weights match the net.
+     *
+     * @param net The compiled net.
+     * @throws IllegalArgumentException If there is not one weight per transition of the net.
+     */
+    @Override
+    public void reset(CompiledPetriNet net) {
+        if (fixedWeights != null && fixedWeights.length != net.getTransitionCount()) {
+            throw new IllegalArgumentException("There must be one weight per transition");
+        }
+        weights = fixedWeights != null ? fixedWeights : net.getRates();
+        tree = new double[weights.length + 1];
+        enabled = new boolean[weights.length];
+        enabledCount = 0;
+        updates = 0;
+    }
+
+    @Override
+    public void enable(int transition) {
+        enabled[transition] = true;
+        enabledCount++;
+        add(transition, weights[transition]);
+    }
+
+    @Override
+    public void disable(int transition) {
+        enabled[transition] = false;
+        enabledCount--;
+        add(transition, -weights[transition]);
+    }
+
+    @Override
+    public int select() {
+        if (enabledCount == 0) {
+            return -1;
+        }
+        int transition = find(random.nextDouble() * total());
+        if (transition < 0) {
+            // The rounding errors of the partial sums pointed past the enabled transitions.
+            rebuild();
+            do {
+                transition = find(random.nextDouble() * total());
+            } while (transition < 0);
+        }
+        return transition;
+    }
+
+    /**
+     * Adds a weight to the partial sums covering a transition.
+     * <p>
+     * Additions and subtractions accumulate rounding errors, so the sums are rebuilt once there
+     * have been as many updates as transitions, which keeps the amortized cost unchanged.
+     *
+     * @param transition The transition.
+     * @param delta      The weight to add, negative to remove it.
+     */
+    private void add(int transition, double delta) {
+        if (++updates > weights.length) {
+            rebuild();
+            return;
+        }
+        for (int i = transition + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void rebuild() {
+        updates = 0;
+        Arrays.fill(tree, 0);
+        for (int t = 0; t < weights.length; t++) {
+            if (enabled[t]) {
+                tree[t + 1] += weights[t];
+            }
+        }
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private double total() {
+        double sum = 0;
+        for (int i = tree.length - 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Finds the transition whose interval of cumulative weight contains a value.
+     *
+     * @param value A value between 0 and the total weight.
+     * @return The enabled transition, or -1 if rounding errors led to a disabled one.
+     */
+    private int find(double value) {
+        int position = 0;
+        for (int step = Integer.highestOneBit(Math.max(tree.length - 1, 1)); step > 0; step >>>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] <= value) {
+                position = next;
+                value -= tree[next];
+            }
+        }
+        return position < enabled.length && enabled[position] ? position : -1;
+    }
+}
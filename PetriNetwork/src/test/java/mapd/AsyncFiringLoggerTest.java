@@ -0,0 +1,77 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.implementations.AsyncFiringLogger;
+import mapd.implementations.PetriNetwork;
+
+public class AsyncFiringLoggerTest {
+
+    private PetriNetwork net;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        net = new PetriNetwork();
+        net.addPlace("p1", 1);
+        net.addPlace("p2");
+        net.addTransition("t1");
+        net.addTransition("t2");
+        net.addArc("a1", "t1", "p1", "out");
+        net.addArc("a2", "t1", "p2", "in");
+        net.addArc("a3", "t2", "p2", "out");
+        net.addArc("a4", "t2", "p1", "in");
+    }
+
+    @Test
+    @Order(1)
+    public void testLogsEveryFiringInOrder() throws Exception {
+        StringWriter out = new StringWriter();
+        try (AsyncFiringLogger logger = new AsyncFiringLogger(out, 4, 3)) {
+            net.addFiringListener(logger);
+            for (int i = 0; i < 5; i++) {
+                net.fire("t1");
+                net.fire("t2");
+            }
+        }
+
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertEquals(10, lines.length);
+        assertEquals("t1: p1=0, p2=1", lines[0]);
+        assertEquals("t2: p2=0, p1=1", lines[1]);
+        assertEquals("t2: p2=0, p1=1", lines[9]);
+    }
+
+    @Test
+    @Order(2)
+    public void testIgnoresFiringsAfterClose() throws Exception {
+        StringWriter out = new StringWriter();
+        AsyncFiringLogger logger = new AsyncFiringLogger(out, 4, 4);
+        net.addFiringListener(logger);
+        logger.close();
+        net.fire("t1");
+        assertEquals("", out.toString());
+    }
+
+    @Test
+    @Order(3)
+    public void testInvalidBatchSizeThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new AsyncFiringLogger(new StringWriter(), 4, 0));
+    }
+
+    @Test
+    @Order(4)
+    public void testCloseWhenInterruptedKeepsStatus() throws Exception {
+        AsyncFiringLogger logger = new AsyncFiringLogger(new StringWriter(), 4, 4);
+        net.addFiringListener(logger);
+        net.fire("t1");
+        Thread.currentThread().interrupt();
+        logger.close();
+        assertTrue(Thread.interrupted());
+    }
+}
@@ -0,0 +1,159 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.exceptions.*;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+
+public class CompiledPetriNetTest {
+
+	PetriNetwork net = PetriNetwork.getInstance();
+
+	@BeforeEach
+	public void setup() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		net.reset();
+		net.addPlace("p1");
+		net.addPlace("p2", 1);
+		net.addPlace("p3");
+		net.addPlace("p4");
+		net.addPlace("p5", 1);
+
+		net.addTransition("t1");
+		net.addTransition("t2");
+		net.addTransition("t3");
+		net.addTransition("t4");
+
+		net.addArc("a1_out", "t1", "p1", "out");
+		net.addArc("a2_out", "t2", "p2", "out");
+		net.addArc("a3_out", "t1", "p3", "outbouncer");
+		net.addArc("a4_out", "t4", "p4", "outzero");
+		net.addArc("a5_out", "t3", "p5", "out");
+		net.addArc("a6_out", "t3", "p3", "out");
+
+		net.addArc("a1_in", "t2", "p1", "in");
+		net.addArc("a2_in", "t1", "p2", "in");
+		net.addArc("a3_in", "t2", "p3", "in", 2);
+		net.addArc("a4_in", "t3", "p4", "in");
+		net.addArc("a5_in", "t4", "p5", "in");
+		net.addArc("a6_in", "t4", "p3", "in");
+	}
+
+	@Test
+	@Order(1)
+	public void testCompiledStructure() throws ElementNameNotExists {
+		CompiledPetriNet compiled = net.compile();
+		assertEquals(5, compiled.getPlaceCount());
+		assertEquals(4, compiled.getTransitionCount());
+		assertEquals(6, compiled.getPrePlaces().length);
+		assertEquals(6, compiled.getPostPlaces().length);
+		int p2 = compiled.getPlaceIndex("p2");
+		assertEquals("p2", compiled.getPlaceLabel(p2));
+		assertEquals(1, compiled.getTokens(p2));
+		int t4 = compiled.getTransitionIndex("t4");
+		int arc = compiled.getPreStart()[t4];
+		assertEquals(CompiledPetriNet.ARC_OUT_ZERO, compiled.getPreKinds()[arc]);
+		assertThrows(ElementNameNotExists.class, () -> compiled.getPlaceIndex("p9"));
+	}
+
+	@Test
+	@Order(2)
+	public void testSameEnabledTransitionsAsNetwork() throws ElementNameNotExists {
+		assertSameState(net.compile());
+	}
+
+	@Test
+	@Order(3)
+	public void testRandomRunMatchesNetwork() throws ElementNameNotExists, NoFireableTransition {
+		CompiledPetriNet compiled = net.compile();
+		Random random = new Random(42);
+		for (int step = 0; step < 200; step++) {
+			List<String> fireable = net.fireableTransitions();
+			if (fireable.isEmpty()) {
+				break;
+			}
+			String label = fireable.get(random.nextInt(fireable.size()));
+			net.fire(label);
+			compiled.fire(compiled.getTransitionIndex(label));
+			assertSameState(compiled);
+		}
+	}
+
+	@Test
+	@Order(4)
+	public void testFireNotEnabledTransitionThrowsException() throws ElementNameNotExists {
+		CompiledPetriNet compiled = net.compile();
+		int t1 = compiled.getTransitionIndex("t1");
+		assertFalse(compiled.isEnabled(t1));
+		Exception thrown = assertThrows(NoFireableTransition.class, () -> compiled.fire(t1));
+		assertEquals("Transition is not fireable", thrown.getMessage());
+	}
+
+	@Test
+	@Order(5)
+	public void testSetMarkingRefreshesEnabledTransitions() throws ElementNameNotExists {
+		CompiledPetriNet compiled = net.compile();
+		int[] marking = new int[compiled.getPlaceCount()];
+		marking[compiled.getPlaceIndex("p4")] = 1;
+		compiled.setMarking(marking);
+		assertFalse(compiled.isEnabled(compiled.getTransitionIndex("t4")));
+		assertEquals(0, compiled.getEnabledCount());
+		assertThrows(IllegalArgumentException.class, () -> compiled.setMarking(new int[2]));
+	}
+
+	@Test
+	@Order(6)
+	public void testCompiledNetIsIndependentFromNetwork() throws ElementNameNotExists, NoFireableTransition, InvalidTokenNumber {
+		CompiledPetriNet compiled = net.compile();
+		compiled.fire(compiled.getTransitionIndex("t2"));
+		assertEquals((Integer) 1, net.getPlace("p2").getTokens());
+		net.setPlaceTokens("p1", 5);
+		assertEquals(1, compiled.getTokens(compiled.getPlaceIndex("p1")));
+	}
+
+	@Test
+	@Order(7)
+	public void testHighFanInTransitionMatchesNetwork() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists, NoFireableTransition {
+		net.reset();
+		net.addTransition("aggregate");
+		net.addPlace("out");
+		net.addArc("a_out", "aggregate", "out", "in", 3);
+		for (int i = 0; i < 300; i++) {
+			net.addPlace("in" + i, i % 4);
+			net.addArc("a" + i, "aggregate", "in" + i, "out", 1 + i % 3);
+		}
+		CompiledPetriNet compiled = net.compile();
+		int aggregate = compiled.getTransitionIndex("aggregate");
+		for (int step = 0; step < 3; step++) {
+			assertTrue(compiled.isEnabled(aggregate));
+			compiled.fire(aggregate);
+			net.fire("aggregate");
+			assertSameState(compiled);
+		}
+		int[] marking = new int[compiled.getPlaceCount()];
+		assertFalse(compiled.isEnabled(aggregate, marking));
+		marking[compiled.getPlaceIndex("in297")] = 1;
+		assertTrue(compiled.isEnabled(aggregate, marking));
+	}
+
+	private void assertSameState(CompiledPetriNet compiled) throws ElementNameNotExists {
+		for (int p = 0; p < compiled.getPlaceCount(); p++) {
+			assertEquals((int) net.getPlace(compiled.getPlaceLabel(p)).getTokens(), compiled.getTokens(p));
+		}
+		String[] expected = net.fireableTransitions().toArray(new String[0]);
+		String[] actual = Arrays.stream(compiled.fireableTransitions())
+				.mapToObj(compiled::getTransitionLabel)
+				.toArray(String[]::new);
+		Arrays.sort(expected);
+		Arrays.sort(actual);
+		assertArrayEquals(expected, actual);
+	}
+}
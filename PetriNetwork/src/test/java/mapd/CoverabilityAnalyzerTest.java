@@ -0,0 +1,128 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.analysis.CoverabilityAnalyzer;
+import mapd.analysis.CoverabilityGraph;
+import mapd.analysis.CoverabilityGraph.Precision;
+import mapd.analysis.ReachabilityExplorer;
+import mapd.analysis.ReachabilityGraph;
+import mapd.exceptions.*;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+
+public class CoverabilityAnalyzerTest {
+
+	PetriNetwork net = PetriNetwork.getInstance();
+
+	@BeforeEach
+	public void setup() {
+		net.reset();
+	}
+
+	@Test
+	@Order(1)
+	public void testBoundedCyclesMatchReachability() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		NetFixtures.addCycles(net, 3);
+		CoverabilityGraph coverability = new CoverabilityAnalyzer(net).analyze();
+		ReachabilityGraph reachability = new ReachabilityExplorer(net).explore();
+		assertTrue(coverability.isComplete());
+		assertEquals(Precision.EXACT, coverability.getPrecision());
+		assertEquals(0, coverability.getSensitivePlaces().length);
+		assertTrue(coverability.isBounded());
+		assertEquals(0, coverability.getUnboundedPlaces().length);
+		assertTrue(coverability.getNodeCount() <= reachability.getStateCount());
+		for (int p = 0; p < reachability.getNet().getPlaceCount(); p++) {
+			int bound = 0;
+			for (int state = 0; state < reachability.getStateCount(); state++) {
+				bound = Math.max(bound, reachability.getMarking(state)[p]);
+			}
+			assertEquals(bound, coverability.getBound(p));
+		}
+		for (int state = 0; state < reachability.getStateCount(); state++) {
+			assertTrue(coverability.isCoverable(reachability.getMarking(state)));
+		}
+	}
+
+	@Test
+	@Order(2)
+	public void testProducerIsAcceleratedToOmega() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		net.addPlace("p1", 1);
+		net.addPlace("p2");
+		net.addTransition("t1");
+		net.addTransition("t2");
+		net.addArc("a1", "t1", "p1", "out");
+		net.addArc("a2", "t1", "p1", "in");
+		net.addArc("a3", "t1", "p2", "in");
+		net.addArc("a4", "t2", "p2", "out", 3);
+		CoverabilityGraph graph = new CoverabilityAnalyzer(net).analyze();
+		CompiledPetriNet compiled = graph.getNet();
+		int p1 = compiled.getPlaceIndex("p1");
+		int p2 = compiled.getPlaceIndex("p2");
+		assertTrue(graph.isComplete());
+		assertFalse(graph.isBounded());
+		assertArrayEquals(new int[] {p2}, graph.getUnboundedPlaces());
+		assertEquals(1, graph.getBound(p1));
+		assertEquals(CoverabilityGraph.OMEGA, graph.getBound(p2));
+		int[] target = new int[2];
+		target[p1] = 1;
+		target[p2] = 1000000;
+		int node = graph.findCovering(target);
+		assertTrue(node > 0);
+		assertEquals("t1", compiled.getTransitionLabel(graph.getTransition(node)));
+		target[p1] = 2;
+		assertFalse(graph.isCoverable(target));
+	}
+
+	@Test
+	@Order(3)
+	public void testResetArcsGiveOverApproximation() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		net.addPlace("p1", 1);
+		net.addPlace("p2");
+		net.addTransition("t1");
+		net.addTransition("t2");
+		net.addArc("a1", "t1", "p1", "out");
+		net.addArc("a2", "t1", "p2", "in");
+		net.addArc("a3", "t2", "p2", "outbouncer");
+		net.addArc("a4", "t2", "p1", "in");
+		CoverabilityGraph graph = new CoverabilityAnalyzer(net).analyze();
+		assertEquals(Precision.OVER_APPROXIMATION, graph.getPrecision());
+		assertArrayEquals(new int[] {graph.getNet().getPlaceIndex("p2")}, graph.getSensitivePlaces());
+		assertTrue(graph.isBounded());
+	}
+
+	@Test
+	@Order(4)
+	public void testZeroTestsAndSkippedWeightsAreUndecidable() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		net.addPlace("p1");
+		net.addPlace("p2", 2);
+		net.addPlace("p3", 1);
+		net.addTransition("t1");
+		net.addTransition("t2");
+		net.addArc("a1", "t1", "p1", "outzero");
+		net.addArc("a2", "t1", "p2", "in");
+		net.addArc("a3", "t2", "p2", "out", 2);
+		net.addArc("a4", "t2", "p3", "out");
+		CoverabilityGraph graph = new CoverabilityAnalyzer(net).analyze();
+		CompiledPetriNet compiled = graph.getNet();
+		assertEquals(Precision.UNDECIDABLE, graph.getPrecision());
+		assertArrayEquals(new int[] {compiled.getPlaceIndex("p1"), compiled.getPlaceIndex("p2")}, graph.getSensitivePlaces());
+		assertFalse(graph.isBounded());
+	}
+
+	@Test
+	@Order(5)
+	public void testNodeLimitStopsConstruction() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		NetFixtures.addCycles(net, 6);
+		CoverabilityAnalyzer analyzer = new CoverabilityAnalyzer(net);
+		analyzer.setMaxNodes(10);
+		CoverabilityGraph graph = analyzer.analyze();
+		assertFalse(graph.isComplete());
+		assertEquals(ReachabilityGraph.Status.STATE_LIMIT, graph.getStatus());
+		assertEquals(10, graph.getNodeCount());
+	}
+}
@@ -0,0 +1,110 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.exceptions.*;
+import mapd.implementations.EnabledTransitions;
+import mapd.implementations.PetriNetwork;
+import mapd.implementations.Transition;
+
+public class EnabledTransitionsTest {
+
+    private EnabledTransitions enabled;
+    private Transition t1;
+    private Transition t2;
+    private Transition t3;
+
+    @BeforeEach
+    public void setUp() {
+        enabled = new EnabledTransitions();
+        t1 = new Transition("t1");
+        t2 = new Transition("t2");
+        t3 = new Transition("t3");
+    }
+
+    @Test
+    @Order(1)
+    public void testAddAndContains() {
+        enabled.add(t1);
+        enabled.add(t1);
+        assertEquals(1, enabled.size());
+        assertTrue(enabled.contains(t1));
+        assertFalse(enabled.contains(t2));
+    }
+
+    @Test
+    @Order(2)
+    public void testRemoveMovesLastTransition() {
+        enabled.add(t1);
+        enabled.add(t2);
+        enabled.add(t3);
+        enabled.remove(t1);
+        assertEquals(2, enabled.size());
+        assertFalse(enabled.contains(t1));
+        assertSame(t3, enabled.get(0));
+        assertSame(t2, enabled.get(1));
+        enabled.remove(t3);
+        enabled.remove(t3);
+        assertEquals(1, enabled.size());
+        assertSame(t2, enabled.get(0));
+    }
+
+    @Test
+    @Order(3)
+    public void testViewIsLiveAndReadOnly() {
+        List<Transition> view = enabled.view();
+        enabled.add(t1);
+        assertEquals(1, view.size());
+        assertThrows(UnsupportedOperationException.class, () -> view.add(t2));
+    }
+
+    @Test
+    @Order(4)
+    public void testPickRandom() {
+        assertNull(enabled.pickRandom(new Random(1)));
+        enabled.add(t2);
+        assertSame(t2, enabled.pickRandom(new Random(1)));
+    }
+
+    @Test
+    @Order(5)
+    public void testClear() {
+        enabled.add(t1);
+        enabled.add(t2);
+        enabled.clear();
+        assertEquals(0, enabled.size());
+        assertFalse(enabled.contains(t1));
+    }
+
+    @Test
+    @Order(6)
+    public void testNetworkKeepsEnabledSetUpToDate() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists, NoFireableTransition {
+        PetriNetwork net = PetriNetwork.getInstance();
+        net.reset();
+        net.addPlace("p1", 1);
+        net.addPlace("p2");
+        net.addTransition("t1");
+        net.addTransition("t2");
+        net.addArc("a1", "t1", "p1", "out");
+        net.addArc("a2", "t1", "p2", "in");
+        net.addArc("a3", "t2", "p2", "out");
+        assertEquals(1, net.countFireableTransitions());
+        assertSame(net.getTransition("t1"), net.pickRandomFireableTransition(new Random(7)));
+
+        List<Transition> view = net.getFireableTransitions();
+        net.fire("t1");
+        assertEquals(1, view.size());
+        assertSame(net.getTransition("t2"), view.get(0));
+
+        net.rmTransition("t2");
+        assertEquals(0, net.countFireableTransitions());
+        assertTrue(net.fireableTransitions().isEmpty());
+    }
+}
@@ -0,0 +1,166 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.implementations.FiringJournal;
+import mapd.implementations.PetriNetwork;
+
+public class FiringJournalTest {
+
+    private PetriNetwork net;
+    private Path path;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        net = createNetwork();
+        path = Files.createTempFile("net", ".pnjl");
+        Files.delete(path);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    private static PetriNetwork createNetwork() throws Exception {
+        PetriNetwork net = new PetriNetwork();
+        net.addPlace("p1");
+        net.addPlace("p2", 1);
+        net.addPlace("p3");
+        net.addPlace("p4");
+        net.addPlace("p5", 1);
+        net.addTransition("t1");
+        net.addTransition("t2");
+        net.addTransition("t3");
+        net.addTransition("t4");
+        net.addArc("a1_out", "t1", "p1", "out");
+        net.addArc("a2_out", "t2", "p2", "out");
+        net.addArc("a3_out", "t1", "p3", "out");
+        net.addArc("a4_out", "t4", "p4", "out");
+        net.addArc("a5_out", "t3", "p5", "outbouncer");
+        net.addArc("a6_out", "t3", "p3", "out");
+        net.addArc("a1_in", "t2", "p1", "in");
+        net.addArc("a2_in", "t1", "p2", "in");
+        net.addArc("a3_in", "t2", "p3", "in", 2);
+        net.addArc("a4_in", "t3", "p4", "in");
+        net.addArc("a5_in", "t4", "p5", "in");
+        net.addArc("a6_in", "t4", "p3", "in");
+        return net;
+    }
+
+    private void fireRandomly(int steps, long seed) throws Exception {
+        Random random = new Random(seed);
+        for (int i = 0; i < steps; i++) {
+            List<String> fireable = net.fireableTransitions();
+            net.fire(fireable.get(random.nextInt(fireable.size())));
+        }
+    }
+
+    private void assertSameMarking(PetriNetwork expected, PetriNetwork actual) throws Exception {
+        for (String label : new String[] {"p1", "p2", "p3", "p4", "p5"}) {
+            assertEquals(expected.getPlace(label).getTokens(), actual.getPlace(label).getTokens(), label);
+        }
+        List<String> fireable = expected.fireableTransitions();
+        Collections.sort(fireable);
+        List<String> recovered = actual.fireableTransitions();
+        Collections.sort(recovered);
+        assertEquals(fireable, recovered);
+    }
+
+    @Test
+    @Order(1)
+    public void testRecoverReplaysAfterLastCheckpoint() throws Exception {
+        FiringJournal journal = new FiringJournal(net, path, 0, 2, true, 3);
+        fireRandomly(20, 1);
+        assertEquals(20, journal.getFirings());
+        journal.close();
+
+        PetriNetwork recovered = createNetwork();
+        assertEquals(20, FiringJournal.recover(recovered, path));
+        assertSameMarking(net, recovered);
+    }
+
+    @Test
+    @Order(2)
+    public void testRecoverRestoresMarking() throws Exception {
+        FiringJournal journal = new FiringJournal(net, path, 0, 4, false, 7);
+        fireRandomly(25, 2);
+        journal.close();
+
+        PetriNetwork recovered = createNetwork();
+        assertEquals(25, FiringJournal.recover(recovered, path));
+        assertSameMarking(net, recovered);
+    }
+
+    @Test
+    @Order(3)
+    public void testRecoverTruncatesIncompleteRecord() throws Exception {
+        FiringJournal journal = new FiringJournal(net, path, 0, 1, false, 0);
+        fireRandomly(10, 3);
+        journal.close();
+        long size = Files.size(path);
+        try (OutputStream out = Files.newOutputStream(path, StandardOpenOption.APPEND)) {
+            out.write(new byte[] {(byte) (4 << 2 | 1), 10, 't'});
+        }
+
+        PetriNetwork recovered = createNetwork();
+        assertEquals(10, FiringJournal.recover(recovered, path));
+        assertEquals(size, Files.size(path));
+        assertSameMarking(net, recovered);
+
+        journal = new FiringJournal(recovered, path, 10);
+        net = recovered;
+        fireRandomly(5, 4);
+        assertEquals(15, journal.getFirings());
+        journal.close();
+
+        PetriNetwork again = createNetwork();
+        assertEquals(15, FiringJournal.recover(again, path));
+        assertSameMarking(recovered, again);
+    }
+
+    @Test
+    @Order(4)
+    public void testRecoverMissingOrInvalidJournal() throws Exception {
+        assertEquals(0, FiringJournal.recover(net, path));
+        Files.write(path, new byte[] {1, 2, 3, 4, 5});
+        assertThrows(IOException.class, () -> FiringJournal.recover(net, path));
+        assertThrows(IOException.class, () -> new FiringJournal(net, path, 0));
+    }
+
+    @Test
+    @Order(5)
+    public void testCloseUnregistersJournal() throws Exception {
+        FiringJournal journal = new FiringJournal(net, path, 0);
+        net.fire("t2");
+        journal.close();
+        net.fire("t1");
+        assertEquals(1, journal.getFirings());
+    }
+
+    @Test
+    @Order(6)
+    public void testFireConcurrentlyWithJournalThrows() throws Exception {
+        FiringJournal journal = new FiringJournal(net, path, 0);
+        assertThrows(IllegalStateException.class, () -> net.fireConcurrently("t2"));
+        assertEquals(0, journal.getFirings());
+        assertEquals(1, net.getPlace("p2").getTokens());
+        journal.close();
+        net.fireConcurrently("t2");
+        assertEquals(0, net.getPlace("p2").getTokens());
+    }
+}
@@ -0,0 +1,141 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.analysis.IncidenceMatrix;
+import mapd.analysis.Invariant;
+import mapd.analysis.InvariantAnalyzer;
+import mapd.exceptions.*;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.NetBuilder;
+import mapd.implementations.PetriNetwork;
+
+public class InvariantAnalyzerTest {
+
+	PetriNetwork net = PetriNetwork.getInstance();
+
+	@BeforeEach
+	public void setup() {
+		net.reset();
+	}
+
+	@Test
+	@Order(1)
+	public void testIncidenceMatrixIsSparse() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		net.addPlace("p1", 2);
+		net.addPlace("p2");
+		net.addTransition("t1");
+		net.addTransition("t2");
+		net.addArc("a1", "t1", "p1", "out", 2);
+		net.addArc("a2", "t1", "p2", "in");
+		net.addArc("a3", "t2", "p2", "out");
+		net.addArc("a4", "t2", "p2", "in");
+		InvariantAnalyzer analyzer = new InvariantAnalyzer(net);
+		IncidenceMatrix matrix = analyzer.getIncidenceMatrix();
+		CompiledPetriNet compiled = analyzer.getNet();
+		int p1 = compiled.getPlaceIndex("p1");
+		int p2 = compiled.getPlaceIndex("p2");
+		int t1 = compiled.getTransitionIndex("t1");
+		int t2 = compiled.getTransitionIndex("t2");
+		assertEquals(2, matrix.getEntryCount());
+		assertEquals(-2, matrix.get(p1, t1));
+		assertEquals(1, matrix.get(p2, t1));
+		assertEquals(0, matrix.get(p2, t2));
+		assertTrue(matrix.isRegular(t1));
+		assertTrue(matrix.isRegular(t2));
+	}
+
+	@Test
+	@Order(2)
+	public void testWeightedCycleInvariants() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		net.addPlace("p1", 2);
+		net.addPlace("p2");
+		net.addTransition("t1");
+		net.addTransition("t2");
+		net.addArc("a1", "t1", "p1", "out", 2);
+		net.addArc("a2", "t1", "p2", "in");
+		net.addArc("a3", "t2", "p2", "out");
+		net.addArc("a4", "t2", "p1", "in", 2);
+		InvariantAnalyzer analyzer = new InvariantAnalyzer(net);
+		CompiledPetriNet compiled = analyzer.getNet();
+		List<Invariant> places = analyzer.computePlaceInvariants();
+		assertEquals(1, places.size());
+		assertEquals(1, places.get(0).getWeight(compiled.getPlaceIndex("p1")));
+		assertEquals(2, places.get(0).getWeight(compiled.getPlaceIndex("p2")));
+		assertEquals(2, places.get(0).weightedSum(compiled.getMarking()));
+		List<Invariant> transitions = analyzer.computeTransitionInvariants();
+		assertEquals(1, transitions.size());
+		assertArrayEquals(new long[] {1, 1}, transitions.get(0).getWeights());
+	}
+
+	@Test
+	@Order(3)
+	public void testIrregularTransitionsAreExcluded() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		NetFixtures.addCycles(net, 2);
+		net.addPlace("q1", 1);
+		net.addPlace("q2");
+		net.addTransition("u1");
+		net.addTransition("u2");
+		net.addArc("b1", "u1", "q1", "out");
+		net.addArc("b2", "u1", "q2", "in");
+		net.addArc("b3", "u2", "q2", "outbouncer");
+		net.addArc("b4", "u2", "q1", "in");
+		InvariantAnalyzer analyzer = new InvariantAnalyzer(net);
+		CompiledPetriNet compiled = analyzer.getNet();
+		assertFalse(analyzer.getIncidenceMatrix().isRegular(compiled.getTransitionIndex("u2")));
+		List<Invariant> places = analyzer.computePlaceInvariants();
+		assertEquals(2, places.size());
+		for (Invariant invariant : places) {
+			assertEquals(0, invariant.getWeight(compiled.getPlaceIndex("q1")));
+			assertEquals(0, invariant.getWeight(compiled.getPlaceIndex("q2")));
+			assertEquals(1, invariant.weightedSum(compiled.getMarking()));
+		}
+		List<Invariant> transitions = analyzer.computeTransitionInvariants();
+		assertEquals(2, transitions.size());
+		for (Invariant invariant : transitions) {
+			assertEquals(0, invariant.getWeight(compiled.getTransitionIndex("u1")));
+			assertEquals(0, invariant.getWeight(compiled.getTransitionIndex("u2")));
+		}
+	}
+
+	@Test
+	@Order(4)
+	public void testLargeSparseNets() throws Exception {
+		int size = 20000;
+		NetBuilder builder = new NetBuilder();
+		for (int i = 0; i < size; i++) {
+			builder.addPlace("p" + i, i == 0 ? 1 : 0);
+			builder.addTransition("t" + i);
+			builder.addArc("a" + i, "t" + i, "p" + i, "out");
+			builder.addArc("b" + i, "t" + i, "p" + ((i + 1) % size), "in");
+			builder.addPlace("idle" + i, 1);
+			builder.addPlace("busy" + i);
+			builder.addTransition("start" + i);
+			builder.addTransition("stop" + i);
+			builder.addArc("c" + i, "start" + i, "idle" + i, "out");
+			builder.addArc("d" + i, "start" + i, "busy" + i, "in");
+			builder.addArc("e" + i, "stop" + i, "busy" + i, "out");
+			builder.addArc("f" + i, "stop" + i, "idle" + i, "in");
+		}
+		InvariantAnalyzer analyzer = new InvariantAnalyzer(builder.build());
+		List<Invariant> places = analyzer.computePlaceInvariants();
+		assertEquals(size + 1, places.size());
+		int ring = 0;
+		for (Invariant invariant : places) {
+			if (invariant.getSupport().length == size) {
+				ring++;
+			} else {
+				assertEquals(2, invariant.getSupport().length);
+			}
+			assertEquals(1, invariant.weightedSum(analyzer.getNet().getMarking()));
+		}
+		assertEquals(1, ring);
+		assertEquals(size + 1, analyzer.computeTransitionInvariants().size());
+	}
+}
@@ -0,0 +1,71 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.analysis.MarkingTable;
+
+public class MarkingTableTest {
+
+    private MarkingTable table;
+
+    @BeforeEach
+    public void setUp() {
+        table = new MarkingTable(5, 4);
+    }
+
+    @Test
+    @Order(1)
+    public void testAddReturnsIdentifiers() {
+        assertEquals(0, table.add(new int[] {0, 1, 0, 0, 1}));
+        assertEquals(1, table.add(new int[] {1, 0, 1, 0, 1}));
+        assertEquals(-1, table.add(new int[] {0, 1, 0, 0, 1}));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    @Order(2)
+    public void testFindAndGet() {
+        table.add(new int[] {3, 0, 0, 0, 7});
+        assertEquals(0, table.find(new int[] {3, 0, 0, 0, 7}));
+        assertEquals(-1, table.find(new int[] {3, 0, 0, 0, 8}));
+        assertArrayEquals(new int[] {3, 0, 0, 0, 7}, table.get(0));
+    }
+
+    @Test
+    @Order(3)
+    public void testWidensWhenTokensDoNotFit() {
+        table.add(new int[] {1, 2, 3, 4, 5});
+        assertEquals(4, table.getBitsPerPlace());
+        table.add(new int[] {1000, 0, 0, 0, 0});
+        assertEquals(16, table.getBitsPerPlace());
+        table.add(new int[] {0, 0, Integer.MAX_VALUE, 0, 0});
+        assertEquals(32, table.getBitsPerPlace());
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5}, table.get(0));
+        assertArrayEquals(new int[] {1000, 0, 0, 0, 0}, table.get(1));
+        assertArrayEquals(new int[] {0, 0, Integer.MAX_VALUE, 0, 0}, table.get(2));
+        assertEquals(-2, table.add(new int[] {1000, 0, 0, 0, 0}));
+    }
+
+    @Test
+    @Order(4)
+    public void testGrowsBeyondExpectedSize() {
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, table.add(new int[] {i % 10, i / 10 % 10, i / 100 % 10, i / 1000, 0}));
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, table.find(new int[] {i % 10, i / 10 % 10, i / 100 % 10, i / 1000, 0}));
+        }
+        assertEquals(10000, table.size());
+    }
+
+    @Test
+    @Order(5)
+    public void testOversizedTableFails() {
+        // 64 places take 4 words each, so the storage would exceed the largest array.
+        assertThrows(IllegalStateException.class, () -> new MarkingTable(64, Integer.MAX_VALUE / 2));
+    }
+}
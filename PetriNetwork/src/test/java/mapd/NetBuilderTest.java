@@ -0,0 +1,127 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.exceptions.*;
+import mapd.implementations.NetBuilder;
+import mapd.implementations.PetriNetwork;
+import mapd.implementations.Place;
+import mapd.implementations.Transition;
+
+public class NetBuilderTest {
+
+    private static NetBuilder mutexBuilder() {
+        return new NetBuilder()
+                .addPlaces(new String[] {"p1", "p2", "p3", "p4", "p5"}, new int[] {0, 1, 0, 0, 1})
+                .addTransitions(new String[] {"t1", "t2", "t3", "t4"})
+                .addArcs(new String[] {"a1_out", "a2_out", "a3_out", "a4_out", "a5_out", "a6_out"},
+                        new String[] {"t1", "t2", "t1", "t4", "t3", "t3"},
+                        new String[] {"p1", "p2", "p3", "p4", "p5", "p3"},
+                        new String[] {"out", "out", "out", "out", "out", "out"}, null)
+                .addArc("a1_in", "t2", "p1", "in")
+                .addArc("a2_in", "t1", "p2", "in")
+                .addArc("a3_in", "t2", "p3", "in")
+                .addArc("a4_in", "t3", "p4", "in")
+                .addArc("a5_in", "t4", "p5", "in")
+                .addArc("a6_in", "t4", "p3", "in", 1);
+    }
+
+    @Test
+    @Order(1)
+    public void testBuildMatchesIncrementalNetwork() throws Exception {
+        PetriNetwork built = mutexBuilder().build();
+        PetriNetwork net = new PetriNetwork();
+        net.addPlace("p1");
+        net.addPlace("p2", 1);
+        net.addPlace("p3");
+        net.addPlace("p4");
+        net.addPlace("p5", 1);
+        net.addTransition("t1");
+        net.addTransition("t2");
+        net.addTransition("t3");
+        net.addTransition("t4");
+        net.addArc("a1_out", "t1", "p1", "out");
+        net.addArc("a2_out", "t2", "p2", "out");
+        net.addArc("a3_out", "t1", "p3", "out");
+        net.addArc("a4_out", "t4", "p4", "out");
+        net.addArc("a5_out", "t3", "p5", "out");
+        net.addArc("a6_out", "t3", "p3", "out");
+        net.addArc("a1_in", "t2", "p1", "in");
+        net.addArc("a2_in", "t1", "p2", "in");
+        net.addArc("a3_in", "t2", "p3", "in");
+        net.addArc("a4_in", "t3", "p4", "in");
+        net.addArc("a5_in", "t4", "p5", "in");
+        net.addArc("a6_in", "t4", "p3", "in");
+
+        assertEquals(net.getPlaces().toString(), built.getPlaces().toString());
+        assertEquals(net.getArcs().toString(), built.getArcs().toString());
+        assertEquals(net.fireableTransitions(), built.fireableTransitions());
+        for (String label : new String[] {"t2", "t3", "t4", "t1"}) {
+            net.fire(label);
+            built.fire(label);
+            assertEquals(net.getPlaces().toString(), built.getPlaces().toString());
+            assertEquals(net.fireableTransitions(), built.fireableTransitions());
+        }
+    }
+
+    @Test
+    @Order(2)
+    public void testBuildConnectsBothEnds() throws Exception {
+        PetriNetwork net = new NetBuilder()
+                .addPlace("p1", 2)
+                .addTransition("t1")
+                .addArc("a1", "t1", "p1", "outbouncer")
+                .addArc("a2", "t1", "p1", "in", 3)
+                .build();
+        Place place = net.getPlace("p1");
+        Transition transition = net.getTransition("t1");
+        assertEquals(1, place.getBouncerOutArcCount());
+        assertEquals(1, place.getInArcCount());
+        assertSame(transition, net.getArc("a1").getTransition());
+        assertTrue(transition.isFireable());
+
+        net.fire("t1");
+        assertEquals(3, place.getTokens());
+        net.rmArc("a2");
+        assertTrue(place.getInArcs().isEmpty());
+    }
+
+    @Test
+    @Order(3)
+    public void testBuildValidatesNames() {
+        assertThrows(RepeatedNameElement.class, () -> new NetBuilder().addPlace("p1").addPlace("p1").build());
+        assertThrows(RepeatedNameElement.class, () -> new NetBuilder().addTransition("t1").addTransition("t1").build());
+        assertThrows(RepeatedNameElement.class, () -> new NetBuilder().addPlace("p1").addPlace("p2").addTransition("t1")
+                .addArc("a1", "t1", "p1", "out").addArc("a1", "t1", "p2", "out").build());
+        assertThrows(ElementNameNotExists.class, () -> new NetBuilder().addTransition("t1")
+                .addArc("a1", "t1", "p1", "out").build());
+        assertThrows(ElementNameNotExists.class, () -> new NetBuilder().addPlace("p1")
+                .addArc("a1", "t1", "p1", "out").build());
+    }
+
+    @Test
+    @Order(4)
+    public void testBuildValidatesValues() {
+        assertThrows(InvalidTokenNumber.class, () -> new NetBuilder().addPlace("p1", -1).build());
+        assertThrows(InvalidWeightNumber.class, () -> new NetBuilder().addPlace("p1").addTransition("t1")
+                .addArc("a1", "t1", "p1", "out", 0).build());
+        assertThrows(IllegalArgumentException.class, () -> new NetBuilder().addPlace("p1").addTransition("t1")
+                .addArc("a1", "t1", "p1", "inbouncer").build());
+        assertThrows(IllegalArgumentException.class, () -> new NetBuilder().addPlaces(new String[] {"p1"}, new int[] {1, 2}));
+    }
+
+    @Test
+    @Order(5)
+    public void testBuildRejectsRepeatedArcs() throws Exception {
+        assertThrows(RepeatedArc.class, () -> new NetBuilder().addPlace("p1").addTransition("t1")
+                .addArc("a1", "t1", "p1", "out").addArc("a2", "t1", "p1", "outzero").build());
+        assertThrows(RepeatedArc.class, () -> new NetBuilder().addPlace("p1").addTransition("t1")
+                .addArc("a1", "t1", "p1", "in").addArc("a2", "t1", "p1", "in").build());
+        PetriNetwork net = new NetBuilder().addPlace("p1").addTransition("t1")
+                .addArc("a1", "t1", "p1", "out").addArc("a2", "t1", "p1", "in").build();
+        assertEquals(2, net.getArcs().size());
+    }
+}
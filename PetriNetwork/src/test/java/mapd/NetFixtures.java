@@ -0,0 +1,27 @@
+package mapd;
+
+import mapd.exceptions.*;
+import mapd.implementations.PetriNetwork;
+
+class NetFixtures {
+
+	/**
+	 * Adds independent cycles to a network, each with an "idle" place holding one token and a
+	 * "busy" place, and transitions "start" and "stop" moving the token between them.
+	 *
+	 * @param net   The network to extend.
+	 * @param count The number of cycles, whose elements are suffixed by their number.
+	 */
+	static void addCycles(PetriNetwork net, int count) throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		for (int i = 0; i < count; i++) {
+			net.addPlace("idle" + i, 1);
+			net.addPlace("busy" + i);
+			net.addTransition("start" + i);
+			net.addTransition("stop" + i);
+			net.addArc("a1_" + i, "start" + i, "idle" + i, "out");
+			net.addArc("a2_" + i, "start" + i, "busy" + i, "in");
+			net.addArc("a3_" + i, "stop" + i, "busy" + i, "out");
+			net.addArc("a4_" + i, "stop" + i, "idle" + i, "in");
+		}
+	}
+}
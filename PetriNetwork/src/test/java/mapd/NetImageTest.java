@@ -0,0 +1,135 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.exceptions.ElementNameNotExists;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+import mapd.io.NetImage;
+
+public class NetImageTest {
+
+    private PetriNetwork net;
+    private Path path;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        net = new PetriNetwork();
+        net.addPlace("p1");
+        net.addPlace("p2", 1);
+        net.addPlace("p3");
+        net.addPlace("p4");
+        net.addPlace("p5", 1);
+        net.addPlace("p\u00e9", 4);
+        net.addTransition("t1");
+        net.addTransition("t2");
+        net.addTransition("t3");
+        net.addTransition("t4");
+        net.addArc("a1_out", "t1", "p1", "out");
+        net.addArc("a2_out", "t2", "p2", "out", 2);
+        net.addArc("a3_out", "t1", "p3", "outzero");
+        net.addArc("a4_out", "t4", "p4", "out");
+        net.addArc("a5_out", "t3", "p5", "outbouncer");
+        net.addArc("a6_out", "t3", "p\u00e9", "out");
+        net.addArc("a1_in", "t2", "p1", "in");
+        net.addArc("a2_in", "t1", "p2", "in", 3);
+        net.addArc("a3_in", "t2", "p3", "in");
+        net.addArc("a4_in", "t3", "p4", "in");
+        path = Files.createTempFile("net", ".pnimg");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    @Order(1)
+    public void testLoadMatchesCompiledNet() throws Exception {
+        NetImage.write(net, path);
+        NetImage image = NetImage.load(path);
+        CompiledPetriNet expected = net.compile();
+
+        assertEquals(6, image.getPlaceCount());
+        assertEquals(4, image.getTransitionCount());
+        assertEquals(6, image.getPreArcCount());
+        assertEquals(4, image.getPostArcCount());
+        for (int p = 0; p < image.getPlaceCount(); p++) {
+            assertEquals(expected.getPlaceLabel(p), image.getPlaceLabel(p));
+            assertEquals(expected.getTokens(p), image.getMarking().get(p));
+        }
+
+        CompiledPetriNet compiled = image.toCompiledPetriNet();
+        assertArrayEquals(expected.getMarking(), compiled.getMarking());
+        assertArrayEquals(expected.getPreKinds(), compiled.getPreKinds());
+        assertArrayEquals(expected.getPostWeights(), compiled.getPostWeights());
+        int[] expectedEnabled = expected.fireableTransitions();
+        int[] enabled = compiled.fireableTransitions();
+        Arrays.sort(expectedEnabled);
+        Arrays.sort(enabled);
+        assertArrayEquals(expectedEnabled, enabled);
+    }
+
+    @Test
+    @Order(2)
+    public void testLoadAsPetriNetwork() throws Exception {
+        NetImage.write(net, path);
+        PetriNetwork copy = NetImage.load(path).toPetriNetwork();
+
+        assertEquals(net.getPlaces().toString(), copy.getPlaces().toString());
+        assertEquals(net.getArcs().toString(), copy.getArcs().toString());
+        for (String label : net.getArcs().keySet()) {
+            assertEquals(net.getArc(label).getClass(), copy.getArc(label).getClass());
+            assertEquals(net.getArc(label).getTransition().getLabel(), copy.getArc(label).getTransition().getLabel());
+        }
+        assertEquals(net.fireableTransitions(), copy.fireableTransitions());
+    }
+
+    @Test
+    @Order(3)
+    public void testLoadInvalidFileThrowsException() throws Exception {
+        Files.write(path, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16,
+            17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32});
+        assertThrows(IOException.class, () -> NetImage.load(path));
+
+        NetImage.write(net, path);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> NetImage.load(path));
+    }
+
+    @Test
+    @Order(4)
+    public void testFireImageInPlace() throws Exception {
+        NetImage.write(net, path);
+        NetImage image = NetImage.load(path);
+        CompiledPetriNet expected = net.compile();
+
+        assertEquals(expected.getPlaceIndex("p\u00e9"), image.getPlaceIndex("p\u00e9"));
+        assertEquals(expected.getTransitionIndex("t3"), image.getTransitionIndex("t3"));
+        assertThrows(ElementNameNotExists.class, () -> image.getPlaceIndex("t3"));
+        assertThrows(ElementNameNotExists.class, () -> image.getTransitionIndex("missing"));
+
+        int[] marking = new int[image.getPlaceCount()];
+        image.getMarking().get(marking);
+        for (int step = 0; step < 5; step++) {
+            for (int t = 0; t < image.getTransitionCount(); t++) {
+                assertEquals(expected.isEnabled(t), image.isEnabled(t, marking));
+            }
+            int transition = expected.getEnabledTransition(0);
+            expected.fire(transition);
+            image.applyFiring(transition, marking);
+            assertArrayEquals(expected.getMarking(), marking);
+        }
+    }
+}
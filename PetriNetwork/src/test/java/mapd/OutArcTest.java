@@ -95,4 +95,13 @@ class OutArcTest {
         outArc.modifyTokens();
         assertFalse(outArc.isActive());
     }
+
+    @Test
+    @Order(10)
+    void testOutArcIsAttachedToBothEnds() throws InvalidWeightNumber, RepeatedArc {
+        OutArc outArc = new OutArc("a1", testPlace, testTransition);
+        assertSame(testTransition, outArc.getTransition());
+        assertTrue(testPlace.getOutArcs().contains(outArc));
+        assertTrue(testPlace.getInArcs().isEmpty());
+    }
 }
@@ -0,0 +1,80 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.analysis.ParallelReachabilityExplorer;
+import mapd.analysis.ReachabilityExplorer;
+import mapd.analysis.ReachabilityGraph;
+import mapd.analysis.ReachabilitySummary;
+import mapd.exceptions.*;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+
+public class ParallelReachabilityExplorerTest {
+
+	PetriNetwork net = PetriNetwork.getInstance();
+
+	@BeforeEach
+	public void setup() {
+		net.reset();
+	}
+
+	@Test
+	@Order(1)
+	public void testSameCountsAsSequentialExplorer() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		NetFixtures.addCycles(net, 12);
+		net.addPlace("done");
+		net.addTransition("finish");
+		net.addArc("f1", "finish", "busy0", "out");
+		net.addArc("f2", "finish", "done", "in");
+		CompiledPetriNet compiled = net.compile();
+
+		ReachabilityGraph sequential = new ReachabilityExplorer(compiled).explore();
+		ReachabilitySummary parallel = new ParallelReachabilityExplorer(compiled, 4).explore();
+		assertTrue(parallel.isComplete());
+		assertEquals(sequential.getStateCount(), parallel.getStateCount());
+		assertEquals(sequential.getEdgeCount(), parallel.getEdgeCount());
+		assertEquals(sequential.getDeadlocks().length, parallel.getDeadlockCount());
+	}
+
+	@Test
+	@Order(2)
+	public void testRepeatedRunsAreReproducible() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		NetFixtures.addCycles(net, 10);
+		CompiledPetriNet compiled = net.compile();
+		for (int run = 0; run < 3; run++) {
+			ReachabilitySummary summary = new ParallelReachabilityExplorer(compiled, 8).explore();
+			assertEquals(1024, summary.getStateCount());
+			assertEquals(10240, summary.getEdgeCount());
+			assertEquals(0, summary.getDeadlockCount());
+		}
+	}
+
+	@Test
+	@Order(3)
+	public void testStateLimitStopsUnboundedNet() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		net.addPlace("p1");
+		net.addTransition("t1");
+		net.addArc("a1", "t1", "p1", "in");
+		ParallelReachabilityExplorer explorer = new ParallelReachabilityExplorer(net.compile(), 2);
+		explorer.setMaxStates(1000);
+		ReachabilitySummary summary = explorer.explore();
+		assertEquals(ReachabilityGraph.Status.STATE_LIMIT, summary.getStatus());
+		assertTrue(summary.getStateCount() >= 1000);
+	}
+
+	@Test
+	@Order(4)
+	public void testExplorationStopsAtTarget() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		NetFixtures.addCycles(net, 8);
+		CompiledPetriNet compiled = net.compile();
+		int busy = compiled.getPlaceIndex("busy5");
+		ReachabilitySummary summary = new ParallelReachabilityExplorer(compiled, 4).explore(marking -> marking[busy] == 1);
+		assertEquals(ReachabilityGraph.Status.TARGET_FOUND, summary.getStatus());
+		assertEquals(1, summary.getTargetMarking()[busy]);
+	}
+}
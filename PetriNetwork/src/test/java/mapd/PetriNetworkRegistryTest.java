@@ -0,0 +1,108 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.exceptions.*;
+import mapd.implementations.PetriNetwork;
+import mapd.implementations.PetriNetworkRegistry;
+
+public class PetriNetworkRegistryTest {
+
+    private PetriNetworkRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new PetriNetworkRegistry();
+    }
+
+    private static void addCounter(PetriNetwork net) throws Exception {
+        net.addPlace("p1", 1);
+        net.addPlace("p2");
+        net.addTransition("t1");
+        net.addArc("a1", "t1", "p1", "out");
+        net.addArc("a2", "t1", "p2", "in");
+    }
+
+    @Test
+    @Order(1)
+    public void testCreateAndGet() throws RepeatedNameElement, ElementNameNotExists {
+        PetriNetwork net = registry.create("n1");
+        assertSame(net, registry.get("n1"));
+        assertTrue(registry.contains("n1"));
+        assertEquals(1, registry.size());
+        assertNotSame(PetriNetwork.getInstance(), net);
+    }
+
+    @Test
+    @Order(2)
+    public void testCreateDuplicateThrowsException() throws RepeatedNameElement {
+        registry.create("n1");
+        assertThrows(RepeatedNameElement.class, () -> registry.create("n1"));
+    }
+
+    @Test
+    @Order(3)
+    public void testGetAndRemoveMissingThrowsException() {
+        assertThrows(ElementNameNotExists.class, () -> registry.get("n1"));
+        assertThrows(ElementNameNotExists.class, () -> registry.remove("n1"));
+    }
+
+    @Test
+    @Order(4)
+    public void testGetOrCreateReturnsSameNetwork() throws ElementNameNotExists {
+        PetriNetwork net = registry.getOrCreate("n1");
+        assertSame(net, registry.getOrCreate("n1"));
+        assertSame(net, registry.remove("n1"));
+        assertFalse(registry.contains("n1"));
+    }
+
+    @Test
+    @Order(5)
+    public void testNetworksAreIndependent() throws Exception {
+        PetriNetwork first = registry.create("n1");
+        PetriNetwork second = registry.create("n2");
+        addCounter(first);
+        addCounter(second);
+        first.fire("t1");
+        assertEquals(1, first.getPlace("p2").getTokens());
+        assertEquals(0, second.getPlace("p2").getTokens());
+        assertEquals(1, second.countFireableTransitions());
+    }
+
+    @Test
+    @Order(6)
+    public void testWorkersOwnTheirNetworks() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < 8; i++) {
+                final String name = "n" + i;
+                results.add(executor.submit(() -> {
+                    PetriNetwork net = registry.create(name);
+                    addCounter(net);
+                    net.addArc("a3", "t1", "p1", "in");
+                    for (int j = 0; j < 100; j++) {
+                        net.fire("t1");
+                    }
+                    return net.getPlace("p2").getTokens();
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(100, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(8, registry.size());
+    }
+}
@@ -1,9 +1,23 @@
 package mapd;
 
 import mapd.exceptions.*;
+import mapd.implementations.Arc;
+import mapd.implementations.MarkingCheckpoint;
+import mapd.implementations.MarkingSnapshot;
 import mapd.implementations.OutBouncerArc;
 import mapd.implementations.OutZeroArc;
 import mapd.implementations.PetriNetwork;
+import mapd.implementations.Place;
+import mapd.implementations.Transition;
+import mapd.interfaces.IFiringListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -236,4 +250,369 @@ public class PetriNetworkTest {
     	assertTrue(!petriNetwork.getArcs().isEmpty());
     }
 
+    @Test
+    @Order(24)
+    public void testSetPlaceTokensUpdatesDependentTransitions() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+        petriNetwork.addPlace("P1");
+        petriNetwork.addTransition("T1");
+        petriNetwork.addArc("A1", "T1", "P1", "out", 2);
+        assertFalse(petriNetwork.getTransition("T1").isFireable());
+
+        petriNetwork.setPlaceTokens("P1", 2);
+        assertTrue(petriNetwork.getTransition("T1").isFireable());
+    }
+
+    @Test
+    @Order(25)
+    public void testFireUpdatesOnlyTransitionsOfChangedPlaces() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists, NoFireableTransition {
+        petriNetwork.addPlace("P1", 1);
+        petriNetwork.addPlace("P2");
+        petriNetwork.addTransition("T1");
+        petriNetwork.addTransition("T2");
+        petriNetwork.addArc("A1", "T1", "P1", "out");
+        petriNetwork.addArc("A2", "T1", "P2", "in");
+        petriNetwork.addArc("A3", "T2", "P2", "out");
+        assertFalse(petriNetwork.getTransition("T2").isFireable());
+
+        petriNetwork.fire("T1");
+        assertFalse(petriNetwork.getTransition("T1").isFireable());
+        assertTrue(petriNetwork.getTransition("T2").isFireable());
+    }
+
+    @Test
+    @Order(26)
+    public void testFireConcurrentlyConsumesEachTokenOnce() throws Exception {
+        petriNetwork.addPlace("Pool", 1000);
+        for (int i = 0; i < 4; i++) {
+            petriNetwork.addPlace("Used" + i);
+            petriNetwork.addTransition("Take" + i);
+            petriNetwork.addArc("A_out" + i, "Take" + i, "Pool", "out");
+            petriNetwork.addArc("A_in" + i, "Take" + i, "Used" + i, "in");
+        }
+        Queue<Exception> errors = new ConcurrentLinkedQueue<Exception>();
+        Thread[] workers = new Thread[4];
+        for (int i = 0; i < workers.length; i++) {
+            final String label = "Take" + i;
+            workers[i] = new Thread(() -> {
+                try {
+                    while (true) {
+                        petriNetwork.fireConcurrently(label);
+                    }
+                } catch (NoFireableTransition e) {
+                    // The pool is empty.
+                } catch (ElementNameNotExists e) {
+                    errors.add(e);
+                }
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertTrue(errors.isEmpty());
+
+        int used = 0;
+        for (int i = 0; i < 4; i++) {
+            used += petriNetwork.getPlace("Used" + i).getTokens();
+        }
+        assertEquals(0, petriNetwork.getPlace("Pool").getTokens());
+        assertEquals(1000, used);
+        assertTrue(petriNetwork.fireableTransitions().isEmpty());
+    }
+
+    @Test
+    @Order(27)
+    public void testFireConcurrentlyOnIndependentTransitions() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            petriNetwork.addPlace("Idle" + i, 1);
+            petriNetwork.addPlace("Busy" + i);
+            petriNetwork.addTransition("Start" + i);
+            petriNetwork.addTransition("Stop" + i);
+            petriNetwork.addArc("A1_" + i, "Start" + i, "Idle" + i, "out");
+            petriNetwork.addArc("A2_" + i, "Start" + i, "Busy" + i, "in");
+            petriNetwork.addArc("A3_" + i, "Stop" + i, "Busy" + i, "out");
+            petriNetwork.addArc("A4_" + i, "Stop" + i, "Idle" + i, "in");
+        }
+        Queue<Exception> errors = new ConcurrentLinkedQueue<Exception>();
+        Thread[] workers = new Thread[4];
+        for (int i = 0; i < workers.length; i++) {
+            final int worker = i;
+            workers[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 500; j++) {
+                        petriNetwork.fireConcurrently("Start" + worker);
+                        petriNetwork.fireConcurrently("Stop" + worker);
+                    }
+                    petriNetwork.fireConcurrently("Start" + worker);
+                } catch (ElementNameNotExists | NoFireableTransition e) {
+                    errors.add(e);
+                }
+            });
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertTrue(errors.isEmpty());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, petriNetwork.getPlace("Idle" + i).getTokens());
+            assertEquals(1, petriNetwork.getPlace("Busy" + i).getTokens());
+        }
+        assertEquals(4, petriNetwork.countFireableTransitions());
+        assertTrue(petriNetwork.fireableTransitions().stream().allMatch(label -> label.startsWith("Stop")));
+    }
+
+    @Test
+    @Order(28)
+    public void testFiringListenerReceivesEvents() throws Exception {
+        petriNetwork.addPlace("P1", 1);
+        petriNetwork.addPlace("P2");
+        petriNetwork.addPlace("P3");
+        petriNetwork.addTransition("T1");
+        petriNetwork.addArc("A1", "T1", "P1", "out");
+        petriNetwork.addArc("A2", "T1", "P2", "in");
+        petriNetwork.addArc("A3", "T1", "P3", "outzero");
+        List<String> events = new ArrayList<String>();
+        petriNetwork.addFiringListener(new IFiringListener() {
+            @Override
+            public void beforeFire(Transition transition) {
+                events.add("before " + transition.getLabel());
+            }
+
+            @Override
+            public void afterFire(Transition transition) {
+                events.add("after " + transition.getLabel());
+            }
+
+            @Override
+            public void markingChanged(Transition transition, List<Place> changedPlaces) {
+                events.add("changed " + changedPlaces.stream().map(Place::getLabel).collect(Collectors.toList()));
+            }
+        });
+
+        petriNetwork.fire("T1");
+        assertEquals(Arrays.asList("before T1", "changed [P1, P2]", "after T1"), events);
+    }
+
+    @Test
+    @Order(29)
+    public void testFireNotFireableDoesNotNotifyListener() throws Exception {
+        petriNetwork.addPlace("P1");
+        petriNetwork.addTransition("T1");
+        petriNetwork.addArc("A1", "T1", "P1", "out");
+        List<String> events = new ArrayList<String>();
+        IFiringListener listener = new IFiringListener() {
+            @Override
+            public void beforeFire(Transition transition) {
+                events.add(transition.getLabel());
+            }
+        };
+        petriNetwork.addFiringListener(listener);
+
+        assertThrows(NoFireableTransition.class, () -> petriNetwork.fire("T1"));
+        petriNetwork.setPlaceTokens("P1", 1);
+        petriNetwork.rmFiringListener(listener);
+        petriNetwork.fire("T1");
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    @Order(30)
+    public void testRmPlaceDetachesArcsFromTransitions() throws Exception {
+        petriNetwork.addPlace("P1", 1);
+        petriNetwork.addPlace("P2");
+        petriNetwork.addTransition("T1");
+        petriNetwork.addArc("A1", "T1", "P1", "out");
+        petriNetwork.addArc("A2", "T1", "P2", "in");
+        Transition transition = petriNetwork.getTransition("T1");
+        Place place = petriNetwork.getPlace("P2");
+
+        petriNetwork.rmPlace("P1");
+        assertTrue(transition.getOutArcs().isEmpty());
+        assertEquals(1, transition.getInArcs().size());
+        assertFalse(petriNetwork.getArcs().containsKey("A1"));
+        assertTrue(petriNetwork.fireableTransitions().contains("T1"));
+
+        petriNetwork.rmPlace("P2");
+        assertTrue(transition.getInArcs().isEmpty());
+        assertTrue(place.getInArcs().isEmpty());
+        assertTrue(petriNetwork.getArcs().isEmpty());
+        assertTrue(petriNetwork.fireableTransitions().isEmpty());
+    }
+
+    @Test
+    @Order(31)
+    public void testRmTransitionDetachesArcsFromPlaces() throws Exception {
+        petriNetwork.addPlace("P1", 1);
+        petriNetwork.addTransition("T1");
+        petriNetwork.addTransition("T2");
+        petriNetwork.addArc("A1", "T1", "P1", "out");
+        petriNetwork.addArc("A2", "T1", "P1", "in");
+        petriNetwork.addArc("A3", "T2", "P1", "out");
+        Place place = petriNetwork.getPlace("P1");
+
+        petriNetwork.rmTransition("T1");
+        assertEquals(1, place.getOutArcs().size());
+        assertEquals("T2", place.getOutArcs().get(0).getTransition().getLabel());
+        assertTrue(place.getInArcs().isEmpty());
+        assertEquals(1, petriNetwork.getArcs().size());
+
+        petriNetwork.setPlaceTokens("P1", 0);
+        assertTrue(petriNetwork.fireableTransitions().isEmpty());
+    }
+
+    @Test
+    @Order(32)
+    public void testRmArcDetachesArcFromBothEnds() throws Exception {
+        petriNetwork.addPlace("P1", 1);
+        petriNetwork.addTransition("T1");
+        petriNetwork.addArc("A1", "T1", "P1", "out");
+        Arc arc = petriNetwork.getArc("A1");
+
+        petriNetwork.rmArc("A1");
+        assertNull(arc.getTransition());
+        assertTrue(petriNetwork.getPlace("P1").getOutArcs().isEmpty());
+        assertTrue(petriNetwork.getTransition("T1").getOutArcs().isEmpty());
+        assertFalse(petriNetwork.getTransition("T1").isFireable());
+    }
+
+    @Test
+    @Order(33)
+    public void testRestoreMarkingFromSnapshot() throws Exception {
+        petriNetwork.addPlace("P1", 2);
+        petriNetwork.addPlace("P2");
+        petriNetwork.addTransition("T1");
+        petriNetwork.addTransition("T2");
+        petriNetwork.addArc("A1", "T1", "P1", "out");
+        petriNetwork.addArc("A2", "T1", "P2", "in");
+        petriNetwork.addArc("A3", "T2", "P2", "out");
+        MarkingSnapshot snapshot = petriNetwork.snapshotMarking();
+        assertEquals(2, snapshot.size());
+
+        petriNetwork.fire("T1");
+        petriNetwork.fire("T1");
+        assertEquals(0, petriNetwork.getPlace("P1").getTokens());
+        assertEquals(Arrays.asList("T2"), petriNetwork.fireableTransitions());
+
+        petriNetwork.restoreMarking(snapshot);
+        assertEquals(2, petriNetwork.getPlace("P1").getTokens());
+        assertEquals(0, petriNetwork.getPlace("P2").getTokens());
+        assertEquals(Arrays.asList("T1"), petriNetwork.fireableTransitions());
+    }
+
+    @Test
+    @Order(34)
+    public void testRollbackNestedCheckpoints() throws Exception {
+        petriNetwork.addPlace("P1", 3);
+        petriNetwork.addPlace("P2");
+        petriNetwork.addTransition("T1");
+        petriNetwork.addArc("A1", "T1", "P1", "out");
+        petriNetwork.addArc("A2", "T1", "P2", "in");
+
+        MarkingCheckpoint outer = petriNetwork.checkpointMarking();
+        petriNetwork.fire("T1");
+        MarkingCheckpoint inner = petriNetwork.checkpointMarking();
+        petriNetwork.fire("T1");
+        petriNetwork.setPlaceTokens("P2", 7);
+        assertEquals(1, petriNetwork.getPlace("P1").getTokens());
+
+        petriNetwork.rollbackMarking(inner);
+        assertEquals(2, petriNetwork.getPlace("P1").getTokens());
+        assertEquals(1, petriNetwork.getPlace("P2").getTokens());
+        assertTrue(inner.isActive());
+
+        petriNetwork.fire("T1");
+        petriNetwork.fire("T1");
+        assertFalse(petriNetwork.getTransition("T1").isFireable());
+        petriNetwork.rollbackMarking(outer);
+        assertEquals(3, petriNetwork.getPlace("P1").getTokens());
+        assertEquals(0, petriNetwork.getPlace("P2").getTokens());
+        assertTrue(petriNetwork.getTransition("T1").isFireable());
+        assertFalse(inner.isActive());
+        assertThrows(IllegalArgumentException.class, () -> petriNetwork.rollbackMarking(inner));
+
+        petriNetwork.releaseCheckpoint(outer);
+        assertFalse(outer.isActive());
+        petriNetwork.fire("T1");
+        assertEquals(2, petriNetwork.getPlace("P1").getTokens());
+    }
+
+    @Test
+    @Order(35)
+    public void testFireConcurrentlyWithCheckpointThrows() throws Exception {
+        petriNetwork.addPlace("P1", 1);
+        petriNetwork.addTransition("T1");
+        petriNetwork.addArc("A1", "T1", "P1", "out");
+
+        MarkingCheckpoint checkpoint = petriNetwork.checkpointMarking();
+        assertThrows(IllegalStateException.class, () -> petriNetwork.fireConcurrently("T1"));
+        petriNetwork.releaseCheckpoint(checkpoint);
+        petriNetwork.fireConcurrently("T1");
+        assertEquals(0, petriNetwork.getPlace("P1").getTokens());
+    }
+
+    @Test
+    @Order(36)
+    public void testSetArcWeightUpdatesFireable() throws Exception {
+        petriNetwork.addPlace("P1", 1);
+        petriNetwork.addPlace("P2", 1);
+        petriNetwork.addTransition("T1");
+        petriNetwork.addTransition("T2");
+        petriNetwork.addArc("A1", "T1", "P1", "out");
+        petriNetwork.addArc("A2", "T2", "P2", "out");
+        assertTrue(petriNetwork.fireableTransitions().contains("T1"));
+
+        petriNetwork.setArcWeight("A1", 5);
+        assertFalse(petriNetwork.getTransition("T1").isFireable());
+        petriNetwork.fire("T2");
+        assertEquals(new ArrayList<String>(), petriNetwork.fireableTransitions());
+        assertThrows(NoFireableTransition.class, () -> petriNetwork.fire("T1"));
+        assertEquals(1, petriNetwork.getPlace("P1").getTokens());
+
+        petriNetwork.setArcWeight("A1", 1);
+        assertEquals(Arrays.asList("T1"), petriNetwork.fireableTransitions());
+    }
+
+    @Test
+    @Order(37)
+    public void testFiringListenerSeesEachChangedPlaceOnce() throws Exception {
+        petriNetwork.addPlace("P1", 1);
+        petriNetwork.addPlace("P2");
+        petriNetwork.addTransition("T1");
+        petriNetwork.addArc("A1", "T1", "P1", "out");
+        petriNetwork.addArc("A2", "T1", "P1", "in", 2);
+        petriNetwork.addArc("A3", "T1", "P2", "in");
+        List<String> events = new ArrayList<String>();
+        petriNetwork.addFiringListener(new IFiringListener() {
+            @Override
+            public void markingChanged(Transition transition, List<Place> changedPlaces) {
+                events.add(changedPlaces.stream().map(Place::getLabel).collect(Collectors.toList()).toString());
+            }
+        });
+
+        petriNetwork.fire("T1");
+        petriNetwork.fire("T1");
+        assertEquals(Arrays.asList("[P1, P2]", "[P1, P2]"), events);
+        assertEquals(3, petriNetwork.getPlace("P1").getTokens());
+    }
+
+    @Test
+    @Order(38)
+    public void testResetUnregistersFiringListeners() throws Exception {
+        List<String> events = new ArrayList<String>();
+        petriNetwork.addFiringListener(new IFiringListener() {
+            @Override
+            public void afterFire(Transition transition) {
+                events.add(transition.getLabel());
+            }
+        });
+        petriNetwork.reset();
+        petriNetwork.addPlace("P1", 1);
+        petriNetwork.addTransition("T1");
+        petriNetwork.addArc("A1", "T1", "P1", "out");
+
+        petriNetwork.fire("T1");
+        assertEquals(new ArrayList<String>(), events);
+    }
 }
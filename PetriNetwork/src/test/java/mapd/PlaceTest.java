@@ -3,7 +3,12 @@ package mapd;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import mapd.implementations.InArc;
+import mapd.implementations.OutArc;
+import mapd.implementations.OutBouncerArc;
+import mapd.implementations.OutZeroArc;
 import mapd.implementations.Place;
+import mapd.implementations.Transition;
 import mapd.exceptions.InvalidTokenNumber;
 
 public class PlaceTest {
@@ -57,4 +62,20 @@ public class PlaceTest {
         place.setTokens(15);
         assertTrue(place.toString().equals("place with 15 tokens"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testArcCounts() throws Exception {
+        Transition t1 = new Transition("t1");
+        Transition t2 = new Transition("t2");
+        Transition t3 = new Transition("t3");
+        new OutArc("a1", place, t1);
+        new OutBouncerArc("a2", place, t2);
+        new OutZeroArc("a3", place, t3);
+        new InArc("a4", place, t1);
+        assertEquals(1, place.getSimpleOutArcCount());
+        assertEquals(1, place.getBouncerOutArcCount());
+        assertEquals(1, place.getZeroOutArcCount());
+        assertEquals(1, place.getInArcCount());
+        assertEquals(3, place.getOutArcs().size());
+    }
+}
@@ -0,0 +1,146 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.exceptions.*;
+import mapd.implementations.InArc;
+import mapd.implementations.OutArc;
+import mapd.implementations.OutBouncerArc;
+import mapd.implementations.OutZeroArc;
+import mapd.implementations.PetriNetwork;
+import mapd.io.PnmlReader;
+import mapd.io.PnmlWriter;
+
+public class PnmlTest {
+
+    private static PetriNetwork read(String document) throws Exception {
+        return new PnmlReader().read(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String net(String elements) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<pnml xmlns=\"http://www.pnml.org/version-2009/grammar/pnml\">\n"
+                + "<net id=\"n1\" type=\"http://www.pnml.org/version-2009/grammar/ptnet\">\n"
+                + elements
+                + "</net>\n</pnml>\n";
+    }
+
+    @Test
+    @Order(1)
+    public void testReadPtNet() throws Exception {
+        PetriNetwork net = read(net(
+                "<page id=\"g1\">\n"
+                + "<arc id=\"a1\" source=\"p1\" target=\"t1\"><inscription><text>2</text></inscription></arc>\n"
+                + "<arc id=\"a2\" source=\"t1\" target=\"p2\"/>\n"
+                + "<place id=\"p1\"><name><text>first</text></name><initialMarking><text>3</text></initialMarking></place>\n"
+                + "<page id=\"g2\">\n"
+                + "<place id=\"p2\"><graphics><position x=\"1\" y=\"2\"/></graphics></place>\n"
+                + "<transition id=\"t1\"><name><text>fire</text></name></transition>\n"
+                + "</page>\n"
+                + "</page>\n"));
+
+        assertEquals(3, net.getPlace("p1").getTokens());
+        assertEquals(0, net.getPlace("p2").getTokens());
+        assertTrue(net.getArc("a1") instanceof OutArc);
+        assertEquals(2, net.getArc("a1").getWeight());
+        assertTrue(net.getArc("a2") instanceof InArc);
+        assertEquals("t1", net.getArc("a2").getTransition().getLabel());
+        net.fire("t1");
+        assertEquals(1, net.getPlace("p1").getTokens());
+        assertEquals(1, net.getPlace("p2").getTokens());
+    }
+
+    @Test
+    @Order(2)
+    public void testReadSpecialArcsAndReferences() throws Exception {
+        PetriNetwork net = read(net(
+                "<page id=\"g1\">\n"
+                + "<place id=\"p1\"/><place id=\"p2\"/><transition id=\"t1\"/>\n"
+                + "<referencePlace id=\"r1\" ref=\"p2\"/>\n"
+                + "<arc id=\"a1\" source=\"p1\" target=\"t1\"><type value=\"inhibitor\"/></arc>\n"
+                + "<arc id=\"a2\" source=\"r1\" target=\"t1\"><arctype><text>reset</text></arctype></arc>\n"
+                + "</page>\n"));
+
+        assertTrue(net.getArc("a1") instanceof OutZeroArc);
+        assertTrue(net.getArc("a2") instanceof OutBouncerArc);
+        assertEquals("p2", net.getArc("a2").getPlace().getLabel());
+        assertTrue(net.fireableTransitions().contains("t1"));
+    }
+
+    @Test
+    @Order(3)
+    public void testReadInvalidArcsThrowsException() {
+        assertThrows(ElementNameNotExists.class, () -> read(net(
+                "<place id=\"p1\"/><arc id=\"a1\" source=\"p1\" target=\"t1\"/>")));
+        assertThrows(XMLStreamException.class, () -> read(net(
+                "<place id=\"p1\"/><place id=\"p2\"/><arc id=\"a1\" source=\"p1\" target=\"p2\"/>")));
+        assertThrows(XMLStreamException.class, () -> read(net(
+                "<place id=\"p1\"/><transition id=\"t1\"/>"
+                + "<arc id=\"a1\" source=\"t1\" target=\"p1\"><type value=\"inhibitor\"/></arc>")));
+        assertThrows(XMLStreamException.class, () -> read(net(
+                "<place id=\"p1\"><initialMarking><text>many</text></initialMarking></place>")));
+        assertThrows(RepeatedNameElement.class, () -> read(net("<place id=\"p1\"/><place id=\"p1\"/>")));
+    }
+
+    @Test
+    @Order(4)
+    public void testWriteAndReadBack() throws Exception {
+        PetriNetwork net = new PetriNetwork();
+        net.addPlace("p1", 2);
+        net.addPlace("p2");
+        net.addPlace("p3", 1);
+        net.addTransition("t1");
+        net.addTransition("t2");
+        net.addArc("a1", "t1", "p1", "out", 2);
+        net.addArc("a2", "t1", "p2", "in", 3);
+        net.addArc("a3", "t2", "p2", "outzero");
+        net.addArc("a4", "t2", "p3", "outbouncer");
+        net.addArc("a5", "t2", "p1", "in");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PnmlWriter().write(net, "mutex", out);
+        PetriNetwork copy = new PnmlReader().read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(net.getPlaces().toString(), copy.getPlaces().toString());
+        assertEquals(net.getArcs().toString(), copy.getArcs().toString());
+        assertEquals(net.fireableTransitions(), copy.fireableTransitions());
+        for (String label : net.getArcs().keySet()) {
+            assertEquals(net.getArc(label).getClass(), copy.getArc(label).getClass());
+            assertEquals(net.getArc(label).getTransition().getLabel(), copy.getArc(label).getTransition().getLabel());
+        }
+    }
+
+    @Test
+    @Order(5)
+    public void testReadArcsBeforeTheirNodes() throws Exception {
+        StringBuilder elements = new StringBuilder("<place id=\"p0\"><initialMarking><text>1</text></initialMarking></place>\n");
+        for (int i = 0; i < 40; i++) {
+            elements.append("<arc id=\"in").append(i).append("\" source=\"t").append(i)
+                    .append("\" target=\"r").append(i + 1).append("\"/>\n");
+            elements.append("<transition id=\"t").append(i).append("\"/>\n");
+            elements.append("<arc id=\"out").append(i).append("\" source=\"p").append(i)
+                    .append("\" target=\"t").append(i).append("\"/>\n");
+        }
+        for (int i = 1; i <= 40; i++) {
+            elements.append("<referencePlace id=\"r").append(i).append("\" ref=\"p").append(i).append("\"/>\n");
+            elements.append("<place id=\"p").append(i).append("\"/>\n");
+        }
+        PetriNetwork net = read(net(elements.toString()));
+
+        assertEquals(80, net.getArcs().size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals("p" + (i + 1), net.getArc("in" + i).getPlace().getLabel());
+            net.fire("t" + i);
+        }
+        assertEquals(1, net.getPlace("p40").getTokens());
+    }
+}
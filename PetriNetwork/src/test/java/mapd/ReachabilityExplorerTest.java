@@ -0,0 +1,165 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.analysis.ReachabilityExplorer;
+import mapd.analysis.ReachabilityGraph;
+import mapd.exceptions.*;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+
+public class ReachabilityExplorerTest {
+
+	PetriNetwork net = PetriNetwork.getInstance();
+
+	@BeforeEach
+	public void setup() {
+		net.reset();
+	}
+
+	@Test
+	@Order(1)
+	public void testIndependentCyclesStateSpace() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		NetFixtures.addCycles(net, 4);
+		ReachabilityGraph graph = new ReachabilityExplorer(net).explore();
+		assertTrue(graph.isComplete());
+		assertEquals(16, graph.getStateCount());
+		assertEquals(64, graph.getEdgeCount());
+		assertEquals(0, graph.getDeadlocks().length);
+		for (int state = 0; state < graph.getStateCount(); state++) {
+			assertEquals(4, graph.getSuccessorCount(state));
+		}
+	}
+
+	@Test
+	@Order(2)
+	public void testEdgesAreLabelledWithTransitions() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		net.addPlace("p1", 1);
+		net.addPlace("p2");
+		net.addTransition("t1");
+		net.addArc("a1", "t1", "p1", "out");
+		net.addArc("a2", "t1", "p2", "in");
+		ReachabilityGraph graph = new ReachabilityExplorer(net).explore();
+		assertEquals(2, graph.getStateCount());
+		assertEquals(1, graph.getSuccessorCount(0));
+		assertEquals("t1", graph.getNet().getTransitionLabel(graph.getSuccessorTransition(0, 0)));
+		assertEquals(1, graph.getSuccessorState(0, 0));
+		assertArrayEquals(new int[] {1}, graph.getDeadlocks());
+		int p2 = graph.getNet().getPlaceIndex("p2");
+		assertEquals(1, graph.getMarking(1)[p2]);
+	}
+
+	@Test
+	@Order(3)
+	public void testStateLimitStopsUnboundedNet() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		net.addPlace("p1");
+		net.addTransition("t1");
+		net.addArc("a1", "t1", "p1", "in");
+		ReachabilityExplorer explorer = new ReachabilityExplorer(net);
+		explorer.setMaxStates(100);
+		ReachabilityGraph graph = explorer.explore();
+		assertEquals(ReachabilityGraph.Status.STATE_LIMIT, graph.getStatus());
+		assertEquals(100, graph.getStateCount());
+		assertEquals(99, graph.getMarking(99)[0]);
+	}
+
+	@Test
+	@Order(4)
+	public void testEdgeLimitAndUnrecordedEdges() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		NetFixtures.addCycles(net, 3);
+		ReachabilityExplorer explorer = new ReachabilityExplorer(net);
+		explorer.setRecordEdges(false);
+		explorer.setMaxEdges(10);
+		ReachabilityGraph graph = explorer.explore();
+		assertEquals(ReachabilityGraph.Status.EDGE_LIMIT, graph.getStatus());
+		assertEquals(10, graph.getEdgeCount());
+		assertFalse(graph.hasEdges());
+		assertEquals(0, graph.getSuccessorCount(0));
+	}
+
+	@Test
+	@Order(5)
+	public void testExplorationStopsAtTarget() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		NetFixtures.addCycles(net, 3);
+		CompiledPetriNet compiled = net.compile();
+		int[] busy = {compiled.getPlaceIndex("busy0"), compiled.getPlaceIndex("busy1"), compiled.getPlaceIndex("busy2")};
+		ReachabilityGraph graph = new ReachabilityExplorer(compiled).explore(marking -> {
+			for (int place : busy) {
+				if (marking[place] == 0) {
+					return false;
+				}
+			}
+			return true;
+		});
+		assertEquals(ReachabilityGraph.Status.TARGET_FOUND, graph.getStatus());
+		int[] marking = graph.getMarking(graph.getTargetState());
+		for (int place : busy) {
+			assertEquals(1, marking[place]);
+		}
+		assertEquals(7, graph.getTargetState());
+	}
+
+	@Test
+	@Order(6)
+	public void testPartialOrderReductionKeepsDeadlocks() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		net.addPlace("pool", 3);
+		for (int i = 0; i < 3; i++) {
+			net.addPlace("got" + i);
+			net.addTransition("take" + i);
+			net.addArc("t1_" + i, "take" + i, "pool", "out");
+			net.addArc("t2_" + i, "take" + i, "got" + i, "in");
+		}
+		for (int i = 0; i < 5; i++) {
+			net.addPlace("choice" + i, 1);
+			net.addPlace("left" + i);
+			net.addPlace("right" + i);
+			net.addTransition("goLeft" + i);
+			net.addTransition("goRight" + i);
+			net.addArc("c1_" + i, "goLeft" + i, "choice" + i, "out");
+			net.addArc("c2_" + i, "goLeft" + i, "left" + i, "in");
+			net.addArc("c3_" + i, "goRight" + i, "choice" + i, "out");
+			net.addArc("c4_" + i, "goRight" + i, "right" + i, "in");
+		}
+		CompiledPetriNet compiled = net.compile();
+		ReachabilityGraph full = new ReachabilityExplorer(compiled).explore();
+		ReachabilityExplorer explorer = new ReachabilityExplorer(compiled);
+		explorer.setPartialOrderReduction(true);
+		ReachabilityGraph reduced = explorer.explore();
+		assertTrue(reduced.isComplete());
+		assertEquals(20 * 243, full.getStateCount());
+		assertEquals(10 * 32, full.getDeadlocks().length);
+		assertTrue(reduced.getStateCount() * 5 < full.getStateCount());
+		assertEquals(deadlockMarkings(full), deadlockMarkings(reduced));
+	}
+
+	@Test
+	@Order(7)
+	public void testPartialOrderReductionOnIndependentCycles() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		NetFixtures.addCycles(net, 12);
+		ReachabilityExplorer explorer = new ReachabilityExplorer(net);
+		explorer.setPartialOrderReduction(true);
+		ReachabilityGraph graph = explorer.explore();
+		assertTrue(graph.isComplete());
+		assertTrue(graph.getStateCount() < 1 << 12);
+		assertEquals(0, graph.getDeadlocks().length);
+		for (int state = 0; state < graph.getStateCount(); state++) {
+			assertEquals(1, graph.getSuccessorCount(state));
+		}
+	}
+
+	private Set<String> deadlockMarkings(ReachabilityGraph graph) {
+		Set<String> markings = new HashSet<String>();
+		for (int state : graph.getDeadlocks()) {
+			markings.add(Arrays.toString(graph.getMarking(state)));
+		}
+		return markings;
+	}
+}
@@ -0,0 +1,99 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.exceptions.*;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+import mapd.simulation.StochasticSimulator;
+
+public class StochasticSimulatorTest {
+
+	PetriNetwork net = PetriNetwork.getInstance();
+
+	@BeforeEach
+	public void setup() {
+		net.reset();
+	}
+
+	@Test
+	@Order(1)
+	public void testRatesAreCompiled() throws RepeatedNameElement, InvalidRateNumber, ElementNameNotExists {
+		net.addTransition("t1");
+		net.addTransition("t2");
+		net.setTransitionRate("t2", 4.0);
+		CompiledPetriNet compiled = net.compile();
+		assertEquals(1.0, compiled.getRates()[compiled.getTransitionIndex("t1")]);
+		assertEquals(4.0, compiled.getRates()[compiled.getTransitionIndex("t2")]);
+		assertThrows(InvalidRateNumber.class, () -> net.setTransitionRate("t1", -1.0));
+		assertThrows(ElementNameNotExists.class, () -> net.setTransitionRate("t3", 1.0));
+	}
+
+	@Test
+	@Order(2)
+	public void testSingleServerQueueOccupancy() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists, InvalidRateNumber {
+		addQueue(1.0, 2.0);
+		StochasticSimulator simulator = new StochasticSimulator(net, 42);
+		simulator.run(10000, Double.POSITIVE_INFINITY);
+		simulator.resetStatistics();
+		assertEquals(1000000, simulator.run(1000000, Double.POSITIVE_INFINITY));
+		CompiledPetriNet compiled = simulator.getNet();
+		int queue = compiled.getPlaceIndex("queue");
+		int arrive = compiled.getTransitionIndex("arrive");
+		int serve = compiled.getTransitionIndex("serve");
+		// With a load of 0.5, the mean number of customers is 0.5 / (1 - 0.5).
+		assertEquals(1.0, simulator.getMeanTokens(queue), 0.05);
+		assertEquals(simulator.getMeanTokens(queue), simulator.getMeanTokens()[queue]);
+		assertEquals(1010000, simulator.getEventCount());
+		assertEquals(1000000, simulator.getFiringCount(arrive) + simulator.getFiringCount(serve));
+		assertEquals(simulator.getFiringCount(arrive), simulator.getFiringCount(serve), 2000);
+	}
+
+	@Test
+	@Order(3)
+	public void testSameSeedSameTrajectory() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists, InvalidRateNumber {
+		addQueue(3.0, 2.0);
+		CompiledPetriNet compiled = net.compile();
+		StochasticSimulator first = new StochasticSimulator(compiled, 7);
+		StochasticSimulator second = new StochasticSimulator(compiled, 7);
+		first.run(5000, 100.0);
+		second.run(5000, 100.0);
+		assertEquals(first.getTime(), second.getTime());
+		assertArrayEquals(first.getMarking(), second.getMarking());
+		assertArrayEquals(net.compile().getMarking(), compiled.getMarking());
+	}
+
+	@Test
+	@Order(4)
+	public void testRunStopsAtEndTimeAndDeadlock() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		net.addPlace("p1", 3);
+		net.addPlace("p2");
+		net.addTransition("t1");
+		net.addArc("a1", "t1", "p1", "out");
+		net.addArc("a2", "t1", "p2", "in");
+		StochasticSimulator simulator = new StochasticSimulator(net, 1);
+		assertFalse(simulator.isDead());
+		assertEquals(0, simulator.run(10, 0.0));
+		assertEquals(3, simulator.run(10, Double.POSITIVE_INFINITY));
+		assertTrue(simulator.isDead());
+		double time = simulator.getTime();
+		assertEquals(0, simulator.run(10, time + 5.0));
+		assertEquals(time + 5.0, simulator.getTime());
+		assertArrayEquals(new int[] {0, 3}, new int[] {simulator.getMarking()[simulator.getNet().getPlaceIndex("p1")], simulator.getMarking()[simulator.getNet().getPlaceIndex("p2")]});
+		assertEquals(3.0, simulator.getMeanTokens(simulator.getNet().getPlaceIndex("p1")) + simulator.getMeanTokens(simulator.getNet().getPlaceIndex("p2")), 1e-9);
+	}
+
+	private void addQueue(double arrivalRate, double serviceRate) throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists, InvalidRateNumber {
+		net.addPlace("queue");
+		net.addTransition("arrive");
+		net.addTransition("serve");
+		net.addArc("a1", "arrive", "queue", "in");
+		net.addArc("a2", "serve", "queue", "out");
+		net.setTransitionRate("arrive", arrivalRate);
+		net.setTransitionRate("serve", serviceRate);
+	}
+}
@@ -0,0 +1,93 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.analysis.ReachabilityExplorer;
+import mapd.analysis.ReachabilityGraph;
+import mapd.analysis.ReachabilityQuery;
+import mapd.analysis.SymbolicExplorer;
+import mapd.analysis.SymbolicStateSpace;
+import mapd.exceptions.*;
+import mapd.implementations.PetriNetwork;
+
+public class SymbolicExplorerTest {
+
+	PetriNetwork net = PetriNetwork.getInstance();
+
+	@BeforeEach
+	public void setup() {
+		net.reset();
+	}
+
+	@Test
+	@Order(1)
+	public void testMatchesExplicitExploration() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		NetFixtures.addCycles(net, 4);
+		net.addPlace("shared", 2);
+		net.addTransition("take");
+		net.addArc("a1", "take", "shared", "out");
+		net.addArc("a2", "take", "busy0", "in");
+		SymbolicStateSpace space = new SymbolicExplorer(net).explore();
+		ReachabilityGraph graph = new ReachabilityExplorer(net).explore();
+		assertTrue(graph.isComplete());
+		assertEquals(BigInteger.valueOf(graph.getStateCount()), space.getStateCount());
+		for (int state = 0; state < graph.getStateCount(); state++) {
+			assertTrue(space.contains(graph.getMarking(state)));
+		}
+		for (int p = 0; p < graph.getNet().getPlaceCount(); p++) {
+			int bound = 0;
+			for (int state = 0; state < graph.getStateCount(); state++) {
+				bound = Math.max(bound, graph.getMarking(state)[p]);
+			}
+			assertEquals(bound, space.getBound(p));
+		}
+		int[] marking = graph.getNet().getMarking();
+		marking[graph.getNet().getPlaceIndex("shared")] = 3;
+		assertFalse(space.contains(marking));
+	}
+
+	@Test
+	@Order(2)
+	public void testIndependentCyclesStaySmall() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		NetFixtures.addCycles(net, 40);
+		SymbolicStateSpace space = new SymbolicExplorer(net).explore();
+		assertEquals(BigInteger.ONE.shiftLeft(40), space.getStateCount());
+		assertTrue(space.getDiagramSize() <= 3 * 80);
+		assertEquals(1, space.getBound(space.getNet().getPlaceIndex("busy39")));
+	}
+
+	@Test
+	@Order(3)
+	public void testQueries() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		NetFixtures.addCycles(net, 10);
+		SymbolicStateSpace space = new SymbolicExplorer(net).explore();
+		assertEquals(BigInteger.valueOf(512), space.count(new ReachabilityQuery().equalTo("busy3", 1)));
+		assertEquals(BigInteger.valueOf(256), space.count(new ReachabilityQuery().equalTo("busy3", 1).atMost("idle5", 0)));
+		assertEquals(BigInteger.ZERO, space.count(new ReachabilityQuery().equalTo("busy3", 1).equalTo("idle3", 1)));
+		assertFalse(space.exists(new ReachabilityQuery().atLeast("idle0", 2)));
+		assertTrue(space.exists(new ReachabilityQuery().between("busy9", 1, 5)));
+		assertThrows(ElementNameNotExists.class, () -> space.count(new ReachabilityQuery().atLeast("missing", 1)));
+	}
+
+	@Test
+	@Order(4)
+	public void testUnboundedNetHitsTokenLimit() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		net.addPlace("p1", 1);
+		net.addPlace("p2");
+		net.addTransition("t1");
+		net.addArc("a1", "t1", "p1", "out");
+		net.addArc("a2", "t1", "p1", "in");
+		net.addArc("a3", "t1", "p2", "in");
+		SymbolicExplorer explorer = new SymbolicExplorer(net);
+		explorer.setMaxTokens(100);
+		assertThrows(IllegalStateException.class, () -> explorer.explore());
+		assertThrows(IllegalArgumentException.class, () -> explorer.setMaxTokens(0));
+		assertThrows(IllegalArgumentException.class, () -> explorer.setMaxNodes(1));
+	}
+}
@@ -0,0 +1,143 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.exceptions.*;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+import mapd.simulation.TimedSimulator;
+
+public class TimedSimulatorTest {
+
+	PetriNetwork net = PetriNetwork.getInstance();
+
+	@BeforeEach
+	public void setup() {
+		net.reset();
+	}
+
+	@Test
+	@Order(1)
+	public void testDelaysAreCompiled() throws RepeatedNameElement, InvalidDelayNumber, ElementNameNotExists {
+		net.addTransition("t1");
+		net.addTransition("t2");
+		net.setTransitionDelay("t2", 3, 8);
+		CompiledPetriNet compiled = net.compile();
+		assertEquals(0, compiled.getMinDelays()[compiled.getTransitionIndex("t1")]);
+		assertEquals(3, compiled.getMinDelays()[compiled.getTransitionIndex("t2")]);
+		assertEquals(8, compiled.getMaxDelays()[compiled.getTransitionIndex("t2")]);
+		assertThrows(InvalidDelayNumber.class, () -> net.setTransitionDelay("t1", -1, 2));
+		assertThrows(InvalidDelayNumber.class, () -> net.setTransitionDelay("t1", 4, 2));
+		assertThrows(ElementNameNotExists.class, () -> net.setTransitionDelay("t3", 1, 1));
+	}
+
+	@Test
+	@Order(2)
+	public void testDeterministicPipeline() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists, InvalidDelayNumber {
+		net.addPlace("p1", 1);
+		net.addPlace("p2");
+		net.addPlace("p3");
+		net.addTransition("t1");
+		net.addTransition("t2");
+		net.addArc("a1", "t1", "p1", "out");
+		net.addArc("a2", "t1", "p2", "in");
+		net.addArc("a3", "t2", "p2", "out");
+		net.addArc("a4", "t2", "p3", "in");
+		net.setTransitionDelay("t1", 5, 5);
+		net.setTransitionDelay("t2", 3, 3);
+		TimedSimulator simulator = new TimedSimulator(net, 1);
+		CompiledPetriNet compiled = simulator.getNet();
+		int t1 = compiled.getTransitionIndex("t1");
+		int t2 = compiled.getTransitionIndex("t2");
+		assertEquals(5, simulator.getScheduledTime(t1));
+		assertEquals(-1, simulator.getScheduledTime(t2));
+		assertEquals(0, simulator.run(10, 4));
+		assertEquals(4, simulator.getTime());
+		assertEquals(4, simulator.getEnablingAge(t1));
+		assertEquals(1, simulator.run(1, Long.MAX_VALUE));
+		assertEquals(5, simulator.getTime());
+		assertEquals(8, simulator.getScheduledTime(t2));
+		assertEquals(-1, simulator.getEnablingAge(t1));
+		assertEquals(1, simulator.run(10, Long.MAX_VALUE));
+		assertEquals(8, simulator.getTime());
+		assertEquals(0, simulator.getPendingCount());
+		assertEquals(1, simulator.getMarking()[compiled.getPlaceIndex("p3")]);
+		assertEquals(2, simulator.getEventCount());
+	}
+
+	@Test
+	@Order(3)
+	public void testTimeoutIsCancelled() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists, InvalidDelayNumber {
+		addTimeout(4);
+		TimedSimulator simulator = new TimedSimulator(net, 1);
+		CompiledPetriNet compiled = simulator.getNet();
+		assertEquals(2, simulator.getPendingCount());
+		assertEquals(1, simulator.run(10, Long.MAX_VALUE));
+		assertEquals(4, simulator.getTime());
+		assertEquals(0, simulator.getFiringCount(compiled.getTransitionIndex("timeout")));
+		assertEquals(0, simulator.getPendingCount());
+		assertEquals(0, simulator.getMarking()[compiled.getPlaceIndex("expired")]);
+	}
+
+	@Test
+	@Order(4)
+	public void testTimeoutExpires() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists, InvalidDelayNumber {
+		addTimeout(12);
+		TimedSimulator simulator = new TimedSimulator(net, 1);
+		CompiledPetriNet compiled = simulator.getNet();
+		int timeout = compiled.getTransitionIndex("timeout");
+		assertEquals(1, simulator.run(1, Long.MAX_VALUE));
+		assertEquals(10, simulator.getTime());
+		assertEquals(20, simulator.getScheduledTime(timeout));
+		assertEquals(1, simulator.run(10, Long.MAX_VALUE));
+		assertEquals(12, simulator.getTime());
+		assertEquals(1, simulator.getFiringCount(timeout));
+		assertEquals(-1, simulator.getScheduledTime(timeout));
+		assertEquals(1, simulator.getMarking()[compiled.getPlaceIndex("expired")]);
+	}
+
+	@Test
+	@Order(5)
+	public void testDelaysStayInInterval() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists, InvalidDelayNumber {
+		net.addPlace("p1", 1);
+		net.addTransition("t1");
+		net.addArc("a1", "t1", "p1", "out");
+		net.addArc("a2", "t1", "p1", "in");
+		net.setTransitionDelay("t1", 2, 6);
+		CompiledPetriNet compiled = net.compile();
+		TimedSimulator simulator = new TimedSimulator(compiled, 42);
+		TimedSimulator same = new TimedSimulator(compiled, 42);
+		long previous = 0;
+		boolean[] seen = new boolean[7];
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(1, simulator.run(1, Long.MAX_VALUE));
+			long delay = simulator.getTime() - previous;
+			assertTrue(delay >= 2 && delay <= 6);
+			seen[(int) delay] = true;
+			previous = simulator.getTime();
+		}
+		for (int delay = 2; delay <= 6; delay++) {
+			assertTrue(seen[delay]);
+		}
+		same.run(1000, Long.MAX_VALUE);
+		assertEquals(simulator.getTime(), same.getTime());
+	}
+
+	private void addTimeout(long workDelay) throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists, InvalidDelayNumber {
+		net.addPlace("start", 1);
+		net.addPlace("done");
+		net.addPlace("expired");
+		net.addTransition("work");
+		net.addTransition("timeout");
+		net.addArc("a1", "work", "start", "out");
+		net.addArc("a2", "work", "done", "in");
+		net.addArc("a3", "timeout", "done", "outzero");
+		net.addArc("a4", "timeout", "expired", "in");
+		net.setTransitionDelay("work", workDelay, workDelay);
+		net.setTransitionDelay("timeout", 10, 10);
+	}
+}
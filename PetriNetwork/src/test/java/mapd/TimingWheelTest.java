@@ -0,0 +1,100 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.simulation.TimingWheel;
+
+public class TimingWheelTest {
+
+	@Test
+	@Order(1)
+	public void testPollInTimeOrder() {
+		TimingWheel wheel = new TimingWheel(4);
+		assertEquals(-1, wheel.poll());
+		wheel.schedule(0, 70);
+		wheel.schedule(1, 3);
+		wheel.schedule(2, 1L << 40);
+		wheel.schedule(3, 0);
+		assertEquals(4, wheel.size());
+		assertEquals(3, wheel.poll());
+		assertEquals(0, wheel.getCurrentTime());
+		assertEquals(1, wheel.poll());
+		assertEquals(3, wheel.getCurrentTime());
+		assertEquals(0, wheel.poll());
+		assertEquals(70, wheel.getCurrentTime());
+		assertEquals(2, wheel.poll());
+		assertEquals(1L << 40, wheel.getCurrentTime());
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	@Order(2)
+	public void testCancelAndReschedule() {
+		TimingWheel wheel = new TimingWheel(3);
+		wheel.schedule(0, 10);
+		wheel.schedule(1, 20);
+		wheel.schedule(2, 5000);
+		assertTrue(wheel.cancel(0));
+		assertFalse(wheel.cancel(0));
+		assertFalse(wheel.isScheduled(0));
+		assertThrows(IllegalStateException.class, () -> wheel.getTime(0));
+		wheel.schedule(2, 15);
+		assertEquals(15, wheel.getTime(2));
+		assertEquals(2, wheel.size());
+		assertEquals(2, wheel.poll());
+		assertThrows(IllegalArgumentException.class, () -> wheel.schedule(0, 14));
+		wheel.schedule(0, 15);
+		assertEquals(0, wheel.poll());
+		assertEquals(1, wheel.poll());
+		assertEquals(-1, wheel.poll());
+	}
+
+	@Test
+	@Order(3)
+	public void testMatchesPriorityQueue() {
+		int events = 200;
+		Random random = new Random(3);
+		TimingWheel wheel = new TimingWheel(events);
+		long[] times = new long[events];
+		PriorityQueue<long[]> reference = new PriorityQueue<>((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+		for (int step = 0; step < 100000; step++) {
+			int event = random.nextInt(events);
+			int action = random.nextInt(3);
+			if (action == 0) {
+				long now = wheel.getCurrentTime();
+				long distance = random.nextBoolean() ? random.nextInt(100) : random.nextLong() >>> (2 + random.nextInt(40));
+				long time = Long.MAX_VALUE - now < distance ? Long.MAX_VALUE : now + distance;
+				if (wheel.isScheduled(event)) {
+					reference.removeIf(entry -> entry[1] == event);
+				}
+				wheel.schedule(event, time);
+				times[event] = time;
+				reference.add(new long[] {time, event});
+			} else if (action == 1) {
+				assertEquals(wheel.isScheduled(event), wheel.cancel(event));
+				reference.removeIf(entry -> entry[1] == event);
+			} else {
+				int polled = wheel.poll();
+				if (reference.isEmpty()) {
+					assertEquals(-1, polled);
+				} else {
+					long[] expected = reference.poll();
+					assertEquals(expected[0], wheel.getCurrentTime());
+					assertEquals(expected[0], times[polled]);
+					if (polled != expected[1]) {
+						// Another event with the same time came first, so both are swapped.
+						assertTrue(reference.removeIf(entry -> entry[1] == polled && entry[0] == expected[0]));
+						reference.add(expected);
+					}
+				}
+			}
+			assertEquals(reference.size(), wheel.size());
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package mapd;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+
+import mapd.exceptions.*;
+import mapd.implementations.CompiledPetriNet;
+import mapd.implementations.PetriNetwork;
+import mapd.simulation.LeastRecentlyFiredPolicy;
+import mapd.simulation.PriorityPolicy;
+import mapd.simulation.RoundRobinPolicy;
+import mapd.simulation.TokenGame;
+import mapd.simulation.UniformPolicy;
+import mapd.simulation.WeightedPolicy;
+
+public class TokenGameTest {
+
+	PetriNetwork net = PetriNetwork.getInstance();
+
+	@BeforeEach
+	public void setup() {
+		net.reset();
+	}
+
+	@Test
+	@Order(1)
+	public void testUniformPolicy() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		addLoops(3);
+		TokenGame game = new TokenGame(net);
+		assertEquals(30000, game.run(30000, new UniformPolicy(42)));
+		for (int t = 0; t < 3; t++) {
+			assertEquals(10000, game.getFiringCount(t), 500);
+		}
+		assertEquals(30000, game.getStepCount());
+	}
+
+	@Test
+	@Order(2)
+	public void testWeightedPolicy() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists, InvalidRateNumber {
+		addLoops(3);
+		CompiledPetriNet compiled = net.compile();
+		TokenGame game = new TokenGame(compiled);
+		game.run(60000, new WeightedPolicy(new double[] {1.0, 2.0, 3.0}, 7));
+		assertEquals(10000, game.getFiringCount(0), 600);
+		assertEquals(20000, game.getFiringCount(1), 600);
+		assertEquals(30000, game.getFiringCount(2), 600);
+		assertThrows(IllegalArgumentException.class, () -> new WeightedPolicy(new double[] {1.0, 0.0}, 7));
+		assertThrows(IllegalArgumentException.class, () -> game.run(1, new WeightedPolicy(new double[] {1.0}, 7)));
+
+		net.setTransitionRate("t0", 9.0);
+		TokenGame rated = new TokenGame(net);
+		rated.run(11000, new WeightedPolicy(7));
+		int t0 = rated.getNet().getTransitionIndex("t0");
+		assertEquals(9000, rated.getFiringCount(t0), 400);
+	}
+
+	@Test
+	@Order(3)
+	public void testPriorityPolicy() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		addPipeline();
+		CompiledPetriNet compiled = net.compile();
+		int t1 = compiled.getTransitionIndex("t1");
+		int t2 = compiled.getTransitionIndex("t2");
+		int[] priorities = new int[2];
+		priorities[t1] = 1;
+		TokenGame game = new TokenGame(compiled);
+		assertEquals(3, game.run(3, new PriorityPolicy(priorities)));
+		assertEquals(3, game.getFiringCount(t1));
+		assertEquals(0, game.getMarking()[compiled.getPlaceIndex("p1")]);
+
+		priorities[t1] = 0;
+		priorities[t2] = 1;
+		TokenGame eager = new TokenGame(compiled);
+		assertEquals(2, eager.run(2, new PriorityPolicy(priorities)));
+		assertEquals(1, eager.getFiringCount(t1));
+		assertEquals(1, eager.getFiringCount(t2));
+		assertEquals(1, eager.getMarking()[compiled.getPlaceIndex("p3")]);
+		assertThrows(IllegalArgumentException.class, () -> eager.run(1, new PriorityPolicy(new int[3])));
+	}
+
+	@Test
+	@Order(4)
+	public void testRoundRobinPolicy() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		CompiledPetriNet compiled = addSparseLoops(5000, 7);
+		TokenGame game = new TokenGame(compiled);
+		RoundRobinPolicy policy = new RoundRobinPolicy();
+		int enabled = 0;
+		for (int t = 0; t < compiled.getTransitionCount(); t++) {
+			if (game.isEnabled(t)) {
+				enabled++;
+			}
+		}
+		assertEquals(3 * enabled, game.run(3 * enabled, policy));
+		for (int t = 0; t < compiled.getTransitionCount(); t++) {
+			assertEquals(game.isEnabled(t) ? 3 : 0, game.getFiringCount(t));
+		}
+	}
+
+	@Test
+	@Order(5)
+	public void testLeastRecentlyFiredPolicy() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		addLoops(5);
+		TokenGame game = new TokenGame(net);
+		game.run(7, new UniformPolicy(1));
+		long[] before = new long[5];
+		for (int t = 0; t < 5; t++) {
+			before[t] = game.getFiringCount(t);
+		}
+		game.run(5000, new LeastRecentlyFiredPolicy());
+		for (int t = 0; t < 5; t++) {
+			assertEquals(1000, game.getFiringCount(t) - before[t]);
+		}
+	}
+
+	@Test
+	@Order(6)
+	public void testRunStopsAtDeadlock() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		addPipeline();
+		TokenGame game = new TokenGame(net);
+		assertEquals(6, game.run(100, new RoundRobinPolicy()));
+		assertEquals(0, game.run(100, new LeastRecentlyFiredPolicy()));
+		assertEquals(0, game.run(100, new UniformPolicy(3)));
+		assertEquals(3, game.getMarking()[game.getNet().getPlaceIndex("p3")]);
+		assertArrayEquals(net.compile().getMarking(), game.getNet().getMarking());
+		assertThrows(IllegalArgumentException.class, () -> game.run(-1, new UniformPolicy(3)));
+	}
+
+	@Test
+	@Order(7)
+	public void testMaximalStepFiresIndependentTransitions() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		CompiledPetriNet compiled = addSparseLoops(1000, 1);
+		TokenGame game = new TokenGame(compiled);
+		assertEquals(1000, game.countEnabled());
+		assertEquals(1, game.runMaximalSteps(1));
+		assertEquals(1, game.getStepCount());
+		assertEquals(9, game.runMaximalSteps(9));
+		for (int t = 0; t < 1000; t++) {
+			assertEquals(10, game.getFiringCount(t));
+		}
+		assertArrayEquals(compiled.getMarking(), game.getMarking());
+	}
+
+	@Test
+	@Order(8)
+	public void testMaximalStepResolvesConflicts() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		addLoops(3);
+		TokenGame game = new TokenGame(net);
+		LeastRecentlyFiredPolicy policy = new LeastRecentlyFiredPolicy();
+		game.run(0, policy);
+		assertEquals(300, game.runMaximalSteps(300));
+		for (int t = 0; t < 3; t++) {
+			assertEquals(100, game.getFiringCount(t));
+		}
+		assertEquals(300, game.run(300, policy));
+		for (int t = 0; t < 3; t++) {
+			assertEquals(200, game.getFiringCount(t));
+		}
+	}
+
+	@Test
+	@Order(9)
+	public void testMaximalStepsOfPipeline() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		addPipeline();
+		TokenGame game = new TokenGame(net);
+		CompiledPetriNet compiled = game.getNet();
+		int p1 = compiled.getPlaceIndex("p1");
+		int p2 = compiled.getPlaceIndex("p2");
+		int p3 = compiled.getPlaceIndex("p3");
+		assertEquals(1, game.runMaximalSteps(1));
+		assertEquals(2, game.getMarking()[p1]);
+		assertEquals(1, game.getMarking()[p2]);
+		assertEquals(1, game.runMaximalSteps(1));
+		assertArrayEquals(new int[] {1, 1, 1}, new int[] {game.getMarking()[p1], game.getMarking()[p2], game.getMarking()[p3]});
+		assertEquals(2, game.runMaximalSteps(10));
+		assertArrayEquals(new int[] {0, 0, 3}, new int[] {game.getMarking()[p1], game.getMarking()[p2], game.getMarking()[p3]});
+		assertEquals(4, game.getStepCount());
+		assertEquals(0, game.countEnabled());
+	}
+
+	private void addLoops(int count) throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		net.addPlace("p", 1);
+		for (int i = 0; i < count; i++) {
+			net.addTransition("t" + i);
+			net.addArc("o" + i, "t" + i, "p", "out");
+			net.addArc("i" + i, "t" + i, "p", "in");
+		}
+	}
+
+	private void addPipeline() throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		net.addPlace("p1", 3);
+		net.addPlace("p2");
+		net.addPlace("p3");
+		net.addTransition("t1");
+		net.addTransition("t2");
+		net.addArc("a1", "t1", "p1", "out");
+		net.addArc("a2", "t1", "p2", "in");
+		net.addArc("a3", "t2", "p2", "out");
+		net.addArc("a4", "t2", "p3", "in");
+	}
+
+	private CompiledPetriNet addSparseLoops(int count, int every) throws RepeatedNameElement, InvalidTokenNumber, InvalidWeightNumber, RepeatedArc, ElementNameNotExists {
+		for (int i = 0; i < count; i++) {
+			net.addPlace("p" + i, i % every == 0 ? 1 : 0);
+			net.addTransition("t" + i);
+			net.addArc("o" + i, "t" + i, "p" + i, "out");
+			net.addArc("i" + i, "t" + i, "p" + i, "in");
+		}
+		return net.compile();
+	}
+}
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import mapd.implementations.*;
+import mapd.exceptions.InvalidDelayNumber;
+import mapd.exceptions.InvalidRateNumber;
 import mapd.exceptions.InvalidTokenNumber;
 import mapd.exceptions.InvalidWeightNumber;
 import mapd.exceptions.NoFireableTransition;
@@ -144,4 +146,33 @@ public class TransitionTest {
         });
         assertEquals("Transition is not fireable", thrown.getMessage());
     }
+
+    @Test
+    @Order(14)
+    public void testRate() throws InvalidRateNumber {
+        assertEquals(1.0, transition.getRate());
+        transition.setRate(2.5);
+        assertEquals(2.5, transition.getRate());
+        assertThrows(InvalidRateNumber.class, () -> transition.setRate(0));
+        assertThrows(InvalidRateNumber.class, () -> transition.setRate(Double.NaN));
+        assertThrows(InvalidRateNumber.class, () -> transition.setRate(Double.POSITIVE_INFINITY));
+        assertEquals(2.5, transition.getRate());
+    }
+
+    @Test
+    @Order(15)
+    public void testDelay() throws InvalidDelayNumber {
+        assertEquals(0, transition.getMinDelay());
+        assertEquals(0, transition.getMaxDelay());
+        transition.setDelay(5);
+        assertEquals(5, transition.getMinDelay());
+        assertEquals(5, transition.getMaxDelay());
+        transition.setDelay(2, 7);
+        assertEquals(2, transition.getMinDelay());
+        assertEquals(7, transition.getMaxDelay());
+        assertThrows(InvalidDelayNumber.class, () -> transition.setDelay(-1));
+        assertThrows(InvalidDelayNumber.class, () -> transition.setDelay(8, 7));
+        assertEquals(2, transition.getMinDelay());
+        assertEquals(7, transition.getMaxDelay());
+    }
 }
@@ -1,9 +1,11 @@
 package mapd;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.io.StringWriter;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
@@ -96,5 +98,20 @@ public class showElementsTest {
 		
 	}
 	
+	@Test
+	@Order(5)
+	public void testWriteAllElementsMatchesShowAllElements() throws Exception {
+		net.addArc("a5", "t1", "p3", "outbouncer");
+		net.rmArc("a1");
+		net.showAllElements();
+		StringWriter writer = new StringWriter();
+		net.writeAllElements(writer);
+		assertEquals(outputStreamCaptor.toString().trim(), writer.toString().trim());
+		assertTrue(writer.toString().contains("3: place with 0 tokens, 0 simple out arcs, 1 in arcs, 1 bouncer out arcs, 0 zero out arcs\n"));
+		
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		net.writeAllElements(stream);
+		assertEquals(writer.toString(), stream.toString("UTF-8"));
+	}
 
 }